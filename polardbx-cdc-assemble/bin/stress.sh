@@ -117,6 +117,14 @@ elif [[ "$TASK_NAME" == Dumper* ]]; then
   ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.dumper.DumperBootStrap "${ARGS}" 1>>$defaultLog 2>&1 &
 elif [[ "$TASK_NAME" == "TransmitterSimulator" ]]; then
   ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.FromTransmitterStressSimulator "${ARGS}" 1>>$defaultLog 2>&1 &
+elif [[ "$TASK_NAME" == "DecodeMergeSimulator" ]]; then
+  ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.DecodeMergeLoadSimulator "${ARGS}" 1>>$defaultLog 2>&1 &
+elif [[ "$TASK_NAME" == "LogFetcherSimulator" ]]; then
+  ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.LogFetcherStressSimulator "${ARGS}" 1>>$defaultLog 2>&1 &
+elif [[ "$TASK_NAME" == "BinlogSyncSimulator" ]]; then
+  ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.BinlogSyncStressSimulator "${ARGS}" 1>>$defaultLog 2>&1 &
+elif [[ "$TASK_NAME" == "CollectTransmitSimulator" ]]; then
+  ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.CollectTransmitStressSimulator "${ARGS}" 1>>$defaultLog 2>&1 &
 elif [[ "$TASK_NAME" == "MysqlDumpStressTest" ]]; then
   ${JAVA} ${JAVA_OPTS} -classpath ${CLASSPATH}:. com.aliyun.polardbx.binlog.stress.MysqlDumpStressTest "${ARGS}" 1>>$defaultLog 2>&1 &
 else
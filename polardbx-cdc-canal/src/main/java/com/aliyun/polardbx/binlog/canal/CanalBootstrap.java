@@ -34,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +43,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_RDSBINLOG_DOWNLOAD_RECALLDAYS;
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_RDSBINLOG_FORCE_CONSUME_BACKUP;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_TSO_CHECKPOINT_DIR;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_TSO_CHECKPOINT_ENABLED;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_TSO_CHECKPOINT_MAX_ENTRIES;
 
 public class CanalBootstrap {
 
@@ -61,6 +65,7 @@ public class CanalBootstrap {
     private DefaultBinlogEventHandle handle;
     private LogEventHandler<?> handler;
     private Thread runnableThread;
+    private TsoCheckpointIndex tsoCheckpointIndex;
     private final Long preferHostId;
 
     public CanalBootstrap(AuthenticationInfo authenticationInfo, String polarxServerVersion,
@@ -132,6 +137,7 @@ public class CanalBootstrap {
         logger.info("start dump with server position region in [" + mySqlInfo.getStartPosition() + "," + mySqlInfo
             .getEndPosition() + "]");
         connection.disconnect();
+        tsoCheckpointIndex = buildTsoCheckpointIndex();
 
         boolean forceConsumeBackup = DynamicApplicationConfig.getBoolean(TASK_RDSBINLOG_FORCE_CONSUME_BACKUP);
         if (forceConsumeBackup) {
@@ -148,7 +154,10 @@ public class CanalBootstrap {
             realTso = CommonUtils.getTsoTimestamp(requestTso);
         }
         logger.info("dump mysql with start tso " + realTso);
-        BinlogPosition position = searchPosition(connection, requestTso, realTso);
+        BinlogPosition position = seekCheckpoint(connection, realTso);
+        if (position == null) {
+            position = searchPosition(connection, requestTso, realTso);
+        }
         if (position != null) {
             consume(connection, position, requestTso);
             return;
@@ -227,6 +236,15 @@ public class CanalBootstrap {
         }
 
         handle.setEventHandler(handler);
+        if (tsoCheckpointIndex != null && connection instanceof MysqlConnection) {
+            // 只记录DN本地binlog的位点，oss上的备份文件不参与
+            handle.setTsoCheckpointIndex(tsoCheckpointIndex);
+            try {
+                tsoCheckpointIndex.storeTopology(RuntimeContext.getInstructionId(), RuntimeContext.getInitTopology());
+            } catch (IOException e) {
+                logger.warn("store init topology to tso checkpoint index failed!", e);
+            }
+        }
 
         processor.setHandle(handle);
         processor.init(connection, startPosition.getFileName(), startPosition.getPosition(), false,
@@ -234,6 +252,65 @@ public class CanalBootstrap {
         processor.start();
     }
 
+    private TsoCheckpointIndex buildTsoCheckpointIndex() {
+        if (!DynamicApplicationConfig.getBoolean(TASK_TSO_CHECKPOINT_ENABLED)) {
+            return null;
+        }
+        TsoCheckpointIndex index = new TsoCheckpointIndex(
+            new File(DynamicApplicationConfig.getString(TASK_TSO_CHECKPOINT_DIR)),
+            authenticationInfo.getStorageInstId(), mySqlInfo.getServerId(),
+            DynamicApplicationConfig.getInt(TASK_TSO_CHECKPOINT_MAX_ENTRIES));
+        try {
+            index.load();
+            index.prune(mySqlInfo.getStartPosition().getFileName());
+            return index;
+        } catch (IOException e) {
+            logger.warn("load tso checkpoint index failed, will ignore it!", e);
+            return null;
+        }
+    }
+
+    /**
+     * 从本地TSO位点索引中查找位点，索引缺失、binlog文件已被purge或DN发生过主备切换时返回null，回退到搜索模式
+     */
+    private BinlogPosition seekCheckpoint(ErosaConnection connection, long searchTso) throws IOException {
+        if (tsoCheckpointIndex == null || searchTso <= 0) {
+            return null;
+        }
+        TsoCheckpointIndex.Entry entry = tsoCheckpointIndex.seek(searchTso);
+        if (entry == null) {
+            searchLogger.info("no tso checkpoint found for " + searchTso + ", will search position.");
+            return null;
+        }
+        String topology = tsoCheckpointIndex.resolveTopology(entry);
+        if (topology == null) {
+            searchLogger.info(
+                "topology of tso checkpoint " + entry + " is missing or mismatched, will search position.");
+            return null;
+        }
+        connection.connect();
+        long binlogFileSize;
+        try {
+            binlogFileSize = connection.binlogFileSize(entry.getFileName());
+        } finally {
+            connection.disconnect();
+        }
+        if (binlogFileSize < entry.getPosition()) {
+            searchLogger.info("tso checkpoint " + entry + " is stale, binlog file size is " + binlogFileSize
+                + ", will search position.");
+            return null;
+        }
+
+        RuntimeContext.setInitTopology(topology);
+        RuntimeContext.setInstructionId(entry.getCommandId());
+        BinlogPosition position =
+            new BinlogPosition(entry.getFileName(), entry.getPosition(), entry.getServerId(), -1);
+        position.setTso(entry.getTso());
+        position.setRtso(entry.getRtso());
+        searchLogger.info("seek position by tso checkpoint : " + searchTso + " -> " + entry);
+        return position;
+    }
+
     /**
      * 调整代码逻辑，先倒序搜索mysql 本地binlog，如果本地binlog没有对应的记录，则倒序搜索oss的文件
      * 1、 如果oss上没有找到对应mysql实例的文件，则优先找region最大的
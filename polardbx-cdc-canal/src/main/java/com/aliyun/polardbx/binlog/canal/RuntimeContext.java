@@ -59,6 +59,7 @@ public class RuntimeContext {
     private ServerCharactorSet serverCharactorSet;
     private String storageHashCode;
     private Long dnTransferMaxTSOBarrier;
+    private TsoCheckpointIndex tsoCheckpointIndex;
 
     public RuntimeContext(ThreadRecorder threadRecorder) {
         this.threadRecorder = threadRecorder;
@@ -216,4 +217,12 @@ public class RuntimeContext {
     public String getStorageHashCode() {
         return storageHashCode;
     }
+
+    public TsoCheckpointIndex getTsoCheckpointIndex() {
+        return tsoCheckpointIndex;
+    }
+
+    public void setTsoCheckpointIndex(TsoCheckpointIndex tsoCheckpointIndex) {
+        this.tsoCheckpointIndex = tsoCheckpointIndex;
+    }
 }
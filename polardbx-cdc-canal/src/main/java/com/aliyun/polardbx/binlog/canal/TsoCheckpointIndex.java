@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单个DN的TSO位点索引，抽取过程中定期记录一行：tso,rtso,serverId,fileName,position,commandId
+ * position为记录时刻所有未完成事务中最早的begin位点，从该位点开始消费，不会遗漏tso大于记录tso的任何事务
+ * 重启时优先从索引中查找位点，索引缺失或失效时再回退到逐个文件搜索
+ */
+@Slf4j
+public class TsoCheckpointIndex {
+    private static final String INDEX_FILE_SUFFIX = ".tso.index";
+    private static final String TOPOLOGY_FILE_SUFFIX = ".tso.topology";
+    private static final String SEPARATOR = ",";
+
+    private final File indexFile;
+    private final File topologyFile;
+    private final long serverId;
+    private final int maxEntries;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public TsoCheckpointIndex(File baseDir, String storageInstId, long serverId, int maxEntries) {
+        this.indexFile = new File(baseDir, storageInstId + INDEX_FILE_SUFFIX);
+        this.topologyFile = new File(baseDir, storageInstId + TOPOLOGY_FILE_SUFFIX);
+        this.serverId = serverId;
+        this.maxEntries = Math.max(maxEntries, 2);
+    }
+
+    public synchronized void load() throws IOException {
+        entries.clear();
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        boolean broken = false;
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                Entry entry = Entry.parse(line);
+                if (entry == null) {
+                    // 追加索引时进程退出，会留下残缺的最后一行
+                    log.warn("found broken line in tso checkpoint index file {}, line : {}", indexFile, line);
+                    broken = true;
+                    break;
+                }
+                entries.add(entry);
+            }
+        }
+        if (broken) {
+            rewrite();
+        }
+    }
+
+    public synchronized void record(long tso, String rtso, String fileName, long position, String commandId)
+        throws IOException {
+        Entry last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+        if (last != null && last.getTso() >= tso) {
+            return;
+        }
+        Entry entry = new Entry(tso, rtso, serverId, fileName, position, StringUtils.defaultString(commandId));
+        entries.add(entry);
+        if (entries.size() > maxEntries) {
+            // 超过上限时只保留后一半，整体重写一次，避免索引文件无限增长
+            entries.subList(0, entries.size() - maxEntries / 2).clear();
+            rewrite();
+            return;
+        }
+        if (!indexFile.getParentFile().exists() && !indexFile.getParentFile().mkdirs()) {
+            throw new IOException("create tso checkpoint dir failed, " + indexFile.getParentFile());
+        }
+        try (FileOutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write(entry.toLine().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * 返回tso严格小于searchTso、且与当前DN serverId一致的最近一个位点，找不到返回null
+     */
+    public synchronized Entry seek(long searchTso) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            if (entry.getServerId() == serverId && entry.getTso() < searchTso) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * binlog文件被purge之后，清理位于最早文件之前的位点；serverId不一致的位点(主备切换之前记录的)也一并清理
+     */
+    public synchronized void prune(String earliestFileName) throws IOException {
+        long earliestSuffix = fileSuffix(earliestFileName);
+        boolean changed = entries.removeIf(
+            e -> e.getServerId() != serverId || fileSuffix(e.getFileName()) < earliestSuffix);
+        if (changed) {
+            log.info("pruned tso checkpoint index {}, earliest binlog file is {}, left entries {}", indexFile,
+                earliestFileName, entries.size());
+            rewrite();
+        }
+    }
+
+    public synchronized void storeTopology(String commandId, String topology) throws IOException {
+        if (StringUtils.isBlank(commandId) || StringUtils.isBlank(topology)
+            || StringUtils.equals(commandId, loadTopologyCommandId())) {
+            return;
+        }
+        writeAtomically(topologyFile, commandId + "\n" + topology.replace('\n', ' ') + "\n");
+    }
+
+    /**
+     * 返回commandId对应的初始拓扑，不一致时返回null
+     */
+    public synchronized String loadTopology(String commandId) throws IOException {
+        if (StringUtils.isBlank(commandId) || !topologyFile.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(topologyFile), StandardCharsets.UTF_8))) {
+            String storedCommandId = reader.readLine();
+            return StringUtils.equals(commandId, storedCommandId) ? reader.readLine() : null;
+        }
+    }
+
+    /**
+     * 返回位点对应的初始拓扑，位点未关联commandId、拓扑文件缺失或与位点的commandId不一致时返回null，
+     * 此时位点不可用，调用方需要回退到逐个文件搜索
+     */
+    public synchronized String resolveTopology(Entry entry) throws IOException {
+        if (entry == null || StringUtils.isBlank(entry.getCommandId())) {
+            return null;
+        }
+        String topology = loadTopology(entry.getCommandId());
+        return StringUtils.isBlank(topology) ? null : topology;
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    private String loadTopologyCommandId() throws IOException {
+        if (!topologyFile.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(topologyFile), StandardCharsets.UTF_8))) {
+            return reader.readLine();
+        }
+    }
+
+    private void rewrite() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries) {
+            sb.append(entry.toLine());
+        }
+        writeAtomically(indexFile, sb.toString());
+    }
+
+    private static void writeAtomically(File target, String content) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("create tso checkpoint dir failed, " + dir);
+        }
+        File tmpFile = new File(dir, target.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        if (!tmpFile.renameTo(target)) {
+            throw new IOException("rename tso checkpoint file failed, " + tmpFile + " -> " + target);
+        }
+    }
+
+    private static long fileSuffix(String fileName) {
+        String suffix = StringUtils.substringAfterLast(fileName, ".");
+        return StringUtils.isNumeric(suffix) ? Long.parseLong(suffix) : -1;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Entry {
+        private final long tso;
+        private final String rtso;
+        private final long serverId;
+        private final String fileName;
+        private final long position;
+        private final String commandId;
+
+        String toLine() {
+            return tso + SEPARATOR + rtso + SEPARATOR + serverId + SEPARATOR + fileName + SEPARATOR + position
+                + SEPARATOR + commandId + "\n";
+        }
+
+        static Entry parse(String line) {
+            String[] parts = StringUtils.splitPreserveAllTokens(line, SEPARATOR);
+            if (parts.length != 6 || !StringUtils.isNumeric(parts[0]) || StringUtils.isBlank(parts[1])
+                || !StringUtils.isNumeric(parts[2]) || StringUtils.isBlank(parts[3])
+                || !StringUtils.isNumeric(parts[4])) {
+                return null;
+            }
+            return new Entry(Long.parseLong(parts[0]), parts[1], Long.parseLong(parts[2]), parts[3],
+                Long.parseLong(parts[4]), parts[5]);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.MAX_PACKET_LENGTH;
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.NET_HEADER_SIZE;
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.PACKET_LEN_OFFSET;
+
+/**
+ * DirectLogFetcher的预读线程，独立于解析线程从socket读取binlog dump的数据包，放入按字节数限制大小的环形队列：
+ * 1. 每个元素是一个完整的逻辑包(header + payload)，超过16M被拆分的多个物理包在预读线程完成拼接
+ * 2. 包的存储数组来自一个小的复用池，解析线程在取下一个包时归还上一个包的数组
+ * 3. 分别统计解析线程等待数据(fetch stall)和预读线程等待队列空间(decode stall)的时间，用于判断瓶颈在网络还是解析
+ * 4. 预读线程退出时(流结束或者出错)设置finished标记，解析线程取完队列中剩余的包之后返回END或者抛出预读线程的异常
+ */
+class BinlogDumpPrefetcher implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(BinlogDumpPrefetcher.class);
+    private static final int POOL_MAX_ARRAYS = 64;
+    private static final int POOL_MAX_ARRAY_SIZE = 1024 * 1024;
+    private static final LongAdder TOTAL_FETCH_STALL_NANOS = new LongAdder();
+    private static final LongAdder TOTAL_DECODE_STALL_NANOS = new LongAdder();
+
+    private final InputStream input;
+    private final long maxBufferBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Packet> packets = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> pool = new ArrayDeque<>();
+    private final Thread thread;
+    private long bufferedBytes;
+    private volatile boolean running = true;
+    private volatile boolean finished;
+    private volatile IOException error;
+
+    private volatile long fetchStallNanos;
+    private volatile long decodeStallNanos;
+    private volatile long fetchedBytes;
+    private volatile long fetchedPackets;
+
+    BinlogDumpPrefetcher(InputStream input, long maxBufferBytes) {
+        this.input = input;
+        this.maxBufferBytes = maxBufferBytes;
+        this.thread = new Thread(this, "binlog-dump-prefetcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        byte[] header = new byte[NET_HEADER_SIZE];
+        try {
+            while (running) {
+                if (!readFully(header, 0, NET_HEADER_SIZE)) {
+                    return;
+                }
+                int netlen = uint24(header, PACKET_LEN_OFFSET);
+                byte[] data = borrow(NET_HEADER_SIZE + netlen);
+                System.arraycopy(header, 0, data, 0, NET_HEADER_SIZE);
+                int length = NET_HEADER_SIZE + netlen;
+                if (!readFully(data, NET_HEADER_SIZE, netlen)) {
+                    return;
+                }
+                boolean ok = data[NET_HEADER_SIZE] == 0;
+
+                // 拼接multi-packet，只保留第一个包的header
+                while (netlen == MAX_PACKET_LENGTH) {
+                    if (!readFully(header, 0, NET_HEADER_SIZE)) {
+                        return;
+                    }
+                    netlen = uint24(header, PACKET_LEN_OFFSET);
+                    if (data.length < length + netlen) {
+                        data = Arrays.copyOf(data, Math.max(length + netlen, data.length * 2));
+                    }
+                    if (!readFully(data, length, netlen)) {
+                        return;
+                    }
+                    length += netlen;
+                }
+                put(new Packet(data, length));
+
+                // error包或者eof包之后不会再有数据
+                if (!ok) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running) {
+                error = e;
+            }
+        } catch (Throwable t) {
+            logger.error("binlog dump prefetch failed", t);
+            error = new IOException("binlog dump prefetch failed", t);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * 由解析线程调用，取出下一个包，同时归还上一个包的数组
+     *
+     * @param previous 上一个包使用的数组，可以为null
+     * @return 预读线程已经退出并且队列为空时返回Packet.END
+     * @throws IOException 预读线程读取出错时，在队列中剩余的包取完之后抛出该异常
+     */
+    Packet take(byte[] previous) throws IOException {
+        lock.lock();
+        try {
+            if (previous != null && previous.length <= POOL_MAX_ARRAY_SIZE && pool.size() < POOL_MAX_ARRAYS) {
+                pool.push(previous);
+            }
+            if (packets.isEmpty()) {
+                long begin = System.nanoTime();
+                try {
+                    while (packets.isEmpty()) {
+                        if (!running) {
+                            throw new EOFException("binlog dump prefetcher is closed");
+                        }
+                        if (finished) {
+                            if (error != null) {
+                                throw error;
+                            }
+                            return Packet.END;
+                        }
+                        notEmpty.await(100, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    long stall = System.nanoTime() - begin;
+                    fetchStallNanos += stall;
+                    TOTAL_FETCH_STALL_NANOS.add(stall);
+                }
+            }
+            Packet packet = packets.poll();
+            bufferedBytes -= packet.length;
+            notFull.signal();
+            return packet;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for binlog dump packet");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 是否由本次调用关闭
+     */
+    boolean close() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        thread.interrupt();
+        lock.lock();
+        try {
+            packets.clear();
+            pool.clear();
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * 进程内所有预读线程的解析线程累计等待时间
+     */
+    static long getTotalFetchStallNanos() {
+        return TOTAL_FETCH_STALL_NANOS.sum();
+    }
+
+    /**
+     * 进程内所有预读线程的累计等待队列空间时间
+     */
+    static long getTotalDecodeStallNanos() {
+        return TOTAL_DECODE_STALL_NANOS.sum();
+    }
+
+    long getFetchStallNanos() {
+        return fetchStallNanos;
+    }
+
+    long getDecodeStallNanos() {
+        return decodeStallNanos;
+    }
+
+    long getFetchedBytes() {
+        return fetchedBytes;
+    }
+
+    long getFetchedPackets() {
+        return fetchedPackets;
+    }
+
+    private void put(Packet packet) throws InterruptedException {
+        lock.lock();
+        try {
+            // 队列为空时总是可以放入，保证超过上限的大包也能被消费
+            if (!packets.isEmpty() && bufferedBytes + packet.length > maxBufferBytes) {
+                long begin = System.nanoTime();
+                while (running && !packets.isEmpty() && bufferedBytes + packet.length > maxBufferBytes) {
+                    notFull.await();
+                }
+                long stall = System.nanoTime() - begin;
+                decodeStallNanos += stall;
+                TOTAL_DECODE_STALL_NANOS.add(stall);
+            }
+            if (!running) {
+                return;
+            }
+            packets.offer(packet);
+            bufferedBytes += packet.length;
+            fetchedBytes += packet.length;
+            fetchedPackets++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish() {
+        lock.lock();
+        try {
+            finished = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] borrow(int size) {
+        lock.lock();
+        try {
+            byte[] array = pool.peek();
+            if (array != null && array.length >= size) {
+                return pool.pop();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new byte[Math.max(size, LogFetcher.DEFAULT_INITIAL_CAPACITY)];
+    }
+
+    private boolean readFully(byte[] buf, int off, int len) throws IOException {
+        for (int count, n = 0; n < len; n += count) {
+            if (0 > (count = input.read(buf, off + n, len - n))) {
+                // Reached end of input stream
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int uint24(byte[] buf, int pos) {
+        return (0xff & buf[pos]) | ((0xff & buf[pos + 1]) << 8) | ((0xff & buf[pos + 2]) << 16);
+    }
+
+    static class Packet {
+        static final Packet END = new Packet(null, 0);
+
+        final byte[] data;
+        final int length;
+
+        Packet(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+}
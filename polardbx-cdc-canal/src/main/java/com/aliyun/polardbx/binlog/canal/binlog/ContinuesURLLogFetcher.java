@@ -51,6 +51,7 @@ public class ContinuesURLLogFetcher extends LogFetcher {
 
         logger.info("finish read " + binlogFile + " size : " + urlLogFetcher.readSize());
 
+        String spoolDir = urlLogFetcher.getSpoolDir();
         urlLogFetcher.close();
         urlLogFetcher = null;
         int idx = binlogFileQueue.indexOf(binlogFile) + 1;
@@ -63,7 +64,7 @@ public class ContinuesURLLogFetcher extends LogFetcher {
                 + " with link : " + nextFile.getDownloadLink());
 
         binlogFile = nextFile;
-        urlLogFetcher = new URLLogFetcher();
+        urlLogFetcher = new URLLogFetcher(spoolDir);
         urlLogFetcher.open(nextFile.getIntranetDownloadLink(), nextFile.getFileSize());
         return urlLogFetcher.fetch();
     }
@@ -27,6 +27,7 @@ import java.lang.reflect.Method;
 import java.net.SocketTimeoutException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <pre>
@@ -76,6 +77,12 @@ public final class DirectLogFetcher extends LogFetcher {
     private Connection conn;
     private OutputStream mysqlOutput;
     private InputStream mysqlInput;
+    /**
+     * 大于0时开启预读，由独立线程读取数据包，预读缓冲区的最大字节数
+     */
+    private long prefetchBufferBytes;
+    private BinlogDumpPrefetcher prefetcher;
+    private byte[] prefetchedData;
 
     public DirectLogFetcher() {
         super(DEFAULT_INITIAL_CAPACITY, DEFAULT_GROWTH_FACTOR);
@@ -199,12 +206,7 @@ public final class DirectLogFetcher extends LogFetcher {
             }
             mysqlOutput = (OutputStream) getDeclaredField(connIo, connIo.getClass(), "mysqlOutput");
             mysqlInput = (InputStream) getDeclaredField(connIo, connIo.getClass(), "mysqlInput");
-
-            if (filePosition == 0) {
-                filePosition = BIN_LOG_HEADER_SIZE;
-            }
-            sendBinlogDump(fileName, filePosition, serverId, nonBlocking);
-            position = 0;
+            open(fileName, filePosition, serverId, nonBlocking);
         } catch (IOException e) {
             close(); /* Do cleanup */
             logger.error("Error on COM_BINLOG_DUMP: file = " + fileName + ", position = " + filePosition);
@@ -215,6 +217,72 @@ public final class DirectLogFetcher extends LogFetcher {
         }
     }
 
+    /**
+     * Send COM_BINLOG_DUMP through the given streams, the caller owns the underlying connection.
+     */
+    public void open(InputStream input, OutputStream output, String fileName, long filePosition, final int serverId,
+                     boolean nonBlocking) throws IOException {
+        this.mysqlInput = input;
+        this.mysqlOutput = output;
+        try {
+            open(fileName, filePosition, serverId, nonBlocking);
+        } catch (IOException e) {
+            close(); /* Do cleanup */
+            logger.error("Error on COM_BINLOG_DUMP: file = " + fileName + ", position = " + filePosition);
+            throw e;
+        }
+    }
+
+    private void open(String fileName, long filePosition, final int serverId, boolean nonBlocking)
+        throws IOException {
+        if (filePosition == 0) {
+            filePosition = BIN_LOG_HEADER_SIZE;
+        }
+        sendBinlogDump(fileName, filePosition, serverId, nonBlocking);
+        position = 0;
+        if (prefetchBufferBytes > 0) {
+            prefetcher = new BinlogDumpPrefetcher(mysqlInput, prefetchBufferBytes);
+            prefetcher.start();
+        }
+    }
+
+    /**
+     * 开启预读，需要在open之前调用
+     *
+     * @param maxBufferBytes 预读缓冲区的最大字节数，小于等于0表示关闭预读
+     */
+    public void setPrefetchBufferBytes(long maxBufferBytes) {
+        this.prefetchBufferBytes = maxBufferBytes;
+    }
+
+    /**
+     * 解析线程等待网络数据的累计时间，未开启预读时为0
+     */
+    public long getFetchStallNanos() {
+        return prefetcher == null ? 0 : prefetcher.getFetchStallNanos();
+    }
+
+    /**
+     * 预读线程因为缓冲区已满而等待解析线程的累计时间，未开启预读时为0
+     */
+    public long getDecodeStallNanos() {
+        return prefetcher == null ? 0 : prefetcher.getDecodeStallNanos();
+    }
+
+    /**
+     * 进程内所有DirectLogFetcher的解析线程等待网络数据的累计时间
+     */
+    public static long getTotalFetchStallNanos() {
+        return BinlogDumpPrefetcher.getTotalFetchStallNanos();
+    }
+
+    /**
+     * 进程内所有DirectLogFetcher的预读线程等待解析线程的累计时间
+     */
+    public static long getTotalDecodeStallNanos() {
+        return BinlogDumpPrefetcher.getTotalDecodeStallNanos();
+    }
+
     /**
      * Put a byte in the buffer.
      *
@@ -296,19 +364,27 @@ public final class DirectLogFetcher extends LogFetcher {
      */
     public boolean fetch() throws IOException {
         try {
-            // Fetching packet header from input.
-            if (!fetch0(0, NET_HEADER_SIZE)) {
-                logger.warn("Reached end of input stream while fetching header");
-                return false;
-            }
+            if (prefetcher != null) {
+                if (!takePrefetched()) {
+                    return false;
+                }
+            } else {
+                // Fetching packet header from input.
+                if (!fetch0(0, NET_HEADER_SIZE)) {
+                    logger.warn("Reached end of input stream while fetching header");
+                    return false;
+                }
 
-            // Fetching the first packet(may a multi-packet).
+                // Fetching the first packet(may a multi-packet).
+                int netlen = getUint24(PACKET_LEN_OFFSET);
+                int netnum = getUint8(PACKET_SEQ_OFFSET);
+                if (!fetch0(NET_HEADER_SIZE, netlen)) {
+                    logger.warn("Reached end of input stream: packet #" + netnum + ", len = " + netlen);
+                    return false;
+                }
+            }
             int netlen = getUint24(PACKET_LEN_OFFSET);
             int netnum = getUint8(PACKET_SEQ_OFFSET);
-            if (!fetch0(NET_HEADER_SIZE, netlen)) {
-                logger.warn("Reached end of input stream: packet #" + netnum + ", len = " + netlen);
-                return false;
-            }
 
             // Detecting error code.
             final int mark = getUint8(NET_HEADER_SIZE);
@@ -337,7 +413,8 @@ public final class DirectLogFetcher extends LogFetcher {
             }
 
             // The first packet is a multi-packet, concatenate the packets.
-            while (netlen == MAX_PACKET_LENGTH) {
+            // Prefetched packets are already concatenated by the prefetch thread.
+            while (prefetcher == null && netlen == MAX_PACKET_LENGTH) {
                 if (!fetch0(0, NET_HEADER_SIZE)) {
                     logger.warn("Reached end of input stream while fetching header");
                     return false;
@@ -371,6 +448,21 @@ public final class DirectLogFetcher extends LogFetcher {
         }
     }
 
+    private boolean takePrefetched() throws IOException {
+        BinlogDumpPrefetcher.Packet packet = prefetcher.take(prefetchedData);
+        prefetchedData = null;
+        if (packet == BinlogDumpPrefetcher.Packet.END) {
+            logger.warn("Reached end of input stream while prefetching packet");
+            return false;
+        }
+        prefetchedData = packet.data;
+        buffer = packet.data;
+        origin = 0;
+        position = 0;
+        limit = packet.length;
+        return true;
+    }
+
     private final boolean fetch0(final int off, final int len) throws IOException {
         ensureCapacity(off + len);
 
@@ -393,6 +485,13 @@ public final class DirectLogFetcher extends LogFetcher {
      * @see LogFetcher#close()
      */
     public void close() throws IOException {
+        if (prefetcher != null && prefetcher.close()) {
+            logger.info("binlog dump prefetcher closed, fetched packets {}, bytes {}, fetch stall {}ms, "
+                    + "decode stall {}ms", prefetcher.getFetchedPackets(), prefetcher.getFetchedBytes(),
+                TimeUnit.NANOSECONDS.toMillis(prefetcher.getFetchStallNanos()),
+                TimeUnit.NANOSECONDS.toMillis(prefetcher.getDecodeStallNanos()));
+            prefetchedData = null;
+        }
         try {
             if (conn != null) {
                 conn.close();
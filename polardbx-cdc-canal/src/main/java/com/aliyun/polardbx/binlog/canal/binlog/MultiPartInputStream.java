@@ -35,7 +35,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
-public class MultiPartInputStream {
+public class MultiPartInputStream extends InputStream {
 
     public static final int DEFAULT_THREAD_SIZE = 3;
     public static final String HEADER_RANGES_SUPPORT = "Accept-Ranges";
@@ -145,6 +145,7 @@ public class MultiPartInputStream {
         }
     }
 
+    @Override
     public int read(byte b[], int off, int len)
         throws IOException {
         if (this.partCount == 1) {
@@ -174,9 +175,17 @@ public class MultiPartInputStream {
         return readLen;
     }
 
-    public void skip(long n) throws IOException {
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int len = read(b, 0, 1);
+        return len == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
         if (this.partCount == 1) {
-            fin.skip(n);
+            return fin.skip(n);
         } else {
             int skipPartNum = (int) (n / DEFAULT_BUFFER_SIZE);
             for (int i = pos; i < skipPartNum; i++) {
@@ -185,9 +194,11 @@ public class MultiPartInputStream {
             this.pos += skipPartNum;
             PartStream ps = this.partStreamList.get(pos);
             ps.skip(n - ps.begin);
+            return n;
         }
     }
 
+    @Override
     public void close() throws IOException {
         if (!CollectionUtils.isEmpty(this.partStreamList)) {
             for (PartStream p : this.partStreamList) {
@@ -14,12 +14,18 @@
  */
 package com.aliyun.polardbx.binlog.canal.binlog;
 
+import com.aliyun.polardbx.binlog.ConfigKeys;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.canal.binlog.download.HttpRangeReader;
+import com.aliyun.polardbx.binlog.canal.binlog.download.RangeChunkInputStream;
 import com.aliyun.polardbx.binlog.canal.binlog.event.FormatDescriptionLogEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketException;
 import java.util.Arrays;
 
@@ -27,7 +33,7 @@ public class URLLogFetcher extends LogFetcher {
 
     public static final byte[] BINLOG_MAGIC = {-2, 0x62, 0x69, 0x6e};
     private static final Logger logger = LoggerFactory.getLogger(URLLogFetcher.class);
-    private MultiPartInputStream fin;
+    private InputStream fin;
 
     private long readPos;
 
@@ -37,10 +43,20 @@ public class URLLogFetcher extends LogFetcher {
 
     private long fileSize = -1;
 
+    /**
+     * 流式拉取时分块落盘的目录，为空时分块保存在内存中
+     */
+    private String spoolDir;
+
     public URLLogFetcher() {
         super(DEFAULT_INITIAL_CAPACITY, DEFAULT_GROWTH_FACTOR);
     }
 
+    public URLLogFetcher(String spoolDir) {
+        super(DEFAULT_INITIAL_CAPACITY, DEFAULT_GROWTH_FACTOR);
+        this.spoolDir = spoolDir;
+    }
+
     public URLLogFetcher(final int initialCapacity) {
         super(initialCapacity, DEFAULT_GROWTH_FACTOR);
     }
@@ -60,16 +76,47 @@ public class URLLogFetcher extends LogFetcher {
         return this.readPos;
     }
 
+    public String getSpoolDir() {
+        return spoolDir;
+    }
+
     /**
      * Open binlog file in local disk to fetch.
      */
     public void open(String url, final long filePosition, final long fileSize) throws IOException {
         this.url = url;
         this.fileSize = fileSize;
-        prepareInputStream();
 
+        if (filePosition > BIN_LOG_HEADER_SIZE) {
+            // 从中间位置开始读取时只需要文件头和FDE，通过一次小的range请求读取，不为此单独创建一个完整的输入流
+            final int maxFormatDescriptionEventLen = FormatDescriptionLogEvent.LOG_EVENT_MINIMAL_HEADER_LEN
+                + FormatDescriptionLogEvent.ST_COMMON_HEADER_LEN_OFFSET
+                + LogEvent.ENUM_END_EVENT + LogEvent.BINLOG_CHECKSUM_ALG_DESC_LEN
+                + LogEvent.CHECKSUM_CRC32_SIGNATURE_LEN;
+
+            try (InputStream head = new HttpRangeReader(url)
+                .open(0, BIN_LOG_HEADER_SIZE + maxFormatDescriptionEventLen - 1)) {
+                readHeader(head);
+                ensureCapacity(maxFormatDescriptionEventLen);
+                limit = readFully(head, maxFormatDescriptionEventLen);
+                if (limit < FormatDescriptionLogEvent.LOG_EVENT_HEADER_LEN) {
+                    throw new IOException("No format description event");
+                }
+            }
+            limit = (int) getUint32(LogEvent.EVENT_LEN_OFFSET);
+            prepareInputStream();
+            fin.skip(filePosition);
+            this.readPos = filePosition;
+        } else {
+            prepareInputStream();
+            readHeader(fin);
+            this.readPos = BIN_LOG_HEADER_SIZE;
+        }
+    }
+
+    private void readHeader(InputStream in) throws IOException {
         ensureCapacity(BIN_LOG_HEADER_SIZE);
-        if (BIN_LOG_HEADER_SIZE != fin.read(buffer, 0, BIN_LOG_HEADER_SIZE)) {
+        if (BIN_LOG_HEADER_SIZE != readFully(in, BIN_LOG_HEADER_SIZE)) {
             throw new IOException("No binlog file header");
         }
 
@@ -82,21 +129,21 @@ public class URLLogFetcher extends LogFetcher {
         limit = 0;
         origin = 0;
         position = 0;
-        this.readPos = BIN_LOG_HEADER_SIZE;
-
-        if (filePosition > BIN_LOG_HEADER_SIZE) {
-            final int maxFormatDescriptionEventLen = FormatDescriptionLogEvent.LOG_EVENT_MINIMAL_HEADER_LEN
-                + FormatDescriptionLogEvent.ST_COMMON_HEADER_LEN_OFFSET
-                + LogEvent.ENUM_END_EVENT + LogEvent.BINLOG_CHECKSUM_ALG_DESC_LEN
-                + LogEvent.CHECKSUM_CRC32_SIGNATURE_LEN;
+    }
 
-            ensureCapacity(maxFormatDescriptionEventLen);
-            limit = fin.read(buffer, 0, maxFormatDescriptionEventLen);
-            limit = (int) getUint32(LogEvent.EVENT_LEN_OFFSET);
-            prepareInputStream();
-            fin.skip(filePosition);
-            this.readPos = filePosition;
+    /**
+     * 从buffer头部开始读取len个字节，到达流末尾时提前返回，返回实际读取的字节数
+     */
+    private int readFully(InputStream in, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = in.read(buffer, total, len - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
         }
+        return total;
     }
 
     private void prepareInputStream() throws IOException {
@@ -104,7 +151,15 @@ public class URLLogFetcher extends LogFetcher {
             fin.close();
         }
 
-        fin = new MultiPartInputStream(url, this.fileSize);
+        if (fileSize > 0 && DynamicApplicationConfig.getBoolean(ConfigKeys.TASK_RDSBINLOG_STREAMING_ENABLE)) {
+            fin = new RangeChunkInputStream(new HttpRangeReader(url), fileSize,
+                DynamicApplicationConfig.getInt(ConfigKeys.TASK_RDSBINLOG_STREAMING_CHUNK_SIZE),
+                DynamicApplicationConfig.getInt(ConfigKeys.TASK_RDSBINLOG_STREAMING_PARALLELISM),
+                DynamicApplicationConfig.getInt(ConfigKeys.TASK_RDSBINLOG_STREAMING_WINDOW_CHUNKS),
+                spoolDir == null ? null : new File(spoolDir));
+        } else {
+            fin = new MultiPartInputStream(url, this.fileSize);
+        }
     }
 
     private int innerRead(int off, int len) throws IOException {
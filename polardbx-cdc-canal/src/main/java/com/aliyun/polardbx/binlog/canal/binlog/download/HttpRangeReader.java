@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于http Range请求的RangeReader，服务端不支持Range时只允许从文件头开始读取
+ */
+public class HttpRangeReader implements RangeReader {
+    private final String url;
+
+    public HttpRangeReader(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public InputStream open(long begin, long end) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(20));
+        connection.setReadTimeout((int) TimeUnit.MINUTES.toMillis(5));
+        connection.setRequestProperty("User-Agent", "Mozilla/4.76");
+        connection.setRequestProperty("Range", "bytes=" + begin + "-" + end);
+        connection.setDoInput(true);
+        connection.setDoOutput(false);
+        connection.connect();
+
+        int code = connection.getResponseCode();
+        if (code == HttpURLConnection.HTTP_PARTIAL || (code == HttpURLConnection.HTTP_OK && begin == 0)) {
+            return connection.getInputStream();
+        }
+        connection.disconnect();
+        throw new IOException("range request [" + begin + ", " + end + "] failed with response code " + code);
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog.download;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按Range分块并行拉取远端binlog文件的输入流，第一个分块到达后即可开始解析，不需要等待整个文件下载完成。
+ * 已拉取但还未被消费的分块构成一个滑动窗口，最多windowChunks个，读取方每消费完一个分块就立即释放，
+ * 并调度窗口末尾的下一个分块；指定了spoolDir时分块落盘，否则保存在内存中。
+ * 分块只在第一次read时才开始调度，所以打开后立即skip不会拉取被跳过的分块。
+ */
+public class RangeChunkInputStream extends InputStream {
+    private static final Logger logger = LoggerFactory.getLogger("rdsDownloadLogger");
+    private static final int MAX_RETRY = 3;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final RangeReader reader;
+    private final long fileSize;
+    private final int chunkSize;
+    private final int windowChunks;
+    private final File spoolDir;
+    private final Chunk[] chunks;
+    private final ExecutorService executor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition chunkDone = lock.newCondition();
+    private final byte[] single = new byte[1];
+
+    private int readIndex;
+    private int nextSchedule;
+    private long position;
+    private InputStream current;
+    private volatile boolean closed;
+
+    @Getter
+    private final AtomicLong fetchedBytes = new AtomicLong();
+    @Getter
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public RangeChunkInputStream(RangeReader reader, long fileSize, int chunkSize, int parallelism,
+                                 int windowChunks, File spoolDir) {
+        this.reader = reader;
+        this.fileSize = fileSize;
+        this.chunkSize = chunkSize;
+        this.windowChunks = Math.max(1, windowChunks);
+        this.spoolDir = spoolDir;
+        if (spoolDir != null && !spoolDir.exists()) {
+            spoolDir.mkdirs();
+        }
+
+        int count = (int) ((fileSize + chunkSize - 1) / chunkSize);
+        this.chunks = new Chunk[count];
+        for (int i = 0; i < count; i++) {
+            long begin = (long) i * chunkSize;
+            chunks[i] = new Chunk(i, begin, (int) Math.min(chunkSize, fileSize - begin));
+        }
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, this.windowChunks)), r -> {
+            Thread t = new Thread(r, "rds-binlog-range-fetcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public int read() throws IOException {
+        int len = read(single, 0, 1);
+        return len == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (current == null) {
+                if (readIndex >= chunks.length) {
+                    return -1;
+                }
+                current = openChunk(chunks[readIndex], position - chunks[readIndex].begin);
+            }
+            int n = current.read(b, off, len);
+            if (n > 0) {
+                position += n;
+                return n;
+            }
+
+            current.close();
+            current = null;
+            lock.lock();
+            try {
+                release(chunks[readIndex]);
+                readIndex++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long target = Math.min(fileSize, position + n);
+        int targetIndex = (int) Math.min(chunks.length, target / chunkSize);
+        if (current != null && targetIndex == readIndex) {
+            skipFully(current, target - position);
+        } else {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+            lock.lock();
+            try {
+                for (int i = readIndex; i < targetIndex; i++) {
+                    release(chunks[i]);
+                }
+                readIndex = targetIndex;
+                nextSchedule = Math.max(nextSchedule, readIndex);
+            } finally {
+                lock.unlock();
+            }
+        }
+        long skipped = target - position;
+        position = target;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        lock.lock();
+        try {
+            for (int i = readIndex; i < nextSchedule; i++) {
+                release(chunks[i]);
+            }
+            chunkDone.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdownNow();
+    }
+
+    public long position() {
+        return position;
+    }
+
+    private InputStream openChunk(Chunk chunk, long offset) throws IOException {
+        lock.lock();
+        try {
+            schedule();
+            while (chunk.state != Chunk.READY && chunk.state != Chunk.FAILED && !closed) {
+                chunkDone.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for chunk " + chunk.index);
+        } finally {
+            lock.unlock();
+        }
+
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+        if (chunk.state == Chunk.FAILED) {
+            throw new IOException("fetch chunk [" + chunk.begin + ", " + (chunk.begin + chunk.length - 1)
+                + "] failed", chunk.error);
+        }
+        InputStream in = chunk.file != null ? new FileInputStream(chunk.file) : new ByteArrayInputStream(chunk.data);
+        skipFully(in, offset);
+        return in;
+    }
+
+    /**
+     * 需要持有lock，把[readIndex, readIndex + windowChunks)之间还没有调度的分块提交给拉取线程
+     */
+    private void schedule() {
+        if (closed) {
+            return;
+        }
+        int end = Math.min(chunks.length, readIndex + windowChunks);
+        while (nextSchedule < end) {
+            Chunk chunk = chunks[nextSchedule++];
+            chunk.state = Chunk.FETCHING;
+            executor.execute(() -> fetch(chunk));
+        }
+    }
+
+    /**
+     * 需要持有lock，正在拉取中的分块由拉取线程在完成后自行清理
+     */
+    private void release(Chunk chunk) {
+        chunk.released = true;
+        if (chunk.state != Chunk.FETCHING) {
+            chunk.discard();
+        }
+    }
+
+    private void fetch(Chunk chunk) {
+        Throwable error = null;
+        for (int i = 0; i < MAX_RETRY && !chunk.released && !closed; i++) {
+            try {
+                fetchOnce(chunk);
+                error = null;
+                break;
+            } catch (Throwable t) {
+                chunk.discard();
+                error = t;
+                retryCount.incrementAndGet();
+                logger.warn("fetch chunk [" + chunk.begin + ", " + (chunk.begin + chunk.length - 1)
+                    + "] failed, retry times " + (i + 1), t);
+            }
+        }
+
+        lock.lock();
+        try {
+            chunk.error = error;
+            chunk.state = error == null ? Chunk.READY : Chunk.FAILED;
+            if (chunk.released) {
+                chunk.discard();
+            }
+            chunkDone.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fetchOnce(Chunk chunk) throws IOException {
+        try (InputStream in = reader.open(chunk.begin, chunk.begin + chunk.length - 1)) {
+            if (spoolDir == null) {
+                byte[] data = new byte[chunk.length];
+                int offset = 0;
+                while (offset < data.length) {
+                    int n = in.read(data, offset, data.length - offset);
+                    if (n < 0) {
+                        throw new EOFException("chunk ended at " + offset + ", expect " + data.length);
+                    }
+                    offset += n;
+                }
+                chunk.data = data;
+            } else {
+                File file = File.createTempFile("range-", ".chunk", spoolDir);
+                chunk.file = file;
+                try (OutputStream out = new FileOutputStream(file)) {
+                    byte[] buf = new byte[COPY_BUFFER_SIZE];
+                    int remaining = chunk.length;
+                    while (remaining > 0) {
+                        int n = in.read(buf, 0, Math.min(buf.length, remaining));
+                        if (n < 0) {
+                            throw new EOFException(
+                                "chunk ended at " + (chunk.length - remaining) + ", expect " + chunk.length);
+                        }
+                        out.write(buf, 0, n);
+                        remaining -= n;
+                    }
+                }
+            }
+        }
+        fetchedBytes.addAndGet(chunk.length);
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("skip beyond chunk end, remaining " + n);
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static class Chunk {
+        private static final int PENDING = 0;
+        private static final int FETCHING = 1;
+        private static final int READY = 2;
+        private static final int FAILED = 3;
+
+        private final int index;
+        private final long begin;
+        private final int length;
+        private volatile int state = PENDING;
+        private volatile boolean released;
+        private volatile byte[] data;
+        private volatile File file;
+        private Throwable error;
+
+        private Chunk(int index, long begin, int length) {
+            this.index = index;
+            this.begin = begin;
+            this.length = length;
+        }
+
+        private void discard() {
+            data = null;
+            File f = file;
+            file = null;
+            if (f != null && f.exists() && !f.delete()) {
+                logger.warn("delete chunk file failed " + f.getAbsolutePath());
+            }
+        }
+    }
+}
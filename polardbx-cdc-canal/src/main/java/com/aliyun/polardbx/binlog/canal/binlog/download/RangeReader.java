@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 按字节区间读取远端文件，RangeChunkInputStream通过它并行拉取各个分块
+ */
+public interface RangeReader {
+
+    /**
+     * 打开[begin, end]闭区间的数据流
+     */
+    InputStream open(long begin, long end) throws IOException;
+}
@@ -52,18 +52,18 @@ import com.alibaba.polardbx.druid.sql.repository.SchemaObject;
 import com.alibaba.polardbx.druid.sql.repository.SchemaObjectStoreProvider;
 import com.alibaba.polardbx.druid.sql.repository.SchemaRepository;
 import com.alibaba.polardbx.druid.util.JdbcConstants;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DBMSAction;
 import com.aliyun.polardbx.binlog.canal.core.ddl.TableMeta;
 import com.aliyun.polardbx.binlog.canal.core.ddl.TableMeta.FieldMeta;
+import com.aliyun.polardbx.binlog.canal.core.ddl.parser.DdlResult;
+import com.aliyun.polardbx.binlog.canal.core.ddl.parser.DruidDdlParser;
 import com.aliyun.polardbx.binlog.canal.core.model.BinlogPosition;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.util.FastSQLConstant;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -71,7 +71,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 基于DDL维护的内存表结构
@@ -82,8 +84,17 @@ import java.util.concurrent.TimeUnit;
 public class MemoryTableMeta implements TableMetaTSDB {
     private final static int DEFAULT_MAX_CACHE_SIZE = 8192;
     private final static int DEFAULT_CACHE_EXPIRE_TIME_MINUTES = 60;
-
-    private final Cache<List<String>, TableMeta> tableMetas;
+    private final static int MAX_INVALIDATE_TABLES_PER_DDL = 16;
+
+    /**
+     * schema -> table -> TableMeta，两级Map避免每次查找都构造组合key，读路径无锁
+     * 已发布的TableMeta不再修改，DDL只会让受影响的表失效，下次查找时重新解析发布新版本
+     */
+    private final Map<String, Map<String, TableMeta>> tableMetas = new ConcurrentHashMap<>();
+    private final AtomicInteger tableMetaCount = new AtomicInteger();
+    private final int maxCacheSize;
+    private final long cacheExpireTimeMillis;
+    private volatile long cacheCreateTime = System.currentTimeMillis();
     private final Logger logger;
     private final boolean ignoreApplyError;
     protected SchemaRepository repository = new SchemaRepository(JdbcConstants.MYSQL);
@@ -100,10 +111,8 @@ public class MemoryTableMeta implements TableMetaTSDB {
 
     private MemoryTableMeta(Logger logger, int maxCacheSize, int expireTimeMinutes, boolean ignoreApplyError) {
         this.logger = logger;
-        this.tableMetas = CacheBuilder.newBuilder()
-            .maximumSize(maxCacheSize)
-            .expireAfterWrite(expireTimeMinutes, TimeUnit.MINUTES)
-            .build();
+        this.maxCacheSize = maxCacheSize;
+        this.cacheExpireTimeMillis = TimeUnit.MINUTES.toMillis(expireTimeMinutes);
         this.ignoreApplyError = ignoreApplyError;
     }
 
@@ -114,7 +123,7 @@ public class MemoryTableMeta implements TableMetaTSDB {
 
     @Override
     public void destory() {
-        tableMetas.invalidateAll();
+        invalidateAll();
         repository = new SchemaRepository(JdbcConstants.MYSQL);
     }
 
@@ -125,7 +134,6 @@ public class MemoryTableMeta implements TableMetaTSDB {
         }
         ddl = ddl.toLowerCase();
         ddl = tryRepairSql(ddl);
-        tableMetas.invalidateAll();
         synchronized (this) {
             if (StringUtils.isNotEmpty(schema)) {
                 repository.setDefaultSchema(schema);
@@ -146,6 +154,9 @@ public class MemoryTableMeta implements TableMetaTSDB {
                 } else {
                     throw new PolardbxException("Table meta apply failed, schema: " + schema + ", ddl: " + ddl, e);
                 }
+            } finally {
+                // 在锁内失效，避免查找线程把DDL之前解析出的旧版本重新发布
+                invalidate(schema, ddl);
             }
         }
 
@@ -155,38 +166,11 @@ public class MemoryTableMeta implements TableMetaTSDB {
     @Override
     public TableMeta find(String schema, String table) {
         try {
-            List<String> keys = Arrays.asList(schema, table);
-            TableMeta tableMeta = tableMetas.getIfPresent(keys);
+            Map<String, TableMeta> schemaMetas = schema == null ? null : tableMetas.get(schema);
+            TableMeta tableMeta = schemaMetas == null || table == null ? null : schemaMetas.get(table);
             if (tableMeta == null) {
                 synchronized (this) {
-                    tableMeta = tableMetas.getIfPresent(keys);
-                    if (tableMeta == null) {
-                        Schema schemaRep = repository.findSchema(schema);
-                        if (schemaRep == null) {
-                            return null;
-                        }
-                        SchemaObject data = schemaRep.findTable(table);
-                        if (data == null) {
-                            return null;
-                        }
-                        SQLStatement statement = data.getStatement();
-                        if (statement == null) {
-                            return null;
-                        }
-                        if (statement instanceof SQLCreateTableStatement) {
-                            tableMeta = parse((SQLCreateTableStatement) statement);
-                        }
-                        if (tableMeta != null) {
-                            if (table != null) {
-                                tableMeta.setTable(table);
-                            }
-                            if (schema != null) {
-                                tableMeta.setSchema(schema);
-                            }
-
-                            tableMetas.put(keys, tableMeta);
-                        }
-                    }
+                    tableMeta = loadAndPublish(schema, table);
                 }
             }
             return tableMeta;
@@ -196,6 +180,132 @@ public class MemoryTableMeta implements TableMetaTSDB {
         }
     }
 
+    private TableMeta loadAndPublish(String schema, String table) {
+        Map<String, TableMeta> schemaMetas = schema == null ? null : tableMetas.get(schema);
+        TableMeta tableMeta = schemaMetas == null || table == null ? null : schemaMetas.get(table);
+        if (tableMeta != null) {
+            return tableMeta;
+        }
+
+        Schema schemaRep = repository.findSchema(schema);
+        if (schemaRep == null) {
+            return null;
+        }
+        SchemaObject data = schemaRep.findTable(table);
+        if (data == null) {
+            return null;
+        }
+        SQLStatement statement = data.getStatement();
+        if (statement == null) {
+            return null;
+        }
+        if (statement instanceof SQLCreateTableStatement) {
+            tableMeta = parse((SQLCreateTableStatement) statement);
+        }
+        if (tableMeta != null) {
+            if (table != null) {
+                tableMeta.setTable(table);
+            }
+            if (schema != null) {
+                tableMeta.setSchema(schema);
+            }
+            // schema或table为null时无法作为key，只返回不缓存
+            if (schema != null && table != null) {
+                publish(schema, table, tableMeta);
+            }
+        }
+        return tableMeta;
+    }
+
+    private void publish(String schema, String table, TableMeta tableMeta) {
+        if (System.currentTimeMillis() - cacheCreateTime > cacheExpireTimeMillis) {
+            invalidateAll();
+        } else if (tableMetaCount.get() >= maxCacheSize) {
+            evictOne();
+        }
+        if (tableMetas.computeIfAbsent(schema, k -> new ConcurrentHashMap<>()).put(table, tableMeta) == null) {
+            tableMetaCount.incrementAndGet();
+        }
+    }
+
+    private void evictOne() {
+        for (Map<String, TableMeta> schemaMetas : tableMetas.values()) {
+            Iterator<String> it = schemaMetas.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+                tableMetaCount.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        tableMetas.clear();
+        tableMetaCount.set(0);
+        cacheCreateTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 只失效DDL涉及到的表，DDL无法识别出具体的表时，退化为全部失效
+     */
+    private void invalidate(String defaultSchema, String ddl) {
+        if (tableMetas.isEmpty()) {
+            return;
+        }
+        List<DdlResult> ddlResults;
+        try {
+            ddlResults = DruidDdlParser.parse(ddl, defaultSchema);
+        } catch (Throwable t) {
+            invalidateAll();
+            return;
+        }
+        // 批量建表(如快照回放)时逐个失效的代价高于全部失效
+        if (ddlResults.isEmpty() || ddlResults.size() > MAX_INVALIDATE_TABLES_PER_DDL) {
+            invalidateAll();
+            return;
+        }
+        for (DdlResult result : ddlResults) {
+            if (result.getType() == DBMSAction.DROPDB || result.getType() == DBMSAction.CREATEDB) {
+                // 库名被解析到了tableName中
+                invalidateSchema(result.getTableName());
+            } else if (StringUtils.isBlank(result.getTableName())) {
+                invalidateAll();
+                return;
+            } else {
+                invalidateTable(result.getSchemaName(), result.getTableName());
+                if (StringUtils.isNotBlank(result.getOriTableName())) {
+                    invalidateTable(result.getOriSchemaName(), result.getOriTableName());
+                }
+            }
+        }
+    }
+
+    private void invalidateSchema(String schema) {
+        tableMetas.entrySet().removeIf(e -> {
+            if (StringUtils.equalsIgnoreCase(e.getKey(), schema)) {
+                tableMetaCount.addAndGet(-e.getValue().size());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void invalidateTable(String schema, String table) {
+        tableMetas.forEach((k, schemaMetas) -> {
+            // schema未知时，同名表全部失效
+            if (StringUtils.isBlank(schema) || StringUtils.equalsIgnoreCase(k, schema)) {
+                schemaMetas.keySet().removeIf(t -> {
+                    if (StringUtils.equalsIgnoreCase(t, table)) {
+                        tableMetaCount.decrementAndGet();
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        });
+    }
+
     @Override
     public boolean rollback(BinlogPosition position) {
         throw new RuntimeException("not support for memory");
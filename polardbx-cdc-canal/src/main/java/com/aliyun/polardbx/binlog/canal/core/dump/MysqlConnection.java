@@ -14,6 +14,7 @@
  */
 package com.aliyun.polardbx.binlog.canal.core.dump;
 
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.canal.DefaultBinlogFileInfoFetcher;
 import com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher;
 import com.aliyun.polardbx.binlog.canal.binlog.LogContext;
@@ -45,6 +46,8 @@ import java.sql.Statement;
 import java.util.List;
 import java.util.Properties;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_EXTRACTOR_DUMP_PREFETCH_BUFFER_BYTES;
+
 /**
  * mysql链接相关处理
  *
@@ -176,6 +179,7 @@ public class MysqlConnection implements ErosaConnection {
         reconnect();
         updateSettings();
         try(DirectLogFetcher fetcher = new DirectLogFetcher(bufferSize)) {
+            fetcher.setPrefetchBufferBytes(DynamicApplicationConfig.getLong(TASK_EXTRACTOR_DUMP_PREFETCH_BUFFER_BYTES));
             fetcher.open(conn, binlogfilename, binlogPosition, (int) generateUniqueServerId());
             LogDecoder decoder = new LogDecoder(LogEvent.UNKNOWN_EVENT, LogEvent.ENUM_END_EVENT);
             decoder.setNeedFixRotate(false);
@@ -218,6 +222,7 @@ public class MysqlConnection implements ErosaConnection {
     public LogFetcher providerFetcher(String binlogfilename, long binlogPosition, boolean search) throws IOException {
         updateSettings();
         DirectLogFetcher fetcher = new DirectLogFetcher(bufferSize);
+        fetcher.setPrefetchBufferBytes(DynamicApplicationConfig.getLong(TASK_EXTRACTOR_DUMP_PREFETCH_BUFFER_BYTES));
         fetcher.open(conn, binlogfilename, binlogPosition, (int) generateUniqueServerId());
         return fetcher;
     }
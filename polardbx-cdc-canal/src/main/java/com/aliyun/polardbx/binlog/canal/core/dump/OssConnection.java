@@ -264,7 +264,7 @@ public class OssConnection implements ErosaConnection {
     }
 
     private LogFetcher providerRemoteUrlFetcher(BinlogFile ossBinlogFile, long binlogPosition) throws IOException {
-        URLLogFetcher fetcher = new URLLogFetcher();
+        URLLogFetcher fetcher = new URLLogFetcher(localBinlogDir);
         fetcher.open(ossBinlogFile.getIntranetDownloadLink(), binlogPosition, ossBinlogFile.getFileSize());
         logger.info("provider fetcher url fetcher url ： " + ossBinlogFile.getDownloadLink() + " pos : "
             + binlogPosition);
@@ -19,6 +19,7 @@ import com.aliyun.polardbx.binlog.canal.HandlerEvent;
 import com.aliyun.polardbx.binlog.canal.LogEventFilter;
 import com.aliyun.polardbx.binlog.canal.LogEventHandler;
 import com.aliyun.polardbx.binlog.canal.RuntimeContext;
+import com.aliyun.polardbx.binlog.canal.TsoCheckpointIndex;
 import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
 import com.aliyun.polardbx.binlog.canal.binlog.LogPosition;
 import com.aliyun.polardbx.binlog.canal.core.ddl.ThreadRecorder;
@@ -43,6 +44,7 @@ public class DefaultBinlogEventHandle implements EventHandle {
     private String requestTSO;
     private ServerCharactorSet serverCharactorSet;
     private int lowerCaseTableNames;
+    private TsoCheckpointIndex tsoCheckpointIndex;
 
     public DefaultBinlogEventHandle(AuthenticationInfo runningInfo, String polarxVersion,
                                     BinlogPosition startPosition, String requestTSO,
@@ -72,6 +74,10 @@ public class DefaultBinlogEventHandle implements EventHandle {
         this.eventHandler = eventHandler;
     }
 
+    public void setTsoCheckpointIndex(TsoCheckpointIndex tsoCheckpointIndex) {
+        this.tsoCheckpointIndex = tsoCheckpointIndex;
+    }
+
     public void markDnTransferBarrier() {
         runtimeContext.markBindDnTransferMaxTSOBarrier();
     }
@@ -116,6 +122,7 @@ public class DefaultBinlogEventHandle implements EventHandle {
         runtimeContext.setHostAddress(runningInfo.getAddress().getAddress().getHostAddress());
         runtimeContext.setLowerCaseTableNames(lowerCaseTableNames);
         runtimeContext.setAuthenticationInfo(runningInfo);
+        runtimeContext.setTsoCheckpointIndex(tsoCheckpointIndex);
         head.setRuntimeContext(runtimeContext);
         head.fireStart();
         head.fireStartConsume();
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class TsoCheckpointIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSeekAndReload() throws Exception {
+        File dir = folder.newFolder();
+        TsoCheckpointIndex index = new TsoCheckpointIndex(dir, "dn-1", 100, 100);
+        index.record(10, "rtso-10", "mysql-bin.000001", 400, "cmd-1");
+        index.record(20, "rtso-20", "mysql-bin.000002", 4, "cmd-1");
+        index.record(20, "rtso-20", "mysql-bin.000002", 800, "cmd-1");
+        index.record(30, "rtso-30", "mysql-bin.000003", 120, "");
+
+        TsoCheckpointIndex reloaded = new TsoCheckpointIndex(dir, "dn-1", 100, 100);
+        reloaded.load();
+        Assert.assertEquals(3, reloaded.getEntries().size());
+        Assert.assertNull(reloaded.seek(10));
+        Assert.assertEquals(10, reloaded.seek(20).getTso());
+        Assert.assertEquals("mysql-bin.000002", reloaded.seek(25).getFileName());
+        Assert.assertEquals(4, reloaded.seek(25).getPosition());
+        Assert.assertEquals("", reloaded.seek(31).getCommandId());
+
+        // 主备切换之后serverId发生变化，之前的位点全部失效
+        TsoCheckpointIndex switched = new TsoCheckpointIndex(dir, "dn-1", 101, 100);
+        switched.load();
+        Assert.assertNull(switched.seek(31));
+    }
+
+    @Test
+    public void testBrokenTailAndPrune() throws Exception {
+        File dir = folder.newFolder();
+        TsoCheckpointIndex index = new TsoCheckpointIndex(dir, "dn-1", 100, 100);
+        index.record(10, "rtso-10", "mysql-bin.000001", 400, "cmd-1");
+        index.record(20, "rtso-20", "mysql-bin.000002", 4, "cmd-1");
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "dn-1.tso.index"), true)) {
+            out.write("30,rtso-30,100,mysql-b".getBytes(StandardCharsets.UTF_8));
+        }
+
+        index.load();
+        Assert.assertEquals(2, index.getEntries().size());
+        index.prune("mysql-bin.000002");
+        Assert.assertEquals(1, index.getEntries().size());
+
+        TsoCheckpointIndex reloaded = new TsoCheckpointIndex(dir, "dn-1", 100, 100);
+        reloaded.load();
+        Assert.assertEquals(1, reloaded.getEntries().size());
+        Assert.assertEquals(20, reloaded.seek(100).getTso());
+    }
+
+    @Test
+    public void testMaxEntriesAndTopology() throws Exception {
+        File dir = folder.newFolder();
+        TsoCheckpointIndex index = new TsoCheckpointIndex(dir, "dn-1", 100, 10);
+        for (int i = 1; i <= 11; i++) {
+            index.record(i, "rtso-" + i, "mysql-bin.000001", i * 100, "cmd-1");
+        }
+        Assert.assertEquals(5, index.getEntries().size());
+        Assert.assertEquals(7, index.getEntries().get(0).getTso());
+
+        index.storeTopology("cmd-1", "{\"a\":1}");
+        Assert.assertEquals("{\"a\":1}", index.loadTopology("cmd-1"));
+        Assert.assertNull(index.loadTopology("cmd-2"));
+    }
+
+    @Test
+    public void testResolveTopologyMismatch() throws Exception {
+        File dir = folder.newFolder();
+        TsoCheckpointIndex index = new TsoCheckpointIndex(dir, "dn-1", 100, 100);
+        index.record(10, "rtso-10", "mysql-bin.000001", 400, "cmd-1");
+        index.record(20, "rtso-20", "mysql-bin.000001", 800, "");
+
+        // 拓扑文件缺失
+        Assert.assertNull(index.resolveTopology(index.seek(15)));
+
+        // 拓扑文件已被新的指令覆盖，与位点记录的commandId不一致
+        index.storeTopology("cmd-2", "{\"b\":2}");
+        Assert.assertNull(index.resolveTopology(index.seek(15)));
+
+        // 位点未关联commandId
+        index.storeTopology("cmd-1", "{\"a\":1}");
+        Assert.assertNull(index.resolveTopology(index.seek(25)));
+
+        Assert.assertEquals("{\"a\":1}", index.resolveTopology(index.seek(15)));
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.MAX_PACKET_LENGTH;
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.NET_HEADER_SIZE;
+
+public class DirectLogFetcherTest {
+
+    @Test
+    public void testPrefetchSameAsDirectRead() throws Exception {
+        List<byte[]> events = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            events.add(randomBytes(random, 19 + random.nextInt(8192)));
+        }
+        // 超过16M的event会被拆分成多个包发送
+        events.add(1000, randomBytes(random, MAX_PACKET_LENGTH + 1024));
+        events.add(randomBytes(random, MAX_PACKET_LENGTH - 1));
+
+        assertEvents(events, fetchAll(events, null, 0));
+        assertEvents(events, fetchAll(events, null, 256 * 1024));
+    }
+
+    @Test
+    public void testPrefetchErrorPacket() throws Exception {
+        List<byte[]> events = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 10; i++) {
+            events.add(randomBytes(random, 100));
+        }
+        byte[] error = errorPacket("Could not find first log file name in binary log index file");
+        try {
+            fetchAll(events, error, 1024);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("errno = 1236"));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPrefetcherExitOnTruncatedStream() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int seq = writePacket(output, new byte[] {0, 1, 2, 3}, 1);
+        writePacket(output, new byte[] {0, 4, 5, 6}, seq);
+        byte[] bytes = output.toByteArray();
+
+        // 第二个包只有一半，预读线程读到流的末尾后退出，解析线程不能一直等待
+        BinlogDumpPrefetcher prefetcher =
+            new BinlogDumpPrefetcher(new ByteArrayInputStream(bytes, 0, bytes.length - 2), 1024);
+        prefetcher.start();
+        BinlogDumpPrefetcher.Packet packet = prefetcher.take(null);
+        Assert.assertEquals(NET_HEADER_SIZE + 4, packet.length);
+        Assert.assertSame(BinlogDumpPrefetcher.Packet.END, prefetcher.take(packet.data));
+        Assert.assertSame(BinlogDumpPrefetcher.Packet.END, prefetcher.take(null));
+        prefetcher.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testPrefetcherRethrowReadError() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writePacket(output, new byte[] {0, 1, 2, 3}, 1);
+        IOException error = new IOException("connection reset");
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw error;
+            }
+        };
+
+        // 出错之前已经读到的包仍然可以取出，之后抛出预读线程的异常
+        BinlogDumpPrefetcher prefetcher = new BinlogDumpPrefetcher(
+            new SequenceInputStream(new ByteArrayInputStream(output.toByteArray()), broken), 1024);
+        prefetcher.start();
+        BinlogDumpPrefetcher.Packet packet = prefetcher.take(null);
+        Assert.assertEquals(NET_HEADER_SIZE + 4, packet.length);
+        try {
+            prefetcher.take(packet.data);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertSame(error, e);
+        }
+        prefetcher.close();
+    }
+
+    private List<byte[]> fetchAll(List<byte[]> events, byte[] tail, long prefetchBytes) throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread serverThread = new Thread(() -> serve(server, events, tail), "fake-binlog-dump-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            List<byte[]> result = new ArrayList<>();
+            try (Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+                DirectLogFetcher fetcher = new DirectLogFetcher()) {
+                fetcher.setPrefetchBufferBytes(prefetchBytes);
+                fetcher.open(socket.getInputStream(), socket.getOutputStream(), "mysql-bin.000001", 4, 1, false);
+                while (fetcher.fetch()) {
+                    result.add(fetcher.getData());
+                    fetcher.consume(fetcher.limit());
+                }
+            }
+            serverThread.join();
+            return result;
+        }
+    }
+
+    private void serve(ServerSocket server, List<byte[]> events, byte[] tail) {
+        try (Socket socket = server.accept()) {
+            InputStream input = socket.getInputStream();
+            byte[] header = new byte[NET_HEADER_SIZE];
+            readFully(input, header);
+            byte[] command = new byte[(header[0] & 0xff) | (header[1] & 0xff) << 8 | (header[2] & 0xff) << 16];
+            readFully(input, command);
+            Assert.assertEquals(DirectLogFetcher.COM_BINLOG_DUMP, command[0]);
+
+            OutputStream output = socket.getOutputStream();
+            int seq = 1;
+            for (byte[] event : events) {
+                byte[] payload = new byte[event.length + 1];
+                System.arraycopy(event, 0, payload, 1, event.length);
+                seq = writePacket(output, payload, seq);
+            }
+            if (tail != null) {
+                writePacket(output, tail, seq);
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int writePacket(OutputStream output, byte[] payload, int seq) throws IOException {
+        int offset = 0;
+        while (true) {
+            int len = Math.min(MAX_PACKET_LENGTH, payload.length - offset);
+            output.write(new byte[] {(byte) len, (byte) (len >>> 8), (byte) (len >>> 16), (byte) seq++});
+            output.write(payload, offset, len);
+            offset += len;
+            if (len < MAX_PACKET_LENGTH) {
+                return seq;
+            }
+        }
+    }
+
+    private byte[] errorPacket(String message) {
+        byte[] msg = message.getBytes(StandardCharsets.UTF_8);
+        byte[] packet = new byte[1 + 2 + 1 + 5 + msg.length];
+        packet[0] = (byte) 0xff;
+        packet[1] = (byte) (1236 & 0xff);
+        packet[2] = (byte) (1236 >>> 8);
+        packet[3] = '#';
+        System.arraycopy("HY000".getBytes(StandardCharsets.UTF_8), 0, packet, 4, 5);
+        System.arraycopy(msg, 0, packet, 9, msg.length);
+        return packet;
+    }
+
+    private void assertEvents(List<byte[]> expected, List<byte[]> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertTrue("event " + i, Arrays.equals(expected.get(i), actual.get(i)));
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void readFully(InputStream input, byte[] buf) throws IOException {
+        for (int n = 0, count; n < buf.length; n += count) {
+            if ((count = input.read(buf, n, buf.length - n)) < 0) {
+                throw new IOException("unexpected end of stream");
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.canal.binlog.download;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RangeChunkInputStreamTest {
+    private static final int FILE_SIZE = 1024 * 1024 + 123;
+
+    private final byte[] content = new byte[FILE_SIZE];
+    private HttpServer server;
+    private File spoolDir;
+
+    @Before
+    public void before() throws IOException {
+        new Random(7).nextBytes(content);
+        spoolDir = Files.createTempDirectory("range-chunk").toFile();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/binlog", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int begin = Integer.parseInt(bounds[0]);
+            int end = Math.min(Integer.parseInt(bounds[1]), FILE_SIZE - 1);
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + begin + "-" + end + "/" + FILE_SIZE);
+            exchange.sendResponseHeaders(206, end - begin + 1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content, begin, end - begin + 1);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void after() {
+        server.stop(0);
+        File[] files = spoolDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        spoolDir.delete();
+    }
+
+    @Test
+    public void testStreamOverHttpWithRollingWindow() throws IOException {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/binlog";
+        int chunkSize = 64 * 1024;
+        int window = 3;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RangeChunkInputStream in = new RangeChunkInputStream(new HttpRangeReader(url), FILE_SIZE, chunkSize, 4,
+            window, spoolDir)) {
+            byte[] buf = new byte[10000];
+            int n;
+            while ((n = in.read(buf, 0, buf.length)) != -1) {
+                out.write(buf, 0, n);
+                // 已落盘的分块不能超过窗口大小
+                Assert.assertTrue(spoolDir.list().length <= window);
+            }
+            Assert.assertEquals(FILE_SIZE, in.getFetchedBytes().get());
+        }
+        Assert.assertArrayEquals(content, out.toByteArray());
+        Assert.assertEquals(0, spoolDir.list().length);
+    }
+
+    @Test
+    public void testSkipDoesNotFetchSkippedChunks() throws IOException {
+        int chunkSize = 1000;
+        AtomicInteger opened = new AtomicInteger();
+        RangeReader reader = (begin, end) -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(content, (int) begin, (int) (end - begin + 1));
+        };
+        try (RangeChunkInputStream in = new RangeChunkInputStream(reader, FILE_SIZE, chunkSize, 2, 2, null)) {
+            Assert.assertEquals(FILE_SIZE - 500, in.skip(FILE_SIZE - 500));
+            byte[] buf = new byte[600];
+            int total = 0;
+            int n;
+            while ((n = in.read(buf, total, buf.length - total)) != -1) {
+                total += n;
+            }
+            Assert.assertEquals(500, total);
+            for (int i = 0; i < 500; i++) {
+                Assert.assertEquals(content[FILE_SIZE - 500 + i], buf[i]);
+            }
+        }
+        Assert.assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void testRetryAndFailure() throws IOException {
+        AtomicInteger failures = new AtomicInteger();
+        RangeReader flaky = (begin, end) -> {
+            if (begin == 0 && failures.getAndIncrement() == 0) {
+                throw new IOException("connection reset");
+            }
+            return new ByteArrayInputStream(content, (int) begin, (int) (end - begin + 1));
+        };
+        try (RangeChunkInputStream in = new RangeChunkInputStream(flaky, 4096, 1024, 2, 2, spoolDir)) {
+            byte[] buf = new byte[4096];
+            Assert.assertTrue(in.read(buf, 0, buf.length) > 0);
+            Assert.assertEquals(1, in.getRetryCount().get());
+        }
+
+        RangeReader broken = (begin, end) -> {
+            throw new IOException("not found");
+        };
+        try (RangeChunkInputStream in = new RangeChunkInputStream(broken, 4096, 1024, 2, 2, null)) {
+            in.read();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("not found", e.getCause().getMessage());
+        }
+    }
+}
@@ -167,6 +167,28 @@ public class MemoryTableMetaTest {
         System.out.println(tableMeta);
     }
 
+    @Test
+    public void testInvalidateOnlyAffectedTables() {
+        MemoryTableMeta memoryTableMeta = new MemoryTableMeta(null, false);
+        memoryTableMeta.apply(null, "test_db", "create table t1(id int)", null);
+        memoryTableMeta.apply(null, "test_db", "create table t2(id int)", null);
+        TableMeta t1 = memoryTableMeta.find("test_db", "t1");
+        TableMeta t2 = memoryTableMeta.find("test_db", "t2");
+        Assert.assertSame(t1, memoryTableMeta.find("test_db", "t1"));
+
+        memoryTableMeta.apply(null, "test_db", "alter table `T1` add column name varchar(20)", null);
+        Assert.assertSame(t2, memoryTableMeta.find("test_db", "t2"));
+        Assert.assertEquals(1, t1.getFields().size());
+        Assert.assertEquals(2, memoryTableMeta.find("test_db", "t1").getFields().size());
+
+        memoryTableMeta.apply(null, "test_db", "rename table t2 to t3", null);
+        Assert.assertNull(memoryTableMeta.find("test_db", "t2"));
+        Assert.assertNotNull(memoryTableMeta.find("test_db", "t3"));
+
+        memoryTableMeta.apply(null, "test_db", "drop database test_db", null);
+        Assert.assertNull(memoryTableMeta.find("test_db", "t1"));
+    }
+
     @Test
     public void testTableWithPartition() {
         String ddl = "CREATE TABLE `t_order_2_scri_00000` (\n"
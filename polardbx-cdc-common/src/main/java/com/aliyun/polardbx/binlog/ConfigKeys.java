@@ -104,6 +104,14 @@ public abstract class ConfigKeys {
      * 是否打印metrics
      */
     public static final String PRINT_METRICS = "printMetrics";
+    /**
+     * 按表和按merge source统计吞吐热力图时，每个维度最多保留的key的个数，超过后按Space-Saving算法淘汰
+     */
+    public static final String METRICS_HEATMAP_CAPACITY = "metrics.heatmap.capacity";
+    /**
+     * 热力图每个维度打印和上报的top N
+     */
+    public static final String METRICS_HEATMAP_TOP_N = "metrics.heatmap.topN";
     /**
      * 激活Daemon接口ACL
      */
@@ -140,6 +148,34 @@ public abstract class ConfigKeys {
      * 检测连接是否可用的超时时间
      */
     public static final String DATASOURCE_WRAPPER_CHECK_VALID_TIMEOUT_SEC = "datasource.wrapper.checkValid.timeout.sec";
+    /**
+     * 是否开启进程内的线程采样(CPU和内存分配)，采样结果写到本地，由daemon的/profile接口输出火焰图数据，默认false
+     */
+    public static final String PROFILE_ENABLE = "profile.enable";
+    /**
+     * 线程栈采样间隔，单位：ms，最小10，默认20(50Hz)
+     */
+    public static final String PROFILE_SAMPLE_INTERVAL_MS = "profile.sample.intervalMs";
+    /**
+     * 采样结果在本地保留的时长，单位：分钟
+     */
+    public static final String PROFILE_RETENTION_MINUTES = "profile.retention.minutes";
+    /**
+     * 参与采样的线程名前缀，多个用逗号分隔，为空表示采样所有线程
+     */
+    public static final String PROFILE_THREAD_PREFIXES = "profile.thread.prefixes";
+    /**
+     * 采样时线程栈的最大深度
+     */
+    public static final String PROFILE_STACK_MAX_DEPTH = "profile.stack.maxDepth";
+    /**
+     * 每分钟最多保留的不同线程栈的个数，超过之后按线程组归并到[truncated]
+     */
+    public static final String PROFILE_MAX_STACKS_PER_MINUTE = "profile.maxStacksPerMinute";
+    /**
+     * 采样结果的存储目录，每个进程一个子目录
+     */
+    public static final String PROFILE_DIR = "profile.dir";
 
     //******************************************************************************************************************
     //********************************************Rpc Protocol协议交互相关配置**************************************
@@ -206,6 +242,14 @@ public abstract class ConfigKeys {
      * 写binlog文件时是否支持校验tso的顺序和重复行
      */
     public static final String BINLOG_WRITE_CHECK_TSO = "binlog.write.checkTso";
+    /**
+     * 是否在内存中缓存最近写入的binlog event元数据，用于响应SHOW BINLOG EVENTS和按tso/库表检索event，避免读取binlog文件
+     */
+    public static final String BINLOG_EVENT_CACHE_ENABLE = "binlog.eventCache.enable";
+    /**
+     * binlog event元数据缓存的内存上限，单位字节，超过后按文件从旧到新淘汰
+     */
+    public static final String BINLOG_EVENT_CACHE_MAX_BYTES = "binlog.eventCache.maxBytes";
     /**
      * 逻辑binlog写缓冲区的大小，单位字节，建议为2的倍数
      */
@@ -214,6 +258,10 @@ public abstract class ConfigKeys {
      * 逻辑Binlog写入时，缓冲区是否使用直接内存，默认true
      */
     public static final String BINLOG_WRITE_USE_DIRECT_BYTE_BUFFER = "binlog.write.useDirectByteBuffer";
+    /**
+     * 是否在后台提前创建下一个binlog文件(按binlog文件大小写0预分配磁盘空间)和写缓冲区，rotate时直接切换，默认true
+     */
+    public static final String BINLOG_WRITE_STAGE_NEXT_FILE_ENABLED = "binlog.write.stageNextFile.enabled";
     /**
      * 逻辑Binlog Write Buffer中的数据flush的策略，0-每个事务flush一次，1-定时flush
      */
@@ -280,9 +328,19 @@ public abstract class ConfigKeys {
     public static final String BINLOG_SYNC_FLOW_CONTROL_WINDOW_SIZE =
         "binlog.sync.flowControl.window.size";
     /**
-     * dumper主备复制，对event进行拆包的方式，默认client端拆包，可以有更好的性能
+     * dumper主备复制，对event进行拆包的方式，默认client端拆包，可以有更好的性能；
+     * BLOCK模式下按文件块传输，附带CRC32校验和event边界索引，slave端无需逐个解析event
      */
     public static final String BINLOG_SYNC_EVENT_SPLIT_MODE = "binlog.sync.event.split.mode";
+    /**
+     * dumper主备复制，BLOCK模式下是否对块进行压缩，默认false，跨机房等带宽受限的场景可以打开。
+     * 压缩使用Deflater(BEST_SPEED)，单核约50MB/s，binlog写入速率高于该值时压缩本身会成为复制延迟的瓶颈
+     */
+    public static final String BINLOG_SYNC_BLOCK_COMPRESS_ENABLED = "binlog.sync.block.compress.enabled";
+    /**
+     * dumper主备复制，BLOCK模式下块大小超过该值时才进行压缩，单位：字节，默认4096
+     */
+    public static final String BINLOG_SYNC_BLOCK_COMPRESS_MIN_SIZE = "binlog.sync.block.compress.minSize";
 
     public static final String BINLOG_SYNC_INJECT_TROUBLE = "binlog.sync.injectTrouble";
 
@@ -303,6 +361,23 @@ public abstract class ConfigKeys {
      * dumper对现有消费订阅，当长时间没有数据时，发送heartbeat的频率，默认1s
      */
     public static final String BINLOG_DUMP_HEARTBEAT_INTERVAL_MS = "binlog.dump.heartbeat.interval.ms";
+    /**
+     * dumper对下游消费订阅，是否根据下游的消费速度自适应调整packet大小，默认true
+     */
+    public static final String BINLOG_DUMP_ADAPTIVE_PACKET_ENABLE = "binlog.dump.adaptive.packet.enable";
+    /**
+     * dumper对下游消费订阅，自适应调整packet大小时packet的最小值，单位：字节，默认65536
+     */
+    public static final String BINLOG_DUMP_ADAPTIVE_MIN_PACKET_SIZE = "binlog.dump.adaptive.min.packet.size";
+    /**
+     * dumper对下游消费订阅，自适应调整packet大小时，期望单个packet被下游消费掉的时间，单位：ms，默认50
+     */
+    public static final String BINLOG_DUMP_ADAPTIVE_TARGET_DRAIN_TIME_MS =
+        "binlog.dump.adaptive.target.drain.time.ms";
+    /**
+     * dumper对下游消费订阅，stream不可写时，等待onReady回调的最长时间，单位：ms，默认1000
+     */
+    public static final String BINLOG_DUMP_READY_WAIT_TIMEOUT_MS = "binlog.dump.ready.wait.timeout.ms";
     /**
      * dumper 启动后等待 cursor ready重试间隔
      */
@@ -315,6 +390,28 @@ public abstract class ConfigKeys {
     public static final String BINLOG_DUMP_WAIT_CURSOR_READY_TIMES_LIMIT =
         "binlog.dump.wait.cursor.ready.times.limit";
 
+    /**
+     * 是否开启列存格式的变更数据导出，开启后dumper会额外订阅一路TxnMessage，将行变更按TSO分区写入列存文件，默认false
+     */
+    public static final String BINLOG_COLUMNAR_EXPORT_ENABLE = "binlog.columnar.export.enable";
+    /**
+     * 列存导出文件的根目录，为空时使用binlog根目录的同级目录(binlog根目录 + "_columnar")
+     */
+    public static final String BINLOG_COLUMNAR_EXPORT_DIR = "binlog.columnar.export.dir";
+    /**
+     * 列存导出时单个batch(单张表)最多包含的行数，默认4096
+     */
+    public static final String BINLOG_COLUMNAR_EXPORT_BATCH_ROWS = "binlog.columnar.export.batch.rows";
+    /**
+     * 列存导出单个文件的最大大小，超过后在事务边界处滚动，单位：字节，默认256M
+     */
+    public static final String BINLOG_COLUMNAR_EXPORT_FILE_SIZE = "binlog.columnar.export.file.size";
+    /**
+     * 列存导出单个文件的最长写入时间，超过后在事务边界处滚动，单位：秒，默认300
+     */
+    public static final String BINLOG_COLUMNAR_EXPORT_FILE_ROLL_INTERVAL_SECOND =
+        "binlog.columnar.export.file.roll.interval.second";
+
     /**
      * 逻辑Binlog文件的备份方式，OSS or Lindorm or NULL
      */
@@ -452,6 +549,10 @@ public abstract class ConfigKeys {
      * 逻辑库黑名单，黑名单中的库会被过滤掉，格式: dbname1,dbname2,dbname3,...
      */
     public static final String TASK_EXTRACTOR_LOGIC_DB_BLACKLIST = "task.extractor.logicDb.blacklist";
+    /**
+     * 通过binlog dump协议从DN拉取binlog时，预读缓冲区的最大字节数，预读线程和解析线程并行，小于等于0表示关闭预读
+     */
+    public static final String TASK_EXTRACTOR_DUMP_PREFETCH_BUFFER_BYTES = "task.extractor.dump.prefetchBufferBytes";
     /**
      * 是否强制从backup存储下载rds binlog并消费
      */
@@ -485,6 +586,22 @@ public abstract class ConfigKeys {
      * 下载Binlog文件时，所能使用的线程限制
      */
     public static final String TASK_RDSBINLOG_THREAD_LIMIT = "task.rdsbinlog.thread.limit";
+    /**
+     * 是否以流式方式消费备份binlog，按Range分块并行拉取，首个分块到达即可开始解析，不需要等待整个文件下载完成
+     */
+    public static final String TASK_RDSBINLOG_STREAMING_ENABLE = "task.rdsbinlog.streaming.enable";
+    /**
+     * 流式消费备份binlog时，每个Range分块的大小，单位字节
+     */
+    public static final String TASK_RDSBINLOG_STREAMING_CHUNK_SIZE = "task.rdsbinlog.streaming.chunkSize";
+    /**
+     * 流式消费备份binlog时，单个binlog文件并行拉取分块的线程数
+     */
+    public static final String TASK_RDSBINLOG_STREAMING_PARALLELISM = "task.rdsbinlog.streaming.parallelism";
+    /**
+     * 流式消费备份binlog时，已拉取但还未被解析的分块数上限，决定了单个DN占用的磁盘窗口大小
+     */
+    public static final String TASK_RDSBINLOG_STREAMING_WINDOW_CHUNKS = "task.rdsbinlog.streaming.windowChunks";
     /**
      * merger是否开启dry run，开启的话则不会向collector发送数据
      */
@@ -536,6 +653,24 @@ public abstract class ConfigKeys {
      * 在collector阶段构建DumpReply Packet的阈值，默认65536(单位：字节)，TxnBuffer size小于该阈值时，会在collector阶段构建packet，以提升性能
      */
     public static final String TASK_COLLECTOR_BUILD_PACKET_THRESHOLD = "task.collector.buildPacket.threshold";
+    /**
+     * collector merge阶段，XA事务的参与分片数达到该阈值时，对TxnBuffer进行分组并行归并，默认64
+     */
+    public static final String TASK_COLLECTOR_MERGE_STAGE_STRIPE_THRESHOLD =
+        "task.collector.mergeStage.stripeThreshold";
+    /**
+     * collector merge阶段，分组并行归并时每个分组包含的TxnBuffer个数，默认16
+     */
+    public static final String TASK_COLLECTOR_MERGE_STAGE_STRIPE_SIZE = "task.collector.mergeStage.stripeSize";
+    /**
+     * collector merge阶段，分组并行归并的线程数，默认4
+     */
+    public static final String TASK_COLLECTOR_MERGE_STAGE_STRIPE_PARALLELISM =
+        "task.collector.mergeStage.stripeParallelism";
+    /**
+     * collector中disruptor消费者的等待策略，可选值：BLOCKING、YIELDING、SLEEPING、BUSY_SPIN，默认BLOCKING
+     */
+    public static final String TASK_COLLECTOR_WAIT_STRATEGY = "task.collector.waitStrategy";
     /**
      * transmitter是否开启dry run，默认false
      */
@@ -585,6 +720,10 @@ public abstract class ConfigKeys {
      */
     public static final String TASK_QUEUE_TRANSMITTER_SIZE = "task.queue.transmitter.size";
     public static final String TASK_QUEUE_DUMPING_SIZE = "task.queue.dumping.size";
+    /**
+     * 全链路分阶段延迟追踪的采样比例，每N个DML事务采样1个打点，0表示关闭，默认1000
+     */
+    public static final String TASK_STAGE_TRACE_SAMPLE_RATIO = "task.stageTrace.sampleRatio";
     /**
      * search tso时，是否必须要求search到的rollback tso必须大于等于上一次ScaleOut或ScaleIn的Tso，默认为false
      * 主要用在测试环境，同一个storage被反复add和remove时，需保证rollback tso大于等于最近一次StorageChange的tso，否则构建出来的元数据有问题
@@ -622,6 +761,22 @@ public abstract class ConfigKeys {
      * 搜索位点使用v1算法
      */
     public static final String TASK_SEARCHTSO_HANDLE_V1 = "task.searchTso.handle.v1";
+    /**
+     * 是否开启本地TSO位点索引，开启后重启时优先从索引定位位点，索引缺失或失效时再搜索binlog文件
+     */
+    public static final String TASK_TSO_CHECKPOINT_ENABLED = "task.tsoCheckpoint.enabled";
+    /**
+     * TSO位点索引的本地存储目录
+     */
+    public static final String TASK_TSO_CHECKPOINT_DIR = "task.tsoCheckpoint.dir";
+    /**
+     * TSO位点索引的记录间隔，单位：秒
+     */
+    public static final String TASK_TSO_CHECKPOINT_INTERVAL_SECOND = "task.tsoCheckpoint.intervalSecond";
+    /**
+     * 单个DN的TSO位点索引最多保留的条数
+     */
+    public static final String TASK_TSO_CHECKPOINT_MAX_ENTRIES = "task.tsoCheckpoint.maxEntries";
     /**
      * oss 下载cache大小
      */
@@ -886,6 +1041,24 @@ public abstract class ConfigKeys {
      * 进行并行restore时，eventSize的最大值，如果大于该阈值，则不进行restore操作
      */
     public static final String STORAGE_PARALLEL_RESTORE_MAX_EVENT_SIZE = "storage.parallelRestore.maxEventSize";
+    /**
+     * 进行并行restore时，单个迭代器预读到内存中但还未被消费的数据量上限，单位：字节，超过上限的event在消费时再按需读取，
+     * 保证超大事务的内存占用与事务大小无关，默认64M
+     */
+    public static final String STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES = "storage.parallelRestore.maxBufferBytes";
+    /**
+     * 进行并行restore时，在消费当前批次的同时提前发起restore的批次数，默认2
+     */
+    public static final String STORAGE_PARALLEL_RESTORE_READ_AHEAD_BATCHES =
+        "storage.parallelRestore.readAheadBatches";
+    /**
+     * 进行并行restore时，每次通过RocksDB MultiGet批量读取的TxnItem条数，默认32
+     */
+    public static final String STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE = "storage.parallelRestore.multiGetSize";
+    /**
+     * 对整个TxnBuffer进行restore时，RocksDB迭代器的预读大小，单位：字节，默认2M
+     */
+    public static final String STORAGE_RESTORE_READAHEAD_SIZE = "storage.restore.readaheadSize";
 
     //******************************************************************************************************************
     //***********************************************Polarx库表元数据相关参数**********************************************
@@ -947,6 +1120,14 @@ public abstract class ConfigKeys {
      */
     public static final String META_SEMI_SNAPSHOT_DELTA_CHANGE_CHECK_INTERVAL =
         "meta.semiSnapshot.deltaChange.checkInterval";
+    /**
+     * 每应用多少个逻辑DDL自动生成一个逻辑元数据checkpoint，rollback时从最近的checkpoint开始回放，小于等于0表示关闭
+     */
+    public static final String META_CHECKPOINT_DDL_INTERVAL = "meta.checkpoint.ddlInterval";
+    /**
+     * 回放DDL历史时，是否在应用当前页的同时异步查询下一页
+     */
+    public static final String META_HISTORY_PREFETCH_ENABLE = "meta.history.prefetch.enable";
     /**
      * 当未发生实际schema变更时，是否记录create if not exists 或者 drop if exists 到 binlog_logic_meta_history
      */
@@ -1077,6 +1258,14 @@ public abstract class ConfigKeys {
     public static final String BINLOG_X_TRANSMIT_READ_BATCH_BYTE_SIZE = "binlogx.transmit.read.batch.byte.size";
     public static final String BINLOG_X_TRANSMIT_READ_FILE_BUFFER_SIZE = "binlogx.transmit.read.file.buffer.size";
     public static final String BINLOG_X_TRANSMIT_READ_LOG_DETAIL_ENABLE = "binlogx.transmit.read.logDetail.enable";
+    /**
+     * 从relay文件读取数据时，预读并完成解码的数据块的最大个数，每个数据块的大小为binlogx.transmit.read.file.buffer.size，默认值：8
+     */
+    public static final String BINLOG_X_TRANSMIT_READ_PREFETCH_BLOCKS = "binlogx.transmit.read.prefetch.blocks";
+    /**
+     * 解码relay文件数据块的线程数，所有stream共享，默认值：2
+     */
+    public static final String BINLOG_X_TRANSMIT_READ_DECODE_PARALLELISM = "binlogx.transmit.read.decode.parallelism";
     public static final String BINLOG_X_TRANSMIT_WRITE_BATCH_SIZE = "binlogx.transmit.write.batchSize";
     public static final String BINLOG_X_TRANSMIT_WRITE_PARALLELISM = "binlogx.transmit.write.parallelism";
     public static final String BINLOG_X_TRANSMIT_WRITE_QUEUE_SIZE = "binlogx.transmit.write.queue.size";
@@ -1087,6 +1276,16 @@ public abstract class ConfigKeys {
     public static final String BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_THRESHOLD = "binlogx.transmit.write.slowdown.threshold";
     public static final String BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_SPEED = "binlogx.transmit.write.slowdown.speed";
     public static final String BINLOG_X_TRANSMIT_WRITE_STOP_THRESHOLD = "binlogx.transmit.write.stop.threshold";
+    /**
+     * relay数据所在磁盘的剩余空间比例低于该值时开始限速写入，剩余空间越少写入速度越低，默认值：0.2
+     */
+    public static final String BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_DISK_FREE_RATIO =
+        "binlogx.transmit.write.slowdown.diskFreeRatio";
+    /**
+     * relay数据所在磁盘的剩余空间比例低于该值时暂停写入，默认值：0.05
+     */
+    public static final String BINLOG_X_TRANSMIT_WRITE_STOP_DISK_FREE_RATIO =
+        "binlogx.transmit.write.stop.diskFreeRatio";
     public static final String BINLOG_X_TRANSMIT_WRITE_LOG_DETAIL_ENABLE = "binlogx.transmit.write.logDetail.enable";
     public static final String BINLOG_X_TRANSMIT_HASH_LEVEL = "binlogx_transmit_hash_level";
     public static final String BINLOG_X_USE_RECORD_LEVEL_HASH_DB_LIST = "binlogx.useRecordLevelHash.dbList";
@@ -1122,9 +1321,14 @@ public abstract class ConfigKeys {
      */
     public static final String BINLOG_X_CLEAN_RELAY_DATA_ENABLE = "binlogx.clean.relayData.enable";
     /**
-     * 对relay data进行清理的频率，单位：分钟，默认值：1min
+     * 检查各个流的可清理位点(备份checkpoint)的频率，单位：秒，位点跨过relay文件边界时才会真正触发清理，默认值：5s
+     */
+    public static final String BINLOG_X_CLEAN_RELAY_DATA_CHECK_INTERVAL = "binlogx.clean.relayData.checkInterval";
+    /**
+     * 异步清理relay文件时，每秒最多删除的文件个数，避免集中删除和写入争抢磁盘，默认值：10
      */
-    public static final String BINLOG_X_CLEAN_RELAY_DATA_INTERVAL = "binlogx.clean.relayData.interval";
+    public static final String BINLOG_X_CLEAN_RELAY_DATA_DELETE_FILES_PER_SECOND =
+        "binlogx.clean.relayData.deleteFilesPerSecond";
     /**
      * 多流场景下，所有Grpc client的flow control window size的总和，即每个client的 window-size = total-window-size / client-count
      * 如果不加控制的话，会导致直接内存out of memory
@@ -1163,6 +1367,11 @@ public abstract class ConfigKeys {
 
     public static final String RPL_DEFAULT_IGNORE_DB_LIST = "rpl_default_ignore_db_list";
 
+    /**
+     * rpl从CDC dump binlog时，已接收未消费的数据块个数上限，超过后暂停向服务端请求数据
+     */
+    public static final String RPL_CDC_DUMP_MAX_QUEUED_CHUNKS = "rpl.cdc.dump.maxQueuedChunks";
+
     //******************************************************************************************************************
     //*********************************Binlog_System_Config表中有，但config文件中没有的一些配置******************************
     //******************************************************************************************************************
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog;
+
+import java.util.function.Function;
+
+/**
+ * 绑定到某个配置项的类型化配置值，适用于每个event或每个事务都要读取的配置 <br>
+ * 1、读取时直接从DynamicApplicationConfig发布的不可变快照中取解析好的值，只有一次volatile读，不再经过IConfigDataProvider和字符串解析 <br>
+ * 2、首次读取时懒加载，firePropChange时重新解析所有已加载的值并整体发布新快照，动态修改配置依然生效 <br>
+ * 3、一般声明为static final字段，getString对INST_IP的特殊处理不适用于此类
+ */
+public final class ConfigValue<T> {
+    private final String key;
+    private final Function<String, T> parser;
+    private final int index;
+
+    private ConfigValue(String key, Function<String, T> parser) {
+        this.key = key;
+        this.parser = parser;
+        this.index = DynamicApplicationConfig.bind(this);
+    }
+
+    public static ConfigValue<String> ofString(String key) {
+        return new ConfigValue<>(key, v -> v);
+    }
+
+    public static ConfigValue<Integer> ofInt(String key) {
+        return new ConfigValue<>(key, Integer::parseInt);
+    }
+
+    public static ConfigValue<Long> ofLong(String key) {
+        return new ConfigValue<>(key, Long::parseLong);
+    }
+
+    public static ConfigValue<Boolean> ofBoolean(String key) {
+        return new ConfigValue<>(key, Boolean::parseBoolean);
+    }
+
+    public static ConfigValue<Double> ofDouble(String key) {
+        return new ConfigValue<>(key, Double::parseDouble);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        return (T) DynamicApplicationConfig.getBoundValue(this);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    T parse(String value) {
+        return parser.apply(value);
+    }
+}
@@ -23,6 +23,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -38,12 +39,20 @@ public class DynamicApplicationConfig {
     private static List<String> watchPropList = Lists.newArrayList();
     private static IConfigDataProvider provider = new DbConfigDataProvider();
 
+    private static final Object NULL_VALUE = new Object();
+    private static final List<ConfigValue<?>> boundValues = Lists.newArrayList();
+    // ConfigValue解析后的值，按ConfigValue.index存放，发布后不再修改，null表示还未加载
+    private static volatile Object[] snapshot = new Object[0];
+
     public static String getValue(String key) {
         return provider.getValue(key);
     }
 
     public static void setConfigDataProvider(IConfigDataProvider provider) {
         DynamicApplicationConfig.provider = provider;
+        synchronized (boundValues) {
+            snapshot = new Object[0];
+        }
     }
 
     /**
@@ -53,6 +62,7 @@ public class DynamicApplicationConfig {
         Preconditions.checkArgument(StringUtils.isNotEmpty(key), "key should not be null or empty!");
         Preconditions.checkArgument(StringUtils.isNotEmpty(value), "value should not be null or empty!");
         SystemDbConfig.upsertSystemDbConfig(key, value);
+        refreshSnapshot();
     }
 
     public static String getString(String key) {
@@ -154,6 +164,7 @@ public class DynamicApplicationConfig {
 
     public static void firePropChange() {
         synchronized (changeListenerMap) {
+            refreshSnapshot();
             for (Map.Entry<String, String> propEntry : propBeforeImageMap.entrySet()) {
                 final String prop = propEntry.getKey();
                 final String oldValue = propEntry.getValue();
@@ -177,6 +188,66 @@ public class DynamicApplicationConfig {
         }
     }
 
+    /**
+     * 重新解析所有已加载过的ConfigValue，并整体发布新的快照，解析失败的配置保留旧值
+     */
+    public static void refreshSnapshot() {
+        synchronized (boundValues) {
+            Object[] values = snapshot;
+            Object[] newValues = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                ConfigValue<?> configValue = boundValues.get(i);
+                try {
+                    newValues[i] = parseBoundValue(configValue);
+                } catch (Throwable e) {
+                    log.error("refresh config value error, keep the old value, key : " + configValue.getKey(), e);
+                    newValues[i] = values[i];
+                }
+            }
+            snapshot = newValues;
+        }
+    }
+
+    static int bind(ConfigValue<?> configValue) {
+        synchronized (boundValues) {
+            boundValues.add(configValue);
+            return boundValues.size() - 1;
+        }
+    }
+
+    static Object getBoundValue(ConfigValue<?> configValue) {
+        Object[] values = snapshot;
+        int index = configValue.getIndex();
+        Object value = index < values.length ? values[index] : null;
+        if (value == null) {
+            value = loadBoundValue(configValue);
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    private static Object loadBoundValue(ConfigValue<?> configValue) {
+        synchronized (boundValues) {
+            Object[] values = snapshot;
+            int index = configValue.getIndex();
+            if (index < values.length && values[index] != null) {
+                return values[index];
+            }
+            Object value = parseBoundValue(configValue);
+            Object[] newValues = Arrays.copyOf(values, Math.max(values.length, boundValues.size()));
+            newValues[index] = value;
+            snapshot = newValues;
+            return value;
+        }
+    }
+
+    private static Object parseBoundValue(ConfigValue<?> configValue) {
+        Object value = configValue.parse(getValue(configValue.getKey()));
+        return value == null ? NULL_VALUE : value;
+    }
+
     public static void invalidateCache() {
         SystemDbConfig.invalidateCache();
     }
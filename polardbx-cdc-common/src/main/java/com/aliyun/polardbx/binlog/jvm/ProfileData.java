@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.jvm;
+
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThreadProfiler写出的采样数据的聚合视图，合并最近若干分钟的采样文件
+ */
+public class ProfileData {
+    public enum Type {
+        /**
+         * 按采样到的栈上消耗的CPU时间(ns)
+         */
+        CPU(2),
+        /**
+         * 按线程分配的堆内存(bytes)，只统计到线程，不区分栈
+         */
+        ALLOC(3),
+        /**
+         * 按采样次数
+         */
+        SAMPLES(1);
+
+        private final int column;
+
+        Type(int column) {
+            this.column = column;
+        }
+
+        public static Type parse(String type) {
+            if (StringUtils.isBlank(type)) {
+                return CPU;
+            }
+            try {
+                return valueOf(type.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new PolardbxException("invalid profile type " + type + ", should be one of "
+                    + Arrays.toString(values()));
+            }
+        }
+    }
+
+    private final Map<String, long[]> stacks = new HashMap<>();
+    @Getter
+    private int minutes;
+
+    public static File[] listProcessDirs(String profileDir) {
+        File[] dirs = new File(profileDir).listFiles(File::isDirectory);
+        return dirs == null ? new File[0] : dirs;
+    }
+
+    public static ProfileData load(File processDir, int lastMinutes) {
+        ProfileData data = new ProfileData();
+        String boundary = formatMinute(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(lastMinutes));
+        File[] files = processDir.listFiles((dir, name) -> name.endsWith(ThreadProfiler.FILE_SUFFIX)
+            && name.compareTo(boundary) >= 0);
+        if (files == null) {
+            return data;
+        }
+        for (File file : files) {
+            data.merge(file);
+        }
+        return data;
+    }
+
+    void merge(File file) {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] items = StringUtils.split(line, '\t');
+                if (items.length != 4) {
+                    continue;
+                }
+                long[] values = stacks.computeIfAbsent(items[0], k -> new long[4]);
+                for (int i = 1; i < 4; i++) {
+                    values[i] += Long.parseLong(items[i]);
+                }
+            }
+            minutes++;
+        } catch (IOException e) {
+            throw new PolardbxException("read profile file failed, " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 输出折叠栈格式(stack value)，可直接交给flamegraph.pl或speedscope渲染火焰图
+     */
+    public String toCollapsed(Type type) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(stacks.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[type.column], a.getValue()[type.column]));
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : entries) {
+            long value = entry.getValue()[type.column];
+            if (value > 0) {
+                sb.append(entry.getKey()).append(' ').append(value).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 按线程组(栈的第一帧)汇总，key为线程组，value依次为采样次数、CPU时间(ns)、分配内存(bytes)
+     */
+    public Map<String, long[]> groupByThread() {
+        Map<String, long[]> result = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : stacks.entrySet()) {
+            String stack = entry.getKey();
+            int index = stack.indexOf(';');
+            String group = index < 0 ? stack : stack.substring(0, index);
+            long[] values = result.computeIfAbsent(group, k -> new long[3]);
+            for (int i = 0; i < 3; i++) {
+                values[i] += entry.getValue()[i + 1];
+            }
+        }
+        return result;
+    }
+
+    static String formatMinute(long timestamp) {
+        return new SimpleDateFormat(ThreadProfiler.MINUTE_FORMAT).format(new Date(timestamp));
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.jvm;
+
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_DIR;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_ENABLE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_MAX_STACKS_PER_MINUTE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_RETENTION_MINUTES;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_SAMPLE_INTERVAL_MS;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_STACK_MAX_DEPTH;
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_THREAD_PREFIXES;
+
+/**
+ * 进程内常驻的线程采样器，定时对关注的线程(默认为binlog流水线上的线程)做栈采样：
+ * 1. 每个RUNNABLE线程的栈计一次样本，同时把两次采样之间该线程消耗的CPU时间归属到这次采到的栈上，默认50Hz；
+ * 采样时不是RUNNABLE状态的线程，CPU时间只计到线程上
+ * 2. 两次采样之间线程可能执行了很多不同的代码，分配的堆内存无法归属到某个栈，只按线程统计
+ * 3. 按分钟聚合，每分钟结束后以折叠栈(collapsed stack)格式写到本地目录，由daemon的ProfileResource读取，不依赖网络
+ * 栈的第一帧是归一化之后的线程名(数字替换为*)，方便按线程组查看，比如collector-merge-*
+ */
+@Slf4j
+public class ThreadProfiler {
+    public static final String FILE_SUFFIX = ".profile";
+    static final String MINUTE_FORMAT = "yyyyMMddHHmm";
+    private static final int MIN_SAMPLE_INTERVAL_MS = 10;
+    private static final ThreadProfiler INSTANCE = new ThreadProfiler();
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Map<Long, long[]> lastThreadCounters = new HashMap<>();
+    private final Map<Long, Boolean> acceptedThreads = new HashMap<>();
+    private Map<String, long[]> currentStacks = new HashMap<>();
+    private long currentMinute;
+    private ScheduledExecutorService executor;
+    private File processDir;
+    private String[] threadPrefixes;
+    private int maxDepth;
+    private int maxStacks;
+    private boolean cpuTimeSupported;
+    private boolean allocationSupported;
+
+    public static ThreadProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start(String processName) {
+        if (executor != null || !DynamicApplicationConfig.getBoolean(PROFILE_ENABLE)) {
+            return;
+        }
+        try {
+            processDir = new File(DynamicApplicationConfig.getString(PROFILE_DIR), processName);
+            FileUtils.forceMkdir(processDir);
+        } catch (IOException e) {
+            log.error("create profile dir failed, thread profiler will not start!", e);
+            return;
+        }
+        threadPrefixes = StringUtils.split(DynamicApplicationConfig.getString(PROFILE_THREAD_PREFIXES), ",");
+        maxDepth = DynamicApplicationConfig.getInt(PROFILE_STACK_MAX_DEPTH);
+        maxStacks = DynamicApplicationConfig.getInt(PROFILE_MAX_STACKS_PER_MINUTE);
+        cpuTimeSupported = threadMXBean.isThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        allocationSupported = threadMXBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+        if (allocationSupported && !((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled()) {
+            ((com.sun.management.ThreadMXBean) threadMXBean).setThreadAllocatedMemoryEnabled(true);
+        }
+        currentMinute = currentMinute();
+
+        int interval = Math.max(MIN_SAMPLE_INTERVAL_MS, DynamicApplicationConfig.getInt(PROFILE_SAMPLE_INTERVAL_MS));
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "thread-profiler");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                sample();
+            } catch (Throwable t) {
+                log.error("thread profiler sample error!", t);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("thread profiler started for process {}, sample interval {}ms, cpu time supported {}, "
+            + "allocation supported {}", processName, interval, cpuTimeSupported, allocationSupported);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void sample() {
+        long minute = currentMinute();
+        if (minute != currentMinute) {
+            flush(currentMinute, currentStacks);
+            currentStacks = new HashMap<>();
+            currentMinute = minute;
+        }
+
+        long[] threadIds = selectThreadIds();
+        if (threadIds.length == 0) {
+            lastThreadCounters.clear();
+            return;
+        }
+        ThreadInfo[] threadInfos = threadMXBean.getThreadInfo(threadIds, maxDepth);
+        Map<Long, long[]> counters = new HashMap<>(threadInfos.length);
+        for (ThreadInfo info : threadInfos) {
+            if (info == null) {
+                continue;
+            }
+            long threadId = info.getThreadId();
+            long[] now = new long[] {
+                cpuTimeSupported ? threadMXBean.getThreadCpuTime(threadId) : 0,
+                allocationSupported ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    threadId) : 0};
+            long[] last = lastThreadCounters.get(threadId);
+            counters.put(threadId, now);
+            if (last == null) {
+                continue;
+            }
+            long cpuTime = Math.max(0, now[0] - last[0]);
+            String thread = normalizeThreadName(info.getThreadName());
+            long[] threadValues = currentStacks.computeIfAbsent(thread, k -> new long[3]);
+            threadValues[2] += Math.max(0, now[1] - last[1]);
+            if (info.getThreadState() != Thread.State.RUNNABLE) {
+                threadValues[1] += cpuTime;
+                continue;
+            }
+            String stack = collapse(thread, info);
+            long[] values = currentStacks.get(stack);
+            if (values == null) {
+                if (currentStacks.size() >= maxStacks) {
+                    values = currentStacks.computeIfAbsent(thread + ";[truncated]", k -> new long[3]);
+                } else {
+                    values = new long[3];
+                    currentStacks.put(stack, values);
+                }
+            }
+            values[0]++;
+            values[1] += cpuTime;
+        }
+        // 线程退出后不再保留其计数
+        lastThreadCounters.clear();
+        lastThreadCounters.putAll(counters);
+    }
+
+    /**
+     * 只对关注的线程抓栈，避免每次采样都dump全部线程；线程名只在线程第一次出现时查询一次(不带栈)，
+     * 按线程id缓存过滤结果，线程退出后清理
+     */
+    private long[] selectThreadIds() {
+        long[] allThreadIds = threadMXBean.getAllThreadIds();
+        Set<Long> aliveIds = new HashSet<>(allThreadIds.length);
+        List<Long> newIds = new ArrayList<>();
+        for (long threadId : allThreadIds) {
+            aliveIds.add(threadId);
+            if (!acceptedThreads.containsKey(threadId)) {
+                newIds.add(threadId);
+            }
+        }
+        acceptedThreads.keySet().retainAll(aliveIds);
+        if (!newIds.isEmpty()) {
+            ThreadInfo[] infos = threadMXBean.getThreadInfo(newIds.stream().mapToLong(Long::longValue).toArray(), 0);
+            for (ThreadInfo info : infos) {
+                if (info != null) {
+                    acceptedThreads.put(info.getThreadId(), accept(info.getThreadName()));
+                }
+            }
+        }
+        return acceptedThreads.entrySet().stream().filter(Map.Entry::getValue).mapToLong(Map.Entry::getKey)
+            .toArray();
+    }
+
+    private boolean accept(String threadName) {
+        if (threadPrefixes == null || threadPrefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : threadPrefixes) {
+            if (threadName.startsWith(prefix.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String collapse(String thread, ThreadInfo info) {
+        StackTraceElement[] elements = info.getStackTrace();
+        StringBuilder sb = new StringBuilder(64 + elements.length * 48);
+        sb.append(thread);
+        for (int i = elements.length - 1; i >= 0; i--) {
+            sb.append(';').append(elements[i].getClassName()).append('.').append(elements[i].getMethodName());
+        }
+        return sb.toString();
+    }
+
+    private void flush(long minute, Map<String, long[]> stacks) {
+        if (stacks.isEmpty()) {
+            return;
+        }
+        File target = new File(processDir, ProfileData.formatMinute(minute) + FILE_SUFFIX);
+        File temp = new File(processDir, target.getName() + ".tmp");
+        try {
+            try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(temp.toPath()), StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, long[]> entry : stacks.entrySet()) {
+                    long[] v = entry.getValue();
+                    writer.write(entry.getKey() + "\t" + v[0] + "\t" + v[1] + "\t" + v[2] + "\n");
+                }
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("write profile data failed, file " + target.getAbsolutePath(), e);
+        }
+        cleanExpiredFiles(minute);
+    }
+
+    private void cleanExpiredFiles(long minute) {
+        long retention = DynamicApplicationConfig.getInt(PROFILE_RETENTION_MINUTES);
+        String boundary = ProfileData.formatMinute(minute - TimeUnit.MINUTES.toMillis(retention));
+        File[] files = processDir.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().compareTo(boundary) < 0) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+    static String normalizeThreadName(String threadName) {
+        return threadName.replaceAll("\\d+", "*");
+    }
+
+    private static long currentMinute() {
+        long now = System.currentTimeMillis();
+        return now - now % TimeUnit.MINUTES.toMillis(1);
+    }
+}
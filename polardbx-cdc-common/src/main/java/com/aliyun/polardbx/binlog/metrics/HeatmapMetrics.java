@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import com.aliyun.polardbx.binlog.ConfigKeys;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按(DN, 逻辑库, 逻辑表)以及按merge source维度统计的吞吐和延迟热力图，
+ * 两个维度各自用一个TopKCounter限制内存，由MetricsManager周期性采集
+ */
+public class HeatmapMetrics {
+    private static volatile HeatmapMetrics instance;
+
+    private final TopKCounter<TableKey> tables;
+    private final TopKCounter<String> mergeSources;
+    private volatile long lastResetTime = System.currentTimeMillis();
+
+    public HeatmapMetrics(int capacity) {
+        this.tables = new TopKCounter<>(capacity);
+        this.mergeSources = new TopKCounter<>(capacity);
+    }
+
+    public static HeatmapMetrics get() {
+        if (instance == null) {
+            synchronized (HeatmapMetrics.class) {
+                if (instance == null) {
+                    instance = new HeatmapMetrics(DynamicApplicationConfig.getInt(ConfigKeys.METRICS_HEATMAP_CAPACITY));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param key 调用方应按表缓存key，避免每个event都创建新的对象
+     * @param txnMarker 所属事务的标识，用于统计涉及该表的事务数
+     * @param timestamp event的时间戳(ms)
+     */
+    public void recordTableEvent(TableKey key, long bytes, Object txnMarker, long timestamp) {
+        tables.record(key, 1, bytes, txnMarker, delay(timestamp));
+    }
+
+    /**
+     * @param timestamp 事务tso中的物理时间(ms)，没有tso时传0
+     */
+    public void recordMergeSourceTxn(String sourceId, long events, Object txnMarker, long timestamp) {
+        mergeSources.record(sourceId, events, 0, txnMarker, delay(timestamp));
+    }
+
+    private static long delay(long timestamp) {
+        return timestamp > 0 ? Math.max(0, System.currentTimeMillis() - timestamp) : 0;
+    }
+
+    /**
+     * 获取并清空本周期的统计，每个维度只返回events最多的前topN个
+     */
+    public HeatmapSnapshot snapshot(int topN) {
+        long now = System.currentTimeMillis();
+        HeatmapSnapshot snapshot = new HeatmapSnapshot();
+        snapshot.setTimestamp(now);
+        snapshot.setPeriod(Math.max(1, now - lastResetTime));
+        lastResetTime = now;
+
+        List<HeatmapSnapshot.Item> tableItems = new ArrayList<>();
+        for (TopKCounter.Entry<TableKey> entry : tables.snapshotAndReset(topN)) {
+            HeatmapSnapshot.Item item = toItem(entry);
+            item.setDn(entry.getKey().getStorageInstId());
+            item.setSchema(entry.getKey().getSchema());
+            item.setTable(entry.getKey().getTable());
+            tableItems.add(item);
+        }
+        snapshot.setTables(tableItems);
+
+        List<HeatmapSnapshot.Item> sourceItems = new ArrayList<>();
+        for (TopKCounter.Entry<String> entry : mergeSources.snapshotAndReset(topN)) {
+            HeatmapSnapshot.Item item = toItem(entry);
+            item.setSource(entry.getKey());
+            sourceItems.add(item);
+        }
+        snapshot.setMergeSources(sourceItems);
+        return snapshot;
+    }
+
+    private static HeatmapSnapshot.Item toItem(TopKCounter.Entry<?> entry) {
+        HeatmapSnapshot.Item item = new HeatmapSnapshot.Item();
+        item.setEvents(entry.getEvents());
+        item.setBytes(entry.getBytes());
+        item.setTxns(entry.getTxns());
+        item.setError(entry.getError());
+        item.setDelay(entry.getMaxDelay());
+        return item;
+    }
+
+    @Data
+    public static class TableKey {
+        private final String storageInstId;
+        private final String schema;
+        private final String table;
+    }
+}
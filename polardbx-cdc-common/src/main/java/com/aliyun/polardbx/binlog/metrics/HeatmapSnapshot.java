@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HeatmapMetrics一个采集周期的快照，Task通过MetricsReporter上报给Daemon
+ */
+@Data
+public class HeatmapSnapshot {
+    private String taskName;
+    private long timestamp;
+    /**
+     * 采集周期(ms)
+     */
+    private long period;
+    private List<Item> tables = new ArrayList<>();
+    private List<Item> mergeSources = new ArrayList<>();
+
+    @Data
+    public static class Item {
+        private String dn;
+        private String schema;
+        private String table;
+        private String source;
+        private long events;
+        private long bytes;
+        private long txns;
+        /**
+         * events的误差上界
+         */
+        private long error;
+        /**
+         * 本周期内处理数据时距其业务时间的最大延迟(ms)
+         */
+        private long delay;
+    }
+}
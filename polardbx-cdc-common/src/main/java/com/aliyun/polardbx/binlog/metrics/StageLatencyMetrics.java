@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 进程内各阶段延迟直方图的汇总，Task和Dumper各自持有一份，由MetricsManager周期性采集
+ */
+public class StageLatencyMetrics {
+    private static final StageLatencyMetrics INSTANCE = new StageLatencyMetrics();
+
+    private final Map<TraceStage, LatencyHistogram> histograms = new EnumMap<>(TraceStage.class);
+
+    private StageLatencyMetrics() {
+        for (TraceStage stage : TraceStage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public static StageLatencyMetrics get() {
+        return INSTANCE;
+    }
+
+    public void record(TraceStage stage, long micros) {
+        histograms.get(stage).record(micros);
+    }
+
+    /**
+     * 获取并清空本周期的统计，只返回有数据的阶段
+     */
+    public Map<TraceStage, LatencyHistogram.Snapshot> snapshot() {
+        Map<TraceStage, LatencyHistogram.Snapshot> result = new EnumMap<>(TraceStage.class);
+        for (Map.Entry<TraceStage, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshotAndReset();
+            if (snapshot.getCount() > 0) {
+                result.put(entry.getKey(), snapshot);
+            }
+        }
+        return result;
+    }
+}
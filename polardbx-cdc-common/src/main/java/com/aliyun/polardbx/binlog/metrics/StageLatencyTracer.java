@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import com.aliyun.polardbx.binlog.ConfigKeys;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.protocol.TxnMergedToken;
+import com.aliyun.polardbx.binlog.protocol.TxnMergedTokenOrBuilder;
+import com.aliyun.polardbx.binlog.protocol.TxnToken;
+import com.aliyun.polardbx.binlog.protocol.TxnTokenOrBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全链路分阶段延迟追踪的工具类
+ * <p>
+ * 被采样的事务在TxnToken/TxnMergedToken的traceStamps字段上携带一组打点，每个打点为(stage << 56) | epochMicros，
+ * 每个阶段在打点时用当前时间减去上一个打点得到本阶段的耗时，记录到本进程的StageLatencyMetrics中。
+ * Task和Dumper之间的耗时依赖两端机器的时钟同步
+ * </p>
+ */
+public class StageLatencyTracer {
+    private static final int STAGE_SHIFT = 56;
+    private static final long MICROS_MASK = (1L << STAGE_SHIFT) - 1;
+    private static final long RATIO_REFRESH_INTERVAL_MILLS = 10000;
+    private static final long BASE_MICROS = System.currentTimeMillis() * 1000 - System.nanoTime() / 1000;
+
+    private static final AtomicLong SAMPLE_COUNTER = new AtomicLong();
+    private static volatile int sampleRatio = -1;
+    private static volatile long lastRatioRefreshTime;
+
+    /**
+     * 单调递增的微秒级时间，基准为进程启动时的系统时间
+     */
+    public static long nowMicros() {
+        return BASE_MICROS + System.nanoTime() / 1000;
+    }
+
+    public static boolean shouldSample() {
+        long now = System.currentTimeMillis();
+        if (sampleRatio < 0 || now - lastRatioRefreshTime > RATIO_REFRESH_INTERVAL_MILLS) {
+            sampleRatio = DynamicApplicationConfig.getInt(ConfigKeys.TASK_STAGE_TRACE_SAMPLE_RATIO, 0);
+            lastRatioRefreshTime = now;
+        }
+        int ratio = sampleRatio;
+        return ratio > 0 && SAMPLE_COUNTER.getAndIncrement() % ratio == 0;
+    }
+
+    public static void stamp(TxnToken.Builder builder, TraceStage stage, long micros) {
+        builder.addTraceStamps(((long) stage.ordinal() << STAGE_SHIFT) | (micros & MICROS_MASK));
+    }
+
+    public static List<Long> getStamps(TxnTokenOrBuilder token) {
+        return token.getTraceStampsList();
+    }
+
+    public static List<Long> getStamps(TxnMergedTokenOrBuilder token) {
+        return token.getTraceStampsList();
+    }
+
+    public static boolean isTraced(TxnTokenOrBuilder token) {
+        return token.getTraceStampsCount() > 0;
+    }
+
+    public static long stampMicros(long stamp) {
+        return stamp & MICROS_MASK;
+    }
+
+    public static TraceStage stampStage(long stamp) {
+        return TraceStage.values()[(int) (stamp >>> STAGE_SHIFT)];
+    }
+
+    public static long firstStampMicros(TxnTokenOrBuilder token) {
+        return firstStampMicros(token.getTraceStampsList());
+    }
+
+    public static long firstStampMicros(TxnMergedTokenOrBuilder token) {
+        return firstStampMicros(token.getTraceStampsList());
+    }
+
+    public static long lastStampMicros(TxnTokenOrBuilder token) {
+        return lastStampMicros(token.getTraceStampsList());
+    }
+
+    public static long lastStampMicros(TxnMergedTokenOrBuilder token) {
+        return lastStampMicros(token.getTraceStampsList());
+    }
+
+    private static long firstStampMicros(List<Long> stamps) {
+        return stamps.isEmpty() ? -1 : stampMicros(stamps.get(0));
+    }
+
+    private static long lastStampMicros(List<Long> stamps) {
+        return stamps.isEmpty() ? -1 : stampMicros(stamps.get(stamps.size() - 1));
+    }
+
+    /**
+     * 记录从上一个打点到当前时间的耗时，并追加本阶段的打点，未被采样的token原样返回
+     */
+    public static TxnToken stampAndRecord(TxnToken token, TraceStage stage) {
+        long last = lastStampMicros(token);
+        if (last < 0) {
+            return token;
+        }
+        long now = nowMicros();
+        StageLatencyMetrics.get().record(stage, now - last);
+        TxnToken.Builder builder = token.toBuilder();
+        stamp(builder, stage, now);
+        return builder.build();
+    }
+
+    /**
+     * 只记录从上一个打点到当前时间的耗时，不追加打点，用于token不再向下游传递的阶段
+     */
+    public static void record(TxnTokenOrBuilder token, TraceStage stage) {
+        long last = lastStampMicros(token);
+        if (last >= 0) {
+            StageLatencyMetrics.get().record(stage, nowMicros() - last);
+        }
+    }
+
+    public static void copyStamps(TxnTokenOrBuilder from, TxnMergedToken.Builder to) {
+        if (from.getTraceStampsCount() > 0) {
+            to.addAllTraceStamps(from.getTraceStampsList());
+        }
+    }
+}
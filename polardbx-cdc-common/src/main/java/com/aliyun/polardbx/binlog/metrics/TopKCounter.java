@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于Space-Saving算法的Top-K计数器，最多保留capacity个key，用于在key数量不可控(如表的数量)时限制内存占用
+ * <p>
+ * 已存在的key直接累加LongAdder，无锁；新的key加锁准入，容量已满时淘汰events最小的key，
+ * 新key继承被淘汰key的events作为初始值，并记录为误差上界，热点key的排名因此不会被长尾key挤掉。
+ * 最小key通过小顶堆查找，堆中记录的events是入堆时的值，只会小于等于当前值，出堆时按当前值修正后重新入堆，
+ * 淘汰的代价为O(log k)，不需要在锁内遍历所有key。
+ * 由一个线程周期性调用snapshotAndReset获取并清空本周期的统计，淘汰或重置瞬间并发写入的少量计数可能丢失
+ * </p>
+ */
+public class TopKCounter<K> {
+    private final int capacity;
+    private final ReentrantLock admitLock = new ReentrantLock();
+    private volatile ConcurrentHashMap<K, Counter> counters = new ConcurrentHashMap<>();
+    /**
+     * 只在admitLock内访问，与counters中的key一一对应
+     */
+    private PriorityQueue<Slot<K>> minHeap = new PriorityQueue<>();
+
+    public TopKCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, but is " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param txnMarker 事务标识，同一个事务内的多次记录传入相同的标识，事务数只累加一次
+     * @param delay 记录时刻距数据业务时间的延迟(ms)，本周期内取最大值，未知时传0
+     */
+    public void record(K key, long events, long bytes, Object txnMarker, long delay) {
+        ConcurrentHashMap<K, Counter> current = counters;
+        Counter counter = current.get(key);
+        if (counter == null) {
+            counter = admit(key);
+        }
+        counter.events.add(events);
+        counter.bytes.add(bytes);
+        if (!Objects.equals(txnMarker, counter.lastTxnMarker)) {
+            counter.lastTxnMarker = txnMarker;
+            counter.txns.increment();
+        }
+        long max = counter.maxDelay.get();
+        while (delay > max && !counter.maxDelay.compareAndSet(max, delay)) {
+            max = counter.maxDelay.get();
+        }
+    }
+
+    private Counter admit(K key) {
+        admitLock.lock();
+        try {
+            // 等锁期间可能已经切换到了下一个周期，以最新的counters为准
+            ConcurrentHashMap<K, Counter> current = counters;
+            Counter counter = current.get(key);
+            if (counter != null) {
+                return counter;
+            }
+            long error = current.size() >= capacity ? evictMin(current) : 0;
+            counter = new Counter(error);
+            current.put(key, counter);
+            minHeap.add(new Slot<>(key, counter, error));
+            return counter;
+        } finally {
+            admitLock.unlock();
+        }
+    }
+
+    /**
+     * 堆顶的当前值不大于新堆顶记录的值时即为真正的最小key，否则按当前值重新入堆后继续查找
+     */
+    private long evictMin(ConcurrentHashMap<K, Counter> current) {
+        while (true) {
+            Slot<K> min = minHeap.poll();
+            if (min == null) {
+                return 0;
+            }
+            long events = min.counter.events.sum();
+            Slot<K> next = minHeap.peek();
+            if (next == null || events <= next.events) {
+                current.remove(min.key);
+                return events;
+            }
+            min.events = events;
+            minHeap.add(min);
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * 获取并清空本周期的统计，按events从大到小返回前topN个
+     */
+    public List<Entry<K>> snapshotAndReset(int topN) {
+        ConcurrentHashMap<K, Counter> current;
+        admitLock.lock();
+        try {
+            current = counters;
+            counters = new ConcurrentHashMap<>();
+            minHeap = new PriorityQueue<>();
+        } finally {
+            admitLock.unlock();
+        }
+
+        List<Entry<K>> result = new ArrayList<>(current.size());
+        for (Map.Entry<K, Counter> entry : current.entrySet()) {
+            Counter c = entry.getValue();
+            result.add(new Entry<>(entry.getKey(), c.events.sum(), c.bytes.sum(), c.txns.sum(), c.error,
+                c.maxDelay.get()));
+        }
+        result.sort(Comparator.comparingLong((Entry<K> e) -> e.events).reversed());
+        return result.size() > topN ? new ArrayList<>(result.subList(0, topN)) : result;
+    }
+
+    private static class Counter {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder txns = new LongAdder();
+        private final AtomicLong maxDelay = new AtomicLong();
+        private final long error;
+        private volatile Object lastTxnMarker;
+
+        Counter(long error) {
+            this.error = error;
+            this.events.add(error);
+        }
+    }
+
+    private static class Slot<K> implements Comparable<Slot<K>> {
+        private final K key;
+        private final Counter counter;
+        private long events;
+
+        Slot(K key, Counter counter, long events) {
+            this.key = key;
+            this.counter = counter;
+            this.events = events;
+        }
+
+        @Override
+        public int compareTo(Slot<K> o) {
+            return Long.compare(events, o.events);
+        }
+    }
+
+    @Getter
+    public static class Entry<K> {
+        private final K key;
+        /**
+         * 事件数，包含准入时继承的误差
+         */
+        private final long events;
+        private final long bytes;
+        private final long txns;
+        /**
+         * events的误差上界，为0表示本周期内该key没有被淘汰过，计数是精确的
+         */
+        private final long error;
+        /**
+         * 本周期内的最大延迟(ms)
+         */
+        private final long maxDelay;
+
+        Entry(K key, long events, long bytes, long txns, long error, long maxDelay) {
+            this.key = key;
+            this.events = events;
+            this.bytes = bytes;
+            this.txns = txns;
+            this.error = error;
+            this.maxDelay = maxDelay;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+/**
+ * 全链路分阶段延迟追踪的阶段定义，ordinal会被编码进打点，只允许在末尾追加
+ */
+public enum TraceStage {
+    /**
+     * DN提交(tso物理时间) -> Task解析出commit事件
+     */
+    EXTRACT("extract"),
+    /**
+     * Task解析出commit事件 -> 排序完成进入MergeSource
+     */
+    SORT("sort"),
+    /**
+     * 进入MergeSource -> Merger完成全局合并
+     */
+    MERGE("merge"),
+    /**
+     * Merger完成合并 -> Collector完成事务合并和TxnBuffer读取
+     */
+    COLLECT("collect"),
+    /**
+     * Collector完成 -> Transmitter取出并开始发送
+     */
+    TRANSMIT("transmit"),
+    /**
+     * Task最后一次打点 -> Dumper收到事务的Begin
+     */
+    DUMPER_RECEIVE("receive"),
+    /**
+     * Dumper收到事务的Begin -> 事务写入binlog文件
+     */
+    DUMPER_WRITE("write"),
+    /**
+     * Task解析出commit事件 -> Dumper写入binlog文件
+     */
+    END_TO_END("endToEnd"),
+    /**
+     * TxnBuffer开启落盘时，将已缓存在内存中的数据写入RocksDB的耗时，不依赖打点，每次落盘都会记录
+     */
+    TXN_SPILL("spill"),
+    /**
+     * 从RocksDB读回已落盘事务数据的耗时，并行restore时为消费线程等待每个批次就绪的耗时
+     */
+    TXN_RESTORE("restore"),
+    /**
+     * Dumper将写缓冲区中的数据flush到binlog文件的耗时，每次更新cursor都会记录
+     */
+    DUMPER_FLUSH("flush"),
+    /**
+     * Dumper预备binlog文件预分配完成后fsync的耗时，写入路径只flush到page cache，不做fsync
+     */
+    DUMPER_FSYNC("fsync");
+
+    private final String alias;
+
+    TraceStage(String alias) {
+        this.alias = alias;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+}
@@ -15,6 +15,7 @@
 package com.aliyun.polardbx.binlog.plugin;
 
 import com.aliyun.polardbx.binlog.domain.TaskType;
+import com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig;
 import lombok.Data;
 
 import java.util.List;
@@ -27,4 +28,5 @@ public class PluginContext {
     private String group;
     private List<String> streamList;
     private long runtimeVersion;
+    private ExecutionConfig executionConfig;
 }
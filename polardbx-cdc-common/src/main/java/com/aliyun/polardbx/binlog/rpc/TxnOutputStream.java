@@ -73,10 +73,36 @@ public class TxnOutputStream<T> {
         }
     }
 
+    /**
+     * 等待stream变为可写状态，由onReady回调唤醒，而不是固定间隔轮询；超时或者stream已经被取消时返回false
+     */
+    public synchronized boolean awaitReady(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!observer.isCancelled()) {
+            if (observer.isReady()) {
+                return true;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return false;
+    }
+
     public boolean isReady() {
         return observer.isReady();
     }
 
+    public boolean isCancelled() {
+        return observer.isCancelled();
+    }
+
+    public long getOnReadyCallBackCount() {
+        return onReadyCallBackCount.get();
+    }
+
     public void setExecutingThead(Thread executingThead) {
         this.executingThead = executingThead;
     }
@@ -93,15 +119,19 @@ public class TxnOutputStream<T> {
         return streamSeq;
     }
 
-    private void onCancelled() {
+    private synchronized void onCancelled() {
         logger.info("Response observer has been cancelled.");
         if (executingThead != null) {
             executingThead.interrupt();
         }
+        notifyAll();
     }
 
+    /**
+     * tryWait和awaitReady可能同时有线程在等待，notify只能唤醒其中一个，被唤醒的线程不一定是需要写数据的那个
+     */
     private synchronized void onReady() {
         onReadyCallBackCount.incrementAndGet();
-        notify();
+        notifyAll();
     }
 }
@@ -16,6 +16,9 @@ package com.aliyun.polardbx.binlog.util;
 
 import com.aliyun.polardbx.binlog.CommonMetrics;
 import com.aliyun.polardbx.binlog.jvm.JvmSnapshot;
+import com.aliyun.polardbx.binlog.metrics.LatencyHistogram;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
+import com.aliyun.polardbx.binlog.metrics.format.TableFormat;
 import com.google.common.collect.Maps;
 import com.google.common.io.Resources;
 import lombok.extern.slf4j.Slf4j;
@@ -127,6 +130,53 @@ public class CommonMetricsHelper {
         return ALL;
     }
 
+    /**
+     * 按照"stage + 阶段名 + P50/P99"的字段名约定，从metrics.txt中查找对应的指标并追加
+     */
+    public static void addStageLatencyMetrics(List<CommonMetrics> commonMetrics,
+                                              Map<TraceStage, LatencyHistogram.Snapshot> stageSnapshot,
+                                              Map<String, CommonMetrics> registry) {
+        for (Map.Entry<TraceStage, LatencyHistogram.Snapshot> entry : stageSnapshot.entrySet()) {
+            String prefix = "stage" + StringUtils.capitalize(entry.getKey().getAlias());
+            CommonMetrics p50 = registry.get(prefix + "P50");
+            if (p50 != null) {
+                commonMetrics.add(p50.var(entry.getValue().getP50()));
+            }
+            CommonMetrics p99 = registry.get(prefix + "P99");
+            if (p99 != null) {
+                commonMetrics.add(p99.var(entry.getValue().getP99()));
+            }
+        }
+    }
+
+    public static void contactStageLatencyMetrics(Map<TraceStage, LatencyHistogram.Snapshot> stageLatency,
+                                                  StringBuilder sb) {
+        if (stageLatency.isEmpty()) {
+            return;
+        }
+        TableFormat stageFormat = new TableFormat("Stage Latency Metrics");
+        stageFormat.addColumn(
+            "stage",
+            "count",
+            "avg(us)",
+            "p50(us)",
+            "p99(us)",
+            "p999(us)",
+            "max(us)");
+        for (Map.Entry<TraceStage, LatencyHistogram.Snapshot> entry : stageLatency.entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue();
+            stageFormat.addRow(
+                entry.getKey().getAlias(),
+                s.getCount(),
+                s.getAvg(),
+                s.getP50(),
+                s.getP99(),
+                s.getP999(),
+                s.getMax());
+        }
+        sb.append(stageFormat);
+    }
+
     public static void addJvmMetrics(List<CommonMetrics> commonMetrics, JvmSnapshot jvmSnapshot, String prefix) {
         commonMetrics.add(CommonMetrics.builder()
             .key(prefix + "youngUsed")
@@ -18,6 +18,7 @@ import com.alibaba.fastjson.JSON;
 import com.aliyun.polardbx.binlog.CommonMetrics;
 import com.aliyun.polardbx.binlog.ConfigKeys;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.metrics.HeatmapSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.entity.ContentType;
 
@@ -44,6 +45,19 @@ public class MetricsReporter {
         }
     }
 
+    public static void heatmapReport(HeatmapSnapshot snapshot) {
+        try {
+            int daemonPort = DynamicApplicationConfig.getInt(ConfigKeys.DAEMON_PORT);
+            PooledHttpHelper.doPost("http://127.0.0.1:" + daemonPort + "/cdc/heatmap/reports",
+                ContentType.APPLICATION_JSON,
+                JSON.toJSONString(snapshot), 1000);
+        } catch (URISyntaxException e) {
+            log.error("metrics report fail,invalid uri", e);
+        } catch (IOException e) {
+            log.error("metrics report fail", e);
+        }
+    }
+
     public static void binlogxReport(Map<String, List<CommonMetrics>> metricsList) {
         try {
             int daemonPort = DynamicApplicationConfig.getInt(ConfigKeys.DAEMON_PORT);
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigValueTest {
+    private final Map<String, String> configs = new HashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Before
+    public void before() {
+        DynamicApplicationConfig.setConfigDataProvider(key -> {
+            reads.incrementAndGet();
+            return configs.get(key);
+        });
+    }
+
+    @After
+    public void after() {
+        DynamicApplicationConfig.setConfigDataProvider(new DbConfigDataProvider());
+    }
+
+    @Test
+    public void testSnapshot() {
+        configs.put("test.config.value.int", "10");
+        configs.put("test.config.value.bool", "true");
+        ConfigValue<Integer> intValue = ConfigValue.ofInt("test.config.value.int");
+        ConfigValue<Boolean> boolValue = ConfigValue.ofBoolean("test.config.value.bool");
+        ConfigValue<String> stringValue = ConfigValue.ofString("test.config.value.absent");
+
+        Assert.assertEquals(10, intValue.get().intValue());
+        Assert.assertTrue(boolValue.get());
+        Assert.assertNull(stringValue.get());
+        int readsAfterLoad = reads.get();
+        for (int i = 0; i < 1000; i++) {
+            intValue.get();
+            boolValue.get();
+            stringValue.get();
+        }
+        Assert.assertEquals(readsAfterLoad, reads.get());
+
+        // 快照发布前不感知配置变化，firePropChange之后生效
+        configs.put("test.config.value.int", "20");
+        configs.put("test.config.value.absent", "abc");
+        Assert.assertEquals(10, intValue.get().intValue());
+        DynamicApplicationConfig.firePropChange();
+        Assert.assertEquals(20, intValue.get().intValue());
+        Assert.assertEquals("abc", stringValue.get());
+
+        // 解析失败时保留旧值
+        configs.put("test.config.value.int", "x");
+        DynamicApplicationConfig.firePropChange();
+        Assert.assertEquals(20, intValue.get().intValue());
+    }
+
+    @Test
+    public void testProviderChange() {
+        configs.put("test.config.value.long", "1");
+        ConfigValue<Long> longValue = ConfigValue.ofLong("test.config.value.long");
+        Assert.assertEquals(1L, longValue.get().longValue());
+
+        DynamicApplicationConfig.setConfigDataProvider(key -> "2");
+        Assert.assertEquals(2L, longValue.get().longValue());
+    }
+}
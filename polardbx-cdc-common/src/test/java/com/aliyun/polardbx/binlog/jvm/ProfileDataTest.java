@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.jvm;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+public class ProfileDataTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMergeMinutes() throws Exception {
+        File dir = folder.newFolder("Final");
+        long now = System.currentTimeMillis();
+        write(dir, now, "binlog-merger;a.B.run;a.B.merge\t10\t1000\t200\n"
+            + "collector-merge-*;c.D.run\t5\t500\t0\n");
+        write(dir, now - 60_000, "binlog-merger;a.B.run;a.B.merge\t2\t100\t50\n");
+        // 超出查询范围的分钟不参与聚合
+        write(dir, now - 3_600_000, "binlog-merger;a.B.run;a.B.merge\t100\t100000\t100000\n");
+
+        ProfileData data = ProfileData.load(dir, 5);
+        Assert.assertEquals(2, data.getMinutes());
+        Assert.assertEquals("binlog-merger;a.B.run;a.B.merge 1100\ncollector-merge-*;c.D.run 500\n",
+            data.toCollapsed(ProfileData.Type.CPU));
+        Assert.assertEquals("binlog-merger;a.B.run;a.B.merge 250\n", data.toCollapsed(ProfileData.Type.ALLOC));
+
+        Map<String, long[]> groups = data.groupByThread();
+        Assert.assertArrayEquals(new long[] {12, 1100, 250}, groups.get("binlog-merger"));
+        Assert.assertArrayEquals(new long[] {5, 500, 0}, groups.get("collector-merge-*"));
+    }
+
+    @Test
+    public void testNormalizeThreadName() {
+        Assert.assertEquals("collector-merge-*", ThreadProfiler.normalizeThreadName("collector-merge-12"));
+        Assert.assertEquals("binlog-merger", ThreadProfiler.normalizeThreadName("binlog-merger"));
+    }
+
+    private void write(File dir, long timestamp, String content) throws Exception {
+        File file = new File(dir, ProfileData.formatMinute(timestamp) + ThreadProfiler.FILE_SUFFIX);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
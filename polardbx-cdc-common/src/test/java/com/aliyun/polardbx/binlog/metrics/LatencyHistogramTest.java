@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import com.aliyun.polardbx.binlog.protocol.TxnMergedToken;
+import com.aliyun.polardbx.binlog.protocol.TxnToken;
+import com.aliyun.polardbx.binlog.protocol.TxnType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBounds() {
+        for (long v = 0; v < 100000; v++) {
+            int index = LatencyHistogram.bucketIndex(v);
+            Assert.assertTrue(v <= LatencyHistogram.bucketUpperBound(index));
+            if (index > 0) {
+                Assert.assertTrue(v > LatencyHistogram.bucketUpperBound(index - 1));
+            }
+        }
+        LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(1000, snapshot.getMax());
+        Assert.assertEquals(500, snapshot.getAvg());
+        Assert.assertTrue(snapshot.getP50() >= 500 && snapshot.getP50() <= 500 * 1.125);
+        Assert.assertTrue(snapshot.getP99() >= 990 && snapshot.getP99() <= 1000);
+
+        Assert.assertEquals(0, histogram.snapshotAndReset().getCount());
+    }
+
+    @Test
+    public void testStampsSurviveSerialization() throws Exception {
+        TxnToken.Builder builder = TxnToken.newBuilder().setTso("1").setType(TxnType.DML);
+        StageLatencyTracer.stamp(builder, TraceStage.EXTRACT, 100);
+        StageLatencyTracer.stamp(builder, TraceStage.SORT, 200);
+        TxnToken token = TxnToken.parseFrom(builder.build().toByteArray());
+        Assert.assertEquals(2, token.getTraceStampsCount());
+        Assert.assertTrue(token.getUnknownFields().asMap().isEmpty());
+
+        List<Long> stamps = StageLatencyTracer.getStamps(token);
+        Assert.assertEquals(2, stamps.size());
+        Assert.assertEquals(TraceStage.SORT, StageLatencyTracer.stampStage(stamps.get(1)));
+        Assert.assertEquals(100, StageLatencyTracer.firstStampMicros(token));
+        Assert.assertEquals(200, StageLatencyTracer.lastStampMicros(token));
+
+        TxnMergedToken.Builder mergedBuilder = TxnMergedToken.newBuilder().setTso("1");
+        StageLatencyTracer.copyStamps(token, mergedBuilder);
+        TxnMergedToken merged = TxnMergedToken.parseFrom(mergedBuilder.build().toByteArray());
+        Assert.assertEquals(stamps, StageLatencyTracer.getStamps(merged));
+
+        Assert.assertFalse(StageLatencyTracer.isTraced(TxnToken.newBuilder().setTso("2").build()));
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TopKCounterTest {
+
+    @Test
+    public void testExactWithinCapacity() {
+        TopKCounter<String> counter = new TopKCounter<>(8);
+        for (int i = 0; i < 10; i++) {
+            counter.record("t1", 1, 100, "txn" + (i / 5), i == 3 ? 50 : i);
+        }
+        counter.record("t2", 3, 10, "txn9", 500);
+
+        List<TopKCounter.Entry<String>> entries = counter.snapshotAndReset(10);
+        Assert.assertEquals(2, entries.size());
+        TopKCounter.Entry<String> first = entries.get(0);
+        Assert.assertEquals("t1", first.getKey());
+        Assert.assertEquals(10, first.getEvents());
+        Assert.assertEquals(1000, first.getBytes());
+        Assert.assertEquals(2, first.getTxns());
+        Assert.assertEquals(0, first.getError());
+        Assert.assertEquals(50, first.getMaxDelay());
+        Assert.assertEquals("t2", entries.get(1).getKey());
+        Assert.assertEquals(3, entries.get(1).getEvents());
+
+        Assert.assertEquals(0, counter.size());
+        Assert.assertTrue(counter.snapshotAndReset(10).isEmpty());
+    }
+
+    @Test
+    public void testHeavyHittersSurviveEviction() {
+        TopKCounter<String> counter = new TopKCounter<>(4);
+        for (int round = 0; round < 100; round++) {
+            counter.record("hot1", 10, 0, null, 0);
+            counter.record("hot2", 5, 0, null, 0);
+            counter.record("tail" + round, 1, 0, null, 0);
+        }
+        Assert.assertEquals(4, counter.size());
+
+        List<TopKCounter.Entry<String>> entries = counter.snapshotAndReset(2);
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("hot1", entries.get(0).getKey());
+        Assert.assertEquals(1000, entries.get(0).getEvents());
+        Assert.assertEquals(0, entries.get(0).getError());
+        Assert.assertEquals("hot2", entries.get(1).getKey());
+        Assert.assertEquals(500, entries.get(1).getEvents());
+    }
+
+    @Test
+    public void testEvictCurrentMinimum() {
+        TopKCounter<String> counter = new TopKCounter<>(2);
+        counter.record("a", 1, 0, null, 0);
+        counter.record("b", 1, 0, null, 0);
+        // a入堆后继续累加，堆中记录的值已经过期，淘汰时仍应选择当前最小的b
+        counter.record("a", 100, 0, null, 0);
+        counter.record("c", 1, 0, null, 0);
+
+        List<TopKCounter.Entry<String>> entries = counter.snapshotAndReset(2);
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("a", entries.get(0).getKey());
+        Assert.assertEquals(101, entries.get(0).getEvents());
+        Assert.assertEquals(0, entries.get(0).getError());
+        Assert.assertEquals("c", entries.get(1).getKey());
+        Assert.assertEquals(2, entries.get(1).getEvents());
+        Assert.assertEquals(1, entries.get(1).getError());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        TopKCounter<String> counter = new TopKCounter<>(16);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    counter.record("k" + (i % 8), 1, 2, null, 0);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long events = 0;
+        long bytes = 0;
+        for (TopKCounter.Entry<String> entry : counter.snapshotAndReset(16)) {
+            events += entry.getEvents();
+            bytes += entry.getBytes();
+        }
+        Assert.assertEquals(40000, events);
+        Assert.assertEquals(80000, bytes);
+    }
+}
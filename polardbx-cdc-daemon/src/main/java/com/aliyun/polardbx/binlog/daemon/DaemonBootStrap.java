@@ -23,6 +23,7 @@ import com.aliyun.polardbx.binlog.daemon.cluster.ClusterBootStrapFactory;
 import com.aliyun.polardbx.binlog.daemon.cluster.ClusterBootstrapService;
 import com.aliyun.polardbx.binlog.daemon.rest.RestServer;
 import com.aliyun.polardbx.binlog.daemon.schedule.NodeReporter;
+import com.aliyun.polardbx.binlog.jvm.ThreadProfiler;
 import com.aliyun.polardbx.binlog.monitor.MonitorManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -45,6 +46,7 @@ public class DaemonBootStrap {
             final SpringContextBootStrap appContextBootStrap =
                 new SpringContextBootStrap("spring/spring.xml");
             appContextBootStrap.boot();
+            ThreadProfiler.getInstance().start("Daemon");
 
             log.info("Env {} {} {} {}", DynamicApplicationConfig.getString(ConfigKeys.CLUSTER_ID),
                 DynamicApplicationConfig.getString(ConfigKeys.INST_ID),
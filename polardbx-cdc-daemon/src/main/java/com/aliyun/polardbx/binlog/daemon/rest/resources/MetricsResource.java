@@ -17,6 +17,7 @@ package com.aliyun.polardbx.binlog.daemon.rest.resources;
 import com.aliyun.polardbx.binlog.CommonMetrics;
 import com.aliyun.polardbx.binlog.SpringContextHolder;
 import com.aliyun.polardbx.binlog.jvm.JvmUtils;
+import com.aliyun.polardbx.binlog.metrics.HeatmapSnapshot;
 import com.aliyun.polardbx.binlog.util.CommonMetricsHelper;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -25,6 +26,7 @@ import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.exporter.common.TextFormat;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.ws.rs.GET;
@@ -58,6 +60,11 @@ public class MetricsResource {
         .expireAfterWrite(10, TimeUnit.SECONDS)
         .build();
 
+    private static final Cache<String, HeatmapSnapshot> HEATMAP_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(1024)
+        .expireAfterWrite(10, TimeUnit.SECONDS)
+        .build();
+
     private static final ScheduledExecutorService scheduledExecutorService = Executors
         .newSingleThreadScheduledExecutor((r) -> new Thread(r, "daemon-metrics-reporter"));
 
@@ -103,6 +110,7 @@ public class MetricsResource {
             Gauge gauge = Gauge.build().name(k).help(mark == null ? k : mark.getDesc()).register(registry);
             gauge.set(v.getValue());
         });
+        registerHeatmapGauges(registry);
         TextFormat.writeOpenMetrics100(writer, registry.metricFamilySamples());
         return writer.toString();
     }
@@ -137,6 +145,60 @@ public class MetricsResource {
         return "success";
     }
 
+    @POST
+    @Path("/heatmap/reports")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String heatmapReports(HeatmapSnapshot snapshot) {
+        HEATMAP_CACHE.put(StringUtils.defaultString(snapshot.getTaskName()), snapshot);
+        return "success";
+    }
+
+    @GET
+    @Path("/heatmap")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<HeatmapSnapshot> heatmap() {
+        return new ArrayList<>(HEATMAP_CACHE.asMap().values());
+    }
+
+    private void registerHeatmapGauges(CollectorRegistry registry) {
+        if (HEATMAP_CACHE.size() == 0) {
+            return;
+        }
+        Gauge tableEps = Gauge.build().name("polardbx_cdc_task_heatmap_table_eps")
+            .help("events per second of logic table").labelNames("task", "dn", "schema", "table").register(registry);
+        Gauge tableBps = Gauge.build().name("polardbx_cdc_task_heatmap_table_bps")
+            .help("bytes per second of logic table").labelNames("task", "dn", "schema", "table").register(registry);
+        Gauge tableTps = Gauge.build().name("polardbx_cdc_task_heatmap_table_tps")
+            .help("transactions per second of logic table").labelNames("task", "dn", "schema", "table")
+            .register(registry);
+        Gauge tableDelay = Gauge.build().name("polardbx_cdc_task_heatmap_table_delay")
+            .help("max delay(ms) of logic table in the period").labelNames("task", "dn", "schema", "table")
+            .register(registry);
+        Gauge sourceEps = Gauge.build().name("polardbx_cdc_task_heatmap_merge_source_eps")
+            .help("events per second of merge source").labelNames("task", "source").register(registry);
+        Gauge sourceTps = Gauge.build().name("polardbx_cdc_task_heatmap_merge_source_tps")
+            .help("transactions per second of merge source").labelNames("task", "source").register(registry);
+        Gauge sourceDelay = Gauge.build().name("polardbx_cdc_task_heatmap_merge_source_delay")
+            .help("max delay(ms) of merge source in the period").labelNames("task", "source").register(registry);
+
+        HEATMAP_CACHE.asMap().forEach((task, snapshot) -> {
+            double seconds = Math.max(1, snapshot.getPeriod()) / 1000d;
+            for (HeatmapSnapshot.Item item : snapshot.getTables()) {
+                String[] labels = {task, StringUtils.defaultString(item.getDn()),
+                    StringUtils.defaultString(item.getSchema()), StringUtils.defaultString(item.getTable())};
+                tableEps.labels(labels).set(item.getEvents() / seconds);
+                tableBps.labels(labels).set(item.getBytes() / seconds);
+                tableTps.labels(labels).set(item.getTxns() / seconds);
+                tableDelay.labels(labels).set(item.getDelay());
+            }
+            for (HeatmapSnapshot.Item item : snapshot.getMergeSources()) {
+                sourceEps.labels(task, item.getSource()).set(item.getEvents() / seconds);
+                sourceTps.labels(task, item.getSource()).set(item.getTxns() / seconds);
+                sourceDelay.labels(task, item.getSource()).set(item.getDelay());
+            }
+        });
+    }
+
     public static CommonMetrics getMetricsByKey(String key) {
         return CACHE.getIfPresent(key);
     }
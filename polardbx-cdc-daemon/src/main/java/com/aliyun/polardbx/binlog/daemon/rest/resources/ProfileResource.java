@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.daemon.rest.resources;
+
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.jvm.ProfileData;
+import com.sun.jersey.spi.resource.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.aliyun.polardbx.binlog.ConfigKeys.PROFILE_DIR;
+
+/**
+ * 输出本机daemon、task、dumper等进程的线程采样数据，数据来自各进程ThreadProfiler写到本地的采样文件
+ */
+@Path("/profile")
+@Produces(MediaType.APPLICATION_JSON)
+@Singleton
+@Slf4j
+public class ProfileResource {
+
+    @GET
+    @Path("/processes")
+    public List<String> processes() {
+        List<String> result = new ArrayList<>();
+        for (File dir : ProfileData.listProcessDirs(DynamicApplicationConfig.getString(PROFILE_DIR))) {
+            result.add(dir.getName());
+        }
+        return result;
+    }
+
+    /**
+     * 折叠栈格式的火焰图数据，type可选cpu、alloc、samples
+     */
+    @GET
+    @Path("/flamegraph")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String flameGraph(@QueryParam("process") String process,
+                             @QueryParam("minutes") @DefaultValue("5") int minutes,
+                             @QueryParam("type") @DefaultValue("cpu") String type) {
+        return load(process, minutes).toCollapsed(ProfileData.Type.parse(type));
+    }
+
+    @GET
+    @Path("/threads")
+    public Map<String, Map<String, Long>> threads(@QueryParam("process") String process,
+                                                  @QueryParam("minutes") @DefaultValue("5") int minutes) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : load(process, minutes).groupByThread().entrySet()) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("samples", entry.getValue()[0]);
+            values.put("cpuNanos", entry.getValue()[1]);
+            values.put("allocBytes", entry.getValue()[2]);
+            result.put(entry.getKey(), values);
+        }
+        return result;
+    }
+
+    private ProfileData load(String process, int minutes) {
+        for (File dir : ProfileData.listProcessDirs(DynamicApplicationConfig.getString(PROFILE_DIR))) {
+            if (dir.getName().equals(process)) {
+                return ProfileData.load(dir, minutes);
+            }
+        }
+        throw new PolardbxException("no profile data for process " + process);
+    }
+}
@@ -37,6 +37,7 @@ import com.aliyun.polardbx.rpc.cdc.MasterStatus;
 import com.aliyun.polardbx.rpc.cdc.Request;
 import com.aliyun.polardbx.rpc.cdc.ResetSlaveRequest;
 import com.aliyun.polardbx.rpc.cdc.RplCommandResponse;
+import com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest;
 import com.aliyun.polardbx.rpc.cdc.ShowBinlogEventsRequest;
 import com.aliyun.polardbx.rpc.cdc.ShowSlaveStatusRequest;
 import com.aliyun.polardbx.rpc.cdc.ShowSlaveStatusResponse;
@@ -111,7 +112,7 @@ public class CdcServer {
                 for (CdcFile file : files) {
                     responseObserver.onNext(BinaryLog.newBuilder()
                         .setLogName(file.getName())
-                        .setFileSize(file.size())
+                        .setFileSize(logFileManager.getReadableSize(file.getName(), file.size()))
                         .build());
                 }
                 responseObserver.onCompleted();
@@ -132,6 +133,18 @@ public class CdcServer {
                     serverCallStreamObserver);
             }
 
+            @Override
+            public void searchBinlogEvents(SearchBinlogEventsRequest request,
+                                           StreamObserver<BinlogEvent> responseObserver) {
+                log.info("CDC Server receive a search binlog events request, with stream name: {}, log name: {}",
+                    request.getStreamName(), request.getLogName());
+                final ServerCallStreamObserver<BinlogEvent> serverCallStreamObserver =
+                    (ServerCallStreamObserver<BinlogEvent>) responseObserver;
+                LogFileManager logFileManager = getLogFileManager(request.getStreamName());
+                LogFileReader logFileReader = new LogFileReader(logFileManager);
+                logFileReader.searchBinlogEvents(request, serverCallStreamObserver);
+            }
+
             @Override
             public void showMasterStatus(Request request, StreamObserver<MasterStatus> responseObserver) {
                 log.info("CDC Server receive a show master status request, with stream name: {}",
@@ -158,6 +171,9 @@ public class CdcServer {
 
                 final ServerCallStreamObserver<DumpStream> serverCallStreamObserver =
                     (ServerCallStreamObserver<DumpStream>) responseObserver;
+                // onReady回调需要在grpc线程返回之后才能被触发，所以dump逻辑需要放到独立线程中执行
+                TxnOutputStream<DumpStream> txnOutputStream = new TxnOutputStream<>(serverCallStreamObserver);
+                txnOutputStream.init();
 
                 LogFileManager logFileManager = getLogFileManager(request.getStreamName());
                 String fileName = request.getFileName();
@@ -176,13 +192,17 @@ public class CdcServer {
                     });
                 }
 
-                LogFileReader logFileReader = new LogFileReader(logFileManager);
-                logFileReader.binlogDump(
-                    request.getFileName(),
-                    request.getPosition(),
-                    request.getRegistered(),
-                    ext,
-                    serverCallStreamObserver);
+                final DumpRequest dumpRequest = request;
+                final Map<String, String> dumpExt = ext;
+                executor.submit(() -> {
+                    LogFileReader logFileReader = new LogFileReader(logFileManager);
+                    logFileReader.binlogDump(
+                        dumpRequest.getFileName(),
+                        dumpRequest.getPosition(),
+                        dumpRequest.getRegistered(),
+                        dumpExt,
+                        txnOutputStream);
+                });
             }
 
             @Override
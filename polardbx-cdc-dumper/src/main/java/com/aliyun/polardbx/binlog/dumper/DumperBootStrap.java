@@ -19,6 +19,7 @@ import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.SpringContextBootStrap;
 import com.aliyun.polardbx.binlog.TableCompatibilityProcessor;
 import com.aliyun.polardbx.binlog.TaskConfigProvider;
+import com.aliyun.polardbx.binlog.jvm.ThreadProfiler;
 import com.aliyun.polardbx.binlog.task.TaskHeartbeat;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang3.StringUtils;
@@ -78,6 +79,7 @@ public class DumperBootStrap {
             }
             String taskName = argsMap.get(TASK_NAME);
             System.setProperty(TASK_NAME, taskName);
+            ThreadProfiler.getInstance().start(taskName);
 
             // do start
             logger.info("## starting the dumper, with name {}.", taskName);
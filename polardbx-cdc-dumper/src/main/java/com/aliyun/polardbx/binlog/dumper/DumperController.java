@@ -166,7 +166,8 @@ public class DumperController {
 
         this.dumperPluginManager = new DumperPluginManager();
         this.dumperPluginManager.load(taskRuntimeConfig.getName(), taskRuntimeConfig.getType(),
-            groupName, streamNameList, taskRuntimeConfig.getBinlogTaskConfig().getVersion());
+            groupName, streamNameList, taskRuntimeConfig.getBinlogTaskConfig().getVersion(),
+            new Gson().fromJson(taskRuntimeConfig.getBinlogTaskConfig().getConfig(), ExecutionConfig.class));
         this.updateDumperInfo(taskRuntimeConfig);
     }
 
@@ -14,6 +14,7 @@
  */
 package com.aliyun.polardbx.binlog.dumper.dump.client;
 
+import com.aliyun.polardbx.binlog.dumper.dump.logfile.SyncBlockCodec;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.monitor.MonitorManager;
 import com.aliyun.polardbx.binlog.monitor.MonitorType;
@@ -28,13 +29,14 @@ import com.aliyun.polardbx.rpc.cdc.Request;
 import io.grpc.ManagedChannel;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.stub.StreamObserver;
+import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -78,67 +80,95 @@ public class DumpClient {
     public void dump(String fileName, long pos, EventSplitMode splitMode, PacketReceiver receiver) throws Throwable {
         logger.info("sync for {}#{}", fileName, pos);
 
-        if (!useAsyncMode) {
-            CdcServiceGrpc.CdcServiceBlockingStub blockingStub = CdcServiceGrpc.newBlockingStub(channel);
-            Iterator<DumpStream> iterator = blockingStub.sync(DumpRequest.newBuilder()
-                .setFileName(fileName)
-                .setPosition(pos)
-                .setSplitMode(splitMode).build());
-            while ((iterator.hasNext())) {
-                DumpStream reply = iterator.next();
-                receiver.onReceive(DirectByteOutput.unsafeFetch(reply.getPayload()), reply.getIsHeartBeat());
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug("reply is: " + reply);
-                }
-            }
-        } else {
-            ArrayBlockingQueue<Pair<byte[], Boolean>> queue = new ArrayBlockingQueue<>(asyncQueueSize);
-            AtomicReference<Throwable> error = new AtomicReference<>();
-
-            StreamObserver<DumpStream> observer = new StreamObserver<DumpStream>() {
-                @Override
-                public void onNext(DumpStream value) {
-                    try {
-                        queue.put(Pair.of(DirectByteOutput.unsafeFetch(value.getPayload()), value.getIsHeartBeat()));
-                    } catch (Throwable e) {
-                        error.set(e);
+        // 解压和校验在接收线程中完成，异步模式下和文件写入并行
+        SyncBlockCodec blockCodec = newBlockCodec(splitMode);
+        try {
+            if (!useAsyncMode) {
+                CdcServiceGrpc.CdcServiceBlockingStub blockingStub = CdcServiceGrpc.newBlockingStub(channel);
+                Iterator<DumpStream> iterator = blockingStub.sync(DumpRequest.newBuilder()
+                    .setFileName(fileName)
+                    .setPosition(pos)
+                    .setSplitMode(splitMode).build());
+                while ((iterator.hasNext())) {
+                    DumpStream reply = iterator.next();
+                    deliver(unpack(reply, blockCodec), receiver);
+
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("reply is: " + reply);
                     }
                 }
+            } else {
+                ArrayBlockingQueue<ReceivedPacket> queue = new ArrayBlockingQueue<>(asyncQueueSize);
+                AtomicReference<Throwable> error = new AtomicReference<>();
+
+                StreamObserver<DumpStream> observer = new StreamObserver<DumpStream>() {
+                    @Override
+                    public void onNext(DumpStream value) {
+                        try {
+                            queue.put(unpack(value, blockCodec));
+                        } catch (Throwable e) {
+                            error.set(e);
+                        }
+                    }
 
-                @Override
-                public void onError(Throwable t) {
-                    logger.error("onError " + fileName + "@" + pos, t);
-                    MonitorManager.getInstance().triggerAlarm(MonitorType.DUMPER_STAGE_FOLLOWER_FILE_SYNC_ERROR,
-                        ExceptionUtils.getStackTrace(t));
-                    error.set(new PolardbxException("onError " + fileName + "@" + pos, t));
-                }
+                    @Override
+                    public void onError(Throwable t) {
+                        logger.error("onError " + fileName + "@" + pos, t);
+                        MonitorManager.getInstance().triggerAlarm(MonitorType.DUMPER_STAGE_FOLLOWER_FILE_SYNC_ERROR,
+                            ExceptionUtils.getStackTrace(t));
+                        error.set(new PolardbxException("onError " + fileName + "@" + pos, t));
+                    }
 
-                @Override
-                public void onCompleted() {
-                    logger.info("dump complete {}@{}", fileName, pos);
-                    error.set(new PolardbxException("onComplete " + fileName + "@" + pos));
-                }
-            };
-            CdcServiceStub cdcServiceStub = CdcServiceGrpc.newStub(channel);
-            cdcServiceStub.sync(DumpRequest.newBuilder()
-                .setFileName(fileName)
-                .setPosition(pos)
-                .setSplitMode(splitMode).build(), observer);
-
-            while (connected.get()) {
-                if (error.get() != null) {
-                    throw error.get();
-                }
-                try {
-                    Pair<byte[], Boolean> pair = queue.poll(10, TimeUnit.MILLISECONDS);
-                    if (pair != null) {
-                        receiver.onReceive(pair.getKey(), pair.getValue());
+                    @Override
+                    public void onCompleted() {
+                        logger.info("dump complete {}@{}", fileName, pos);
+                        error.set(new PolardbxException("onComplete " + fileName + "@" + pos));
+                    }
+                };
+                CdcServiceStub cdcServiceStub = CdcServiceGrpc.newStub(channel);
+                cdcServiceStub.sync(DumpRequest.newBuilder()
+                    .setFileName(fileName)
+                    .setPosition(pos)
+                    .setSplitMode(splitMode).build(), observer);
+
+                while (connected.get()) {
+                    if (error.get() != null) {
+                        throw error.get();
+                    }
+                    try {
+                        ReceivedPacket packet = queue.poll(10, TimeUnit.MILLISECONDS);
+                        if (packet != null) {
+                            deliver(packet, receiver);
+                        }
+                    } catch (IOException e) {
+                        throw new PolardbxException("onReceive fail " + fileName + "@" + pos, e);
                     }
-                } catch (IOException e) {
-                    throw new PolardbxException("onReceive fail " + fileName + "@" + pos, e);
                 }
             }
+        } finally {
+            if (blockCodec != null) {
+                blockCodec.close();
+            }
+        }
+    }
+
+    private SyncBlockCodec newBlockCodec(EventSplitMode splitMode) {
+        // 解码时压缩参数不起作用，压缩与否由服务端决定
+        return splitMode == EventSplitMode.BLOCK ? new SyncBlockCodec(false, 0) : null;
+    }
+
+    private ReceivedPacket unpack(DumpStream reply, SyncBlockCodec blockCodec) {
+        if (blockCodec == null || reply.getIsHeartBeat()) {
+            return new ReceivedPacket(DirectByteOutput.unsafeFetch(reply.getPayload()), null, reply.getIsHeartBeat());
+        }
+        return new ReceivedPacket(blockCodec.decode(reply), reply.getEventEndsList(), false);
+    }
+
+    private void deliver(ReceivedPacket packet, PacketReceiver receiver) throws IOException {
+        if (packet.eventEnds != null) {
+            receiver.onReceiveBlock(packet.data, packet.eventEnds);
+        } else {
+            receiver.onReceive(packet.data, packet.heartBeat);
         }
     }
 
@@ -159,4 +189,11 @@ public class DumpClient {
         }
         logger.info("Dump client is disconnected to server.");
     }
+
+    @AllArgsConstructor
+    private static class ReceivedPacket {
+        private final byte[] data;
+        private final List<Integer> eventEnds;
+        private final boolean heartBeat;
+    }
 }
@@ -15,6 +15,7 @@
 package com.aliyun.polardbx.binlog.dumper.dump.client;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Created by ziyang.lb
@@ -22,4 +23,11 @@ import java.io.IOException;
 public interface PacketReceiver {
 
     void onReceive(byte[] packet, boolean isHeartBeat) throws IOException;
+
+    /**
+     * BLOCK模式下接收已完成校验和解压的块，eventEnds为块内每个event的结束偏移量
+     */
+    default void onReceiveBlock(byte[] block, List<Integer> eventEnds) throws IOException {
+        onReceive(block, false);
+    }
 }
@@ -25,6 +25,7 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.UnsafeByteOperations;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
@@ -227,8 +228,8 @@ public class BinlogDumpReader {
                 buffer.compact();
                 this.read();
             }
-            if (buffer.remaining() == 0 && hasNext() && fp == channel.size()) {
-                log.info("rotate, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), channel.size());
+            if (buffer.remaining() == 0 && hasNext() && fp == readableEnd()) {
+                log.info("rotate, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), readableEnd());
                 rotate();
                 return fakeRotateEvent();
             }
@@ -305,23 +306,49 @@ public class BinlogDumpReader {
      * @see <a href="mysqlbinlog.cc">https://github.com/mysql/mysql-server/blob/8.0/client/mysqlbinlog.cc</a>
      */
     public ByteString nextDumpPacks() {
+        return nextDumpPacks(maxPacketSize);
+    }
+
+    /**
+     * @param packetSize 本次组包的大小上限，由流控根据下游的消费能力动态给出，不会超过maxPacketSize
+     */
+    public ByteString nextDumpPacks(int packetSize) {
+        int limit = Math.min(packetSize, maxPacketSize);
         ByteString result = ByteString.EMPTY;
         while (hasNext()) {
             result = result.concat(nextDumpPack());
-            if (result.size() > maxPacketSize) {
+            if (result.size() > limit) {
                 break;
             }
             int nextDumpPackLength = nextDumpPackLength();
             if (nextDumpPackLength == 0) {
                 break;
             }
-            if (nextDumpPackLength + result.size() > maxPacketSize) {
+            if (nextDumpPackLength + result.size() > limit) {
                 break;
             }
         }
         return result;
     }
 
+    /**
+     * 尚未读取的binlog字节数的估算值，跨多个文件时只统计当前文件的剩余部分和最新文件已写入的部分
+     */
+    public long backlogBytes() {
+        Cursor cursor = logFileManager.getLatestFileCursor();
+        if (cursor == null) {
+            return 0;
+        }
+        if (StringUtils.equals(cursor.getFileName(), fileName)) {
+            return Math.max(0, cursor.getFilePosition() - fp);
+        }
+        try {
+            return Math.max(0, readableEnd() - fp) + cursor.getFilePosition();
+        } catch (IOException e) {
+            return cursor.getFilePosition();
+        }
+    }
+
     void read() throws IOException {
         if (channel.position() == 0) {
             fp = 4;
@@ -333,6 +360,11 @@ public class BinlogDumpReader {
                 bufferMessage(buffer));
         }
 
+        // 只读取到可读边界，预分配的文件在边界之后是还未写入数据的区域
+        long readable = Math.max(0, readableEnd() - channel.position());
+        if (readable < buffer.remaining()) {
+            buffer.limit(buffer.position() + (int) readable);
+        }
         int read = channel.read(buffer);
         buffer.flip();
 
@@ -341,6 +373,13 @@ public class BinlogDumpReader {
         }
     }
 
+    /**
+     * 当前文件可以读取的数据的边界
+     */
+    long readableEnd() throws IOException {
+        return logFileManager.getReadableSize(fileName, channel.size());
+    }
+
     public boolean hasNext() {
         if (rotateNext) {
             Cursor cursor = logFileManager.getLatestFileCursor();
@@ -361,7 +400,7 @@ public class BinlogDumpReader {
             }
         } else {
             try {
-                return fp < channel.size();
+                return fp < readableEnd();
             } catch (Exception e) {
                 log.error("hasNext read fail", e);
                 return false;
@@ -370,7 +409,7 @@ public class BinlogDumpReader {
     }
 
     void rotate() throws IOException {
-        this.close();
+        this.closeChannel();
         this.fileName = BinlogFileUtil.getNextBinlogFileName(fileName);
         this.pos = 4;
         CdcFile cdcFile = logFileManager.getBinlogFileByName(fileName);
@@ -384,6 +423,10 @@ public class BinlogDumpReader {
     }
 
     public void close() {
+        closeChannel();
+    }
+
+    void closeChannel() {
         try {
             buffer.clear();
             channel.close();
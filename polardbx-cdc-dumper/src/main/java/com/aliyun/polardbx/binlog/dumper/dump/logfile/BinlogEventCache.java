@@ -0,0 +1,731 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.MarkType;
+import com.aliyun.polardbx.binlog.canal.binlog.LogBuffer;
+import com.aliyun.polardbx.binlog.canal.binlog.LogContext;
+import com.aliyun.polardbx.binlog.canal.binlog.LogDecoder;
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.LogPosition;
+import com.aliyun.polardbx.binlog.canal.core.model.ServerCharactorSet;
+import com.aliyun.polardbx.binlog.domain.MarkInfo;
+import com.aliyun.polardbx.rpc.cdc.BinlogEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 最近写入的逻辑binlog event的元数据缓存，由LogFileGenerator在写入binlog文件时填充，
+ * 用于在不读取binlog文件的情况下响应SHOW BINLOG EVENTS，以及按tso、表和event类型检索event。
+ * <p>
+ * 每个binlog文件对应一个Segment，按列存储event的类型、长度、server id、tso、表和info：
+ * 位点只存储相邻event的差值(即event长度)，每隔CHECKPOINT_INTERVAL个event记录一个绝对位点用于定位；
+ * server id、tso、表和info做字典编码；table map、rows和xid event的info不存储字符串，读取时按模板还原。
+ * 内存占用超过上限时按文件从旧到新淘汰，当前文件自身超过上限时，从下一个event开始重新缓存。
+ * </p>
+ * <p>
+ * 写入线程只解析table map、rows和xid event的固定字段，其余event拷贝一份后交给单独的解码线程用canal的LogDecoder解析，
+ * 解码队列已满时直接丢弃，位点不连续的Segment会从下一个event开始重新缓存，不会阻塞binlog的写入。
+ * </p>
+ */
+@Slf4j
+public class BinlogEventCache {
+    private static final int CHECKPOINT_SHIFT = 10;
+    private static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_SHIFT;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EVENT_HEADER_LEN = 19;
+    private static final int EVENT_FIXED_BYTES = 21;
+    private static final int STRING_OVERHEAD_BYTES = 48;
+    private static final int DECODE_QUEUE_SIZE = 4096;
+    private static final int INFO_NONE = -1;
+    /**
+     * 小于等于INFO_CTS的info引用表示CTS标记event，INFO_CTS - ref为tso的下标
+     */
+    private static final int INFO_CTS = -2;
+    private static final String CTS_PREFIX = MarkType.CTS + "::";
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Segment> segments = new LinkedHashMap<>();
+    private final LogDecoder decoder = new LogDecoder(LogEvent.UNKNOWN_EVENT, LogEvent.ENUM_END_EVENT);
+    private final LogContext context = new LogContext();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final Object flushMonitor = new Object();
+    private final AtomicInteger flushWaiters = new AtomicInteger();
+    private final BlockingQueue<PendingEvent> decodeQueue = new ArrayBlockingQueue<>(DECODE_QUEUE_SIZE);
+    private final Thread decodeThread;
+    private volatile boolean running;
+    private long estimatedBytes;
+    private String decodingFile;
+
+    public BinlogEventCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        ServerCharactorSet charactorSet = new ServerCharactorSet();
+        charactorSet.setCharacterSetClient("utf8");
+        charactorSet.setCharacterSetConnection("utf8");
+        charactorSet.setCharacterSetDatabase("utf8");
+        charactorSet.setCharacterSetServer("utf8");
+        this.context.setServerCharactorSet(charactorSet);
+        this.decodeThread = new Thread(this::decodeLoop, "binlog-event-cache-decoder");
+        this.decodeThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        decodeThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        decodeThread.interrupt();
+        decodeQueue.clear();
+        log.info("binlog event cache stopped, hit count {}, miss count {}, dropped count {}", hitCount.get(),
+            missCount.get(), droppedCount.get());
+    }
+
+    /**
+     * 写入线程在event写入binlog文件之前调用，position为event在文件中的起始位点，data中的checksum需要已经更新
+     * 缓存失败不能影响binlog的写入，所以这里不会抛出异常，也不会等待解码线程
+     */
+    public void append(String fileName, long position, byte[] data, int offset, int length) {
+        if (!running || length < EVENT_HEADER_LEN) {
+            return;
+        }
+        try {
+            int type = data[offset + 4] & 0xff;
+            long serverId = readLong(data, offset + 5, 4);
+            ParsedEvent parsed = parseFixed(type, data, offset);
+            byte[] raw = parsed == null ? Arrays.copyOfRange(data, offset, offset + length) : null;
+            appendedCount.incrementAndGet();
+            if (!decodeQueue.offer(new PendingEvent(fileName, position, type, length, serverId, parsed, raw))) {
+                droppedCount.incrementAndGet();
+                markProcessed();
+            }
+        } catch (Throwable t) {
+            log.warn("append event to cache failed, file {}, position {}", fileName, position, t);
+        }
+    }
+
+    /**
+     * 等待已经append的event全部处理完成
+     */
+    void flush() throws InterruptedException {
+        long target = appendedCount.get();
+        flushWaiters.incrementAndGet();
+        try {
+            synchronized (flushMonitor) {
+                while (running && processedCount.get() < target) {
+                    flushMonitor.wait(100);
+                }
+            }
+        } finally {
+            flushWaiters.decrementAndGet();
+        }
+    }
+
+    private void markProcessed() {
+        processedCount.incrementAndGet();
+        // 没有等待者时不进入同步块，避免解码线程在每个event上都产生锁开销
+        if (flushWaiters.get() > 0) {
+            synchronized (flushMonitor) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void decodeLoop() {
+        while (running) {
+            PendingEvent event;
+            try {
+                event = decodeQueue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (event != null) {
+                add(event);
+                markProcessed();
+            }
+        }
+    }
+
+    private void add(PendingEvent event) {
+        try {
+            ParsedEvent parsed = event.parsed != null ? event.parsed : decode(event);
+            synchronized (this) {
+                Segment segment = segmentOf(event.fileName, event.position);
+                long before = segment.bytes;
+                segment.add(event.type, event.length, event.serverId, parsed);
+                estimatedBytes += segment.bytes - before;
+                evict(segment);
+            }
+        } catch (Throwable t) {
+            log.warn("add event to cache failed, file {}, position {}", event.fileName, event.position, t);
+            synchronized (this) {
+                Segment segment = segments.remove(event.fileName);
+                if (segment != null) {
+                    estimatedBytes -= segment.bytes;
+                }
+            }
+        }
+    }
+
+    /**
+     * 从fromPos开始(小于等于4表示从文件头开始)，跳过skip个event后最多读取maxRows个event，只返回结束位点不超过limitPos的event
+     *
+     * @return 缓存中没有覆盖fromPos，或者fromPos不是一个event的起始位点时返回null
+     * (跳过的event超出缓存末尾时同样返回null)
+     */
+    public synchronized Batch read(String fileName, long fromPos, long skip, int maxRows, long limitPos) {
+        Segment segment = segments.get(fileName);
+        int index = -1;
+        if (segment != null) {
+            if (fromPos <= BinlogFile.BINLOG_FILE_HEADER.length) {
+                index = segment.startPos == BinlogFile.BINLOG_FILE_HEADER.length ? 0 : -1;
+            } else {
+                index = segment.indexOf(fromPos);
+            }
+        }
+        // 需要跳过的event超出了缓存的末尾，并且文件后面可能还有未缓存的event，只能从文件中读取
+        long target = index + Math.max(0, skip);
+        if (index < 0 || (target > segment.size && !segment.sealed && segment.nextPos < limitPos)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+
+        // 跳过的event只需要按下标计算，不需要逐个解析
+        index = (int) Math.min(segment.size, target);
+        long pos = segment.positionOf(index);
+        List<BinlogEvent> events = new ArrayList<>(Math.min(maxRows, segment.size - index));
+        while (events.size() < maxRows && index < segment.size && pos + segment.lengths[index] <= limitPos) {
+            events.add(segment.toBinlogEvent(index, pos));
+            pos += segment.lengths[index++];
+        }
+        // 解码线程可能还没有追上写入，缓存末尾之后的event需要从文件中读取，除非文件已经rotate并且缓存完整
+        boolean end = index < segment.size ? pos + segment.lengths[index] > limitPos :
+            segment.sealed || pos >= limitPos;
+        return new Batch(events, pos, end);
+    }
+
+    /**
+     * 在缓存的event中按条件检索，结果按文件和位点有序，只返回结束位点不超过limitPosOf(文件名)的event
+     * 每扫描CHECKPOINT_INTERVAL个event释放一次锁，避免长时间阻塞解码线程
+     */
+    public List<SearchResult> search(SearchCondition condition, ToLongFunction<String> limitPosOf) {
+        List<SearchResult> results = new ArrayList<>();
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments.values());
+        }
+        for (Segment segment : snapshot) {
+            if (condition.getFileName() != null && !condition.getFileName().equals(segment.fileName)) {
+                continue;
+            }
+            long limitPos = limitPosOf.applyAsLong(segment.fileName);
+            int from = 0;
+            long pos = 0;
+            long generation = 0;
+            while (results.size() < condition.getLimit()) {
+                synchronized (this) {
+                    if (from == 0) {
+                        generation = segment.generation;
+                        pos = segment.startPos;
+                    } else if (generation != segment.generation) {
+                        // 扫描过程中缓存被淘汰或者重置，已经不能继续定位
+                        break;
+                    }
+                    int to = Math.min(segment.size, from + CHECKPOINT_INTERVAL);
+                    for (int i = from; i < to && results.size() < condition.getLimit(); i++) {
+                        if (pos + segment.lengths[i] > limitPos) {
+                            to = segment.size;
+                            break;
+                        }
+                        if (segment.match(i, condition)) {
+                            results.add(segment.toSearchResult(i, pos));
+                        }
+                        pos += segment.lengths[i];
+                    }
+                    if (to >= segment.size) {
+                        break;
+                    }
+                    from = to;
+                }
+            }
+        }
+        return results;
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public synchronized long getEventCount() {
+        long count = 0;
+        for (Segment segment : segments.values()) {
+            count += segment.size;
+        }
+        return count;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 在写入线程中解析table map、rows和xid event的固定字段，其余类型返回null
+     */
+    private static ParsedEvent parseFixed(int type, byte[] data, int offset) {
+        ParsedEvent parsed = new ParsedEvent();
+        switch (type) {
+        case LogEvent.TABLE_MAP_EVENT: {
+            parsed.tableId = readLong(data, offset + EVENT_HEADER_LEN, 6);
+            int pos = offset + EVENT_HEADER_LEN + 8;
+            int schemaLen = data[pos] & 0xff;
+            parsed.schema = new String(data, pos + 1, schemaLen, StandardCharsets.UTF_8);
+            pos += schemaLen + 2;
+            int tableLen = data[pos] & 0xff;
+            parsed.table = new String(data, pos + 1, tableLen, StandardCharsets.UTF_8);
+            break;
+        }
+        case LogEvent.WRITE_ROWS_EVENT_V1:
+        case LogEvent.UPDATE_ROWS_EVENT_V1:
+        case LogEvent.DELETE_ROWS_EVENT_V1:
+        case LogEvent.WRITE_ROWS_EVENT:
+        case LogEvent.UPDATE_ROWS_EVENT:
+        case LogEvent.DELETE_ROWS_EVENT:
+            parsed.tableId = readLong(data, offset + EVENT_HEADER_LEN, 6);
+            parsed.stmtEnd = readLong(data, offset + EVENT_HEADER_LEN + 6, 2) == 1;
+            break;
+        case LogEvent.XID_EVENT:
+            parsed.xid = readLong(data, offset + EVENT_HEADER_LEN, 8);
+            break;
+        default:
+            return null;
+        }
+        return parsed;
+    }
+
+    /**
+     * 在解码线程中解析其余类型的event，这些event在每个事务中最多出现几次，直接复用canal的解析逻辑，保证info和从文件中读取时一致
+     */
+    private ParsedEvent decode(PendingEvent pending) throws Exception {
+        if (!pending.fileName.equals(decodingFile)) {
+            decodingFile = pending.fileName;
+            context.setLogPosition(new LogPosition(pending.fileName, pending.position));
+        }
+        ParsedEvent parsed = new ParsedEvent();
+        LogEvent event = decoder.decode(new LogBuffer(pending.raw, 0, pending.length), context);
+        parsed.info = event == null ? StringUtils.EMPTY : StringUtils.defaultString(event.info());
+        if (pending.type == LogEvent.ROWS_QUERY_LOG_EVENT && parsed.info.startsWith(CTS_PREFIX)) {
+            parsed.tso = new MarkInfo(parsed.info).getTso();
+        }
+        return parsed;
+    }
+
+    private Segment segmentOf(String fileName, long position) {
+        Segment segment = segments.get(fileName);
+        if (segment == null) {
+            segment = new Segment(fileName, position);
+            segments.put(fileName, segment);
+        } else if (segment.nextPos != position) {
+            // 文件被截断重写或者中间有未缓存的数据，之前的缓存已经不能用于定位
+            estimatedBytes -= segment.bytes;
+            segment.reset(position);
+        }
+        return segment;
+    }
+
+    private void evict(Segment current) {
+        Iterator<Map.Entry<String, Segment>> iterator = segments.entrySet().iterator();
+        while (estimatedBytes > maxBytes && iterator.hasNext()) {
+            Segment segment = iterator.next().getValue();
+            if (segment == current) {
+                break;
+            }
+            estimatedBytes -= segment.bytes;
+            iterator.remove();
+            log.info("evict binlog event cache of file {}, event count {}", segment.fileName, segment.size);
+        }
+        if (estimatedBytes > maxBytes) {
+            estimatedBytes -= current.bytes;
+            log.info("binlog event cache of file {} exceeds the limit, restart from position {}", current.fileName,
+                current.nextPos);
+            current.reset(current.nextPos);
+        }
+    }
+
+    private static long readLong(byte[] data, int offset, int bytes) {
+        long value = 0;
+        for (int i = bytes - 1; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static boolean isRowsEvent(int type) {
+        return (type >= LogEvent.WRITE_ROWS_EVENT_V1 && type <= LogEvent.DELETE_ROWS_EVENT_V1)
+            || (type >= LogEvent.WRITE_ROWS_EVENT && type <= LogEvent.DELETE_ROWS_EVENT);
+    }
+
+    @AllArgsConstructor
+    private static class PendingEvent {
+        private final String fileName;
+        private final long position;
+        private final int type;
+        private final int length;
+        private final long serverId;
+        private final ParsedEvent parsed;
+        private final byte[] raw;
+    }
+
+    private static class ParsedEvent {
+        private long tableId = -1;
+        private String schema;
+        private String table;
+        private boolean stmtEnd;
+        private long xid;
+        private String info;
+        private String tso;
+    }
+
+    private static class Dictionary<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        private int encode(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        private boolean contains(T value) {
+            return ids.containsKey(value);
+        }
+
+        private T get(int id) {
+            return values.get(id);
+        }
+    }
+
+    private static class Segment {
+        private final String fileName;
+        private long startPos;
+        private long nextPos;
+        private int size;
+        private long bytes;
+        private boolean sealed;
+        /**
+         * 每次reset递增，检索时用于判断释放锁期间缓存是否被重置
+         */
+        private long generation;
+
+        private byte[] types;
+        private int[] lengths;
+        private int[] serverRefs;
+        private int[] tableRefs;
+        private int[] infoRefs;
+        private int[] tsoRefs;
+        private int pendingTsoFrom;
+        private long[] checkpoints;
+        private long[] xids;
+        private int xidCount;
+
+        private Dictionary<Long> serverIds;
+        private Dictionary<TableRef> tables;
+        private Dictionary<String> infos;
+        private List<String> tsos;
+        private Map<Long, Integer> tableIdRefs;
+
+        private Segment(String fileName, long startPos) {
+            this.fileName = fileName;
+            reset(startPos);
+        }
+
+        private void reset(long position) {
+            startPos = position;
+            nextPos = position;
+            size = 0;
+            bytes = 0;
+            sealed = false;
+            generation++;
+            types = new byte[INITIAL_CAPACITY];
+            lengths = new int[INITIAL_CAPACITY];
+            serverRefs = new int[INITIAL_CAPACITY];
+            tableRefs = new int[INITIAL_CAPACITY];
+            infoRefs = new int[INITIAL_CAPACITY];
+            tsoRefs = new int[INITIAL_CAPACITY];
+            pendingTsoFrom = 0;
+            checkpoints = new long[16];
+            xids = new long[64];
+            xidCount = 0;
+            serverIds = new Dictionary<>();
+            tables = new Dictionary<>();
+            infos = new Dictionary<>();
+            tsos = new ArrayList<>();
+            tableIdRefs = new HashMap<>();
+        }
+
+        private void add(int type, int length, long serverId, ParsedEvent parsed) {
+            ensureCapacity();
+            int i = size;
+            if ((i & (CHECKPOINT_INTERVAL - 1)) == 0) {
+                int block = i >> CHECKPOINT_SHIFT;
+                if (block == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, block * 2);
+                }
+                checkpoints[block] = nextPos;
+            }
+
+            types[i] = (byte) type;
+            lengths[i] = length;
+            serverRefs[i] = encode(serverIds, serverId, 8);
+            tableRefs[i] = -1;
+            infoRefs[i] = INFO_NONE;
+            tsoRefs[i] = -1;
+
+            if (type == LogEvent.TABLE_MAP_EVENT) {
+                int ref = encode(tables, new TableRef(parsed.tableId, parsed.schema, parsed.table),
+                    parsed.schema.length() + parsed.table.length() + 8);
+                tableIdRefs.put(parsed.tableId, ref);
+                tableRefs[i] = ref;
+            } else if (isRowsEvent(type)) {
+                Integer ref = tableIdRefs.get(parsed.tableId);
+                if (ref == null) {
+                    // 对应的table map不在缓存中(从文件中间开始缓存)，只保留table id
+                    ref = encode(tables, new TableRef(parsed.tableId, null, null), 8);
+                    tableIdRefs.put(parsed.tableId, ref);
+                }
+                tableRefs[i] = ref;
+                infoRefs[i] = parsed.stmtEnd ? 1 : 0;
+            } else if (type == LogEvent.XID_EVENT) {
+                if (xidCount == xids.length) {
+                    xids = Arrays.copyOf(xids, xidCount * 2);
+                }
+                xids[xidCount] = parsed.xid;
+                infoRefs[i] = xidCount++;
+                bytes += 8;
+            } else if (parsed.tso != null) {
+                tsos.add(parsed.tso);
+                bytes += STRING_OVERHEAD_BYTES + parsed.tso.length() * 2L;
+                infoRefs[i] = parsed.info.equals(CTS_PREFIX + parsed.tso) ? INFO_CTS - (tsos.size() - 1) :
+                    encode(infos, parsed.info, parsed.info.length() * 2);
+                // commit tso在事务的最后写入，回填给同一个事务中之前的event
+                Arrays.fill(tsoRefs, pendingTsoFrom, i + 1, tsos.size() - 1);
+                pendingTsoFrom = i + 1;
+            } else if (parsed.info != null) {
+                infoRefs[i] = encode(infos, parsed.info, parsed.info.length() * 2);
+            }
+
+            size++;
+            nextPos += length;
+            bytes += EVENT_FIXED_BYTES;
+            // rotate event是文件的最后一个event，之后不会再有新的event
+            sealed = type == LogEvent.ROTATE_EVENT;
+        }
+
+        private <T> int encode(Dictionary<T> dictionary, T value, int valueBytes) {
+            if (!dictionary.contains(value)) {
+                bytes += STRING_OVERHEAD_BYTES + valueBytes;
+            }
+            return dictionary.encode(value);
+        }
+
+        private void ensureCapacity() {
+            if (size < types.length) {
+                return;
+            }
+            int capacity = types.length * 2;
+            bytes += (long) (capacity - types.length) * EVENT_FIXED_BYTES;
+            types = Arrays.copyOf(types, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            serverRefs = Arrays.copyOf(serverRefs, capacity);
+            tableRefs = Arrays.copyOf(tableRefs, capacity);
+            infoRefs = Arrays.copyOf(infoRefs, capacity);
+            tsoRefs = Arrays.copyOf(tsoRefs, capacity);
+        }
+
+        /**
+         * @return 位点对应的event下标，位点不是event的起始位点时返回-1
+         */
+        private int indexOf(long position) {
+            if (size == 0 || position < startPos || position >= nextPos) {
+                return -1;
+            }
+            int blocks = ((size - 1) >> CHECKPOINT_SHIFT) + 1;
+            int low = 0;
+            int high = blocks - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (checkpoints[mid] <= position) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            int index = low << CHECKPOINT_SHIFT;
+            long pos = checkpoints[low];
+            while (index < size && pos < position) {
+                pos += lengths[index++];
+            }
+            return pos == position ? index : -1;
+        }
+
+        private long positionOf(int index) {
+            if (index >= size) {
+                return nextPos;
+            }
+            int block = index >> CHECKPOINT_SHIFT;
+            long pos = checkpoints[block];
+            for (int i = block << CHECKPOINT_SHIFT; i < index; i++) {
+                pos += lengths[i];
+            }
+            return pos;
+        }
+
+        private BinlogEvent toBinlogEvent(int i, long pos) {
+            int type = types[i] & 0xff;
+            return BinlogEvent.newBuilder().setLogName(fileName).setPos(pos).setEventType(LogEvent.getTypeName(type))
+                .setServerId(serverIds.get(serverRefs[i])).setEndLogPos((pos + lengths[i]) & 0xffffffffL)
+                .setInfo(info(i, type)).build();
+        }
+
+        private boolean match(int i, SearchCondition condition) {
+            if (condition.getEventType() != null && condition.getEventType() != (types[i] & 0xff)) {
+                return false;
+            }
+            if (condition.getBeginTso() != null || condition.getEndTso() != null) {
+                if (tsoRefs[i] < 0) {
+                    return false;
+                }
+                String tso = tsos.get(tsoRefs[i]);
+                if ((condition.getBeginTso() != null && tso.compareTo(condition.getBeginTso()) < 0)
+                    || (condition.getEndTso() != null && tso.compareTo(condition.getEndTso()) > 0)) {
+                    return false;
+                }
+            }
+            if (condition.getSchema() != null || condition.getTable() != null) {
+                TableRef table = tableRefs[i] < 0 ? null : tables.get(tableRefs[i]);
+                if (table == null || (condition.getSchema() != null && !condition.getSchema()
+                    .equalsIgnoreCase(table.schema)) || (condition.getTable() != null && !condition.getTable()
+                    .equalsIgnoreCase(table.table))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private SearchResult toSearchResult(int i, long pos) {
+            TableRef table = tableRefs[i] < 0 ? null : tables.get(tableRefs[i]);
+            return new SearchResult(toBinlogEvent(i, pos), tsoRefs[i] < 0 ? null : tsos.get(tsoRefs[i]),
+                table == null ? null : table.schema, table == null ? null : table.table);
+        }
+
+        private String info(int i, int type) {
+            if (type == LogEvent.TABLE_MAP_EVENT) {
+                TableRef table = tables.get(tableRefs[i]);
+                return String.format("table_id: %s (%s.%s)", table.tableId, table.schema, table.table);
+            } else if (isRowsEvent(type)) {
+                long tableId = tables.get(tableRefs[i]).tableId;
+                return infoRefs[i] == 1 ? String.format("table_id: %s flags: STMT_END_F", tableId) :
+                    String.format("table_id: %s", tableId);
+            } else if (type == LogEvent.XID_EVENT) {
+                return "COMMIT /* xid=" + xids[infoRefs[i]] + " */";
+            } else if (infoRefs[i] <= INFO_CTS) {
+                return CTS_PREFIX + tsos.get(INFO_CTS - infoRefs[i]);
+            } else if (infoRefs[i] == INFO_NONE) {
+                return StringUtils.EMPTY;
+            }
+            return infos.get(infoRefs[i]);
+        }
+
+        @AllArgsConstructor
+        @EqualsAndHashCode
+        private static class TableRef {
+            private final long tableId;
+            private final String schema;
+            private final String table;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Batch {
+        private final List<BinlogEvent> events;
+        /**
+         * 下一个未读取的event的起始位点
+         */
+        private final long nextPos;
+        /**
+         * 是否已经读到limitPos，或者已经读到已rotate文件的末尾，为false时后续的event需要继续读取
+         */
+        private final boolean end;
+    }
+
+    @Getter
+    @Builder
+    public static class SearchCondition {
+        private final String fileName;
+        private final String beginTso;
+        private final String endTso;
+        private final String schema;
+        private final String table;
+        private final Integer eventType;
+        @Builder.Default
+        private final int limit = 1000;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final BinlogEvent event;
+        private final String tso;
+        private final String schema;
+        private final String table;
+    }
+}
@@ -46,6 +46,7 @@ public class BinlogEventReader {
     private final long pos;
     private final long offset;
     private final BinlogFileReadChannel channel;
+    private final long readableSize;
     private final ByteBuffer buffer = ByteBuffer.allocate(EVENT_MAX_SIZE);
     private final LogContext context = new LogContext();
     private final LogDecoder decoder = new LogDecoder(LogEvent.UNKNOWN_EVENT, LogEvent.ENUM_END_EVENT);
@@ -53,6 +54,14 @@ public class BinlogEventReader {
     private long fp;
 
     public BinlogEventReader(CdcFile cdcFile, long pos, long offset, long rowCount)
+        throws IOException {
+        this(cdcFile, pos, offset, rowCount, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param readableSize 文件中可以读取的数据的边界，正在写入的文件是预分配了空间的，不能以文件长度作为边界
+     */
+    public BinlogEventReader(CdcFile cdcFile, long pos, long offset, long rowCount, long readableSize)
         throws IOException {
         this.fileName = cdcFile.getName();
         this.pos = pos < 0 ? 0 : pos;
@@ -61,15 +70,16 @@ public class BinlogEventReader {
         this.context.setLogPosition(new LogPosition(fileName, pos));
         this.context.setServerCharactorSet(loadCharactorSet());
         this.channel = cdcFile.getReadChannel();
+        this.readableSize = Math.min(readableSize, channel.size());
         log.info("[fixed] show binlog events in {} from {} limit {}, {}", fileName, this.pos, this.offset,
             this.rowCount);
     }
 
     public void valid() throws IOException {
-        if (pos > channel.size()) {
+        if (pos > readableSize) {
             throw new PolardbxException("invalid log position");
         }
-        if (pos == channel.size()) {
+        if (pos == readableSize) {
             return;
         }
         byte[] data = new byte[512];
@@ -197,6 +207,10 @@ public class BinlogEventReader {
             log.debug("will read from {}#{}, fp={}, buffer={}", fileName, channel.position(), fp,
                 bufferMessage(buffer));
         }
+        long readable = Math.max(0, readableSize - channel.position());
+        if (readable < buffer.remaining()) {
+            buffer.limit(buffer.position() + (int) readable);
+        }
         int read = channel.read(buffer);
         buffer.flip();
 
@@ -209,7 +223,7 @@ public class BinlogEventReader {
         if (rowCount <= 0) {
             return false;
         }
-        return buffer.hasRemaining() || fp < channel.size();
+        return buffer.hasRemaining() || fp < readableSize;
     }
 
     private void skipBytes(int skip) {
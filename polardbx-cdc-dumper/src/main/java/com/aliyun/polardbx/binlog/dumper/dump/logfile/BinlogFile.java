@@ -53,13 +53,19 @@ public class BinlogFile {
     private final FileChannel fileChannel;
     private final int seekBufferSize;
     private final StreamMetrics metrics;
+    /**
+     * 文件是否预先分配了空间，预分配的文件长度不代表已写入的数据，关闭时需要截断到实际写入的位置
+     */
+    private final boolean preallocated;
 
     private ByteBuffer writeBuffer;
     private long lastFlushTime;
     private long filePointer;//FileChannel的position()方法频繁调用的话有严重的性能问题，所以在内存中维护一个指针
+    private long dataLength = -1;//seekLastTso时识别出的有效数据长度，预分配的文件异常退出后末尾会有未写入数据的区域
 
     private Long logBegin;
     private LogEndInfo logEndInfo;
+    private BinlogEventCache eventCache;
 
     public BinlogFile(File file, String mode, int writeBufferSize, int seekBufferSize, boolean useDirectByteBuffer,
                       StreamMetrics metrics)
@@ -70,6 +76,7 @@ public class BinlogFile {
         this.fileChannel = raf.getChannel();
         this.seekBufferSize = seekBufferSize * 1024 * 1024;
         this.metrics = metrics;
+        this.preallocated = false;
 
         if ("rw".equals(mode)) {
             this.writeBuffer = useDirectByteBuffer ? ByteBuffer.allocateDirect(writeBufferSize)
@@ -77,6 +84,22 @@ public class BinlogFile {
         }
     }
 
+    /**
+     * 接管一个已经打开并预分配了空间的文件和写缓冲区，用于rotate时切换到提前准备好的文件，从文件头开始写入
+     */
+    public BinlogFile(File file, RandomAccessFile raf, ByteBuffer writeBuffer, int seekBufferSize,
+                      StreamMetrics metrics) throws IOException {
+        this.file = file;
+        this.raf = raf;
+        this.fileChannel = raf.getChannel();
+        this.seekBufferSize = seekBufferSize * 1024 * 1024;
+        this.metrics = metrics;
+        this.preallocated = true;
+        this.writeBuffer = writeBuffer;
+        this.writeBuffer.clear();
+        this.fileChannel.position(0);
+    }
+
     public void flush() throws IOException {
         if (writeBuffer == null) {
             return;
@@ -141,6 +164,22 @@ public class BinlogFile {
         fileChannel.truncate(size);
     }
 
+    /**
+     * 截断seekLastTso时发现的未写入数据的文件尾部，预分配的文件在关闭前异常退出时会残留这部分区域
+     */
+    public void truncateUnwrittenTail() throws IOException {
+        long fileSize = fileSize();
+        if (dataLength >= 0 && dataLength < fileSize) {
+            truncate(dataLength);
+            log.warn("truncate unwritten tail of binlog file {}, data length {}, file size {}", getFileName(),
+                dataLength, fileSize);
+        }
+    }
+
+    public boolean isPreallocated() {
+        return preallocated;
+    }
+
     /**
      * 已经写入的字节数，包含已经写入write buffer缓冲区但还未进行flush的数据
      */
@@ -221,6 +260,9 @@ public class BinlogFile {
         if (updateChecksum) {
             EventGenerator.updateChecksum(data, offset, length);
         }
+        if (eventCache != null) {
+            eventCache.append(getFileName(), writePointer(), data, offset, length);
+        }
 
         writeInternal(data, offset, length);
 
@@ -231,6 +273,9 @@ public class BinlogFile {
 
     public void close() throws IOException {
         flush();
+        if (preallocated && fileChannel.isOpen()) {
+            fileChannel.truncate(filePointer);
+        }
         if (fileChannel != null) {
             fileChannel.close();
         }
@@ -324,12 +369,13 @@ public class BinlogFile {
             byte lastEventType = -1;
             Long lastEventTimestamp = null;
             Long maxTableId = null;
+            long validLength = fileLength;
 
             if (fileLength > 4) {
                 long nextEventAbsolutePos = 4;
                 int bufSize = seekBufferSize > fileLength ? (int) fileLength : seekBufferSize;
 
-                while (nextEventAbsolutePos < fileLength) {
+                while (nextEventAbsolutePos < validLength) {
                     RandomAccessFile tempRaf = null;
                     try {
                         ByteBuffer buffer = ByteBuffer.allocate(bufSize);
@@ -345,11 +391,19 @@ public class BinlogFile {
 
                         int nextEventRelativePos = buffer.position();
                         while (buffer.hasRemaining() && buffer.remaining() >= 19) {
-                            lastEventTimestamp = readInt32(buffer);//read timestamp
-                            lastEventType = buffer.get();//read event_type
+                            long eventTimestamp = readInt32(buffer);//read timestamp
+                            byte eventType = buffer.get();//read event_type
                             buffer.position(buffer.position() + 4);//skip server_id
                             long eventSize = readInt32(buffer);//read eventSize
 
+                            // 预分配文件中还未写入数据的区域全部为0，event长度不可能小于header的长度，以此识别有效数据的结尾
+                            if (eventSize < 19) {
+                                validLength = nextEventAbsolutePos;
+                                break;
+                            }
+                            lastEventTimestamp = eventTimestamp;
+                            lastEventType = eventType;
+
                             // next position需要通过计算获取，不能直接用header中的log_pos字段的值
                             // 因为对于超大事务(>2G)，log_pos的四个字节已经无法准确表达下个事件的位置
                             nextEventAbsolutePos += eventSize;
@@ -424,6 +478,7 @@ public class BinlogFile {
                 "seek last tso cost time:" + (System.currentTimeMillis() - startTime) + "ms, skipped event count:"
                     + seekEventCount);
 
+            dataLength = validLength;
             SeekResult result = new SeekResult(lastTso, lastEventType, lastEventTimestamp, maxTableId);
             result.setBinlogFile(getFileName());
             result.setPosition(String.valueOf(seekPosition));
@@ -485,6 +540,13 @@ public class BinlogFile {
         return result;
     }
 
+    /**
+     * 设置后通过writeEvent写入的event会同步写入缓存
+     */
+    public void setEventCache(BinlogEventCache eventCache) {
+        this.eventCache = eventCache;
+    }
+
     public File getFile() {
         return file;
     }
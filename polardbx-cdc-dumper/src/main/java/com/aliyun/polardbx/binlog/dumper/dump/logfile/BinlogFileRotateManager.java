@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.BinlogFileUtil;
+import com.aliyun.polardbx.binlog.BufferUtil;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 在后台提前准备下一个binlog文件，rotate时直接接管，避免写入线程在文件切换时阻塞于文件创建和写缓冲区的分配
+ * <p>
+ * 预备文件以隐藏的临时文件名创建，不符合binlog文件名的格式，所以不会被文件列表、dump和上传逻辑看到。
+ * 预备文件按binlog文件的大小上限写0预分配磁盘空间，写入时不再需要扩展文件，flush和fsync不会频繁的更新文件的元数据。
+ * rotate时通过rename原子的切换为正式文件，正在写入的文件的长度不代表已写入的数据，读取方以latestFileCursor作为可读边界，
+ * 文件关闭时截断到实际写入的位置，异常退出后由recover过程截断未写入数据的尾部。
+ * 如果rotate时预备文件还没有准备好，则放弃预备文件，按原有的方式同步创建
+ * </p>
+ */
+@Slf4j
+public class BinlogFileRotateManager {
+    private static final String STAGING_PREFIX = ".";
+    private static final String STAGING_SUFFIX = ".staging";
+    private static final int ZERO_FILL_CHUNK_SIZE = 1024 * 1024;
+
+    private final String binlogFullPath;
+    private final long preallocateSize;
+    private final int writeBufferSize;
+    private final boolean useDirectByteBuffer;
+    private final ExecutorService executor;
+
+    private String stagingFileName;
+    private Future<StagedFile> stagingFuture;
+
+    public BinlogFileRotateManager(String binlogFullPath, long preallocateSize, int writeBufferSize,
+                                   boolean useDirectByteBuffer, String streamName) {
+        this.binlogFullPath = binlogFullPath;
+        this.preallocateSize = preallocateSize;
+        this.writeBufferSize = writeBufferSize;
+        this.useDirectByteBuffer = useDirectByteBuffer;
+        this.executor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("binlog-file-stager-" + streamName).setDaemon(true).build());
+        cleanStagingFiles();
+    }
+
+    /**
+     * 开始在后台准备currentFileName的下一个文件
+     */
+    public void prepareNext(String currentFileName) {
+        String nextFileName = BinlogFileUtil.getNextBinlogFileName(currentFileName);
+        if (StringUtils.equals(nextFileName, stagingFileName)) {
+            return;
+        }
+        discard();
+        stagingFileName = nextFileName;
+        stagingFuture = executor.submit(() -> stage(nextFileName));
+    }
+
+    /**
+     * 获取已经准备好的文件，文件名不匹配或者还没有准备好时返回null
+     */
+    public StagedFile take(String nextFileName) {
+        if (stagingFuture == null || !StringUtils.equals(nextFileName, stagingFileName) || !stagingFuture.isDone()) {
+            discard();
+            return null;
+        }
+        Future<StagedFile> future = stagingFuture;
+        stagingFuture = null;
+        stagingFileName = null;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("prepare next binlog file {} failed, will create it directly.", nextFileName, e.getCause());
+            return null;
+        }
+    }
+
+    public void stop() {
+        discard();
+        executor.shutdown();
+    }
+
+    private StagedFile stage(String fileName) throws IOException {
+        File file = new File(binlogFullPath, STAGING_PREFIX + fileName + STAGING_SUFFIX);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            preallocate(raf.getChannel());
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        ByteBuffer writeBuffer = useDirectByteBuffer ? ByteBuffer.allocateDirect(writeBufferSize)
+            : ByteBuffer.allocate(writeBufferSize);
+        return new StagedFile(file, raf, writeBuffer);
+    }
+
+    /**
+     * 写0而不是setLength，setLength在大多数文件系统上只会生成稀疏文件，并不会真正分配磁盘空间
+     */
+    private void preallocate(FileChannel channel) throws IOException {
+        channel.truncate(0);
+        ByteBuffer zeros = ByteBuffer.allocate((int) Math.min(ZERO_FILL_CHUNK_SIZE, Math.max(preallocateSize, 1)));
+        long position = 0;
+        while (position < preallocateSize) {
+            zeros.clear();
+            if (preallocateSize - position < zeros.capacity()) {
+                zeros.limit((int) (preallocateSize - position));
+            }
+            while (zeros.hasRemaining()) {
+                position += channel.write(zeros, position);
+            }
+        }
+        long fsyncStartMicros = StageLatencyTracer.nowMicros();
+        channel.force(true);
+        StageLatencyMetrics.get().record(TraceStage.DUMPER_FSYNC, StageLatencyTracer.nowMicros() - fsyncStartMicros);
+        channel.position(0);
+    }
+
+    private void discard() {
+        if (stagingFuture == null) {
+            return;
+        }
+        Future<StagedFile> future = stagingFuture;
+        stagingFuture = null;
+        stagingFileName = null;
+        executor.submit(() -> {
+            try {
+                future.get().release();
+            } catch (Throwable t) {
+                log.warn("release staging binlog file failed.", t);
+            }
+        });
+    }
+
+    private void cleanStagingFiles() {
+        File[] files = new File(binlogFullPath).listFiles(
+            (dir, name) -> name.startsWith(STAGING_PREFIX) && name.endsWith(STAGING_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (file.delete()) {
+                    log.info("staging binlog file {} is deleted.", file.getName());
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static class StagedFile {
+        private final File file;
+        private final RandomAccessFile raf;
+        private final ByteBuffer writeBuffer;
+
+        StagedFile(File file, RandomAccessFile raf, ByteBuffer writeBuffer) {
+            this.file = file;
+            this.raf = raf;
+            this.writeBuffer = writeBuffer;
+        }
+
+        void release() throws IOException {
+            raf.close();
+            if (writeBuffer.isDirect()) {
+                BufferUtil.clean((MappedByteBuffer) writeBuffer);
+            }
+            if (file.exists() && !file.delete()) {
+                log.warn("staging binlog file {} delete failed.", file.getName());
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.aliyun.polardbx.binlog.dumper.dump.logfile;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.format.utils.EventGenerator;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
 import com.aliyun.polardbx.rpc.cdc.EventSplitMode;
 import com.google.protobuf.ByteString;
 import lombok.extern.slf4j.Slf4j;
@@ -24,7 +25,10 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_BLOCK_COMPRESS_ENABLED;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_BLOCK_COMPRESS_MIN_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_PACKET_SIZE;
 
 /**
@@ -34,27 +38,138 @@ import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_PACKET_SIZE;
 public class BinlogSyncReader extends BinlogDumpReader {
 
     private static final int PACKAGE_LENGTH_LIMIT = DynamicApplicationConfig.getInt(BINLOG_SYNC_PACKET_SIZE);
+    private static final int EVENT_HEADER_LENGTH = 19;
     private final EventSplitMode eventSplitMode;
+    private SyncBlockCodec blockCodec;
+    private byte[] blockBuffer = new byte[0];
+    private int[] eventEnds = new int[0];
 
     public BinlogSyncReader(LogFileManager logFileManager, String fileName, long pos, EventSplitMode eventSplitMode,
                             int maxPacketSize, int readBufferSize)
         throws IOException {
         super(logFileManager, fileName, pos, maxPacketSize, readBufferSize);
         this.eventSplitMode = eventSplitMode;
+        if (eventSplitMode == EventSplitMode.BLOCK) {
+            this.blockCodec =
+                new SyncBlockCodec(DynamicApplicationConfig.getBoolean(BINLOG_SYNC_BLOCK_COMPRESS_ENABLED),
+                    DynamicApplicationConfig.getInt(BINLOG_SYNC_BLOCK_COMPRESS_MIN_SIZE));
+        }
         log.info("event split mode for binlog sync is " + eventSplitMode);
     }
 
     public ByteString nextSyncPacks() {
+        return nextSyncPacks(PACKAGE_LENGTH_LIMIT);
+    }
+
+    /**
+     * @param packetSize 本次组包的大小上限，由流控根据slave的消费能力动态给出，不会超过PACKAGE_LENGTH_LIMIT
+     */
+    public ByteString nextSyncPacks(int packetSize) {
+        int limit = Math.min(packetSize, PACKAGE_LENGTH_LIMIT);
         ByteString result = ByteString.EMPTY;
         for (; hasNext(); ) {
             result = result.concat(nextSyncPack());
-            if (result.size() >= PACKAGE_LENGTH_LIMIT) {
+            if (result.size() >= limit) {
                 break;
             }
         }
         return result;
     }
 
+    /**
+     * BLOCK模式，直接从文件中读取一段原始字节，只解析event header中的长度字段来确定event边界，保证块内都是完整的event
+     *
+     * @param packetSize 本次读取的大小上限，单个event超过上限时，该event单独作为一个块
+     * @return 编码后的块，当前没有可读数据时返回null
+     */
+    public DumpStream nextSyncBlock(int packetSize) {
+        int limit = Math.min(packetSize, PACKAGE_LENGTH_LIMIT);
+        try {
+            long end = readableEnd();
+            if (fp >= end) {
+                if (!hasNext()) {
+                    return null;
+                }
+                log.info("transfer, {}, {}<->{}", fileName, fp, end);
+                rotate();
+                end = readableEnd();
+                if (fp >= end) {
+                    return null;
+                }
+            }
+
+            int readLength = (int) Math.min(limit, end - fp);
+            readFully(readLength);
+            int offset = 0;
+            int eventCount = 0;
+            while (offset + EVENT_HEADER_LENGTH <= readLength) {
+                int eventLength = eventLength(offset);
+                if (offset + eventLength > readLength) {
+                    break;
+                }
+                offset += eventLength;
+                addEventEnd(eventCount++, offset);
+            }
+
+            if (eventCount == 0) {
+                if (readLength < EVENT_HEADER_LENGTH) {
+                    throw new PolardbxException("incomplete event header, " + fileName + "@" + fp + "#" + end);
+                }
+                // 单个event超过了块大小上限
+                offset = eventLength(0);
+                readFully(offset);
+                addEventEnd(eventCount++, offset);
+            }
+
+            fp += offset;
+            if (log.isDebugEnabled()) {
+                log.debug("syncBlock {}@{}#{}, events {}", fileName, fp - offset, fp, eventCount);
+            }
+            return blockCodec.encode(blockBuffer, offset, eventEnds, eventCount);
+        } catch (PolardbxException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("read block fail with block mode {}@{}", fileName, fp, e);
+            throw new PolardbxException(e);
+        }
+    }
+
+    private void readFully(int length) throws IOException {
+        if (blockBuffer.length < length) {
+            blockBuffer = new byte[length];
+        }
+        ByteBuffer dst = ByteBuffer.wrap(blockBuffer, 0, length);
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, fp + dst.position()) < 0) {
+                throw new PolardbxException("unexpected end of file " + fileName + "@" + (fp + dst.position()));
+            }
+        }
+    }
+
+    private int eventLength(int offset) {
+        int length = (0xff & blockBuffer[offset + 9]) | ((0xff & blockBuffer[offset + 10]) << 8)
+            | ((0xff & blockBuffer[offset + 11]) << 16) | ((blockBuffer[offset + 12]) << 24);
+        if (length < EVENT_HEADER_LENGTH) {
+            throw new PolardbxException("invalid event length " + length + ", " + fileName + "@" + (fp + offset));
+        }
+        return length;
+    }
+
+    private void addEventEnd(int index, int end) {
+        if (index == eventEnds.length) {
+            eventEnds = Arrays.copyOf(eventEnds, Math.max(16, index * 2));
+        }
+        eventEnds[index] = end;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (blockCodec != null) {
+            blockCodec.close();
+        }
+    }
+
     public ByteString nextSyncPack() {
         if (eventSplitMode == EventSplitMode.CLIENT) {
             return nextSyncPackWithClientSplit();
@@ -67,8 +182,8 @@ public class BinlogSyncReader extends BinlogDumpReader {
         try {
             if (buffer.remaining() == 0) {
                 buffer.clear();
-                if (fp == channel.size() && hasNext()) {
-                    log.info("transfer, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), channel.size());
+                if (fp == readableEnd() && hasNext()) {
+                    log.info("transfer, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), readableEnd());
                     rotate();
                 } else {
                     this.read();
@@ -98,8 +213,8 @@ public class BinlogSyncReader extends BinlogDumpReader {
                 buffer.compact();
                 this.read();
             }
-            if (buffer.remaining() == 0 && hasNext() && fp == channel.size()) {
-                log.info("transfer, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), channel.size());
+            if (buffer.remaining() == 0 && hasNext() && fp == readableEnd()) {
+                log.info("transfer, buffer={}, {}, {}<->{}", buffer, hasNext(), channel.position(), readableEnd());
                 rotate();
             }
 
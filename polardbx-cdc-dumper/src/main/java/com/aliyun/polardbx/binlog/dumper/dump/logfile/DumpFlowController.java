@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个dump/sync连接的流控器，根据下游的实际消费速度调整每次发送的packet大小
+ * <p>
+ * 1. 每次发送之后stream仍然可写，说明下游消费跟得上，packet大小逐步翻倍，直至maxPacketSize </br>
+ * 2. stream不可写时，统计上一个可写周期内的发送字节数和耗时，得到下游的消费速率(drainRate)，并以不可写的等待时长近似RTT </br>
+ * 3. 发生阻塞后，packet大小调整为 drainRate * max(targetDrainTime, RTT)，即类似于带宽时延积的大小，并限制在[min, max]之间
+ * </p>
+ **/
+public class DumpFlowController {
+    private static final double EWMA_ALPHA = 0.3;
+    private static final int GROW_AFTER_PACKETS = 4;
+
+    private final boolean adaptive;
+    private final int minPacketSize;
+    private final int maxPacketSize;
+    private final long targetDrainTimeMs;
+
+    private int packetSize;
+    private double drainRate;
+    private double rttMs;
+    private long bytesSinceStall;
+    private int packetsSinceStall;
+    private long lastStallEndTime;
+
+    public DumpFlowController(boolean adaptive, int minPacketSize, int maxPacketSize, long targetDrainTimeMs) {
+        this.adaptive = adaptive;
+        this.maxPacketSize = maxPacketSize;
+        this.minPacketSize = Math.min(minPacketSize, maxPacketSize);
+        this.targetDrainTimeMs = targetDrainTimeMs;
+        this.packetSize = adaptive ? this.minPacketSize : maxPacketSize;
+        this.lastStallEndTime = System.nanoTime();
+    }
+
+    public void onSent(int bytes) {
+        bytesSinceStall += bytes;
+        packetsSinceStall++;
+        if (adaptive && packetsSinceStall % GROW_AFTER_PACKETS == 0 && packetSize < maxPacketSize) {
+            packetSize = (int) Math.min((long) packetSize * 2, maxPacketSize);
+        }
+    }
+
+    public void onStall(long stallNanos) {
+        long now = System.nanoTime();
+        double elapsedMs = Math.max(1d, (now - lastStallEndTime) / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        double stallMs = stallNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+
+        double currentRate = bytesSinceStall / elapsedMs;
+        drainRate = drainRate == 0 ? currentRate : EWMA_ALPHA * currentRate + (1 - EWMA_ALPHA) * drainRate;
+        rttMs = rttMs == 0 ? stallMs : EWMA_ALPHA * stallMs + (1 - EWMA_ALPHA) * rttMs;
+
+        if (adaptive) {
+            long expect = (long) (drainRate * Math.max(targetDrainTimeMs, rttMs));
+            packetSize = (int) Math.max(minPacketSize, Math.min(expect, maxPacketSize));
+        }
+
+        bytesSinceStall = 0;
+        packetsSinceStall = 0;
+        lastStallEndTime = now;
+    }
+
+    public int getPacketSize() {
+        return packetSize;
+    }
+
+    /**
+     * 下游消费速率的估算值，单位：字节/秒
+     */
+    public long getDrainRate() {
+        return (long) (drainRate * 1000);
+    }
+
+    public long getRttMs() {
+        return (long) rttMs;
+    }
+}
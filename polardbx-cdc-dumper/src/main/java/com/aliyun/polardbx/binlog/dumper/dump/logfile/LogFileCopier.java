@@ -31,6 +31,7 @@ import com.aliyun.polardbx.binlog.dao.DumperInfoMapper;
 import com.aliyun.polardbx.binlog.domain.Cursor;
 import com.aliyun.polardbx.binlog.domain.po.DumperInfo;
 import com.aliyun.polardbx.binlog.dumper.dump.client.DumpClient;
+import com.aliyun.polardbx.binlog.dumper.dump.client.PacketReceiver;
 import com.aliyun.polardbx.binlog.dumper.metrics.StreamMetrics;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.error.RetryableException;
@@ -139,8 +140,18 @@ public class LogFileCopier {
                         new DumpClient(leaderHost, leaderPort, rpcUseAsyncMode, asyncQueueSize, flowControlWindowSize);
                     dumpClient.connect();
                     logContext.setLogPosition(new LogPosition(binlogFile.getFileName(), binlogFile.filePointer()));
-                    dumpClient
-                        .dump(binlogFile.getFileName(), binlogFile.filePointer(), buildSplitMode(), this::consume);
+                    dumpClient.dump(binlogFile.getFileName(), binlogFile.filePointer(), buildSplitMode(),
+                        new PacketReceiver() {
+                            @Override
+                            public void onReceive(byte[] packet, boolean isHeartBeat) throws IOException {
+                                consume(packet, isHeartBeat);
+                            }
+
+                            @Override
+                            public void onReceiveBlock(byte[] block, List<Integer> eventEnds) throws IOException {
+                                consumeBlock(block, eventEnds);
+                            }
+                        });
                 } catch (InterruptedException e) {
                     break;
                 } catch (Throwable t) {
@@ -334,6 +345,62 @@ public class LogFileCopier {
         logFileManager.setLatestFileCursor(new Cursor(binlogFile.getFileName(), binlogFile.filePointer()));
     }
 
+    /**
+     * BLOCK模式，块已经在接收端完成了CRC32和边界校验，这里不再解码event，只根据边界索引读取event type：
+     * rotate、format desc、heartbeat等控制类event走原有的单个event处理逻辑，其余event按连续的段整体写入，
+     * 每段只校验最后一个event的end position
+     */
+    public void consumeBlock(byte[] block, List<Integer> eventEnds) throws IOException {
+        metrics.setLatestDataReceiveTime(System.currentTimeMillis());
+
+        if (dryRun) {
+            metrics.incrementTotalWriteBytes(block.length);
+            return;
+        }
+
+        int segmentBegin = 0;
+        int eventBegin = 0;
+        int lastEventBegin = -1;
+        int lastCommitBegin = -1;
+        for (int eventEnd : eventEnds) {
+            byte eventType = block[eventBegin + 4];
+            if (eventType == LogEvent.ROTATE_EVENT || eventType == LogEvent.FORMAT_DESCRIPTION_EVENT
+                || eventType == LogEvent.HEARTBEAT_LOG_EVENT) {
+                writeSegment(block, segmentBegin, eventBegin, lastEventBegin, lastCommitBegin);
+                lastCommitBegin = -1;
+                consumeSinglePacket(block, eventBegin, eventEnd - eventBegin);
+                segmentBegin = eventEnd;
+            } else {
+                if (eventType == LogEvent.XID_EVENT) {
+                    metrics.incrementTotalWriteTxnCount();
+                    lastCommitBegin = eventBegin;
+                }
+                metrics.incrementTotalWriteEventCount();
+                lastEventType = eventType;
+                lastEventBegin = eventBegin;
+            }
+            eventBegin = eventEnd;
+        }
+        writeSegment(block, segmentBegin, eventBegin, lastEventBegin, lastCommitBegin);
+
+        logFileManager.setLatestFileCursor(new Cursor(binlogFile.getFileName(), binlogFile.filePointer()));
+    }
+
+    private void writeSegment(byte[] block, int begin, int end, int lastEventBegin, int lastCommitBegin)
+        throws IOException {
+        if (begin == end) {
+            return;
+        }
+        // 先check，再write，最后一个event的end position位于其header的[13,17)字节
+        ByteArray array = new ByteArray(block, lastEventBegin + 13, 4);
+        binlogFile.checkPosition(array.readLong(4), binlogFile.writePointer() + (end - begin));
+        binlogFile.writeData(block, begin, end - begin);
+        if (lastCommitBegin >= 0) {
+            // 一个段内只取最后一个XID计算延迟，无需逐个event处理
+            checkDelay(LogEvent.XID_EVENT, block, lastCommitBegin);
+        }
+    }
+
     private void checkOffset(int offset, int length) {
         if (currentContactContext != null) {
             throw new PolardbxException(String.format("current contact context is not null , but offset is not equal"
@@ -37,12 +37,16 @@ import com.aliyun.polardbx.binlog.domain.po.BinlogEnvConfigHistory;
 import com.aliyun.polardbx.binlog.dumper.dump.logfile.parallel.ParallelWriter;
 import com.aliyun.polardbx.binlog.dumper.dump.logfile.parallel.SingleEventToken;
 import com.aliyun.polardbx.binlog.dumper.dump.util.TableIdManager;
+import com.aliyun.polardbx.binlog.dumper.dump.util.TableMapCache;
 import com.aliyun.polardbx.binlog.dumper.metrics.StreamMetrics;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.error.RetryableException;
 import com.aliyun.polardbx.binlog.event.source.LatestFileCursorChangeEvent;
 import com.aliyun.polardbx.binlog.filesys.CdcFile;
 import com.aliyun.polardbx.binlog.format.utils.EventGenerator;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.monitor.MonitorManager;
 import com.aliyun.polardbx.binlog.monitor.MonitorType;
 import com.aliyun.polardbx.binlog.protocol.MessageType;
@@ -66,6 +70,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +92,7 @@ import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_CHECK_TSO;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_DRYRUN_MODE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_PARALLELISM;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_PARALLEL_BUFFER_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_STAGE_NEXT_FILE_ENABLED;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_SUPPORT_ROWS_QUERY_LOG;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_TABLE_ID_BASE_VALUE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_WRITE_USE_DIRECT_BYTE_BUFFER;
@@ -104,7 +110,6 @@ import static com.aliyun.polardbx.binlog.dumper.dump.util.MetaScaleUtil.isMetaSc
 import static com.aliyun.polardbx.binlog.dumper.dump.util.MetaScaleUtil.recordStorageHistory;
 import static com.aliyun.polardbx.binlog.dumper.dump.util.MetaScaleUtil.waitTaskConfigReady;
 import static com.aliyun.polardbx.binlog.dumper.dump.util.MetaScaleUtil.waitUploadComplete;
-import static com.aliyun.polardbx.binlog.dumper.dump.util.TableIdManager.containsTableId;
 import static com.aliyun.polardbx.binlog.format.utils.EventGenerator.BEGIN_EVENT_LENGTH;
 import static com.aliyun.polardbx.binlog.format.utils.EventGenerator.COMMIT_EVENT_LENGTH;
 import static com.aliyun.polardbx.binlog.format.utils.EventGenerator.ROWS_QUERY_FIXED_LENGTH;
@@ -147,6 +152,7 @@ public class LogFileGenerator {
     private final boolean useDirectByteBuffer;
     private final int flowControlWindowSize;
     private final StreamMetrics metrics;
+    private final boolean stageNextFile;
 
     //并行写入
     private final boolean useParallelWrite;
@@ -160,10 +166,13 @@ public class LogFileGenerator {
     private long currentTsoTimeSecond;//为了性能优化，将物理时间保存到该实例变量，避免每次实时解析
     private long currentTsoTimeMillSecond;
     private Long currentServerId;
+    private long currentTraceReceiveMicros = -1;
     private volatile BinlogFile binlogFile;
     private volatile FlushPolicy currentFlushPolicy;
     private TableIdManager tableIdManager;
+    private TableMapCache tableMapCache;
     private BinlogFile.SeekResult latestSeekResult;
+    private BinlogFileRotateManager rotateManager;
     private volatile boolean running;
 
     public LogFileGenerator(LogFileManager logFileManager, int binlogFileSize, boolean dryRun, FlushPolicy flushPolicy,
@@ -193,6 +202,7 @@ public class LogFileGenerator {
         this.useDirectByteBuffer = DynamicApplicationConfig.getBoolean(BINLOG_WRITE_USE_DIRECT_BYTE_BUFFER);
         this.flowControlWindowSize = calcFlowControlWindowSize();
         this.metrics = StreamMetrics.getStreamMetrics(streamName);
+        this.stageNextFile = DynamicApplicationConfig.getBoolean(BINLOG_WRITE_STAGE_NEXT_FILE_ENABLED);
     }
 
     public void start() {
@@ -201,6 +211,10 @@ public class LogFileGenerator {
         }
         running = true;
 
+        if (stageNextFile && !dryRun) {
+            rotateManager = new BinlogFileRotateManager(logFileManager.getLocalBinlogPath(), binlogFileSize,
+                writeBufferSize, useDirectByteBuffer, streamName);
+        }
         executor = Executors.newFixedThreadPool(1,
             new ThreadFactoryBuilder().setNameFormat("log-file-generator-" + streamName).build());
         executor.execute(() -> {
@@ -297,6 +311,10 @@ public class LogFileGenerator {
                 // do nothing
             }
         }
+        if (rotateManager != null) {
+            rotateManager.stop();
+            rotateManager = null;
+        }
     }
 
     private boolean buildParallelWriteSwitch() {
@@ -346,6 +364,8 @@ public class LogFileGenerator {
             Assert.isTrue(currentToken.getType() == TxnType.DML);
             metrics.markBegin();
             metrics.setLatestDelayTimeOnCommit(System.currentTimeMillis() - currentTsoTimeMillSecond);
+            traceOnBegin();
+            tableMapCache.beginTxn();
             writeBegin();
 
             break;
@@ -358,6 +378,7 @@ public class LogFileGenerator {
         case END:
             Assert.isTrue(currentToken.getType() == TxnType.DML);
             writeCommit();
+            traceOnEnd();
 
             metrics.markEnd();
             metrics.incrementTotalWriteTxnCount();
@@ -485,10 +506,10 @@ public class LogFileGenerator {
     }
 
     /**
-     * 检测是否为空文件，如果是则写入文件头
+     * 检测是否为空文件，如果是则写入文件头，预分配的文件长度不为0，以写入位置为准
      */
     private void tryWriteFileHeader(Long timestamp) throws IOException {
-        if (binlogFile.fileSize() == 0 && binlogFile.filePointer() == 0) {
+        if ((binlogFile.fileSize() == 0 || binlogFile.isPreallocated()) && binlogFile.filePointer() == 0) {
             binlogFile.writeHeader();
             EventGenerator.updateServerId(formatDescData);
             EventGenerator.updatePos(formatDescData, 4 + formatDescData.length);
@@ -530,8 +551,7 @@ public class LogFileGenerator {
         if (maxLocalFile == null) {
             logger.info("recover by tso:{}, first file:{}", recoverInfo.getStartTso(), recoverInfo.getFileName());
             maxLocalFile = logFileManager.createLocalFile(recoverInfo.getFileName());
-            binlogFile =
-                new BinlogFile(maxLocalFile, MODE, writeBufferSize, seekBufferSize, useDirectByteBuffer, metrics);
+            binlogFile = newBinlogFile(maxLocalFile);
             startTso = recoverInfo.getStartTso();
         } else {
             BinlogFile.SeekResult seekResult;
@@ -540,17 +560,16 @@ public class LogFileGenerator {
 
             // 从最后一个文件，尝试第一次获取startTso
             CdcFile maxFile = files.get(count - 1);
-            binlogFile =
-                new BinlogFile(maxFile.newFile(), MODE, writeBufferSize, seekBufferSize, useDirectByteBuffer, metrics);
+            binlogFile = newBinlogFile(maxFile.newFile());
             seekResult = binlogFile.seekLastTso();
+            binlogFile.truncateUnwrittenTail();
 
             // 如果从最后一个文件没有获取到startTso，尝试从倒数第二个文件，进行第二次获取
             if (StringUtils.isBlank(seekResult.getLastTso())) {
                 File startFile;
                 if (count > 1) {
                     binlogFile.close();// 对上一个文件，先执行一下关闭
-                    binlogFile = new BinlogFile(files.get(count - 2).newFile(), MODE, writeBufferSize, seekBufferSize,
-                        useDirectByteBuffer, metrics);
+                    binlogFile = newBinlogFile(files.get(count - 2).newFile());
                     seekResult = binlogFile.seekLastTso();
                     binlogFile.close();// 用完，关闭
 
@@ -575,8 +594,7 @@ public class LogFileGenerator {
                     seekResult.setLastTso(recoverInfo.getStartTso());
                 }
 
-                binlogFile =
-                    new BinlogFile(startFile, MODE, writeBufferSize, seekBufferSize, useDirectByteBuffer, metrics);
+                binlogFile = newBinlogFile(startFile);
             } else {
                 // 如果从最后一个文件找到了tso，则需要判断一下文件的状态，是否需要rotate
                 if (seekResult.getLastEventType() == LogEvent.ROTATE_EVENT) {
@@ -599,10 +617,27 @@ public class LogFileGenerator {
         binlogFile.tryTruncate();
         tryOverwriteStartTso();
         tableIdManager = new TableIdManager(maxTableId, binlogFile.filePointer() == 0);
+        tableMapCache = new TableMapCache(tableIdManager);
         nextWritePosition = binlogFile.filePointer();
+        if (rotateManager != null) {
+            rotateManager.prepareNext(binlogFile.getFileName());
+        }
         logger.info("start tso is :[" + startTso + "]");
     }
 
+    private BinlogFile newBinlogFile(File file) throws FileNotFoundException {
+        BinlogFile result = new BinlogFile(file, MODE, writeBufferSize, seekBufferSize, useDirectByteBuffer, metrics);
+        result.setEventCache(logFileManager.getEventCache());
+        return result;
+    }
+
+    private BinlogFile newBinlogFile(File file, BinlogFileRotateManager.StagedFile stagedFile) throws IOException {
+        BinlogFile result = new BinlogFile(file, stagedFile.getRaf(), stagedFile.getWriteBuffer(), seekBufferSize,
+            metrics);
+        result.setEventCache(logFileManager.getEventCache());
+        return result;
+    }
+
     private int getFixedHeaderSize() {
         return 4 + formatDescData.length;
     }
@@ -688,11 +723,7 @@ public class LogFileGenerator {
 
     private void updateDmlEvent(TxnItem txnItem, byte[] data) {
         EventGenerator.updateTimeStamp(data, currentTsoTimeSecond);
-        if (StringUtils.isNotBlank(txnItem.getSchema()) && StringUtils.isNotBlank(txnItem.getTable())
-            && containsTableId((byte) txnItem.getEventType())) {
-            long tableId = tableIdManager.getTableId(txnItem.getSchema(), txnItem.getTable());
-            EventGenerator.updateTableId(data, tableId);
-        }
+        tableMapCache.rewrite(txnItem.getSchema(), txnItem.getTable(), txnItem.getEventType(), data);
     }
 
     private void writeRowsQuery(String rowsQuery) throws IOException {
@@ -710,6 +741,27 @@ public class LogFileGenerator {
         }
     }
 
+    private void traceOnBegin() {
+        long lastStamp = StageLatencyTracer.lastStampMicros(currentToken);
+        if (lastStamp < 0) {
+            currentTraceReceiveMicros = -1;
+            return;
+        }
+        currentTraceReceiveMicros = StageLatencyTracer.nowMicros();
+        StageLatencyMetrics.get().record(TraceStage.DUMPER_RECEIVE, currentTraceReceiveMicros - lastStamp);
+    }
+
+    private void traceOnEnd() {
+        if (currentTraceReceiveMicros < 0) {
+            return;
+        }
+        long now = StageLatencyTracer.nowMicros();
+        StageLatencyMetrics.get().record(TraceStage.DUMPER_WRITE, now - currentTraceReceiveMicros);
+        StageLatencyMetrics.get().record(TraceStage.END_TO_END,
+            now - StageLatencyTracer.firstStampMicros(currentToken));
+        currentTraceReceiveMicros = -1;
+    }
+
     private void writeCommit() throws IOException {
         nextWritePosition += COMMIT_EVENT_LENGTH;
         if (useParallelWrite) {
@@ -785,10 +837,16 @@ public class LogFileGenerator {
                 binlogFile.close();
             }
 
-            // reset binlog file
+            // reset binlog file，优先切换到后台提前准备好的文件
             String oldFileName = binlogFile.getFileName();
-            File newFile = logFileManager.rotateFile(binlogFile.getFile(), new LogEndInfo(timestamp * 1000, tso));
-            binlogFile = new BinlogFile(newFile, MODE, writeBufferSize, seekBufferSize, useDirectByteBuffer, metrics);
+            BinlogFileRotateManager.StagedFile stagedFile = rotateManager == null ? null :
+                rotateManager.take(BinlogFileUtil.getNextBinlogFileName(oldFileName));
+            File newFile = logFileManager.rotateFile(binlogFile.getFile(), new LogEndInfo(timestamp * 1000, tso),
+                stagedFile == null ? null : stagedFile.getFile());
+            binlogFile = stagedFile == null ? newBinlogFile(newFile) : newBinlogFile(newFile, stagedFile);
+            if (rotateManager != null) {
+                rotateManager.prepareNext(newFile.getName());
+            }
             logger.info("Binlog file rotate from {} to {}", oldFileName, newFile.getName());
 
             //wait前要先update一下cursor
@@ -913,7 +971,9 @@ public class LogFileGenerator {
     }
 
     private void updateCursor(String tso) throws IOException {
+        long flushStartMicros = StageLatencyTracer.nowMicros();
         binlogFile.flush();
+        StageLatencyMetrics.get().record(TraceStage.DUMPER_FLUSH, StageLatencyTracer.nowMicros() - flushStartMicros);
         Cursor cursor = new Cursor(binlogFile.getFileName(), binlogFile.filePointer(),
             groupName, streamName, tso, executionConfig.getRuntimeVersion());
         logFileManager.setLatestFileCursor(cursor);
@@ -33,9 +33,13 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_FILE_SEEK_BUFFER_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.DAEMON_TASK_WATCH_HEARTBEAT_TIMEOUT_MS;
@@ -60,7 +64,10 @@ public class LogFileManager implements ICursorProvider {
     private LogFileGenerator logFileGenerator;
     private LogFileCopier logFileCopier;
     private volatile Cursor latestFileCursor;
+    private final Object cursorMonitor = new Object();
+    private final AtomicInteger cursorWaiters = new AtomicInteger();
     private CdcFileSystem cdcFileSystem;
+    private volatile BinlogEventCache eventCache;
     private volatile boolean running;
 
     public void start() {
@@ -87,6 +94,11 @@ public class LogFileManager implements ICursorProvider {
                     restoreManager.start();
                 }
 
+                if (DynamicApplicationConfig.getBoolean(ConfigKeys.BINLOG_EVENT_CACHE_ENABLE)) {
+                    eventCache =
+                        new BinlogEventCache(DynamicApplicationConfig.getLong(ConfigKeys.BINLOG_EVENT_CACHE_MAX_BYTES));
+                    eventCache.start();
+                }
                 logFileGenerator = new LogFileGenerator(this,
                     binlogFileSize,
                     dryRun,
@@ -138,6 +150,10 @@ public class LogFileManager implements ICursorProvider {
         if (logFileGenerator != null) {
             logFileGenerator.stop();
         }
+        if (eventCache != null) {
+            eventCache.stop();
+            eventCache = null;
+        }
     }
 
     public CdcFile getBinlogFileByName(String fileName) {
@@ -207,6 +223,13 @@ public class LogFileManager implements ICursorProvider {
     }
 
     public File rotateFile(File file, LogEndInfo logEndInfo) {
+        return rotateFile(file, logEndInfo, null);
+    }
+
+    /**
+     * @param stagingFile 提前准备好的下一个文件，不为空时通过rename切换为正式文件
+     */
+    public File rotateFile(File file, LogEndInfo logEndInfo, File stagingFile) {
         String maxFileName = getLocalMaxBinlogFileName();
         if (!StringUtils.equals(file.getName(), maxFileName)) {
             throw new IllegalArgumentException(
@@ -216,7 +239,18 @@ public class LogFileManager implements ICursorProvider {
         logFileListenerWrapper.onFinishFile(file, logEndInfo);
         String nextBinlogFile = BinlogFileUtil.getNextBinlogFileName(file.getName());
         logFileListenerWrapper.onRotateFile(file, nextBinlogFile);
-        return createLocalFile(nextBinlogFile);
+        if (stagingFile == null) {
+            return createLocalFile(nextBinlogFile);
+        }
+
+        File target = cdcFileSystem.createLocalFile(nextBinlogFile).newFile();
+        try {
+            Files.move(stagingFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PolardbxException("binlog file rename failed, from " + stagingFile.getAbsolutePath()
+                + " to " + target.getAbsolutePath(), e);
+        }
+        return createLocalFileHelper(target);
     }
 
     public String getFullNameOfLocalBinlogFile(String fileName) {
@@ -338,6 +372,13 @@ public class LogFileManager implements ICursorProvider {
         this.writeBufferSize = writeBufferSize;
     }
 
+    /**
+     * 只有负责生成binlog文件的dumper才会有缓存，其余情况返回null
+     */
+    public BinlogEventCache getEventCache() {
+        return eventCache;
+    }
+
     public String getStreamName() {
         return streamName;
     }
@@ -359,8 +400,52 @@ public class LogFileManager implements ICursorProvider {
         return latestFileCursor;
     }
 
+    /**
+     * 文件中可以读取的数据的边界。正在写入的文件可能是预分配了空间的，文件长度不代表已经写入的数据，以latestFileCursor为准；
+     * 已经rotate的文件在关闭时截断到了实际写入的位置，以文件长度为准；还未开始写入的文件没有可读的数据
+     */
+    public long getReadableSize(String fileName, long fileSize) {
+        Cursor cursor = latestFileCursor;
+        if (cursor == null) {
+            return fileSize;
+        }
+        int compare = fileName.compareTo(cursor.getFileName());
+        if (compare == 0) {
+            return Math.min(cursor.getFilePosition(), fileSize);
+        }
+        return compare < 0 ? fileSize : 0;
+    }
+
     public void setLatestFileCursor(Cursor latestFileCursor) {
         this.latestFileCursor = latestFileCursor;
+        // 没有等待者时不进入同步块，避免写入线程在每次更新cursor时都产生锁开销
+        if (cursorWaiters.get() > 0) {
+            synchronized (cursorMonitor) {
+                cursorMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 等待latestFileCursor相对于current发生变化，最多等待timeoutMs毫秒，返回最新的cursor
+     */
+    public Cursor awaitCursorChange(Cursor current, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        cursorWaiters.incrementAndGet();
+        try {
+            synchronized (cursorMonitor) {
+                while (latestFileCursor == current) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(cursorMonitor, remaining);
+                }
+            }
+        } finally {
+            cursorWaiters.decrementAndGet();
+        }
+        return latestFileCursor;
     }
 
 }
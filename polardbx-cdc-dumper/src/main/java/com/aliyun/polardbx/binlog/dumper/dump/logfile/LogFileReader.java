@@ -18,13 +18,17 @@ import com.alibaba.fastjson.JSON;
 import com.aliyun.polardbx.binlog.ConfigKeys;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.domain.Cursor;
+import com.aliyun.polardbx.binlog.dumper.metrics.DumpClientMetrics;
 import com.aliyun.polardbx.binlog.dumper.metrics.StreamMetrics;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.filesys.CdcFile;
 import com.aliyun.polardbx.binlog.format.utils.ByteArray;
 import com.aliyun.polardbx.binlog.rpc.TxnOutputStream;
 import com.aliyun.polardbx.rpc.cdc.BinlogEvent;
 import com.aliyun.polardbx.rpc.cdc.DumpStream;
 import com.aliyun.polardbx.rpc.cdc.EventSplitMode;
+import com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest;
 import com.github.rholder.retry.RetryerBuilder;
 import com.github.rholder.retry.StopStrategies;
 import com.github.rholder.retry.WaitStrategies;
@@ -35,13 +39,18 @@ import io.grpc.stub.ServerCallStreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_ADAPTIVE_MIN_PACKET_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_ADAPTIVE_PACKET_ENABLE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_ADAPTIVE_TARGET_DRAIN_TIME_MS;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_HEARTBEAT_INTERVAL_MS;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_PACKET_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_READ_BUFFER_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_DUMP_READY_WAIT_TIMEOUT_MS;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_PACKET_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_SYNC_READ_BUFFER_SIZE;
 import static com.aliyun.polardbx.binlog.DynamicApplicationConfig.getInt;
@@ -51,6 +60,8 @@ import static com.aliyun.polardbx.binlog.DynamicApplicationConfig.getInt;
  */
 @Slf4j
 public class LogFileReader {
+    private static final long SYNC_HEARTBEAT_INTERVAL_MS = 2000;
+    private static final int SHOW_EVENTS_BATCH_SIZE = 256;
 
     private final LogFileManager logFileManager;
     private final StreamMetrics metrics;
@@ -66,9 +77,139 @@ public class LogFileReader {
         if (logFileManager.getLatestFileCursor() == null) {
             serverCallStreamObserver.onCompleted();
         }
+        try {
+            if (showBinlogEventFromCache(cdcFile, position, offset, rowCount, serverCallStreamObserver)) {
+                return;
+            }
+        } catch (Throwable th) {
+            log.error("show binlog events in {} from {} limit {}, {} from cache fail", cdcFile.getName(), position,
+                offset, rowCount, th);
+            serverCallStreamObserver.onError(Status.INTERNAL.withDescription(th.getMessage()).asException());
+            return;
+        }
+        showBinlogEventFromFile(cdcFile, position, offset, rowCount, serverCallStreamObserver);
+    }
+
+    /**
+     * 从内存中的event缓存读取，不需要打开binlog文件
+     *
+     * @return false表示缓存中没有覆盖请求的起始位点，需要从binlog文件中读取
+     */
+    private boolean showBinlogEventFromCache(CdcFile cdcFile, long position, long offset, long rowCount,
+                                             ServerCallStreamObserver<BinlogEvent> serverCallStreamObserver)
+        throws InterruptedException {
+        BinlogEventCache eventCache = logFileManager.getEventCache();
+        Cursor cursor = logFileManager.getLatestFileCursor();
+        if (eventCache == null || cursor == null) {
+            return false;
+        }
+
+        // 缓存中包含还未flush的event，只返回cursor之前的部分，和从文件中读取的结果保持一致
+        long limitPos = logFileManager.getReadableSize(cdcFile.getName(), Long.MAX_VALUE);
+        long remaining = rowCount < 0 ? Integer.MAX_VALUE : rowCount;
+        long nextPos = position;
+        long skip = offset;
+        boolean first = true;
+        while (remaining > 0) {
+            BinlogEventCache.Batch batch = eventCache.read(cdcFile.getName(), nextPos, skip,
+                (int) Math.min(remaining, SHOW_EVENTS_BATCH_SIZE), limitPos);
+            if (batch == null) {
+                if (first) {
+                    return false;
+                }
+                // 读取过程中缓存被淘汰，剩余的部分从文件中读取
+                showBinlogEventFromFile(cdcFile, nextPos, 0, remaining, serverCallStreamObserver);
+                return true;
+            }
+            first = false;
+            skip = 0;
+            for (BinlogEvent event : batch.getEvents()) {
+                while (!serverCallStreamObserver.isReady()) {
+                    if (serverCallStreamObserver.isCancelled()) {
+                        serverCallStreamObserver.onCompleted();
+                        return true;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+                serverCallStreamObserver.onNext(event);
+            }
+            remaining -= batch.getEvents().size();
+            nextPos = batch.getNextPos();
+            if (batch.isEnd()) {
+                break;
+            }
+        }
+        log.info("show binlog events in {} from {} limit {}, {} complete from cache", cdcFile.getName(), position,
+            offset, rowCount);
+        serverCallStreamObserver.onCompleted();
+        return true;
+    }
+
+    /**
+     * 按tso区间、库表和event类型检索内存中缓存的event，缓存之外的文件不做扫描
+     */
+    public void searchBinlogEvents(SearchBinlogEventsRequest request,
+                                   ServerCallStreamObserver<BinlogEvent> serverCallStreamObserver) {
+        log.info("search binlog events in {}, tso range [{}, {}], table {}.{}, event type {}, limit {}",
+            request.getLogName(), request.getBeginTso(), request.getEndTso(), request.getSchemaName(),
+            request.getTableName(), request.getEventType(), request.getLimit());
+        BinlogEventCache eventCache = logFileManager.getEventCache();
+        if (eventCache == null) {
+            serverCallStreamObserver.onError(
+                Status.UNAVAILABLE.withDescription("binlog event cache is disabled").asException());
+            return;
+        }
+        try {
+            BinlogEventCache.SearchCondition.SearchConditionBuilder builder = BinlogEventCache.SearchCondition
+                .builder()
+                .fileName(StringUtils.trimToNull(request.getLogName()))
+                .beginTso(StringUtils.trimToNull(request.getBeginTso()))
+                .endTso(StringUtils.trimToNull(request.getEndTso()))
+                .schema(StringUtils.trimToNull(request.getSchemaName()))
+                .table(StringUtils.trimToNull(request.getTableName()))
+                .eventType(parseEventType(request.getEventType()));
+            if (request.getLimit() > 0) {
+                builder.limit((int) Math.min(request.getLimit(), Integer.MAX_VALUE));
+            }
+            List<BinlogEventCache.SearchResult> results = eventCache.search(builder.build(),
+                name -> logFileManager.getReadableSize(name, Long.MAX_VALUE));
+            for (BinlogEventCache.SearchResult result : results) {
+                while (!serverCallStreamObserver.isReady()) {
+                    if (serverCallStreamObserver.isCancelled()) {
+                        serverCallStreamObserver.onCompleted();
+                        return;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+                serverCallStreamObserver.onNext(result.getEvent());
+            }
+            log.info("search binlog events in {} complete, {} events matched", request.getLogName(),
+                results.size());
+            serverCallStreamObserver.onCompleted();
+        } catch (Throwable th) {
+            log.error("search binlog events in {} fail", request.getLogName(), th);
+            serverCallStreamObserver.onError(Status.INVALID_ARGUMENT.withDescription(th.getMessage()).asException());
+        }
+    }
+
+    private static Integer parseEventType(String typeName) {
+        if (StringUtils.isBlank(typeName)) {
+            return null;
+        }
+        for (int type = 0; type < LogEvent.ENUM_END_EVENT; type++) {
+            if (typeName.equalsIgnoreCase(LogEvent.getTypeName(type))) {
+                return type;
+            }
+        }
+        throw new PolardbxException("unknown binlog event type " + typeName);
+    }
+
+    private void showBinlogEventFromFile(CdcFile cdcFile, long position, long offset, long rowCount,
+                                         ServerCallStreamObserver<BinlogEvent> serverCallStreamObserver) {
         BinlogEventReader binlogFileReader = null;
         try {
-            binlogFileReader = new BinlogEventReader(cdcFile, position, offset, rowCount);
+            binlogFileReader = new BinlogEventReader(cdcFile, position, offset, rowCount,
+                logFileManager.getReadableSize(cdcFile.getName(), Long.MAX_VALUE));
             binlogFileReader.valid();
             binlogFileReader.skipPos();
             binlogFileReader.skipOffset();
@@ -104,8 +245,9 @@ public class LogFileReader {
     }
 
     public void binlogDump(String fileName, long position, boolean registered, Map<String, String> ext,
-                           ServerCallStreamObserver<DumpStream> serverCallStreamObserver) {
+                           TxnOutputStream<DumpStream> outputStream) {
         BinlogDumpReader dumpReader = null;
+        DumpClientMetrics clientMetrics = null;
         try {
             log.info("binlogDump from {}@{}, register parameter value is {}, ext parameter value is {}",
                 fileName, position, registered, ext);
@@ -130,44 +272,53 @@ public class LogFileReader {
                 dumpReader.setRotateNext(false);
             }
             ByteString fakeFormatEvent = dumpReader.fakeFormatEvent();
-            serverCallStreamObserver.onNext(DumpStream.newBuilder().setPayload(fakeRotateEvent).build());
+            outputStream.onNext(DumpStream.newBuilder().setPayload(fakeRotateEvent).build());
             show("FakeRotateEvent", fakeRotateEvent);
-            serverCallStreamObserver.onNext(DumpStream.newBuilder().setPayload(fakeFormatEvent).build());
+            outputStream.onNext(DumpStream.newBuilder().setPayload(fakeFormatEvent).build());
             show("FakeFormatEvent", fakeFormatEvent);
             dumpReader.start();
+
+            DumpFlowController flowController = newFlowController(getInt(BINLOG_DUMP_PACKET_SIZE));
+            clientMetrics = DumpClientMetrics.register(logFileManager.getStreamName(), "dump");
+            long readyWaitTimeout = DynamicApplicationConfig.getLong(BINLOG_DUMP_READY_WAIT_TIMEOUT_MS);
             int timeout = 10, noData = 0;
             while (true) {
-                if (serverCallStreamObserver.isCancelled()) {
+                if (outputStream.isCancelled()) {
                     log.warn("remote close...");
                     break;
                 }
-                if (serverCallStreamObserver.isReady()) {
-                    if (dumpReader.hasNext()) {
-                        ByteString pack = dumpReader.nextDumpPacks();
-                        metrics.incrementTotalDumpBytes(pack.size());
-                        if (log.isDebugEnabled()) {
-                            show("BinlogDump", pack);
-                        }
-                        serverCallStreamObserver.onNext(
-                            DumpStream.newBuilder().setPayload(pack).build());
-                    } else {
-                        TimeUnit.MILLISECONDS.sleep(timeout);
-                        noData += timeout;
-                        //默认30s一次心跳(mysql 默认 SELECT Heartbeat FROM MYSQL.SLAVE_MASTER_INFO)
-                        //减少到1s
-                        int interval = DynamicApplicationConfig.getInt(BINLOG_DUMP_HEARTBEAT_INTERVAL_MS);
-                        if (noData > interval) {
-                            ByteString heartbeatEvent = dumpReader.heartbeatEvent();
-                            show("HeartbeatEvent", heartbeatEvent);
-                            serverCallStreamObserver.onNext(
-                                DumpStream.newBuilder()
-                                    .setPayload(heartbeatEvent)
-                                    .build());
-                            noData = 0;
-                        }
+                if (!outputStream.isReady()) {
+                    // 由onReady回调唤醒，避免下游消费慢时反复轮询
+                    waitReady(outputStream, readyWaitTimeout, flowController, clientMetrics);
+                    continue;
+                }
+                if (dumpReader.hasNext()) {
+                    ByteString pack = dumpReader.nextDumpPacks(flowController.getPacketSize());
+                    metrics.incrementTotalDumpBytes(pack.size());
+                    if (log.isDebugEnabled()) {
+                        show("BinlogDump", pack);
                     }
+                    outputStream.onNext(DumpStream.newBuilder().setPayload(pack).build());
+                    flowController.onSent(pack.size());
+                    clientMetrics.recordSent(pack.size());
+                    clientMetrics.updateFlowControl(flowController.getPacketSize(), flowController.getDrainRate(),
+                        flowController.getRttMs(), dumpReader.backlogBytes());
+                    noData = 0;
                 } else {
-                    TimeUnit.MILLISECONDS.sleep(10);
+                    TimeUnit.MILLISECONDS.sleep(timeout);
+                    noData += timeout;
+                    //默认30s一次心跳(mysql 默认 SELECT Heartbeat FROM MYSQL.SLAVE_MASTER_INFO)
+                    //减少到1s
+                    int interval = DynamicApplicationConfig.getInt(BINLOG_DUMP_HEARTBEAT_INTERVAL_MS);
+                    if (noData > interval) {
+                        ByteString heartbeatEvent = dumpReader.heartbeatEvent();
+                        show("HeartbeatEvent", heartbeatEvent);
+                        outputStream.onNext(
+                            DumpStream.newBuilder()
+                                .setPayload(heartbeatEvent)
+                                .build());
+                        noData = 0;
+                    }
                 }
             }
         } catch (Throwable th) {
@@ -177,8 +328,9 @@ public class LogFileReader {
             map.put("error_code", 1236);
             map.put("error_message", th.getMessage());
             final String s = JSON.toJSONString(map);
-            serverCallStreamObserver.onError(Status.INVALID_ARGUMENT.withDescription(s).asException());
+            outputStream.onError(Status.INVALID_ARGUMENT.withDescription(s).asException());
         } finally {
+            DumpClientMetrics.unregister(clientMetrics);
             if (dumpReader != null) {
                 dumpReader.close();
             }
@@ -194,30 +346,55 @@ public class LogFileReader {
             return;
         }
         BinlogSyncReader binlogSyncReader = null;
+        DumpClientMetrics clientMetrics = null;
         try {
             binlogSyncReader = new BinlogSyncReader(logFileManager, fileName, position, eventSplitMode,
                 getInt(BINLOG_SYNC_PACKET_SIZE), getInt(BINLOG_SYNC_READ_BUFFER_SIZE));
             binlogSyncReader.start();
-            int timeout = 100, noData = 0;
+
+            DumpFlowController flowController = newFlowController(getInt(BINLOG_SYNC_PACKET_SIZE));
+            clientMetrics = DumpClientMetrics.register(logFileManager.getStreamName(), "sync");
+            long readyWaitTimeout = DynamicApplicationConfig.getLong(BINLOG_DUMP_READY_WAIT_TIMEOUT_MS);
+            long lastSendTime = System.currentTimeMillis();
             while (true) {
                 // 增加反压控制判断
-                if (outputStream.tryWait()) {
-                    if (binlogSyncReader.hasNext()) {
-                        ByteString pack = binlogSyncReader.nextSyncPacks();
+                outputStream.checkState();
+                if (!outputStream.isReady()) {
+                    waitReady(outputStream, readyWaitTimeout, flowController, clientMetrics);
+                    continue;
+                }
+                // 先取cursor快照再判断hasNext，保证等待期间发生的cursor变化不会被错过
+                Cursor cursor = logFileManager.getLatestFileCursor();
+                DumpStream stream = null;
+                if (binlogSyncReader.hasNext()) {
+                    if (eventSplitMode == EventSplitMode.BLOCK) {
+                        stream = binlogSyncReader.nextSyncBlock(flowController.getPacketSize());
+                    } else {
+                        ByteString pack = binlogSyncReader.nextSyncPacks(flowController.getPacketSize());
                         if (log.isDebugEnabled()) {
                             show("BinlogSync", pack);
                         }
-                        outputStream.onNext(DumpStream.newBuilder().setPayload(pack).build());
+                        stream = DumpStream.newBuilder().setPayload(pack).build();
+                    }
+                }
+                if (stream != null) {
+                    outputStream.onNext(stream);
+                    flowController.onSent(stream.getPayload().size());
+                    clientMetrics.recordSent(stream.getPayload().size());
+                    clientMetrics.updateFlowControl(flowController.getPacketSize(), flowController.getDrainRate(),
+                        flowController.getRttMs(), binlogSyncReader.backlogBytes());
+                    lastSendTime = System.currentTimeMillis();
+                } else {
+                    // 由cursor变化唤醒，不再固定sleep，最长等待到下一次心跳的发送时间
+                    long heartbeatWait = SYNC_HEARTBEAT_INTERVAL_MS - (System.currentTimeMillis() - lastSendTime);
+                    if (heartbeatWait > 0) {
+                        logFileManager.awaitCursorChange(cursor, heartbeatWait);
                     } else {
-                        TimeUnit.MILLISECONDS.sleep(timeout);
-                        noData += timeout;
-                        if (noData > 2000) {
-                            outputStream.onNext(DumpStream.newBuilder()
-                                .setPayload(binlogSyncReader.heartbeatEvent())
-                                .setIsHeartBeat(true)
-                                .build());
-                            noData = 0;
-                        }
+                        outputStream.onNext(DumpStream.newBuilder()
+                            .setPayload(binlogSyncReader.heartbeatEvent())
+                            .setIsHeartBeat(true)
+                            .build());
+                        lastSendTime = System.currentTimeMillis();
                     }
                 }
             }
@@ -225,12 +402,35 @@ public class LogFileReader {
             log.error("BinlogSync fail {},{} {}", fileName, position, th.getMessage(), th);
             outputStream.onError(Status.fromThrowable(th).asException());
         } finally {
+            DumpClientMetrics.unregister(clientMetrics);
             if (binlogSyncReader != null) {
                 binlogSyncReader.close();
             }
         }
     }
 
+    private DumpFlowController newFlowController(int maxPacketSize) {
+        return new DumpFlowController(
+            DynamicApplicationConfig.getBoolean(BINLOG_DUMP_ADAPTIVE_PACKET_ENABLE),
+            getInt(BINLOG_DUMP_ADAPTIVE_MIN_PACKET_SIZE),
+            maxPacketSize,
+            DynamicApplicationConfig.getLong(BINLOG_DUMP_ADAPTIVE_TARGET_DRAIN_TIME_MS));
+    }
+
+    private void waitReady(TxnOutputStream<DumpStream> outputStream, long readyWaitTimeout,
+                           DumpFlowController flowController, DumpClientMetrics clientMetrics)
+        throws InterruptedException {
+        long stallStart = System.nanoTime();
+        while (!outputStream.awaitReady(readyWaitTimeout)) {
+            if (outputStream.isCancelled()) {
+                return;
+            }
+        }
+        long stallNanos = System.nanoTime() - stallStart;
+        flowController.onStall(stallNanos);
+        clientMetrics.recordStall(TimeUnit.NANOSECONDS.toMillis(stallNanos));
+    }
+
     private ByteString disableChecksum(ByteString pack) {
         byte[] data = pack.substring(0, pack.size() - 4).toByteArray();
         ByteArray ba = new ByteArray(data);
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.util.DirectByteOutput;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import com.google.protobuf.ByteString;
+
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * BLOCK模式下dumper主备复制的块编解码
+ * <p>
+ * 1. 发送端：对原始字节计算CRC32，数据量超过compressMinSize时尝试压缩，压缩后没有变小则按原始数据发送 </br>
+ * 2. 接收端：按需解压，校验CRC32和event边界索引，校验通过后返回原始字节
+ * </p>
+ * 非线程安全，每个sync连接(或接收线程)各自持有一个实例
+ **/
+public class SyncBlockCodec {
+    private final boolean compressEnabled;
+    private final int compressMinSize;
+    private final CRC32 crc32 = new CRC32();
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] compressBuffer = new byte[0];
+
+    public SyncBlockCodec(boolean compressEnabled, int compressMinSize) {
+        this.compressEnabled = compressEnabled;
+        this.compressMinSize = compressMinSize;
+    }
+
+    public DumpStream encode(byte[] data, int length, int[] eventEnds, int eventCount) {
+        crc32.reset();
+        crc32.update(data, 0, length);
+        DumpStream.Builder builder = DumpStream.newBuilder().setChecksum(crc32.getValue());
+        for (int i = 0; i < eventCount; i++) {
+            builder.addEventEnds(eventEnds[i]);
+        }
+
+        int compressedLength = compressEnabled && length >= compressMinSize ? compress(data, length) : -1;
+        if (compressedLength > 0) {
+            builder.setPayload(ByteString.copyFrom(compressBuffer, 0, compressedLength)).setRawLength(length);
+        } else {
+            builder.setPayload(ByteString.copyFrom(data, 0, length));
+        }
+        return builder.build();
+    }
+
+    public byte[] decode(DumpStream stream) {
+        byte[] payload = DirectByteOutput.unsafeFetch(stream.getPayload());
+        byte[] data = stream.getRawLength() > 0 ? decompress(payload, stream.getRawLength()) : payload;
+
+        crc32.reset();
+        crc32.update(data, 0, data.length);
+        if (crc32.getValue() != stream.getChecksum()) {
+            throw new PolardbxException("sync block checksum mismatch, expect " + stream.getChecksum() + ", actual "
+                + crc32.getValue() + ", block length " + data.length);
+        }
+        checkEventEnds(stream.getEventEndsList(), data.length);
+        return data;
+    }
+
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return 压缩后的长度，压缩后没有变小时返回-1
+     */
+    private int compress(byte[] data, int length) {
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        if (compressBuffer.length < length) {
+            compressBuffer = new byte[length];
+        }
+        deflater.reset();
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        int compressedLength = deflater.deflate(compressBuffer, 0, length);
+        return deflater.finished() && compressedLength < length ? compressedLength : -1;
+    }
+
+    private byte[] decompress(byte[] payload, int rawLength) {
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        byte[] data = new byte[rawLength];
+        try {
+            inflater.reset();
+            inflater.setInput(payload);
+            int length = inflater.inflate(data);
+            if (length != rawLength || !inflater.finished()) {
+                throw new PolardbxException("sync block decompress failed, expect length " + rawLength
+                    + ", actual length " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new PolardbxException("sync block decompress failed", e);
+        }
+        return data;
+    }
+
+    private static void checkEventEnds(List<Integer> eventEnds, int length) {
+        if (eventEnds.isEmpty()) {
+            throw new PolardbxException("sync block has no event, block length " + length);
+        }
+        int last = 0;
+        for (int end : eventEnds) {
+            if (end <= last) {
+                throw new PolardbxException("sync block event ends is not increasing, " + last + " -> " + end);
+            }
+            last = end;
+        }
+        if (last != length) {
+            throw new PolardbxException("sync block last event end " + last + " mismatch block length " + length);
+        }
+    }
+}
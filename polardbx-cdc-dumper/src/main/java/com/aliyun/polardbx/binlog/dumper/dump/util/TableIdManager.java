@@ -19,6 +19,7 @@ import com.aliyun.polardbx.binlog.format.FormatDescriptionEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -49,8 +50,17 @@ public class TableIdManager {
      * TableId的初始值
      */
     private static final long TABLE_ID_BASE_VALUE = DynamicApplicationConfig.getLong(BINLOG_WRITE_TABLE_ID_BASE_VALUE);
+    /**
+     * 按表结构缓存的表定义个数上限，超过之后清空重建
+     */
+    private static final int MAX_TABLE_DEF_COUNT = 65536;
 
-    private final HashMap<String, Long> cache = new HashMap<>();
+    private final HashMap<String, TableDef> cache = new HashMap<>();
+    /**
+     * table map event定义(库名、表名、列定义)的哈希值 -> tableDefs中的下标
+     */
+    private final LongLongHashMap defIndexes = new LongLongHashMap(1024);
+    private final ArrayList<TableDef> tableDefs = new ArrayList<>();
     private AtomicLong counter;
 
     //只有当创建了一个新的Binlog文件时，tryReset才可以设置为true
@@ -67,24 +77,53 @@ public class TableIdManager {
             return;
         }
         cache.remove(buildKey(schema, table));
+        // ddl很少发生，直接清空按表定义的缓存
+        clearTableDefs();
     }
 
     //非线程安全
     public long getTableId(String schema, String table) {
         String key = buildKey(schema, table);
-        Long value = cache.get(key);
+        TableDef value = cache.get(key);
         if (value == null) {
-            return cache.computeIfAbsent(key, k -> {
-                long newValue = TableIdManager.this.counter.addAndGet(1);
-                //容错逻辑，实际场景不应该出现大于MAX_VALUE的场景，触达TABLE_ID_RESET_THRESHOLD后就应该被reset了
-                while (newValue > TABLE_ID_MAX_VALUE) {
-                    newValue = newValue - TABLE_ID_MAX_VALUE;
-                }
-                return newValue;
-            });
-        } else {
-            return value;
+            value = new TableDef(schema, table, 0, nextTableId());
+            cache.put(key, value);
+        }
+        return value.tableId;
+    }
+
+    /**
+     * 按(库名, 表名, 列定义)分配tableId，命中时不需要拼接和哈希字符串，非线程安全
+     *
+     * @param defHash table map event中库名、表名和列定义部分的哈希值
+     */
+    public long getTableId(String schema, String table, long defHash) {
+        long index = defIndexes.get(defHash);
+        if (index != LongLongHashMap.NO_VALUE) {
+            TableDef def = tableDefs.get((int) index);
+            if (def.table.equals(table) && def.schema.equals(schema)) {
+                return def.tableId;
+            }
+            // 哈希冲突，退化为按表名分配
+            return getTableId(schema, table);
+        }
+
+        String key = buildKey(schema, table);
+        TableDef def = cache.get(key);
+        if (def == null || (def.defHash != 0 && def.defHash != defHash)) {
+            // 首次出现或者表定义发生了变化，分配新的tableId
+            def = new TableDef(schema, table, defHash, nextTableId());
+            cache.put(key, def);
+        } else if (def.defHash == 0) {
+            def = new TableDef(schema, table, defHash, def.tableId);
+            cache.put(key, def);
+        }
+        if (tableDefs.size() >= MAX_TABLE_DEF_COUNT) {
+            clearTableDefs();
         }
+        defIndexes.put(defHash, tableDefs.size());
+        tableDefs.add(def);
+        return def.tableId;
     }
 
     public void tryReset() {
@@ -94,6 +133,20 @@ public class TableIdManager {
         }
     }
 
+    private long nextTableId() {
+        long newValue = counter.addAndGet(1);
+        //容错逻辑，实际场景不应该出现大于MAX_VALUE的场景，触达TABLE_ID_RESET_THRESHOLD后就应该被reset了
+        while (newValue > TABLE_ID_MAX_VALUE) {
+            newValue = newValue - TABLE_ID_MAX_VALUE;
+        }
+        return newValue;
+    }
+
+    private void clearTableDefs() {
+        defIndexes.clear();
+        tableDefs.clear();
+    }
+
     private void init(long initValue) {
         counter = new AtomicLong(initValue);
     }
@@ -109,6 +162,20 @@ public class TableIdManager {
             || logEventType == TABLE_MAP_EVENT;
     }
 
+    private static class TableDef {
+        private final String schema;
+        private final String table;
+        private final long defHash;
+        private final long tableId;
+
+        private TableDef(String schema, String table, long defHash, long tableId) {
+            this.schema = schema;
+            this.table = table;
+            this.defHash = defHash;
+            this.tableId = tableId;
+        }
+    }
+
     public static void main(String[] args) {
         System.out.println(TABLE_ID_MAX_VALUE);
         System.out.println(TABLE_ID_RESET_THRESHOLD);
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.util;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.event.FormatDescriptionLogEvent;
+import com.aliyun.polardbx.binlog.format.utils.EventGenerator;
+import org.apache.commons.lang3.StringUtils;
+
+import static com.aliyun.polardbx.binlog.canal.binlog.LogEvent.TABLE_MAP_EVENT;
+import static com.aliyun.polardbx.binlog.dumper.dump.util.TableIdManager.containsTableId;
+import static com.aliyun.polardbx.binlog.format.utils.BinlogGenerateUtil.getTableIdLength;
+
+/**
+ * 写逻辑Binlog时，对table map和rows event的tableId进行重写
+ * 1. table map event按(库名、表名、列定义)的哈希值分配tableId，命中时不需要拼接和哈希字符串
+ * 2. 事务内记录 源tableId -> 新tableId 的映射，rows event直接按源tableId查找，不再按库名表名查找
+ * 非线程安全
+ */
+public class TableMapCache {
+    private static final int HEADER_LENGTH = FormatDescriptionLogEvent.LOG_EVENT_HEADER_LEN;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TableIdManager tableIdManager;
+    private final int tableIdLength = getTableIdLength();
+    private final LongLongHashMap txnTableIds = new LongLongHashMap(16);
+
+    public TableMapCache(TableIdManager tableIdManager) {
+        this.tableIdManager = tableIdManager;
+    }
+
+    public void beginTxn() {
+        txnTableIds.clear();
+    }
+
+    /**
+     * 重写event中的tableId
+     */
+    public void rewrite(String schema, String table, int eventType, byte[] data) {
+        if (StringUtils.isBlank(schema) || StringUtils.isBlank(table) || !containsTableId((byte) eventType)) {
+            return;
+        }
+
+        long sourceTableId = readTableId(data);
+        long tableId;
+        if (eventType == TABLE_MAP_EVENT) {
+            tableId = tableIdManager.getTableId(schema, table, hashTableDef(data));
+            txnTableIds.put(sourceTableId, tableId);
+        } else {
+            tableId = txnTableIds.get(sourceTableId);
+            if (tableId == LongLongHashMap.NO_VALUE) {
+                tableId = tableIdManager.getTableId(schema, table);
+            }
+        }
+        EventGenerator.updateTableId(data, tableId);
+    }
+
+    private long readTableId(byte[] data) {
+        long value = 0;
+        for (int i = 0; i < tableIdLength; i++) {
+            value |= (data[HEADER_LENGTH + i] & 0xffL) << (i * 8);
+        }
+        return value;
+    }
+
+    /**
+     * table map event在tableId和flags之后依次是库名、表名、列数、列类型、列元数据和null bitmap，不包含结尾的checksum
+     */
+    private long hashTableDef(byte[] data) {
+        long hash = FNV_OFFSET_BASIS;
+        int end = data.length - LogEvent.BINLOG_CHECKSUM_LEN;
+        for (int i = HEADER_LENGTH + tableIdLength + 2; i < end; i++) {
+            hash ^= data[i] & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
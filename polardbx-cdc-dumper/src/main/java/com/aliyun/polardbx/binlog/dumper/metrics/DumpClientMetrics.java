@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个下游连接(binlog dump或dumper主备复制)的流控指标，连接建立时注册，连接断开时注销
+ **/
+public class DumpClientMetrics {
+    private static final Map<String, DumpClientMetrics> METRICS_MAP = new ConcurrentHashMap<>();
+    private static final AtomicLong CLIENT_SEQ = new AtomicLong(0);
+
+    private final String clientId;
+    private final String streamId;
+    private final String type;
+    private final long startTime;
+    /**
+     * 已发送的总字节数
+     */
+    private final AtomicLong totalBytes = new AtomicLong(0);
+    /**
+     * 已发送的packet总个数
+     */
+    private final AtomicLong totalPackets = new AtomicLong(0);
+    /**
+     * stream处于不可写状态的总次数
+     */
+    private final AtomicLong stallCount = new AtomicLong(0);
+    /**
+     * stream处于不可写状态的总时长(ms)
+     */
+    private final AtomicLong stallTime = new AtomicLong(0);
+    /**
+     * 当前的packet大小
+     */
+    private volatile long packetSize;
+    /**
+     * 估算的下游消费速率(字节/秒)
+     */
+    private volatile long drainRate;
+    /**
+     * 估算的RTT(ms)
+     */
+    private volatile long rtt;
+    /**
+     * 尚未发送给下游的binlog字节数(估算值)
+     */
+    private volatile long backlogBytes;
+
+    private DumpClientMetrics(String clientId, String streamId, String type) {
+        this.clientId = clientId;
+        this.streamId = streamId;
+        this.type = type;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public static DumpClientMetrics register(String streamId, String type) {
+        String clientId = type + "-" + CLIENT_SEQ.incrementAndGet();
+        DumpClientMetrics metrics = new DumpClientMetrics(clientId, streamId, type);
+        METRICS_MAP.put(clientId, metrics);
+        return metrics;
+    }
+
+    public static void unregister(DumpClientMetrics metrics) {
+        if (metrics != null) {
+            METRICS_MAP.remove(metrics.clientId);
+        }
+    }
+
+    public static Map<String, DumpClientMetrics> getMetricsMap() {
+        return METRICS_MAP;
+    }
+
+    public void recordSent(long bytes) {
+        totalBytes.addAndGet(bytes);
+        totalPackets.incrementAndGet();
+    }
+
+    public void recordStall(long stallMs) {
+        stallCount.incrementAndGet();
+        stallTime.addAndGet(stallMs);
+    }
+
+    public void updateFlowControl(long packetSize, long drainRate, long rtt, long backlogBytes) {
+        this.packetSize = packetSize;
+        this.drainRate = drainRate;
+        this.rtt = rtt;
+        this.backlogBytes = backlogBytes;
+    }
+
+    /**
+     * 从连接建立开始计算的平均发送速率(字节/秒)
+     */
+    public long getAvgBps() {
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        return totalBytes.get() * 1000 / elapsed;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    public long getTotalPackets() {
+        return totalPackets.get();
+    }
+
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    public long getStallTime() {
+        return stallTime.get();
+    }
+
+    public long getPacketSize() {
+        return packetSize;
+    }
+
+    public long getDrainRate() {
+        return drainRate;
+    }
+
+    public long getRtt() {
+        return rtt;
+    }
+
+    public long getBacklogBytes() {
+        return backlogBytes;
+    }
+}
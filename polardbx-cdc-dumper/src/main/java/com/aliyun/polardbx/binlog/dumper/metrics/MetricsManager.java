@@ -20,6 +20,9 @@ import com.aliyun.polardbx.binlog.domain.TaskType;
 import com.aliyun.polardbx.binlog.jvm.JvmSnapshot;
 import com.aliyun.polardbx.binlog.jvm.JvmUtils;
 import com.aliyun.polardbx.binlog.leader.RuntimeLeaderElector;
+import com.aliyun.polardbx.binlog.metrics.LatencyHistogram;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyMetrics;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.metrics.format.TableFormat;
 import com.aliyun.polardbx.binlog.monitor.MonitorManager;
 import com.aliyun.polardbx.binlog.monitor.MonitorType;
@@ -50,6 +53,8 @@ import static com.aliyun.polardbx.binlog.ConfigKeys.ALARM_DELAY_THRESHOLD;
 import static com.aliyun.polardbx.binlog.ConfigKeys.ALARM_NODATA_THRESHOLD;
 import static com.aliyun.polardbx.binlog.ConfigKeys.PRINT_METRICS;
 import static com.aliyun.polardbx.binlog.util.CommonMetricsHelper.addJvmMetrics;
+import static com.aliyun.polardbx.binlog.util.CommonMetricsHelper.addStageLatencyMetrics;
+import static com.aliyun.polardbx.binlog.util.CommonMetricsHelper.contactStageLatencyMetrics;
 
 /**
  * Created by ziyang.lb
@@ -163,6 +168,8 @@ public class MetricsManager {
         contactStreamTotalMetrics(snapshot, sb);
         contactStreamAvgMetrics(snapshot, sb);
         contactStreamInstantMetrics(snapshot, sb);
+        contactDumpClientMetrics(sb);
+        contactStageLatencyMetrics(snapshot.stageLatency, sb);
         contactJvmMetrics(snapshot, sb);
 
         sb.append("\r\n");
@@ -260,6 +267,40 @@ public class MetricsManager {
         sb.append(streamTotalFormatInfo);
     }
 
+    private void contactDumpClientMetrics(StringBuilder sb) {
+        if (DumpClientMetrics.getMetricsMap().isEmpty()) {
+            return;
+        }
+        TableFormat dumpClientFormatInfo = new TableFormat("Dump Client Metrics");
+        dumpClientFormatInfo.addColumn(
+            "clientId",
+            "streamId",
+            "totalBytes",
+            "totalPackets",
+            "avgBps",
+            "drainBps",
+            "rtt(ms)",
+            "packetSize",
+            "backlogBytes",
+            "stallCount",
+            "stallTime(ms)");
+        for (DumpClientMetrics metrics : DumpClientMetrics.getMetricsMap().values()) {
+            dumpClientFormatInfo.addRow(
+                metrics.getClientId(),
+                metrics.getStreamId(),
+                metrics.getTotalBytes(),
+                metrics.getTotalPackets(),
+                metrics.getAvgBps(),
+                metrics.getDrainRate(),
+                metrics.getRtt(),
+                metrics.getPacketSize(),
+                metrics.getBacklogBytes(),
+                metrics.getStallCount(),
+                metrics.getStallTime());
+        }
+        sb.append(dumpClientFormatInfo);
+    }
+
     private void contactJvmMetrics(MetricsSnapshot snapshot, StringBuilder sb) {
         TableFormat jvmFormatInfo = new TableFormat("Jvm Metrics");
         jvmFormatInfo.addColumn(
@@ -287,16 +328,18 @@ public class MetricsManager {
         if (taskType == TaskType.Dumper) {
             // 只会有一个流
             for (StreamMetrics metrics : snapshot.streamMetrics.values()) {
-                sendMetrics4Dumper(metrics, snapshot.periodAverage.get(metrics.getStreamId()), snapshot.jvmSnapshot);
+                sendMetrics4Dumper(metrics, snapshot.periodAverage.get(metrics.getStreamId()), snapshot.jvmSnapshot,
+                    snapshot.stageLatency);
             }
         } else {
             DumperXMetrics dumperXMetrics = buildDumperXMetrics(snapshot);
-            sendMetrics4DumperX(dumperXMetrics, snapshot.jvmSnapshot);
+            sendMetrics4DumperX(dumperXMetrics, snapshot.jvmSnapshot, snapshot.stageLatency);
         }
     }
 
     @SneakyThrows
-    private void sendMetrics4DumperX(DumperXMetrics dumperXMetrics, JvmSnapshot jvmSnapshot) {
+    private void sendMetrics4DumperX(DumperXMetrics dumperXMetrics, JvmSnapshot jvmSnapshot,
+                                     Map<TraceStage, LatencyHistogram.Snapshot> stageLatency) {
         List<CommonMetrics> commonMetrics = Lists.newArrayList();
         Field[] metricsFields = DumperXMetrics.class.getDeclaredFields();
         for (Field f : metricsFields) {
@@ -315,6 +358,7 @@ public class MetricsManager {
             String prefix = "polardbx_cdc_dumper_x_";
             addJvmMetrics(commonMetrics, jvmSnapshot, prefix);
         }
+        addStageLatencyMetrics(commonMetrics, stageLatency, CommonMetricsHelper.getDumper());
 
         if (!CollectionUtils.isEmpty(commonMetrics)) {
             MetricsReporter.report(commonMetrics);
@@ -322,7 +366,8 @@ public class MetricsManager {
     }
 
     @SneakyThrows
-    private void sendMetrics4Dumper(StreamMetrics metrics, StreamMetricsAverage average, JvmSnapshot jvmSnapshot) {
+    private void sendMetrics4Dumper(StreamMetrics metrics, StreamMetricsAverage average, JvmSnapshot jvmSnapshot,
+                                    Map<TraceStage, LatencyHistogram.Snapshot> stageLatency) {
         List<CommonMetrics> commonMetrics = Lists.newArrayList();
         Field[] metricsFields = StreamMetrics.class.getDeclaredFields();
         for (Field f : metricsFields) {
@@ -379,6 +424,7 @@ public class MetricsManager {
             String prefix = leader ? "polardbx_cdc_dumper_m_" : "polardbx_cdc_dumper_s_";
             addJvmMetrics(commonMetrics, jvmSnapshot, prefix);
         }
+        addStageLatencyMetrics(commonMetrics, stageLatency, CommonMetricsHelper.getDumper());
 
         if (!CollectionUtils.isEmpty(commonMetrics)) {
             MetricsReporter.report(commonMetrics);
@@ -389,6 +435,7 @@ public class MetricsManager {
         MetricsSnapshot snapshot = new MetricsSnapshot(snapshotSeq.incrementAndGet());
         snapshot.timestamp = System.currentTimeMillis();
         snapshot.jvmSnapshot = JvmUtils.buildJvmSnapshot();
+        snapshot.stageLatency = StageLatencyMetrics.get().snapshot();
 
         snapshot.streamMetrics = new HashMap<>();
         for (StreamMetrics metrics : StreamMetrics.getMetricsMap().values()) {
@@ -567,6 +614,7 @@ public class MetricsManager {
         long timestamp;
         Map<String, StreamMetrics> streamMetrics;
         Map<String, StreamMetricsAverage> periodAverage;
+        Map<TraceStage, LatencyHistogram.Snapshot> stageLatency;
         JvmSnapshot jvmSnapshot;
     }
 
@@ -20,6 +20,7 @@ import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.BinlogFileUtil;
 import com.aliyun.polardbx.binlog.plugin.IDumperPlugin;
 import com.aliyun.polardbx.binlog.plugin.PluginContext;
+import com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,7 +43,7 @@ public class DumperPluginManager {
     }
 
     public void load(String taskName, TaskType taskType, String groupName, List<String> streamList,
-                     long runtimeVersion) {
+                     long runtimeVersion, ExecutionConfig executionConfig) {
         logger.info("begin to load dumper plugin");
         Map<String, IDumperPlugin> beanMap = SpringContextHolder.getBeansOfType(IDumperPlugin.class);
         context.setBinlogFileRootPath(BinlogFileUtil.getBinlogFileRootPath(taskType, runtimeVersion));
@@ -51,6 +52,7 @@ public class DumperPluginManager {
         context.setRuntimeVersion(runtimeVersion);
         context.setGroup(groupName);
         context.setStreamList(streamList);
+        context.setExecutionConfig(executionConfig);
         try {
             for (Map.Entry<String, IDumperPlugin> bean : beanMap.entrySet()) {
                 logger.info("load plugin : " + bean.getKey());
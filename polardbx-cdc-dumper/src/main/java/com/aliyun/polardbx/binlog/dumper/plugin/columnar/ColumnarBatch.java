@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 单张表的一批行变更，按列组织(tso列、op列、数据列)，写出时整批转换为一个Arrow record batch
+ */
+public class ColumnarBatch {
+    public static final byte OP_INSERT = 1;
+    public static final byte OP_DELETE = 2;
+    public static final byte OP_UPDATE_BEFORE = 3;
+    public static final byte OP_UPDATE_AFTER = 4;
+
+    @Getter
+    private final String schema;
+    @Getter
+    private final String table;
+    /**
+     * 逻辑表的列定义，决定写出时的字段名和类型
+     */
+    @Getter
+    private final List<ColumnarColumn> columns;
+    /**
+     * binlog table map中的列类型，用于判断后续的行是否还能追加到当前批次
+     */
+    private final int[] columnTypes;
+    private final int capacity;
+    private final String[] tsoVector;
+    private final byte[] opVector;
+    private final Serializable[][] columnVectors;
+    @Getter
+    private int rowCount;
+
+    public ColumnarBatch(String schema, String table, List<ColumnarColumn> columns, int[] columnTypes,
+                         int capacity) {
+        this.schema = schema;
+        this.table = table;
+        this.columns = columns;
+        this.columnTypes = columnTypes;
+        this.capacity = capacity;
+        this.tsoVector = new String[capacity];
+        this.opVector = new byte[capacity];
+        this.columnVectors = new Serializable[columnTypes.length][capacity];
+    }
+
+    public void append(String tso, byte op, Serializable[] row) {
+        if (isFull()) {
+            throw new IllegalStateException("columnar batch is full, capacity " + capacity);
+        }
+        tsoVector[rowCount] = tso;
+        opVector[rowCount] = op;
+        for (int i = 0; i < columnVectors.length; i++) {
+            columnVectors[i][rowCount] = i < row.length ? row[i] : null;
+        }
+        rowCount++;
+    }
+
+    public boolean isFull() {
+        return rowCount >= capacity;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    public int getColumnCount() {
+        return columnTypes.length;
+    }
+
+    public int getColumnType(int column) {
+        return columnTypes[column];
+    }
+
+    public String getTso(int row) {
+        return tsoVector[row];
+    }
+
+    public byte getOp(int row) {
+        return opVector[row];
+    }
+
+    public Serializable getValue(int column, int row) {
+        return columnVectors[column][row];
+    }
+
+    public void clear() {
+        for (int i = 0; i < rowCount; i++) {
+            tsoVector[i] = null;
+            for (Serializable[] vector : columnVectors) {
+                vector[i] = null;
+            }
+        }
+        rowCount = 0;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+
+/**
+ * 逻辑表的一列，列名和类型来自逻辑表元数据(information_schema.columns)，决定导出文件中对应Arrow字段的名字和类型
+ * <p>
+ * 整数按有无符号映射到能容纳取值范围的有符号整数，bigint unsigned映射为decimal(20,0)；
+ * 时间类型和binlog解析结果保持一致，按MySQL的文本格式输出为字符串(可能包含0000-00-00这样的值)，
+ * 原始的列类型记录在字段的metadata中(mysql.type)，入湖时可以据此转换
+ * </p>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ColumnarColumn {
+    public static final String METADATA_MYSQL_TYPE = "mysql.type";
+    private static final int MAX_DECIMAL128_PRECISION = 38;
+
+    private final String name;
+    /**
+     * 小写的类型名，如bigint、varchar
+     */
+    private final String dataType;
+    /**
+     * 完整的列类型，如bigint(20) unsigned
+     */
+    private final String columnType;
+    private final int precision;
+    private final int scale;
+    private final boolean unsigned;
+
+    public ColumnarColumn(String name, String dataType, String columnType, int precision, int scale) {
+        this.name = name;
+        this.dataType = StringUtils.lowerCase(dataType);
+        this.columnType = StringUtils.lowerCase(columnType);
+        this.precision = precision;
+        this.scale = scale;
+        this.unsigned = StringUtils.contains(this.columnType, "unsigned");
+    }
+
+    /**
+     * 逻辑表元数据不可用或者和binlog中的列数不一致时，按binlog中的列类型生成列，列名为col_序号
+     */
+    public static ColumnarColumn fromBinlogType(int index, int mysqlType, int meta) {
+        String dataType;
+        int precision = 0;
+        int scale = 0;
+        switch (mysqlType) {
+        case LogEvent.MYSQL_TYPE_TINY:
+        case LogEvent.MYSQL_TYPE_SHORT:
+        case LogEvent.MYSQL_TYPE_INT24:
+        case LogEvent.MYSQL_TYPE_LONG:
+        case LogEvent.MYSQL_TYPE_LONGLONG:
+            dataType = "bigint";
+            break;
+        case LogEvent.MYSQL_TYPE_FLOAT:
+            dataType = "float";
+            break;
+        case LogEvent.MYSQL_TYPE_DOUBLE:
+            dataType = "double";
+            break;
+        case LogEvent.MYSQL_TYPE_NEWDECIMAL:
+            dataType = "decimal";
+            precision = meta >> 8;
+            scale = meta & 0xff;
+            break;
+        case LogEvent.MYSQL_TYPE_BIT:
+        case LogEvent.MYSQL_TYPE_GEOMETRY:
+        case LogEvent.MYSQL_TYPE_TINY_BLOB:
+        case LogEvent.MYSQL_TYPE_MEDIUM_BLOB:
+        case LogEvent.MYSQL_TYPE_LONG_BLOB:
+        case LogEvent.MYSQL_TYPE_BLOB:
+            dataType = "blob";
+            break;
+        default:
+            dataType = "varchar";
+        }
+        return new ColumnarColumn("col_" + index, dataType, dataType, precision, scale);
+    }
+
+    public Field toField() {
+        FieldType fieldType = new FieldType(true, toArrowType(), null,
+            Collections.singletonMap(METADATA_MYSQL_TYPE, columnType));
+        return new Field(name, fieldType, null);
+    }
+
+    ArrowType toArrowType() {
+        switch (dataType) {
+        case "tinyint":
+            return new ArrowType.Int(unsigned ? 16 : 8, true);
+        case "smallint":
+            return new ArrowType.Int(unsigned ? 32 : 16, true);
+        case "mediumint":
+            return new ArrowType.Int(32, true);
+        case "int":
+        case "integer":
+            return new ArrowType.Int(unsigned ? 64 : 32, true);
+        case "bigint":
+            return unsigned ? new ArrowType.Decimal(20, 0, 128) : new ArrowType.Int(64, true);
+        case "float":
+            return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+        case "double":
+        case "real":
+            return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+        case "decimal":
+        case "numeric":
+            return new ArrowType.Decimal(precision, scale, precision > MAX_DECIMAL128_PRECISION ? 256 : 128);
+        case "binary":
+        case "varbinary":
+        case "tinyblob":
+        case "blob":
+        case "mediumblob":
+        case "longblob":
+        case "bit":
+        case "geometry":
+            return ArrowType.Binary.INSTANCE;
+        default:
+            return ArrowType.Utf8.INSTANCE;
+        }
+    }
+
+    /**
+     * 整数列的位数，用于把binlog中按有符号解析出来的无符号整数还原
+     */
+    int integerBits() {
+        switch (dataType) {
+        case "tinyint":
+            return 8;
+        case "smallint":
+            return 16;
+        case "mediumint":
+            return 24;
+        case "int":
+        case "integer":
+            return 32;
+        default:
+            return 64;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.BinlogFileUtil;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.domain.TaskType;
+import com.aliyun.polardbx.binlog.leader.RuntimeLeaderElector;
+import com.aliyun.polardbx.binlog.plugin.IDumperPlugin;
+import com.aliyun.polardbx.binlog.plugin.PluginContext;
+import com.google.common.collect.Maps;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_COLUMNAR_EXPORT_DIR;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_COLUMNAR_EXPORT_ENABLE;
+
+/**
+ * 列存导出插件，和LogFileGenerator一样订阅上游的TxnMessage，将行变更导出为列存文件，供数据湖入湖使用
+ * 单流模式下只在dumper leader上运行
+ */
+@Component
+public class ColumnarExportPlugin implements IDumperPlugin {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarExportPlugin.class);
+    private static final String DEFAULT_DIR_SUFFIX = "_columnar";
+
+    private final Map<String, ColumnarExporter> exporterMap = Maps.newConcurrentMap();
+    private boolean enabled;
+
+    @Override
+    public void init(PluginContext context) {
+        this.enabled = DynamicApplicationConfig.getBoolean(BINLOG_COLUMNAR_EXPORT_ENABLE);
+        if (!enabled) {
+            logger.info("columnar export is disabled.");
+            return;
+        }
+
+        String rootPath = DynamicApplicationConfig.getString(BINLOG_COLUMNAR_EXPORT_DIR);
+        if (StringUtils.isBlank(rootPath)) {
+            rootPath = context.getBinlogFileRootPath() + DEFAULT_DIR_SUFFIX;
+        }
+        for (String stream : context.getStreamList()) {
+            File exportDir = new File(BinlogFileUtil.getBinlogFileFullPath(rootPath, context.getGroup(), stream));
+            exporterMap.put(stream, new ColumnarExporter(context.getTaskName(), context.getTaskType(), stream,
+                context.getExecutionConfig(), exportDir));
+        }
+        logger.info("columnar export root path : " + rootPath);
+    }
+
+    @Override
+    public void start(PluginContext context) {
+        if (!enabled) {
+            return;
+        }
+        if (context.getTaskType() == TaskType.DumperX || RuntimeLeaderElector.isDumperLeader(context.getTaskName())) {
+            exporterMap.values().forEach(ColumnarExporter::start);
+        } else {
+            logger.info("current dumper is not leader, columnar export will not start.");
+        }
+    }
+
+    @Override
+    public void stop(PluginContext context) {
+        exporterMap.values().forEach(ColumnarExporter::stop);
+    }
+}
@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.CommonUtils;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.canal.binlog.LogBuffer;
+import com.aliyun.polardbx.binlog.canal.binlog.LogContext;
+import com.aliyun.polardbx.binlog.canal.binlog.LogDecoder;
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.LogPosition;
+import com.aliyun.polardbx.binlog.canal.binlog.event.RowsLogBuffer;
+import com.aliyun.polardbx.binlog.canal.binlog.event.RowsLogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.event.TableMapLogEvent;
+import com.aliyun.polardbx.binlog.domain.TaskType;
+import com.aliyun.polardbx.binlog.dumper.dump.logfile.UpstreamBinlogFetcher;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.protocol.MessageType;
+import com.aliyun.polardbx.binlog.protocol.TxnItem;
+import com.aliyun.polardbx.binlog.protocol.TxnMergedToken;
+import com.aliyun.polardbx.binlog.protocol.TxnMessage;
+import com.aliyun.polardbx.binlog.protocol.TxnType;
+import com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_COLUMNAR_EXPORT_BATCH_ROWS;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_COLUMNAR_EXPORT_FILE_ROLL_INTERVAL_SECOND;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_COLUMNAR_EXPORT_FILE_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_TXN_STREAM_CLIENT_RECEIVE_QUEUE_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_TXN_STREAM_CLIENT_USE_ASYNC_MODE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_TXN_STREAM_FLOW_CONTROL_WINDOW_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TXN_STREAM_FLOW_CONTROL_WINDOW_MAX_SIZE;
+import static com.aliyun.polardbx.binlog.dumper.dump.util.MetaScaleUtil.isBinlogXStream;
+
+/**
+ * 订阅单个流的TxnMessage，将行变更解码后按表攒批，写入按TSO分区(小时)的Arrow列存文件，列名和类型取自逻辑表元数据
+ * 文件只在事务边界处滚动，滚动完成后登记到TSO索引，索引中的最大TSO即为重启后的订阅位点
+ */
+@Slf4j
+public class ColumnarExporter {
+    private static final String CHARSET = "UTF-8";
+    private static final int WRITE_BUFFER_SIZE = 128 * 1024;
+
+    private final String taskName;
+    private final TaskType taskType;
+    private final String streamName;
+    private final ExecutionConfig executionConfig;
+    private final File exportDir;
+    private final ColumnarTsoIndex tsoIndex;
+    private final int batchRows;
+    private final long maxFileSize;
+    private final long rollIntervalMs;
+    private final LogDecoder decoder = new LogDecoder(LogEvent.UNKNOWN_EVENT, LogEvent.ENUM_END_EVENT);
+    private final Map<String, TableMapLogEvent> tableMapCache = new HashMap<>();
+    private final Map<String, ColumnarBatch> pendingBatches = new LinkedHashMap<>();
+    private final Map<String, List<ColumnarColumn>> columnsCache = new HashMap<>();
+    private final ColumnarSchemaLoader schemaLoader = new ColumnarSchemaLoader();
+
+    private BufferAllocator allocator;
+    private ExecutorService executor;
+    private LogContext logContext;
+    private ColumnarFileWriter currentWriter;
+    private TxnMergedToken currentToken;
+    private volatile boolean running;
+
+    public ColumnarExporter(String taskName, TaskType taskType, String streamName, ExecutionConfig executionConfig,
+                            File exportDir) {
+        this.taskName = taskName;
+        this.taskType = taskType;
+        this.streamName = streamName;
+        this.executionConfig = executionConfig;
+        this.exportDir = exportDir;
+        this.tsoIndex = new ColumnarTsoIndex(exportDir);
+        this.batchRows = DynamicApplicationConfig.getInt(BINLOG_COLUMNAR_EXPORT_BATCH_ROWS);
+        this.maxFileSize = DynamicApplicationConfig.getLong(BINLOG_COLUMNAR_EXPORT_FILE_SIZE);
+        this.rollIntervalMs = TimeUnit.SECONDS.toMillis(
+            DynamicApplicationConfig.getLong(BINLOG_COLUMNAR_EXPORT_FILE_ROLL_INTERVAL_SECOND));
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        allocator = new RootAllocator(Long.MAX_VALUE);
+        executor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("columnar-exporter-" + streamName).build());
+        executor.execute(() -> {
+            while (running) {
+                UpstreamBinlogFetcher binlogFetcher = null;
+                try {
+                    String startTso = prepare();
+                    binlogFetcher = new UpstreamBinlogFetcher(taskName, taskType, streamName, executionConfig,
+                        messages -> {
+                            try {
+                                for (TxnMessage message : messages) {
+                                    if (message.getType() == MessageType.WHOLE) {
+                                        consume(message, MessageType.BEGIN);
+                                        consume(message, MessageType.DATA);
+                                        consume(message, MessageType.END);
+                                    } else {
+                                        consume(message, message.getType());
+                                    }
+                                }
+                            } catch (IOException e) {
+                                throw new PolardbxException("error occurred when exporting columnar data.", e);
+                            }
+                        }, DynamicApplicationConfig.getBoolean(BINLOG_TXN_STREAM_CLIENT_USE_ASYNC_MODE),
+                        DynamicApplicationConfig.getInt(BINLOG_TXN_STREAM_CLIENT_RECEIVE_QUEUE_SIZE),
+                        calcFlowControlWindowSize());
+                    binlogFetcher.connect();
+                    binlogFetcher.dump(startTso);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Throwable t) {
+                    log.error("columnar export error, stream {}", streamName, t);
+                    try {
+                        CommonUtils.sleep(1000L);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                } finally {
+                    if (binlogFetcher != null) {
+                        binlogFetcher.disconnect();
+                    }
+                    abortCurrentFile();
+                }
+            }
+        });
+        log.info("columnar exporter for stream {} started, export dir is {}", streamName, exportDir);
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        if (executor != null) {
+            try {
+                executor.shutdownNow();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // do nothing
+            }
+        }
+        if (allocator != null) {
+            allocator.close();
+        }
+        log.info("columnar exporter for stream {} stopped", streamName);
+    }
+
+    private String prepare() throws IOException {
+        if (!exportDir.exists() && !exportDir.mkdirs()) {
+            throw new IOException("create columnar export dir failed, " + exportDir);
+        }
+        tsoIndex.load();
+        cleanUnfinishedFiles();
+        tableMapCache.clear();
+        columnsCache.clear();
+        pendingBatches.clear();
+        currentToken = null;
+        logContext = new LogContext();
+        logContext.setLogPosition(new LogPosition(streamName, 0));
+        String startTso = tsoIndex.getLastTso();
+        log.info("prepare columnar exporting for stream {} from tso {}", streamName, startTso);
+        return startTso;
+    }
+
+    private void consume(TxnMessage message, MessageType processType) throws IOException {
+        switch (processType) {
+        case BEGIN:
+            currentToken = message.getTxnBegin().getTxnMergedToken();
+            break;
+        case DATA:
+            for (TxnItem item : message.getTxnData().getTxnItemsList()) {
+                exportItem(item);
+            }
+            break;
+        case END:
+            ensureWriter().commit(currentToken.getTso());
+            tryRoll();
+            break;
+        case TAG:
+            TxnMergedToken token = message.getTxnTag().getTxnMergedToken();
+            if (token.getType() == TxnType.FORMAT_DESC) {
+                decode(token.getPayload().toByteArray());
+            } else if (token.getType() == TxnType.META_DDL) {
+                // 表结构发生变化，之前缓存的table map和列定义不再可用
+                tableMapCache.clear();
+                columnsCache.clear();
+            } else if (token.getType() == TxnType.META_HEARTBEAT) {
+                tryRoll();
+            }
+            break;
+        default:
+            throw new PolardbxException("invalid message type for columnar exporter: " + processType);
+        }
+    }
+
+    private void exportItem(TxnItem item) throws IOException {
+        int eventType = item.getEventType();
+        String key = item.getSchema() + "." + item.getTable();
+        if (eventType == LogEvent.TABLE_MAP_EVENT) {
+            tableMapCache.put(key, (TableMapLogEvent) decode(item.getPayload().toByteArray()));
+        } else if (isRowsEvent(eventType)) {
+            TableMapLogEvent tableMap = tableMapCache.get(key);
+            if (tableMap == null) {
+                throw new PolardbxException("table map event is not found for rows event, table " + key);
+            }
+            RowsLogEvent rowsEvent = (RowsLogEvent) decode(item.getPayload().toByteArray());
+            rowsEvent.setTable(tableMap);
+            exportRows(item.getSchema(), item.getTable(), rowsEvent);
+        }
+    }
+
+    private void exportRows(String schema, String table, RowsLogEvent rowsEvent) throws IOException {
+        TableMapLogEvent.ColumnInfo[] columnInfo = rowsEvent.getTable().getColumnInfo();
+        int type = rowsEvent.getHeader().getType();
+        boolean isUpdate = type == LogEvent.UPDATE_ROWS_EVENT || type == LogEvent.UPDATE_ROWS_EVENT_V1;
+        byte op = (type == LogEvent.WRITE_ROWS_EVENT || type == LogEvent.WRITE_ROWS_EVENT_V1) ?
+            ColumnarBatch.OP_INSERT : ColumnarBatch.OP_DELETE;
+
+        BitSet columns = rowsEvent.getColumns();
+        BitSet changeColumns = rowsEvent.getChangeColumns();
+        RowsLogBuffer buffer = rowsEvent.getRowsBuf(CHARSET);
+        while (buffer.nextOneRow(columns)) {
+            if (isUpdate) {
+                appendRow(schema, table, columnInfo, ColumnarBatch.OP_UPDATE_BEFORE,
+                    readRow(buffer, columnInfo, columns));
+                if (!buffer.nextOneRow(changeColumns)) {
+                    break;
+                }
+                appendRow(schema, table, columnInfo, ColumnarBatch.OP_UPDATE_AFTER,
+                    readRow(buffer, columnInfo, changeColumns));
+            } else {
+                appendRow(schema, table, columnInfo, op, readRow(buffer, columnInfo, columns));
+            }
+        }
+    }
+
+    private Serializable[] readRow(RowsLogBuffer buffer, TableMapLogEvent.ColumnInfo[] columnInfo, BitSet columns) {
+        Serializable[] row = new Serializable[columnInfo.length];
+        for (int i = 0; i < columnInfo.length; i++) {
+            // minimal/noblob image模式下，未记录的列按null处理
+            if (columns.get(i)) {
+                row[i] = buffer.nextValue(columnInfo[i].type, columnInfo[i].meta);
+            }
+        }
+        return row;
+    }
+
+    private void appendRow(String schema, String table, TableMapLogEvent.ColumnInfo[] columnInfo, byte op,
+                           Serializable[] row) throws IOException {
+        String key = schema + "." + table;
+        List<ColumnarColumn> columns = resolveColumns(key, schema, table, columnInfo);
+        ColumnarBatch batch = pendingBatches.get(key);
+        if (batch != null && (batch.getColumns() != columns || !sameShape(batch, columnInfo))) {
+            flushBatch(batch);
+            batch = null;
+        }
+        if (batch == null) {
+            int[] columnTypes = new int[columnInfo.length];
+            for (int i = 0; i < columnInfo.length; i++) {
+                columnTypes[i] = columnInfo[i].type;
+            }
+            batch = new ColumnarBatch(schema, table, columns, columnTypes, batchRows);
+            pendingBatches.put(key, batch);
+        }
+
+        batch.append(currentToken.getTso(), op, row);
+        if (batch.isFull()) {
+            flushBatch(batch);
+            pendingBatches.remove(key);
+        }
+    }
+
+    private List<ColumnarColumn> resolveColumns(String key, String schema, String table,
+                                                TableMapLogEvent.ColumnInfo[] columnInfo) {
+        List<ColumnarColumn> columns = columnsCache.get(key);
+        if (columns == null || columns.size() != columnInfo.length) {
+            columns = loadColumns(schema, table, columnInfo);
+            columnsCache.put(key, columns);
+        }
+        return columns;
+    }
+
+    /**
+     * 逻辑表的列数和binlog中的列数不一致时(比如回放历史数据时表结构已经发生了变化)，按binlog中的类型生成列名为col_序号的列
+     */
+    private List<ColumnarColumn> loadColumns(String schema, String table, TableMapLogEvent.ColumnInfo[] columnInfo) {
+        List<ColumnarColumn> columns = null;
+        try {
+            columns = schemaLoader.load(schema, table);
+        } catch (Throwable t) {
+            log.warn("load logic columns of {}.{} failed", schema, table, t);
+        }
+        if (columns == null || columns.size() != columnInfo.length) {
+            log.warn("logic columns of {}.{} do not match the {} columns in binlog, fall back to positional names",
+                schema, table, columnInfo.length);
+            columns = new ArrayList<>(columnInfo.length);
+            for (int i = 0; i < columnInfo.length; i++) {
+                columns.add(ColumnarColumn.fromBinlogType(i, columnInfo[i].type, columnInfo[i].meta));
+            }
+        }
+        return columns;
+    }
+
+    private boolean sameShape(ColumnarBatch batch, TableMapLogEvent.ColumnInfo[] columnInfo) {
+        if (batch.getColumnCount() != columnInfo.length) {
+            return false;
+        }
+        for (int i = 0; i < columnInfo.length; i++) {
+            if (batch.getColumnType(i) != columnInfo[i].type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void flushBatch(ColumnarBatch batch) throws IOException {
+        ensureWriter().write(batch);
+        batch.clear();
+    }
+
+    private ColumnarFileWriter ensureWriter() throws IOException {
+        if (currentWriter == null) {
+            String tso = currentToken.getTso();
+            currentWriter = new ColumnarFileWriter(new File(exportDir, buildFileName(tso)), WRITE_BUFFER_SIZE,
+                allocator);
+        }
+        return currentWriter;
+    }
+
+    /**
+     * 只在事务边界调用，保证每个文件包含完整的事务
+     */
+    private void tryRoll() throws IOException {
+        if (currentWriter == null) {
+            return;
+        }
+        boolean sizeExceeded = currentWriter.getSize() >= maxFileSize;
+        boolean timeExceeded = System.currentTimeMillis() - currentWriter.getCreateTime() >= rollIntervalMs;
+        if (!sizeExceeded && !timeExceeded) {
+            return;
+        }
+
+        Iterator<ColumnarBatch> iterator = pendingBatches.values().iterator();
+        while (iterator.hasNext()) {
+            currentWriter.write(iterator.next());
+            iterator.remove();
+        }
+        if (currentWriter.getRowCount() == 0) {
+            // 没有行变更的文件不登记索引，重启后从上一个文件的位点重新订阅即可
+            currentWriter.abort();
+        } else {
+            currentWriter.close();
+            // 索引中的文件名取自实际创建的目录，与cleanUnfinishedFiles的判断保持一致
+            ColumnarTsoIndex.Entry entry = new ColumnarTsoIndex.Entry(relativeFileName(currentWriter.getDir()),
+                currentWriter.getMinTso(), currentWriter.getMaxTso(), currentWriter.getRowCount());
+            tsoIndex.append(entry);
+            log.info("columnar file rolled for stream {}, entry {}", streamName, entry);
+        }
+        currentWriter = null;
+    }
+
+    private void abortCurrentFile() {
+        if (currentWriter != null) {
+            currentWriter.abort();
+            currentWriter = null;
+        }
+    }
+
+    /**
+     * 进程异常退出时，最后一个滚动周期的目录可能没有登记到索引，这些目录需要删除后重新导出
+     */
+    private void cleanUnfinishedFiles() {
+        File[] partitions = exportDir.listFiles(File::isDirectory);
+        if (partitions == null) {
+            return;
+        }
+        for (File partition : partitions) {
+            File[] rolls = partition.listFiles(File::isDirectory);
+            if (rolls == null) {
+                continue;
+            }
+            for (File roll : rolls) {
+                if (!tsoIndex.contains(relativeFileName(roll))) {
+                    log.warn("delete unfinished columnar dir {}", roll);
+                    if (!FileUtils.deleteQuietly(roll)) {
+                        throw new PolardbxException("delete unfinished columnar dir failed, " + roll);
+                    }
+                }
+            }
+        }
+    }
+
+    private LogEvent decode(byte[] data) throws IOException {
+        return decoder.decode(new LogBuffer(data, 0, data.length), logContext);
+    }
+
+    private int calcFlowControlWindowSize() {
+        if (isBinlogXStream(streamName)) {
+            double maxWindowSize = DynamicApplicationConfig.getDouble(BINLOG_X_TXN_STREAM_FLOW_CONTROL_WINDOW_MAX_SIZE);
+            int count = executionConfig.getSources().size() * executionConfig.getStreamNameSet().size();
+            return Double.valueOf(maxWindowSize / count).intValue();
+        } else {
+            return DynamicApplicationConfig.getInt(BINLOG_TXN_STREAM_FLOW_CONTROL_WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * 按tso的物理时间以小时为单位分区，每个滚动周期一个目录，目录名为创建时所在事务的tso
+     */
+    static String buildFileName(String tso) {
+        long physicalTime = CommonUtils.getTsoPhysicalTime(tso, TimeUnit.MILLISECONDS);
+        String partition = new SimpleDateFormat("yyyyMMddHH").format(new Date(physicalTime));
+        return partition + File.separator + tso;
+    }
+
+    /**
+     * 滚动周期目录相对于导出目录的路径，即索引中登记的文件名
+     */
+    static String relativeFileName(File file) {
+        return file.getParentFile().getName() + File.separator + file.getName();
+    }
+
+    private static boolean isRowsEvent(int eventType) {
+        return eventType == LogEvent.WRITE_ROWS_EVENT || eventType == LogEvent.WRITE_ROWS_EVENT_V1
+            || eventType == LogEvent.UPDATE_ROWS_EVENT || eventType == LogEvent.UPDATE_ROWS_EVENT_V1
+            || eventType == LogEvent.DELETE_ROWS_EVENT || eventType == LogEvent.DELETE_ROWS_EVENT_V1;
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.google.common.io.CountingOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Decimal256Vector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次滚动周期内导出的列存数据，对应导出目录下的一个子目录，每张表写一个Arrow IPC文件(schema.table.序号.arrow)，
+ * 字段为__tso、__op以及逻辑表的各列，可以直接被Spark、DuckDB、pyarrow等工具读取
+ * <p>
+ * Arrow文件内只能有一个schema，周期内表结构发生变化时结束当前文件，按新的列定义另起一个序号更大的文件。
+ * 只在事务边界处关闭，目录的TSO范围由写入的事务决定
+ * </p>
+ */
+@Slf4j
+public class ColumnarFileWriter implements Closeable {
+    public static final String FILE_SUFFIX = ".arrow";
+    public static final String FIELD_TSO = "__tso";
+    public static final String FIELD_OP = "__op";
+
+    @Getter
+    private final File dir;
+    @Getter
+    private final long createTime;
+    private final int bufferSize;
+    private final BufferAllocator allocator;
+    private final Map<String, TableFile> openFiles = new LinkedHashMap<>();
+    private final List<TableFile> finishedFiles = new ArrayList<>();
+    private int fileSeq;
+    @Getter
+    private String minTso;
+    @Getter
+    private String maxTso;
+    @Getter
+    private long rowCount;
+
+    public ColumnarFileWriter(File dir, int bufferSize, BufferAllocator parentAllocator) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("create columnar export dir failed, " + dir);
+        }
+        this.dir = dir;
+        this.createTime = System.currentTimeMillis();
+        this.bufferSize = bufferSize;
+        this.allocator = parentAllocator.newChildAllocator("columnar-" + dir.getName(), 0, Long.MAX_VALUE);
+    }
+
+    public void write(ColumnarBatch batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String key = batch.getSchema() + "." + batch.getTable();
+        TableFile tableFile = openFiles.get(key);
+        if (tableFile != null && !tableFile.columns.equals(batch.getColumns())) {
+            openFiles.remove(key);
+            finishedFiles.add(tableFile);
+            tableFile.finish();
+            tableFile = null;
+        }
+        if (tableFile == null) {
+            File file = new File(dir, key + "." + (fileSeq++) + FILE_SUFFIX);
+            tableFile = new TableFile(file, batch.getColumns(), bufferSize, allocator);
+            openFiles.put(key, tableFile);
+        }
+        tableFile.write(batch);
+        rowCount += batch.getRowCount();
+    }
+
+    /**
+     * 事务提交后登记事务的tso，用于确定文件的TSO范围
+     */
+    public void commit(String tso) {
+        if (minTso == null) {
+            minTso = tso;
+        }
+        maxTso = tso;
+    }
+
+    public long getSize() {
+        long size = 0;
+        for (TableFile file : finishedFiles) {
+            size += file.size();
+        }
+        for (TableFile file : openFiles.values()) {
+            size += file.size();
+        }
+        return size;
+    }
+
+    public List<File> getFiles() {
+        List<File> files = new ArrayList<>();
+        finishedFiles.forEach(f -> files.add(f.file));
+        openFiles.values().forEach(f -> files.add(f.file));
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Iterator<TableFile> iterator = openFiles.values().iterator();
+        while (iterator.hasNext()) {
+            TableFile file = iterator.next();
+            iterator.remove();
+            finishedFiles.add(file);
+            file.finish();
+        }
+        allocator.close();
+    }
+
+    public void abort() {
+        openFiles.values().forEach(TableFile::closeQuietly);
+        openFiles.clear();
+        allocator.close();
+        if (!FileUtils.deleteQuietly(dir)) {
+            log.warn("delete aborted columnar dir failed, {}", dir);
+        }
+    }
+
+    static void setValue(FieldVector vector, int row, ColumnarColumn column, Serializable value) {
+        if (value == null) {
+            return;
+        }
+        if (vector instanceof BigIntVector) {
+            ((BigIntVector) vector).setSafe(row, toLong(column, value));
+        } else if (vector instanceof IntVector) {
+            ((IntVector) vector).setSafe(row, (int) toLong(column, value));
+        } else if (vector instanceof SmallIntVector) {
+            ((SmallIntVector) vector).setSafe(row, (short) toLong(column, value));
+        } else if (vector instanceof TinyIntVector) {
+            ((TinyIntVector) vector).setSafe(row, (byte) toLong(column, value));
+        } else if (vector instanceof Float4Vector) {
+            ((Float4Vector) vector).setSafe(row, (float) toDouble(value));
+        } else if (vector instanceof Float8Vector) {
+            ((Float8Vector) vector).setSafe(row, toDouble(value));
+        } else if (vector instanceof DecimalVector) {
+            DecimalVector decimalVector = (DecimalVector) vector;
+            decimalVector.setSafe(row, toDecimal(column, value).setScale(decimalVector.getScale(),
+                RoundingMode.HALF_UP));
+        } else if (vector instanceof Decimal256Vector) {
+            Decimal256Vector decimalVector = (Decimal256Vector) vector;
+            decimalVector.setSafe(row, toDecimal(column, value).setScale(decimalVector.getScale(),
+                RoundingMode.HALF_UP));
+        } else if (vector instanceof VarBinaryVector) {
+            ((VarBinaryVector) vector).setSafe(row, toBytes(value));
+        } else {
+            ((VarCharVector) vector).setSafe(row, toBytes(value));
+        }
+    }
+
+    /**
+     * binlog中的整数按有符号解析，无符号列需要按列的位数还原
+     */
+    private static long toLong(ColumnarColumn column, Serializable value) {
+        long v = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+        int bits = column.integerBits();
+        if (column.isUnsigned() && v < 0 && bits < 64) {
+            v += 1L << bits;
+        }
+        return v;
+    }
+
+    private static double toDouble(Serializable value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+    }
+
+    private static BigDecimal toDecimal(ColumnarColumn column, Serializable value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            long v = ((Number) value).longValue();
+            if (column.isUnsigned() && v < 0) {
+                return new BigDecimal(BigInteger.valueOf(v).add(BigInteger.ONE.shiftLeft(64)));
+            }
+            return BigDecimal.valueOf(v);
+        } else {
+            return new BigDecimal(value.toString());
+        }
+    }
+
+    private static byte[] toBytes(Serializable value) {
+        return value instanceof byte[] ? (byte[]) value : value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class TableFile {
+        private final File file;
+        private final List<ColumnarColumn> columns;
+        private final FileOutputStream fileOutputStream;
+        private final CountingOutputStream out;
+        private final VectorSchemaRoot root;
+        private final ArrowFileWriter writer;
+
+        TableFile(File file, List<ColumnarColumn> columns, int bufferSize, BufferAllocator allocator)
+            throws IOException {
+            List<Field> fields = new ArrayList<>(columns.size() + 2);
+            fields.add(new Field(FIELD_TSO, FieldType.notNullable(ArrowType.Utf8.INSTANCE), null));
+            fields.add(new Field(FIELD_OP, FieldType.notNullable(new ArrowType.Int(8, true)), null));
+            columns.forEach(c -> fields.add(c.toField()));
+
+            this.file = file;
+            this.columns = columns;
+            this.fileOutputStream = new FileOutputStream(file);
+            this.out = new CountingOutputStream(new BufferedOutputStream(fileOutputStream, bufferSize));
+            this.root = VectorSchemaRoot.create(new Schema(fields), allocator);
+            this.writer = new ArrowFileWriter(root, null, Channels.newChannel(out));
+            this.writer.start();
+        }
+
+        void write(ColumnarBatch batch) throws IOException {
+            int rows = batch.getRowCount();
+            root.allocateNew();
+            VarCharVector tsoVector = (VarCharVector) root.getVector(0);
+            TinyIntVector opVector = (TinyIntVector) root.getVector(1);
+            for (int r = 0; r < rows; r++) {
+                tsoVector.setSafe(r, batch.getTso(r).getBytes(StandardCharsets.UTF_8));
+                opVector.setSafe(r, batch.getOp(r));
+            }
+            for (int c = 0; c < columns.size(); c++) {
+                FieldVector vector = root.getVector(c + 2);
+                ColumnarColumn column = columns.get(c);
+                for (int r = 0; r < rows; r++) {
+                    setValue(vector, r, column, batch.getValue(c, r));
+                }
+            }
+            root.setRowCount(rows);
+            writer.writeBatch();
+        }
+
+        long size() {
+            return out.getCount();
+        }
+
+        void finish() throws IOException {
+            try {
+                writer.end();
+                out.flush();
+                fileOutputStream.getFD().sync();
+            } finally {
+                writer.close();
+                root.close();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                writer.close();
+            } catch (Throwable t) {
+                log.warn("close columnar file failed, {}", file, t);
+            }
+            root.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.SpringContextHolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 从PolarDB-X的information_schema.columns加载逻辑表的列定义，按ordinal_position排序，和binlog中的列顺序一致
+ */
+public class ColumnarSchemaLoader {
+    private static final String QUERY_COLUMNS = "select column_name, data_type, column_type, numeric_precision, "
+        + "numeric_scale from information_schema.columns where table_schema = ? and table_name = ? "
+        + "order by ordinal_position";
+
+    public List<ColumnarColumn> load(String schema, String table) {
+        JdbcTemplate jdbcTemplate = SpringContextHolder.getObject("polarxJdbcTemplate");
+        return jdbcTemplate.query(QUERY_COLUMNS, (rs, rowNum) -> new ColumnarColumn(rs.getString(1),
+            rs.getString(2), rs.getString(3), rs.getInt(4), rs.getInt(5)), schema, table);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 列存导出文件的TSO范围索引，每个已完成的文件对应一行：fileName,minTso,maxTso,rowCount
+ * 索引中最后一个文件的maxTso即为导出位点，未登记到索引中的文件视为未完成的文件
+ */
+@Slf4j
+public class ColumnarTsoIndex {
+    public static final String INDEX_FILE_NAME = "columnar.index";
+    private static final String SEPARATOR = ",";
+
+    private final File indexFile;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public ColumnarTsoIndex(File exportDir) {
+        this.indexFile = new File(exportDir, INDEX_FILE_NAME);
+    }
+
+    public synchronized void load() throws IOException {
+        entries.clear();
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        boolean broken = false;
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                String[] parts = StringUtils.split(line, SEPARATOR);
+                if (parts.length != 4 || !StringUtils.isNumeric(parts[3])) {
+                    // 追加索引时进程退出，会留下残缺的最后一行
+                    log.warn("found broken line in columnar index file {}, line : {}", indexFile, line);
+                    broken = true;
+                    break;
+                }
+                entries.add(new Entry(parts[0], parts[1], parts[2], Long.parseLong(parts[3])));
+            }
+        }
+        if (broken) {
+            rewrite();
+        }
+    }
+
+    public synchronized void append(Entry entry) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write(entry.toLine().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        entries.add(entry);
+    }
+
+    public synchronized String getLastTso() {
+        return entries.isEmpty() ? "" : entries.get(entries.size() - 1).getMaxTso();
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public synchronized boolean contains(String fileName) {
+        return entries.stream().anyMatch(e -> e.getFileName().equals(fileName));
+    }
+
+    /**
+     * 返回TSO范围与[beginTso, endTso]有交集的所有文件
+     */
+    public synchronized List<Entry> lookup(String beginTso, String endTso) {
+        return entries.stream()
+            .filter(e -> e.getMaxTso().compareTo(beginTso) >= 0 && e.getMinTso().compareTo(endTso) <= 0)
+            .collect(Collectors.toList());
+    }
+
+    private void rewrite() throws IOException {
+        File tmpFile = new File(indexFile.getParentFile(), INDEX_FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            for (Entry entry : entries) {
+                out.write(entry.toLine().getBytes(StandardCharsets.UTF_8));
+            }
+            out.getFD().sync();
+        }
+        if (!tmpFile.renameTo(indexFile)) {
+            throw new IOException("rename columnar index file failed, " + tmpFile + " -> " + indexFile);
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Entry {
+        private final String fileName;
+        private final String minTso;
+        private final String maxTso;
+        private final long rowCount;
+
+        String toLine() {
+            return fileName + SEPARATOR + minTso + SEPARATOR + maxTso + SEPARATOR + rowCount + "\n";
+        }
+    }
+}
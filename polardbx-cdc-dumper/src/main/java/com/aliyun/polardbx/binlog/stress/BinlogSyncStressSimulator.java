@@ -0,0 +1,511 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.dumper.dump.logfile.BinlogFile;
+import com.aliyun.polardbx.binlog.dumper.dump.logfile.SyncBlockCodec;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.util.DirectByteOutput;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import com.google.protobuf.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * dumper主备复制(binlog sync)的压测，不依赖元数据库和网络：
+ * 预先生成一个逻辑binlog文件，master线程按CLIENT或BLOCK模式读取并组包，通过有界队列(模拟gRPC接收队列)交给slave线程，
+ * slave线程按LogFileCopier的方式写入本地BinlogFile。块的编解码使用SyncBlockCodec，写入使用BinlogFile
+ * <p>
+ * 1. rateMBps为0时，master不受限读取，输出吞吐和master、slave两侧每GB消耗的CPU时间 </br>
+ * 2. rateMBps大于0时，binlog按该速率生成，可读位置在事务结束时推进，每次slave写入后以
+ * (当前时间 - 该位置所在事务变为可读的时间)作为复制延迟，输出延迟的p50、p99和最大值 </br>
+ * 3. networkMBps大于0时，按发送的字节数限制master的发送速率，用于模拟跨机房的带宽
+ * </p>
+ * 参数：fileSize 文件大小(MB)，minRowSize/maxRowSize rows event大小范围，rowsPerTxn 每个事务的rows event个数，
+ * modes 压测的模式(CLIENT、BLOCK、BLOCK_COMPRESS，逗号分隔)，packetSize 包大小上限，readBufferSize CLIENT模式的读缓冲，
+ * queueSize 接收队列长度，rateMBps 写入速率，networkMBps 带宽，rounds 轮数(第一轮作为预热)，dir 临时文件目录
+ */
+public class BinlogSyncStressSimulator extends BaseStressSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(BinlogSyncStressSimulator.class);
+    private static final int EVENT_HEADER_LENGTH = 19;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    private static final String[] WORDS = {"alibaba", "polardbx", "hangzhou", "beijing", "shanghai", "order",
+        "payment", "refund", "user", "item", "shipped", "created", "closed", "pending", "normal", "vip"};
+
+    private static final DumpStream END = DumpStream.newBuilder().build();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !args[0].trim().isEmpty()) {
+            handleArgs(args[0]);
+        }
+        long fileSize = Long.parseLong(getValue("fileSize", "512")) << 20;
+        int minRowSize = Integer.parseInt(getValue("minRowSize", "128"));
+        int maxRowSize = Integer.parseInt(getValue("maxRowSize", "1024"));
+        int rowsPerTxn = Integer.parseInt(getValue("rowsPerTxn", "4"));
+        String[] modes = getValue("modes", "CLIENT,BLOCK,BLOCK_COMPRESS").split(",");
+        int packetSize = Integer.parseInt(getValue("packetSize", "1048576"));
+        int readBufferSize = Integer.parseInt(getValue("readBufferSize", "1048576"));
+        int queueSize = Integer.parseInt(getValue("queueSize", "64"));
+        long rate = Long.parseLong(getValue("rateMBps", "0")) << 20;
+        long bandwidth = Long.parseLong(getValue("networkMBps", "0")) << 20;
+        int rounds = Integer.parseInt(getValue("rounds", "3"));
+        File dir = new File(getValue("dir", System.getProperty("java.io.tmpdir")));
+
+        File source = new File(dir, "sync-stress-source.bin");
+        File target = new File(dir, "sync-stress-target.bin");
+        long[] txnEnds = buildSource(source, fileSize, minRowSize, maxRowSize, rowsPerTxn);
+        logger.info("source {} bytes, {} events, {} txns", source.length(),
+            txnEnds.length * (2 + 3L * rowsPerTxn), txnEnds.length);
+
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                for (String mode : modes) {
+                    Result result = new Simulation(mode.trim(), source, txnEnds, target, packetSize, readBufferSize,
+                        queueSize, rate, bandwidth).run();
+                    logger.info("round {}{} {}: {}", round, round == 1 ? "(warm up)" : "", mode.trim(), result);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(source.toPath());
+            Files.deleteIfExists(target.toPath());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 事务由BEGIN(query event)、每个rows event前的rows query和table map、rows event以及XID组成，
+     * rows event的内容由递增的整数、短字符串和随机数字组成，压缩率接近真实的业务数据
+     *
+     * @return 每个事务结束的位置
+     */
+    private static long[] buildSource(File file, long fileSize, int minRowSize, int maxRowSize, int rowsPerTxn)
+        throws IOException {
+        Random random = new Random(17);
+        long[] txnEnds = new long[1024];
+        int txnCount = 0;
+        long id = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            // 每个事务写完之后才判断是否刷盘，需要为一个完整的事务留出空间
+            int maxTxnSize = 256 + rowsPerTxn * (3 * EVENT_HEADER_LENGTH + 88 + maxRowSize);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE + maxTxnSize);
+            buffer.put(BinlogFile.BINLOG_FILE_HEADER);
+            long position = BinlogFile.BINLOG_FILE_HEADER.length;
+            int timestamp = (int) (System.currentTimeMillis() / 1000);
+            while (position < fileSize) {
+                position = putEvent(buffer, LogEvent.QUERY_EVENT, timestamp, position, 60, random, id);
+                for (int i = 0; i < rowsPerTxn; i++) {
+                    position = putEvent(buffer, LogEvent.ROWS_QUERY_LOG_EVENT, timestamp, position, 48, random, id);
+                    position = putEvent(buffer, LogEvent.TABLE_MAP_EVENT, timestamp, position, 40, random, id);
+                    int rowSize = minRowSize + random.nextInt(maxRowSize - minRowSize + 1);
+                    position = putEvent(buffer, LogEvent.WRITE_ROWS_EVENT, timestamp, position, rowSize, random,
+                        id++);
+                }
+                position = putEvent(buffer, LogEvent.XID_EVENT, timestamp, position, 12, random, id);
+                if (txnCount == txnEnds.length) {
+                    txnEnds = Arrays.copyOf(txnEnds, txnCount * 2);
+                }
+                txnEnds[txnCount++] = position;
+                if (buffer.position() >= WRITE_BUFFER_SIZE) {
+                    writeFully(channel, buffer);
+                }
+            }
+            writeFully(channel, buffer);
+        }
+        return Arrays.copyOf(txnEnds, txnCount);
+    }
+
+    private static long putEvent(ByteBuffer buffer, int eventType, int timestamp, long position, int bodySize,
+                                 Random random, long id) {
+        int length = EVENT_HEADER_LENGTH + bodySize;
+        long nextPosition = position + length;
+        putInt32(buffer, timestamp);
+        buffer.put((byte) eventType);
+        putInt32(buffer, 1);
+        putInt32(buffer, length);
+        putInt32(buffer, (int) nextPosition);
+        buffer.putShort((short) 0);
+        int end = buffer.position() + bodySize;
+        while (buffer.position() < end) {
+            int remaining = end - buffer.position();
+            int kind = random.nextInt(3);
+            if (kind == 0 && remaining >= 8) {
+                buffer.putLong(id);
+            } else if (kind == 1) {
+                byte[] word = WORDS[random.nextInt(WORDS.length)].getBytes();
+                buffer.put(word, 0, Math.min(word.length, remaining));
+            } else {
+                buffer.put((byte) ('0' + random.nextInt(10)));
+            }
+        }
+        return nextPosition;
+    }
+
+    private static void putInt32(ByteBuffer buffer, int value) {
+        buffer.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16)).put((byte) (value >> 24));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static class Simulation {
+        private final String mode;
+        private final File source;
+        private final long[] txnEnds;
+        private final File target;
+        private final int packetSize;
+        private final int readBufferSize;
+        private final BlockingQueue<DumpStream> queue;
+        private final long rate;
+        private final long bandwidth;
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        private long startNanos;
+        private long sourceSize;
+        private volatile long masterCpuNanos;
+        private volatile long wireBytes;
+        private volatile long packetCount;
+        private volatile Throwable masterError;
+
+        // slave线程使用
+        private byte[] contactBuffer = new byte[64 * 1024];
+        private int contactLength;
+        private long[] lagSamples = new long[1024];
+        private int lagCount;
+        private long lastDelay;
+
+        Simulation(String mode, File source, long[] txnEnds, File target, int packetSize, int readBufferSize,
+                   int queueSize, long rate, long bandwidth) {
+            this.mode = mode;
+            this.source = source;
+            this.txnEnds = txnEnds;
+            this.target = target;
+            this.packetSize = packetSize;
+            this.readBufferSize = readBufferSize;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.rate = rate;
+            this.bandwidth = bandwidth;
+        }
+
+        Result run() throws Exception {
+            sourceSize = source.length();
+            Files.deleteIfExists(target.toPath());
+            BinlogFile binlogFile = new BinlogFile(target, "rw", WRITE_BUFFER_SIZE, 1, false, null);
+            binlogFile.writeHeader();
+            SyncBlockCodec slaveCodec = new SyncBlockCodec(false, 0);
+
+            Thread master = new Thread(this::runMaster, "sync-stress-master");
+            startNanos = System.nanoTime();
+            master.start();
+            long slaveCpuBegin = threadMXBean.getCurrentThreadCpuTime();
+            try {
+                while (true) {
+                    DumpStream stream = queue.poll(1, TimeUnit.SECONDS);
+                    if (stream == null) {
+                        if (masterError != null) {
+                            throw new PolardbxException("master failed", masterError);
+                        }
+                        continue;
+                    }
+                    if (stream == END) {
+                        break;
+                    }
+                    if ("CLIENT".equals(mode)) {
+                        consume(binlogFile, DirectByteOutput.unsafeFetch(stream.getPayload()));
+                    } else {
+                        // 接收线程解码校验，写入线程按段写入，这里由同一个线程完成
+                        consumeBlock(binlogFile, slaveCodec.decode(stream), stream.getEventEndsList());
+                    }
+                    recordLag(binlogFile.writePointer());
+                }
+                binlogFile.flush();
+            } finally {
+                binlogFile.close();
+                slaveCodec.close();
+            }
+            long slaveCpuNanos = threadMXBean.getCurrentThreadCpuTime() - slaveCpuBegin;
+            long costNanos = System.nanoTime() - startNanos;
+            master.join();
+
+            if (target.length() != sourceSize) {
+                throw new PolardbxException("target size " + target.length() + " mismatch source size " + sourceSize);
+            }
+            return new Result(sourceSize, wireBytes, packetCount, costNanos, masterCpuNanos, slaveCpuNanos,
+                rate > 0 ? Arrays.copyOf(lagSamples, lagCount) : null);
+        }
+
+        private void runMaster() {
+            long cpuBegin = threadMXBean.getCurrentThreadCpuTime();
+            boolean block = !"CLIENT".equals(mode);
+            SyncBlockCodec codec = new SyncBlockCodec("BLOCK_COMPRESS".equals(mode), 4096);
+            ByteBuffer readBuffer = ByteBuffer.allocate(readBufferSize);
+            byte[] blockBuffer = new byte[packetSize];
+            int[] eventEnds = new int[4096];
+            long fp = BinlogFile.BINLOG_FILE_HEADER.length;
+            try (RandomAccessFile raf = new RandomAccessFile(source, "r")) {
+                FileChannel channel = raf.getChannel();
+                while (fp < sourceSize) {
+                    long end = readableEnd();
+                    if (fp >= end) {
+                        // dumper主库由cursor变化唤醒，这里按生成速率短暂等待
+                        LockSupport.parkNanos(100_000);
+                        continue;
+                    }
+                    DumpStream stream;
+                    if (block) {
+                        int readLength = (int) Math.min(packetSize, end - fp);
+                        readFully(channel, blockBuffer, readLength, fp);
+                        int offset = 0;
+                        int eventCount = 0;
+                        while (offset + EVENT_HEADER_LENGTH <= readLength) {
+                            int eventLength = readInt32(blockBuffer, offset + 9);
+                            if (offset + eventLength > readLength) {
+                                break;
+                            }
+                            offset += eventLength;
+                            if (eventCount == eventEnds.length) {
+                                eventEnds = Arrays.copyOf(eventEnds, eventCount * 2);
+                            }
+                            eventEnds[eventCount++] = offset;
+                        }
+                        if (eventCount == 0) {
+                            throw new PolardbxException("event at " + fp + " is larger than packet size " + packetSize);
+                        }
+                        fp += offset;
+                        stream = codec.encode(blockBuffer, offset, eventEnds, eventCount);
+                    } else {
+                        // 与BinlogSyncReader.nextSyncPacks一致，按读缓冲读取并拼接到包大小上限，不关心event边界
+                        ByteString pack = ByteString.EMPTY;
+                        while (fp < end && pack.size() < packetSize) {
+                            readBuffer.clear();
+                            readBuffer.limit((int) Math.min(readBufferSize, end - fp));
+                            int read = channel.read(readBuffer, fp);
+                            readBuffer.flip();
+                            pack = pack.concat(ByteString.copyFrom(readBuffer));
+                            fp += read;
+                        }
+                        stream = DumpStream.newBuilder().setPayload(pack).build();
+                    }
+                    throttle(stream.getPayload().size());
+                    queue.put(stream);
+                }
+                queue.put(END);
+            } catch (Throwable t) {
+                masterError = t;
+            } finally {
+                codec.close();
+                masterCpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuBegin;
+            }
+        }
+
+        /**
+         * dumper主库的cursor在事务提交后推进，这里按速率计算已经生成的字节数，取其中最后一个完整事务的结束位置
+         */
+        private long readableEnd() {
+            if (rate <= 0) {
+                return sourceSize;
+            }
+            long produced = (long) ((System.nanoTime() - startNanos) / 1e9 * rate);
+            int index = Arrays.binarySearch(txnEnds, produced);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index < 0 ? BinlogFile.BINLOG_FILE_HEADER.length : txnEnds[index];
+        }
+
+        private void throttle(int size) {
+            wireBytes += size;
+            packetCount++;
+            if (bandwidth <= 0) {
+                return;
+            }
+            long expectNanos = (long) (wireBytes * 1e9 / bandwidth);
+            long waitNanos = expectNanos - (System.nanoTime() - startNanos);
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+
+        /**
+         * 与LogFileCopier.consume一致：逐个解析event header，跨包的event先暂存，凑齐之后再写入
+         */
+        private void consume(BinlogFile binlogFile, byte[] packet) throws IOException {
+            int offset = 0;
+            if (contactLength > 0) {
+                if (contactLength < EVENT_HEADER_LENGTH) {
+                    int n = Math.min(EVENT_HEADER_LENGTH - contactLength, packet.length);
+                    appendContact(packet, 0, n);
+                    offset += n;
+                    if (contactLength < EVENT_HEADER_LENGTH) {
+                        return;
+                    }
+                }
+                int eventLength = readInt32(contactBuffer, 9);
+                int n = Math.min(eventLength - contactLength, packet.length - offset);
+                appendContact(packet, offset, n);
+                offset += n;
+                if (contactLength < eventLength) {
+                    return;
+                }
+                consumeSinglePacket(binlogFile, contactBuffer, 0, eventLength);
+                contactLength = 0;
+            }
+            while (packet.length - offset >= EVENT_HEADER_LENGTH) {
+                int eventLength = readInt32(packet, offset + 9);
+                if (packet.length - offset < eventLength) {
+                    break;
+                }
+                consumeSinglePacket(binlogFile, packet, offset, eventLength);
+                offset += eventLength;
+            }
+            appendContact(packet, offset, packet.length - offset);
+        }
+
+        private void appendContact(byte[] data, int offset, int length) {
+            if (contactLength + length > contactBuffer.length) {
+                contactBuffer = Arrays.copyOf(contactBuffer, Math.max(contactBuffer.length * 2,
+                    contactLength + length));
+            }
+            System.arraycopy(data, offset, contactBuffer, contactLength, length);
+            contactLength += length;
+        }
+
+        private void consumeSinglePacket(BinlogFile binlogFile, byte[] data, int offset, int length)
+            throws IOException {
+            if (data[offset + 4] == LogEvent.XID_EVENT) {
+                checkDelay(data, offset);
+            }
+            binlogFile.writeEventForSync(data, offset, length);
+        }
+
+        /**
+         * 与LogFileCopier.consumeBlock一致：只读取event type，按段整体写入，每段只校验最后一个event的end position，
+         * 只取最后一个XID计算延迟
+         */
+        private void consumeBlock(BinlogFile binlogFile, byte[] block, List<Integer> eventEnds) throws IOException {
+            int eventBegin = 0;
+            int lastEventBegin = -1;
+            int lastCommitBegin = -1;
+            for (int eventEnd : eventEnds) {
+                if (block[eventBegin + 4] == LogEvent.XID_EVENT) {
+                    lastCommitBegin = eventBegin;
+                }
+                lastEventBegin = eventBegin;
+                eventBegin = eventEnd;
+            }
+            binlogFile.checkPosition(readInt32(block, lastEventBegin + 13) & 0xffffffffL,
+                binlogFile.writePointer() + eventBegin);
+            binlogFile.writeData(block, 0, eventBegin);
+            if (lastCommitBegin >= 0) {
+                checkDelay(block, lastCommitBegin);
+            }
+        }
+
+        private void checkDelay(byte[] data, int offset) {
+            lastDelay = System.currentTimeMillis() - (readInt32(data, offset) & 0xffffffffL) * 1000;
+        }
+
+        private void recordLag(long position) {
+            if (rate <= 0) {
+                return;
+            }
+            // 该位置所在的事务结束之后才变为可读
+            int index = Arrays.binarySearch(txnEnds, position);
+            long txnEnd = txnEnds[index < 0 ? Math.min(-index - 1, txnEnds.length - 1) : index];
+            long readableNanos = (long) (txnEnd / (double) rate * 1e9);
+            long lagMicros = Math.max(0, (System.nanoTime() - startNanos - readableNanos) / 1000);
+            if (lagCount == lagSamples.length) {
+                lagSamples = Arrays.copyOf(lagSamples, lagCount * 2);
+            }
+            lagSamples[lagCount++] = lagMicros;
+        }
+    }
+
+    private static void readFully(FileChannel channel, byte[] buffer, int length, long position) throws IOException {
+        ByteBuffer dst = ByteBuffer.wrap(buffer, 0, length);
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, position + dst.position()) < 0) {
+                throw new PolardbxException("unexpected end of file @" + (position + dst.position()));
+            }
+        }
+    }
+
+    private static int readInt32(byte[] data, int offset) {
+        return (0xff & data[offset]) | ((0xff & data[offset + 1]) << 8) | ((0xff & data[offset + 2]) << 16)
+            | ((0xff & data[offset + 3]) << 24);
+    }
+
+    private static class Result {
+        private final long bytes;
+        private final long wireBytes;
+        private final long packetCount;
+        private final long costNanos;
+        private final long masterCpuNanos;
+        private final long slaveCpuNanos;
+        private final long[] lags;
+
+        Result(long bytes, long wireBytes, long packetCount, long costNanos, long masterCpuNanos, long slaveCpuNanos,
+               long[] lags) {
+            this.bytes = bytes;
+            this.wireBytes = wireBytes;
+            this.packetCount = packetCount;
+            this.costNanos = costNanos;
+            this.masterCpuNanos = masterCpuNanos;
+            this.slaveCpuNanos = slaveCpuNanos;
+            this.lags = lags;
+        }
+
+        @Override
+        public String toString() {
+            double gb = bytes / (double) (1 << 30);
+            StringBuilder sb = new StringBuilder();
+            sb.append(costNanos / 1000000).append(" ms, ")
+                .append(bytes * 1000000000L / costNanos >> 20).append(" MB/s, wire ")
+                .append(wireBytes >> 20).append(" MB in ").append(packetCount).append(" packets, master cpu ")
+                .append((long) (masterCpuNanos / 1e6 / gb)).append(" ms/GB, slave cpu ")
+                .append((long) (slaveCpuNanos / 1e6 / gb)).append(" ms/GB");
+            if (lags != null && lags.length > 0) {
+                Arrays.sort(lags);
+                sb.append(", lag p50 ").append(lags[lags.length / 2] / 1000.0)
+                    .append(" ms, p99 ").append(lags[(int) (lags.length * 0.99)] / 1000.0)
+                    .append(" ms, max ").append(lags[lags.length - 1] / 1000.0).append(" ms");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.format.BinlogBuilder;
+import com.aliyun.polardbx.binlog.format.FormatDescriptionEvent;
+import com.aliyun.polardbx.binlog.format.RowData;
+import com.aliyun.polardbx.binlog.format.RowEventBuilder;
+import com.aliyun.polardbx.binlog.format.TableMapEventBuilder;
+import com.aliyun.polardbx.binlog.format.field.Field;
+import com.aliyun.polardbx.binlog.format.field.MakeFieldFactory;
+import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
+import com.aliyun.polardbx.binlog.format.utils.BinlogEventType;
+import com.aliyun.polardbx.binlog.format.utils.BitMap;
+import com.aliyun.polardbx.binlog.format.utils.EventGenerator;
+import com.aliyun.polardbx.rpc.cdc.BinlogEvent;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BinlogEventCacheTest {
+    private static final String FILE = "binlog.000001";
+    private static final long SERVER_ID = 1;
+    private static final int TIMESTAMP = 1669707543;
+    private static final long TABLE_ID = 10;
+
+    private long position = BinlogFile.BINLOG_FILE_HEADER.length;
+
+    @Test
+    public void testShowEventsFromCache() throws Exception {
+        BinlogEventCache cache = new BinlogEventCache(64 * 1024 * 1024);
+        cache.start();
+        appendFormatDesc(cache);
+        for (int i = 1; i <= 3; i++) {
+            appendTxn(cache, i, tso(i));
+        }
+        cache.flush();
+
+        BinlogEventCache.Batch batch = cache.read(FILE, 0, 0, 100, position);
+        List<BinlogEvent> events = batch.getEvents();
+        Assert.assertTrue(batch.isEnd());
+        Assert.assertEquals(16, events.size());
+        Assert.assertEquals(position, batch.getNextPos());
+        Assert.assertEquals(LogEvent.getTypeName(LogEvent.FORMAT_DESCRIPTION_EVENT), events.get(0).getEventType());
+        Assert.assertEquals("BEGIN", events.get(1).getInfo());
+        Assert.assertEquals("table_id: 10 (db1.t1)", events.get(2).getInfo());
+        Assert.assertEquals("table_id: 10 flags: STMT_END_F", events.get(3).getInfo());
+        Assert.assertEquals("COMMIT /* xid=1 */", events.get(4).getInfo());
+        Assert.assertEquals("CTS::" + tso(1), events.get(5).getInfo());
+        for (int i = 0; i < events.size() - 1; i++) {
+            Assert.assertEquals(events.get(i + 1).getPos(), events.get(i).getEndLogPos());
+            Assert.assertEquals(SERVER_ID, events.get(i).getServerId());
+        }
+
+        // 从指定位点开始，跳过两个event之后读取两个
+        batch = cache.read(FILE, events.get(6).getPos(), 2, 2, Long.MAX_VALUE);
+        Assert.assertEquals(Arrays.asList(events.get(8), events.get(9)), batch.getEvents());
+        Assert.assertFalse(batch.isEnd());
+        Assert.assertEquals(events.get(10).getPos(), batch.getNextPos());
+
+        // 只返回limitPos之前的event
+        batch = cache.read(FILE, 4, 0, 100, events.get(6).getPos());
+        Assert.assertEquals(6, batch.getEvents().size());
+        Assert.assertTrue(batch.isEnd());
+
+        // 文件还没有rotate，缓存末尾之后可能还有未缓存的event，需要继续从文件中读取
+        batch = cache.read(FILE, 4, 0, 100, Long.MAX_VALUE);
+        Assert.assertEquals(16, batch.getEvents().size());
+        Assert.assertFalse(batch.isEnd());
+        Assert.assertNull(cache.read(FILE, 4, 20, 100, Long.MAX_VALUE));
+
+        // 不是event起始位点或者文件不在缓存中，需要回退到读文件
+        Assert.assertNull(cache.read(FILE, events.get(1).getPos() + 1, 0, 100, Long.MAX_VALUE));
+        Assert.assertNull(cache.read("binlog.000002", 4, 0, 100, Long.MAX_VALUE));
+        Assert.assertEquals(4, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        cache.stop();
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        BinlogEventCache cache = new BinlogEventCache(64 * 1024 * 1024);
+        cache.start();
+        appendFormatDesc(cache);
+        for (int i = 1; i <= 3; i++) {
+            appendTxn(cache, i, tso(i));
+        }
+        cache.flush();
+
+        List<BinlogEventCache.SearchResult> results = cache.search(
+            BinlogEventCache.SearchCondition.builder().beginTso(tso(2)).endTso(tso(2)).build(), f -> position);
+        Assert.assertEquals(5, results.size());
+        Assert.assertEquals("BEGIN", results.get(0).getEvent().getInfo());
+        for (BinlogEventCache.SearchResult result : results) {
+            Assert.assertEquals(tso(2), result.getTso());
+        }
+
+        results = cache.search(BinlogEventCache.SearchCondition.builder().schema("DB1").table("t1")
+            .eventType(LogEvent.TABLE_MAP_EVENT).limit(2).build(), f -> position);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("db1", results.get(0).getSchema());
+        Assert.assertEquals("t1", results.get(1).getTable());
+
+        // 只返回可读边界之前的event
+        long limitPos = results.get(1).getEvent().getPos();
+        results = cache.search(BinlogEventCache.SearchCondition.builder().eventType(LogEvent.TABLE_MAP_EVENT)
+            .build(), f -> limitPos);
+        Assert.assertEquals(1, results.size());
+        cache.stop();
+    }
+
+    @Test
+    public void testEvictAndReset() throws Exception {
+        BinlogEventCache cache = new BinlogEventCache(64 * 1024 * 1024);
+        cache.start();
+        appendFormatDesc(cache);
+        appendTxn(cache, 1, tso(1));
+
+        // 位点不连续时，之前缓存的内容不能再用于定位
+        position += 100;
+        appendTxn(cache, 2, tso(2));
+        cache.flush();
+        Assert.assertNull(cache.read(FILE, 4, 0, 100, Long.MAX_VALUE));
+        Assert.assertEquals(5, cache.getEventCount());
+
+        cache.stop();
+
+        BinlogEventCache small = new BinlogEventCache(1);
+        small.start();
+        position = BinlogFile.BINLOG_FILE_HEADER.length;
+        appendFormatDesc(small);
+        appendTxn(small, 1, tso(1));
+        small.flush();
+        Assert.assertEquals(0, small.getEventCount());
+        Assert.assertEquals(0, small.getEstimatedBytes());
+        Assert.assertNull(small.read(FILE, 4, 0, 100, Long.MAX_VALUE));
+        small.stop();
+    }
+
+    private void appendFormatDesc(BinlogEventCache cache) throws Exception {
+        append(cache, build(new FormatDescriptionEvent((short) 4, "5.7.14-AliSQL-X-Cluster-1.6.1.2", SERVER_ID)));
+    }
+
+    private void appendTxn(BinlogEventCache cache, long xid, String tso) throws Exception {
+        append(cache, EventGenerator.makeBegin(TIMESTAMP, SERVER_ID, 0));
+
+        List<Field> fields = Collections.singletonList(MakeFieldFactory.makeField("int(11)", "1", "utf8", true,
+            false));
+        TableMapEventBuilder tableMap = new TableMapEventBuilder(TIMESTAMP, SERVER_ID, TABLE_ID, "db1", "t1", "utf8");
+        tableMap.setFieldList(fields);
+        append(cache, build(tableMap));
+
+        RowEventBuilder rows = new RowEventBuilder(TABLE_ID, 1, BinlogEventType.WRITE_ROWS_EVENT, TIMESTAMP,
+            SERVER_ID);
+        rows.setColumnsBitMap(new BitMap(1, true));
+        RowData rowData = new RowData();
+        rowData.setBiFieldList(fields);
+        rowData.setBiNullBitMap(new BitMap(1));
+        rows.addRowData(rowData);
+        append(cache, build(rows));
+
+        append(cache, EventGenerator.makeCommit(TIMESTAMP, SERVER_ID, xid, 0));
+        append(cache, EventGenerator.makeMarkEvent(TIMESTAMP, SERVER_ID, "CTS::" + tso, 0));
+    }
+
+    private Pair<byte[], Integer> build(BinlogBuilder builder) throws Exception {
+        AutoExpandBuffer buffer = new AutoExpandBuffer(1024, 1024);
+        builder.write(buffer);
+        return Pair.of(Arrays.copyOf(buffer.toBytes(), buffer.size()), buffer.size());
+    }
+
+    private void append(BinlogEventCache cache, Pair<byte[], Integer> event) {
+        int length = event.getRight();
+        EventGenerator.updatePos(event.getLeft(), position + length);
+        EventGenerator.updateChecksum(event.getLeft(), 0, length);
+        cache.append(FILE, position, event.getLeft(), 0, length);
+        position += length;
+    }
+
+    private static String tso(int seq) {
+        return String.format("69915008754345575041611689107587022848000000000000%04d", seq);
+    }
+}
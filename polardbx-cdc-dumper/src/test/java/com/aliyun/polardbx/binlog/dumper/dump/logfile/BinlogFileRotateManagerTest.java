@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.BinlogFileUtil;
+import com.aliyun.polardbx.binlog.domain.Cursor;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class BinlogFileRotateManagerTest {
+    private File dir;
+
+    @Before
+    public void before() throws IOException {
+        dir = Files.createTempDirectory("binlog_rotate").toFile();
+    }
+
+    @After
+    public void after() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testStageAndTake() throws Exception {
+        BinlogFileRotateManager manager = new BinlogFileRotateManager(dir.getAbsolutePath(), 4096, 1024, false, "test");
+        manager.prepareNext("binlog.000001");
+
+        BinlogFileRotateManager.StagedFile stagedFile = takeWhenReady(manager, "binlog.000002");
+        Assert.assertNotNull(stagedFile);
+        Assert.assertTrue(stagedFile.getFile().exists());
+        Assert.assertEquals(4096, stagedFile.getFile().length());
+        Assert.assertEquals(1024, stagedFile.getWriteBuffer().capacity());
+        // 预备文件对binlog文件列表不可见
+        Assert.assertFalse(BinlogFileUtil.isBinlogFile(stagedFile.getFile().getName()));
+
+        File target = new File(dir, "binlog.000002");
+        Files.move(stagedFile.getFile().toPath(), target.toPath());
+        BinlogFile binlogFile = new BinlogFile(target, stagedFile.getRaf(), stagedFile.getWriteBuffer(), 1, null);
+        binlogFile.writeHeader();
+        binlogFile.close();
+        // 关闭时截断到实际写入的位置
+        Assert.assertEquals(BinlogFile.BINLOG_FILE_HEADER.length, target.length());
+        manager.stop();
+    }
+
+    @Test
+    public void testTruncateUnwrittenTail() throws Exception {
+        BinlogFileRotateManager manager = new BinlogFileRotateManager(dir.getAbsolutePath(), 4096, 1024, false, "test");
+        manager.prepareNext("binlog.000001");
+        BinlogFileRotateManager.StagedFile stagedFile = takeWhenReady(manager, "binlog.000002");
+        Assert.assertNotNull(stagedFile);
+
+        // 模拟写入文件头后异常退出，没有执行close，文件末尾残留预分配的区域
+        File target = new File(dir, "binlog.000002");
+        Files.move(stagedFile.getFile().toPath(), target.toPath());
+        BinlogFile binlogFile = new BinlogFile(target, stagedFile.getRaf(), stagedFile.getWriteBuffer(), 1, null);
+        binlogFile.writeHeader();
+        stagedFile.getRaf().close();
+        Assert.assertEquals(4096, target.length());
+
+        BinlogFile recovered = new BinlogFile(target, "rw", 1024, 1, false, null);
+        BinlogFile.SeekResult seekResult = recovered.seekLastTso(0);
+        Assert.assertEquals("", seekResult.getLastTso());
+        recovered.truncateUnwrittenTail();
+        recovered.close();
+        Assert.assertEquals(BinlogFile.BINLOG_FILE_HEADER.length, target.length());
+        manager.stop();
+    }
+
+    @Test
+    public void testMismatchedNameDiscarded() throws Exception {
+        BinlogFileRotateManager manager = new BinlogFileRotateManager(dir.getAbsolutePath(), 4096, 1024, false, "test");
+        manager.prepareNext("binlog.000001");
+        Assert.assertNull(takeWhenReady(manager, "binlog.000003"));
+        manager.stop();
+
+        // 重新启动时清理残留的预备文件
+        new BinlogFileRotateManager(dir.getAbsolutePath(), 4096, 1024, false, "test").stop();
+        Thread.sleep(500);
+        Assert.assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void testReadableSize() {
+        LogFileManager logFileManager = new LogFileManager();
+        logFileManager.setLatestFileCursor(new Cursor("binlog.000002", 120L));
+        // 正在写入的文件以cursor为边界，已经rotate的文件以文件长度为边界，还未开始写入的文件不可读
+        Assert.assertEquals(120, logFileManager.getReadableSize("binlog.000002", 4096));
+        Assert.assertEquals(500, logFileManager.getReadableSize("binlog.000001", 500));
+        Assert.assertEquals(0, logFileManager.getReadableSize("binlog.000003", 4096));
+    }
+
+    private BinlogFileRotateManager.StagedFile takeWhenReady(BinlogFileRotateManager manager, String fileName)
+        throws InterruptedException {
+        Thread.sleep(500);
+        return manager.take(fileName);
+    }
+}
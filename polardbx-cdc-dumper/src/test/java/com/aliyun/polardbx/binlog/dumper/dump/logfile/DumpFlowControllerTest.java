@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ **/
+public class DumpFlowControllerTest {
+
+    @Test
+    public void testGrowWhenNoStall() {
+        DumpFlowController controller = new DumpFlowController(true, 1024, 8192, 50);
+        Assert.assertEquals(1024, controller.getPacketSize());
+        for (int i = 0; i < 100; i++) {
+            controller.onSent(controller.getPacketSize());
+        }
+        Assert.assertEquals(8192, controller.getPacketSize());
+    }
+
+    @Test
+    public void testShrinkWhenStall() throws InterruptedException {
+        DumpFlowController controller = new DumpFlowController(true, 1024, 1024 * 1024, 10);
+        for (int i = 0; i < 100; i++) {
+            controller.onSent(controller.getPacketSize());
+        }
+        Assert.assertEquals(1024 * 1024, controller.getPacketSize());
+
+        // 下游消费很慢，发送少量数据之后长时间不可写
+        controller.onSent(2048);
+        Thread.sleep(100);
+        controller.onStall(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertTrue(controller.getPacketSize() < 1024 * 1024);
+        Assert.assertTrue(controller.getPacketSize() >= 1024);
+        Assert.assertTrue(controller.getRttMs() >= 100);
+    }
+
+    @Test
+    public void testNotAdaptive() {
+        DumpFlowController controller = new DumpFlowController(false, 1024, 8192, 50);
+        Assert.assertEquals(8192, controller.getPacketSize());
+        controller.onSent(100);
+        controller.onStall(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(8192, controller.getPacketSize());
+    }
+}
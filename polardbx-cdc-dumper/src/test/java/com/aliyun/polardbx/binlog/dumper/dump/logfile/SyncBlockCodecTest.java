@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.logfile;
+
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SyncBlockCodecTest {
+
+    @Test
+    public void testCompressedRoundTrip() throws Exception {
+        byte[] data = new byte[8192];
+        Arrays.fill(data, (byte) 7);
+        int[] eventEnds = new int[] {4096, 8192};
+
+        SyncBlockCodec encoder = new SyncBlockCodec(true, 1024);
+        DumpStream stream = DumpStream.parseFrom(encoder.encode(data, data.length, eventEnds, 2).toByteArray());
+        Assert.assertEquals(data.length, stream.getRawLength());
+        Assert.assertTrue(stream.getPayload().size() < data.length);
+        Assert.assertEquals(Arrays.asList(4096, 8192), stream.getEventEndsList());
+
+        SyncBlockCodec decoder = new SyncBlockCodec(false, 0);
+        Assert.assertArrayEquals(data, decoder.decode(stream));
+        encoder.close();
+        decoder.close();
+    }
+
+    @Test
+    public void testIncompressibleBlockSentRaw() {
+        byte[] data = new byte[2048];
+        new Random(1).nextBytes(data);
+
+        SyncBlockCodec codec = new SyncBlockCodec(true, 1024);
+        DumpStream stream = codec.encode(data, 1000, new int[] {600, 1000}, 2);
+        Assert.assertEquals(0, stream.getRawLength());
+        Assert.assertEquals(1000, stream.getPayload().size());
+        Assert.assertArrayEquals(Arrays.copyOf(data, 1000), codec.decode(stream));
+        codec.close();
+    }
+
+    @Test(expected = PolardbxException.class)
+    public void testChecksumMismatch() {
+        byte[] data = new byte[100];
+        SyncBlockCodec codec = new SyncBlockCodec(false, 0);
+        DumpStream stream = codec.encode(data, data.length, new int[] {100}, 1);
+        codec.decode(stream.toBuilder().setChecksum(stream.getChecksum() + 1).build());
+    }
+
+    @Test(expected = PolardbxException.class)
+    public void testEventEndsMismatch() {
+        byte[] data = new byte[100];
+        SyncBlockCodec codec = new SyncBlockCodec(false, 0);
+        codec.decode(codec.encode(data, data.length, new int[] {60}, 1));
+    }
+}
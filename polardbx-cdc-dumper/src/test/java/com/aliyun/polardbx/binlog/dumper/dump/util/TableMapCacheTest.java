@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.dump.util;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.format.RowData;
+import com.aliyun.polardbx.binlog.format.RowEventBuilder;
+import com.aliyun.polardbx.binlog.format.TableMapEventBuilder;
+import com.aliyun.polardbx.binlog.format.field.Field;
+import com.aliyun.polardbx.binlog.format.field.MakeFieldFactory;
+import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
+import com.aliyun.polardbx.binlog.format.utils.BinlogEventType;
+import com.aliyun.polardbx.binlog.format.utils.BitMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.aliyun.polardbx.binlog.format.utils.BinlogGenerateUtil.getTableIdLength;
+
+public class TableMapCacheTest {
+    private static final String SCHEMA = "d1";
+
+    @Test
+    public void testTableIdMapping() throws Exception {
+        TableIdManager tableIdManager = new TableIdManager(0, true);
+        TableMapCache cache = new TableMapCache(tableIdManager);
+        cache.beginTxn();
+
+        // 不同DN上的不同表使用了相同的源tableId
+        byte[] tm1 = tableMap(7, "t1", "int(11)");
+        byte[] rows1 = rows(7, 1, true);
+        byte[] tm2 = tableMap(7, "t2", "int(11)");
+        byte[] rows2 = rows(7, 1, true);
+        rewrite(cache, tm1, "t1");
+        rewrite(cache, rows1, "t1");
+        rewrite(cache, tm2, "t2");
+        rewrite(cache, rows2, "t2");
+        Assert.assertEquals(readTableId(tm1), readTableId(rows1));
+        Assert.assertEquals(readTableId(tm2), readTableId(rows2));
+        Assert.assertNotEquals(readTableId(rows1), readTableId(rows2));
+        Assert.assertEquals(tableIdManager.getTableId(SCHEMA, "t1"), readTableId(rows1));
+
+        // 列定义发生变化之后分配新的tableId
+        cache.beginTxn();
+        byte[] tm3 = tableMap(7, "t1", "bigint(20)");
+        rewrite(cache, tm3, "t1");
+        Assert.assertNotEquals(readTableId(tm1), readTableId(tm3));
+        Assert.assertEquals(readTableId(tm3), tableIdManager.getTableId(SCHEMA, "t1"));
+    }
+
+    private void rewrite(TableMapCache cache, byte[] data, String table) {
+        cache.rewrite(SCHEMA, table, data[LogEvent.EVENT_TYPE_OFFSET], data);
+    }
+
+    private byte[] tableMap(long tableId, String table, String columnType) throws Exception {
+        TableMapEventBuilder builder = new TableMapEventBuilder(1, 1, tableId, SCHEMA, table, "utf8");
+        builder.setFieldList(fields(columnType));
+        return write(builder::write);
+    }
+
+    private byte[] rows(long tableId, int value, boolean statementEnd) throws Exception {
+        RowEventBuilder builder = new RowEventBuilder(tableId, 1, BinlogEventType.WRITE_ROWS_EVENT, 1, 1);
+        builder.set_flags(statementEnd ? RowEventBuilder.ROW_FLAG_END_STATMENT : 0);
+        builder.setColumnsBitMap(new BitMap(1, true));
+        RowData rowData = new RowData();
+        rowData.setBiFieldList(fields("int(11)", String.valueOf(value)));
+        rowData.setBiNullBitMap(new BitMap(1));
+        builder.addRowData(rowData);
+        return write(builder::write);
+    }
+
+    private List<Field> fields(String columnType) {
+        return fields(columnType, "1");
+    }
+
+    private List<Field> fields(String columnType, String value) {
+        List<Field> fields = new ArrayList<>();
+        fields.add(MakeFieldFactory.makeField(columnType, value, "utf8", true, false));
+        return fields;
+    }
+
+    private byte[] write(EventWriter writer) throws Exception {
+        AutoExpandBuffer buffer = new AutoExpandBuffer(1024, 1024);
+        writer.write(buffer);
+        return Arrays.copyOf(buffer.toBytes(), buffer.size());
+    }
+
+    private long readTableId(byte[] data) {
+        long value = 0;
+        for (int i = 0; i < getTableIdLength(); i++) {
+            value |= (data[19 + i] & 0xffL) << (i * 8);
+        }
+        return value;
+    }
+
+    private interface EventWriter {
+        int write(AutoExpandBuffer buffer) throws Exception;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.CommonUtils;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class ColumnarExporterTest {
+    private static final String TSO_1 = "688404571458535020816213454254505410560000000000000000";
+    private static final String TSO_2 = "688404571458535020816213454254505410570000000000000000";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBuildFileName() {
+        String partition = new SimpleDateFormat("yyyyMMddHH")
+            .format(new Date(CommonUtils.getTsoPhysicalTime(TSO_1, TimeUnit.MILLISECONDS)));
+        Assert.assertEquals(partition + File.separator + TSO_1, ColumnarExporter.buildFileName(TSO_1));
+    }
+
+    /**
+     * 目录创建时所在事务的tso可能与第一个提交的事务不同，索引中登记的目录名必须与磁盘上的目录一致
+     */
+    @Test
+    public void testIndexedFileNameMatchesFile() throws IOException {
+        String fileName = ColumnarExporter.buildFileName(TSO_1);
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+            ColumnarFileWriter writer = new ColumnarFileWriter(new File(folder.getRoot(), fileName), 1024,
+                allocator);
+            writer.commit(TSO_2);
+            writer.close();
+            Assert.assertEquals(fileName, ColumnarExporter.relativeFileName(writer.getDir()));
+
+            ColumnarTsoIndex index = new ColumnarTsoIndex(folder.getRoot());
+            index.load();
+            index.append(new ColumnarTsoIndex.Entry(ColumnarExporter.relativeFileName(writer.getDir()),
+                writer.getMinTso(), writer.getMaxTso(), writer.getRowCount()));
+            File[] dirs = new File(folder.getRoot(), fileName).getParentFile().listFiles(File::isDirectory);
+            Assert.assertNotNull(dirs);
+            Assert.assertEquals(1, dirs.length);
+            Assert.assertTrue(index.contains(ColumnarExporter.relativeFileName(dirs[0])));
+        }
+    }
+}
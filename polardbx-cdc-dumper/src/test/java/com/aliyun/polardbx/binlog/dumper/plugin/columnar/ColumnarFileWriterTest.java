@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.dumper.plugin.columnar;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ColumnarFileWriterTest {
+    private static final String TSO_1 = "688404571458535020816213454254505410560000000000000000";
+    private static final String TSO_2 = "688404571458535020816213454254505410570000000000000000";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        List<ColumnarColumn> columns = Arrays.asList(
+            new ColumnarColumn("id", "bigint", "bigint(20)", 19, 0),
+            new ColumnarColumn("name", "varchar", "varchar(32)", 0, 0),
+            new ColumnarColumn("data", "blob", "blob", 0, 0),
+            new ColumnarColumn("flag", "tinyint", "tinyint(3) unsigned", 3, 0),
+            new ColumnarColumn("price", "decimal", "decimal(10,2)", 10, 2));
+        int[] types = new int[] {LogEvent.MYSQL_TYPE_LONGLONG, LogEvent.MYSQL_TYPE_VARCHAR, LogEvent.MYSQL_TYPE_BLOB,
+            LogEvent.MYSQL_TYPE_TINY, LogEvent.MYSQL_TYPE_NEWDECIMAL};
+        ColumnarBatch batch = new ColumnarBatch("d1", "t1", columns, types, 4);
+        batch.append(TSO_1, ColumnarBatch.OP_INSERT,
+            new Serializable[] {1L, "a", new byte[] {1, 2}, -1, new BigDecimal("1.5")});
+        batch.append(TSO_1, ColumnarBatch.OP_UPDATE_BEFORE, new Serializable[] {2L, null, null, null, null});
+        batch.append(TSO_2, ColumnarBatch.OP_UPDATE_AFTER,
+            new Serializable[] {2L, "b", new byte[0], 7, new BigDecimal("2.25")});
+
+        File dir = new File(folder.getRoot(), ColumnarExporter.buildFileName(TSO_1));
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+            ColumnarFileWriter writer = new ColumnarFileWriter(dir, 1024, allocator);
+            writer.write(batch);
+            writer.commit(TSO_1);
+            writer.commit(TSO_2);
+            writer.close();
+            Assert.assertEquals(TSO_1, writer.getMinTso());
+            Assert.assertEquals(TSO_2, writer.getMaxTso());
+            Assert.assertEquals(3, writer.getRowCount());
+            Assert.assertEquals(1, writer.getFiles().size());
+            File file = writer.getFiles().get(0);
+            Assert.assertEquals("d1.t1.0" + ColumnarFileWriter.FILE_SUFFIX, file.getName());
+            Assert.assertEquals(file.length(), writer.getSize());
+
+            try (FileInputStream in = new FileInputStream(file);
+                ArrowFileReader reader = new ArrowFileReader(in.getChannel(), allocator)) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                List<Field> fields = root.getSchema().getFields();
+                Assert.assertEquals(ColumnarFileWriter.FIELD_TSO, fields.get(0).getName());
+                Assert.assertEquals(ColumnarFileWriter.FIELD_OP, fields.get(1).getName());
+                Assert.assertEquals("id", fields.get(2).getName());
+                Assert.assertEquals(new ArrowType.Int(64, true), fields.get(2).getType());
+                Assert.assertEquals(ArrowType.Utf8.INSTANCE, fields.get(3).getType());
+                Assert.assertEquals(ArrowType.Binary.INSTANCE, fields.get(4).getType());
+                Assert.assertEquals(new ArrowType.Int(16, true), fields.get(5).getType());
+                Assert.assertEquals("tinyint(3) unsigned",
+                    fields.get(5).getMetadata().get(ColumnarColumn.METADATA_MYSQL_TYPE));
+                Assert.assertEquals(new ArrowType.Decimal(10, 2, 128), fields.get(6).getType());
+
+                Assert.assertTrue(reader.loadNextBatch());
+                Assert.assertEquals(3, root.getRowCount());
+                Assert.assertEquals(TSO_2, root.getVector(0).getObject(2).toString());
+                Assert.assertEquals((byte) ColumnarBatch.OP_UPDATE_AFTER, root.getVector(1).getObject(2));
+                Assert.assertEquals(2L, root.getVector(2).getObject(1));
+                Assert.assertTrue(root.getVector(3).isNull(1));
+                Assert.assertEquals("b", root.getVector(3).getObject(2).toString());
+                Assert.assertArrayEquals(new byte[] {1, 2}, (byte[]) root.getVector(4).getObject(0));
+                Assert.assertEquals((short) 255, root.getVector(5).getObject(0));
+                Assert.assertEquals(new BigDecimal("1.50"), root.getVector(6).getObject(0));
+                Assert.assertFalse(reader.loadNextBatch());
+            }
+        }
+    }
+
+    @Test
+    public void testSchemaChangeStartsNewFile() throws IOException {
+        int[] types = new int[] {LogEvent.MYSQL_TYPE_LONGLONG};
+        ColumnarBatch first = new ColumnarBatch("d1", "t1",
+            Collections.singletonList(new ColumnarColumn("id", "bigint", "bigint(20)", 19, 0)), types, 4);
+        first.append(TSO_1, ColumnarBatch.OP_INSERT, new Serializable[] {1L});
+        ColumnarBatch second = new ColumnarBatch("d1", "t1",
+            Collections.singletonList(new ColumnarColumn("pk", "bigint", "bigint(20)", 19, 0)), types, 4);
+        second.append(TSO_2, ColumnarBatch.OP_INSERT, new Serializable[] {2L});
+
+        File dir = new File(folder.getRoot(), ColumnarExporter.buildFileName(TSO_1));
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+            ColumnarFileWriter writer = new ColumnarFileWriter(dir, 1024, allocator);
+            writer.write(first);
+            writer.write(second);
+            writer.close();
+            Assert.assertEquals(2, writer.getFiles().size());
+            Assert.assertEquals("d1.t1.1" + ColumnarFileWriter.FILE_SUFFIX, writer.getFiles().get(1).getName());
+
+            ColumnarFileWriter aborted = new ColumnarFileWriter(new File(folder.getRoot(), "aborted"), 1024,
+                allocator);
+            aborted.write(first);
+            aborted.abort();
+            Assert.assertFalse(new File(folder.getRoot(), "aborted").exists());
+        }
+    }
+
+    @Test
+    public void testTsoIndex() throws IOException {
+        ColumnarTsoIndex index = new ColumnarTsoIndex(folder.getRoot());
+        index.load();
+        Assert.assertEquals("", index.getLastTso());
+
+        index.append(new ColumnarTsoIndex.Entry("f1", TSO_1, TSO_1, 10));
+        index.append(new ColumnarTsoIndex.Entry("f2", TSO_2, TSO_2, 20));
+        try (FileOutputStream out =
+                 new FileOutputStream(new File(folder.getRoot(), ColumnarTsoIndex.INDEX_FILE_NAME), true)) {
+            out.write("f3,6884".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ColumnarTsoIndex reloaded = new ColumnarTsoIndex(folder.getRoot());
+        reloaded.load();
+        Assert.assertEquals(2, reloaded.getEntries().size());
+        Assert.assertEquals(TSO_2, reloaded.getLastTso());
+        Assert.assertTrue(reloaded.contains("f1"));
+        Assert.assertEquals(1, reloaded.lookup(TSO_2, TSO_2).size());
+        Assert.assertEquals(2, reloaded.lookup("", TSO_2).size());
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.cdc.meta;
+
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按tso分页读取DDL历史记录，开启预取时，在应用当前页的同时由后台线程查询下一页
+ * 分页条件为tso大于上一页的最后一条记录，所以下一页的查询只依赖当前页的查询结果，和应用结果无关
+ */
+class DdlHistoryPager<T> {
+    private final String name;
+    private final int pageSize;
+    private final boolean prefetch;
+    private final Function<String, List<T>> pageQuery;
+    private final Function<T, String> tsoGetter;
+    private volatile long queryCostTime;
+    private volatile long queryCount;
+
+    DdlHistoryPager(String name, int pageSize, boolean prefetch, Function<String, List<T>> pageQuery,
+                    Function<T, String> tsoGetter) {
+        this.name = name;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.pageQuery = pageQuery;
+        this.tsoGetter = tsoGetter;
+    }
+
+    /**
+     * 从startTso(不包含)开始逐页读取并应用DDL历史，直到某一页的记录数小于pageSize
+     *
+     * @return 读取到的记录总数
+     */
+    long forEachPage(String startTso, Consumer<List<T>> consumer) {
+        ExecutorService executor = prefetch ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name + "-history-prefetcher");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+
+        try {
+            long total = 0;
+            List<T> page = query(startTso);
+            while (true) {
+                boolean hasMore = page.size() == pageSize;
+                Future<List<T>> next = null;
+                if (hasMore && executor != null) {
+                    String nextTso = tsoGetter.apply(page.get(pageSize - 1));
+                    next = executor.submit(() -> query(nextTso));
+                }
+
+                String lastTso = hasMore ? tsoGetter.apply(page.get(pageSize - 1)) : null;
+                consumer.accept(page);
+                total += page.size();
+                if (!hasMore) {
+                    return total;
+                }
+                page = next != null ? waitFor(next) : query(lastTso);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    long getQueryCostTime() {
+        return queryCostTime;
+    }
+
+    long getQueryCount() {
+        return queryCount;
+    }
+
+    private List<T> query(String tso) {
+        long startTime = System.currentTimeMillis();
+        List<T> page = pageQuery.apply(tso);
+        queryCostTime += System.currentTimeMillis() - startTime;
+        queryCount += page.size();
+        return page;
+    }
+
+    private List<T> waitFor(Future<List<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PolardbxException("interrupted while waiting for " + name + " ddl history page", e);
+        } catch (ExecutionException e) {
+            throw new PolardbxException("query " + name + " ddl history page failed", e.getCause());
+        }
+    }
+}
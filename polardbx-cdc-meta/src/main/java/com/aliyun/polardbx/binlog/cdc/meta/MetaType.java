@@ -25,7 +25,11 @@ public enum MetaType {
     /**
      * DDL SQL
      */
-    DDL((byte) 2);
+    DDL((byte) 2),
+    /**
+     * 按DDL数量周期性生成的逻辑元数据checkpoint，只用于加速rollback，不作为清理DDL历史的依据
+     */
+    CHECKPOINT((byte) 3);
 
     private final byte value;
 
@@ -35,6 +35,8 @@ import com.aliyun.polardbx.binlog.cdc.meta.domain.DDLExtInfo;
 import com.aliyun.polardbx.binlog.cdc.meta.domain.DDLRecord;
 import com.aliyun.polardbx.binlog.cdc.repository.CdcSchemaStoreProvider;
 import com.aliyun.polardbx.binlog.cdc.topology.LogicMetaTopology;
+import com.aliyun.polardbx.binlog.cdc.topology.LogicMetaTopology.LogicDbTopology;
+import com.aliyun.polardbx.binlog.cdc.topology.LogicMetaTopology.LogicTableMetaTopology;
 import com.aliyun.polardbx.binlog.cdc.topology.TopologyManager;
 import com.aliyun.polardbx.binlog.cdc.topology.vo.TopologyRecord;
 import com.aliyun.polardbx.binlog.dao.BinlogLogicMetaHistoryDynamicSqlSupport;
@@ -54,15 +56,19 @@ import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.aliyun.polardbx.binlog.CommonUtils.escape;
+import static com.aliyun.polardbx.binlog.ConfigKeys.META_CHECKPOINT_DDL_INTERVAL;
 import static com.aliyun.polardbx.binlog.ConfigKeys.META_DDL_IGNORE_APPLY_ERROR;
 import static com.aliyun.polardbx.binlog.ConfigKeys.META_DDL_RECORD_PERSIST_SQL_WITH_EXISTS;
+import static com.aliyun.polardbx.binlog.ConfigKeys.META_HISTORY_PREFETCH_ENABLE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.META_TABLE_CACHE_EXPIRE_TIME_MINUTES;
 import static com.aliyun.polardbx.binlog.ConfigKeys.META_TABLE_MAX_CACHE_SIZE;
 import static com.aliyun.polardbx.binlog.cdc.topology.TopologyShareUtil.buildTopology;
@@ -92,6 +98,12 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
     private long queryDdlHistoryCostTime = -1;
     private long querySnapshotCostTime = -1;
     private long queryDdlHistoryCount = -1;
+    private long ddlCountSinceCheckpoint;
+    private ThreadPoolExecutor checkpointExecutor;
+    /**
+     * 内存元数据的版本号，每次变更前递增，后台线程据此判断构建checkpoint期间元数据是否发生过变化
+     */
+    private final AtomicLong metaVersion = new AtomicLong(0L);
 
     public PolarDbXLogicTableMeta(TopologyManager topologyManager) {
         super(logger, CdcSchemaStoreProvider.getInstance(),
@@ -108,7 +120,9 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
     }
 
     public void applyBase(BinlogPosition position, LogicMetaTopology topology, String cmdId) {
+        metaVersion.incrementAndGet();
         applySnapshotInternal(topology);
+        ddlCountSinceCheckpoint = 0;
         DDLRecord record = DDLRecord.builder().schemaName("*").ddlSql(GSON.toJson(snapshot()))
             .metaInfo(GSON.toJson(topology)).build();
         try {
@@ -126,6 +140,7 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
             record.getDdlSql(), record.getId(), record.getJobId());
 
         if (checkResult) {
+            metaVersion.incrementAndGet();
             apply(position, record.getSchemaName(), record.getDdlSql(), extra);
 
             //apply distinct phy meta
@@ -149,6 +164,7 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
             // 对于create if not exists和drop if exists，如果checkResult为false，不记录到binlog_logic_meta_history，以避免数据膨胀
             // 有时候有些系统(比如DTS)会通过create if not exists的方式维持心跳，如果记录这些信息到history表，会导致数据暴增
             applyToDb(position, record, MetaType.DDL.getValue(), extra, cmdId);
+            tryCheckpoint(position, cmdId);
             Printer.tryPrint(position, record.getSchemaName(), record.getTableName(), this);
         } else {
             if (DynamicApplicationConfig.getBoolean(META_DDL_RECORD_PERSIST_SQL_WITH_EXISTS)) {
@@ -170,9 +186,11 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
             jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
 
         // do apply
+        metaVersion.incrementAndGet();
         destory();
         LogicMetaTopology topology = fetchLogicMetaTopology(snapshotTso);
         applyCount.set(applySnapshotInternal(topology));
+        ddlCountSinceCheckpoint = 0;
 
         //log after apply snapshot
         long costTime = System.currentTimeMillis() - startTime;
@@ -199,35 +217,67 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
         return applyCount.get();
     }
 
+    /**
+     * 查找(snapshotTso, rollbackTso]区间内最近的一个checkpoint并应用，返回后续回放DDL历史的起始位点
+     * 找不到checkpoint时返回snapshotTso，此时内存中的元数据保持不变
+     */
+    public String applyCheckpoint(String snapshotTso, String rollbackTso) {
+        String checkpointTso = getLatestCheckpointTso(snapshotTso, rollbackTso);
+        if (StringUtils.isBlank(checkpointTso)) {
+            logger.info("logic meta checkpoint is not found between {} and {}.", snapshotTso, rollbackTso);
+            return snapshotTso;
+        }
+
+        long startTime = System.currentTimeMillis();
+        LogicMetaTopology topology = buildTopology(checkpointTso, () -> buildCheckpointTopology(checkpointTso));
+        long applyCount = applyCheckpointTopology(topology);
+        latestAppliedTopologyTso = checkpointTso;
+
+        long costTime = System.currentTimeMillis() - startTime;
+        applySnapshotCostTime += costTime;
+        logger.info("apply logic meta checkpoint finished, snapshot tso {}, checkpoint tso {}, rollback tso {}, "
+            + "applyCount {}, cost time {}(ms)", snapshotTso, checkpointTso, rollbackTso, applyCount, costTime);
+        return checkpointTso;
+    }
+
+    /**
+     * 清空内存中的逻辑元数据和去重物理元数据，并以checkpoint中的建表语句和拓扑重建
+     */
+    long applyCheckpointTopology(LogicMetaTopology topology) {
+        metaVersion.incrementAndGet();
+        destory();
+        distinctPhyMeta.destory();
+        long applyCount = applySnapshotInternal(topology);
+        ddlCountSinceCheckpoint = 0;
+        return applyCount;
+    }
+
     @Override
     public void applyHistory(String snapshotTso, String rollbackTso) {
         // log before apply
-        final String snapshotTsoInput = snapshotTso;
         long startTime = System.currentTimeMillis();
-        long applyCount = 0;
         JvmSnapshot jvmSnapshot = JvmUtils.buildJvmSnapshot();
         logger.info("apply logic ddl history started, current used memory -> young:{}, old:{}",
             jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
 
         //apply history
-        while (true) {
-            final String snapshotTsoCondition = snapshotTso;
-
-            long queryStarTime = System.currentTimeMillis();
-            List<BinlogLogicMetaHistory> histories = binlogLogicMetaHistoryMapper.select(s -> s
-                .where(BinlogLogicMetaHistoryDynamicSqlSupport.tso, SqlBuilder.isGreaterThan(snapshotTsoCondition))
+        metaVersion.incrementAndGet();
+        AtomicLong applyCount = new AtomicLong(0L);
+        DdlHistoryPager<BinlogLogicMetaHistory> pager = new DdlHistoryPager<>("logic", PAGE_SIZE,
+            DynamicApplicationConfig.getBoolean(META_HISTORY_PREFETCH_ENABLE),
+            tso -> binlogLogicMetaHistoryMapper.select(s -> s
+                .where(BinlogLogicMetaHistoryDynamicSqlSupport.tso, SqlBuilder.isGreaterThan(tso))
                 .and(BinlogLogicMetaHistoryDynamicSqlSupport.tso, SqlBuilder.isLessThanOrEqualTo(rollbackTso))
                 .and(BinlogLogicMetaHistoryDynamicSqlSupport.type, SqlBuilder.isEqualTo(MetaType.DDL.getValue()))
-                .orderBy(BinlogLogicMetaHistoryDynamicSqlSupport.tso).limit(PAGE_SIZE)
-            );
-            queryDdlHistoryCostTime += (System.currentTimeMillis() - queryStarTime);
-            queryDdlHistoryCount += histories.size();
-
+                .orderBy(BinlogLogicMetaHistoryDynamicSqlSupport.tso).limit(PAGE_SIZE)),
+            BinlogLogicMetaHistory::getTso);
+        pager.forEachPage(snapshotTso, histories -> {
             histories.forEach(h -> {
                 toLowerCaseHist(h);
                 BinlogPosition position = new BinlogPosition(null, h.getTso());
                 if (checkBeforeApply(h.getTso(), h.getDbName(), h.getTableName(), h.getDdl(), h.getDdlRecordId(),
                     h.getDdlJobId())) {
+                    applyCount.incrementAndGet();
                     super.apply(position, h.getDbName(), h.getDdl(), null);
 
                     // apply create sql for distinct phy meta
@@ -258,22 +308,18 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
 
                 Printer.tryPrint(position, h.getDbName(), h.getTableName(), this);
             });
-
-            applyCount += histories.size();
-            if (histories.size() == PAGE_SIZE) {
-                snapshotTso = histories.get(PAGE_SIZE - 1).getTso();
-            } else {
-                break;
-            }
-        }
+        });
+        queryDdlHistoryCostTime += pager.getQueryCostTime();
+        queryDdlHistoryCount += pager.getQueryCount();
+        ddlCountSinceCheckpoint += applyCount.get();
 
         //log after apply
         long costTime = System.currentTimeMillis() - startTime;
         applyHistoryCostTime += costTime;
         jvmSnapshot = JvmUtils.buildJvmSnapshot();
         logger.info("apply logic ddl history finished, snapshot tso {}, rollback tso {}, cost time {}(ms),"
-                + " applyCount {}" + ", current used memory -> young:{}, old:{}", snapshotTsoInput, rollbackTso, costTime,
-            applyCount, jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
+                + " applyCount {}" + ", current used memory -> young:{}, old:{}", snapshotTso, rollbackTso, costTime,
+            applyCount.get(), jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
     }
 
     /**
@@ -305,6 +351,126 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
         }
     }
 
+    /**
+     * 每应用META_CHECKPOINT_DDL_INTERVAL个逻辑DDL，将当前的逻辑元数据和拓扑保存为一个checkpoint，tso和该DDL的tso相同
+     * 抽取线程上只复制拓扑，建表语句的生成、序列化和入库都交给后台线程，构建期间元数据发生变化时放弃本次checkpoint
+     */
+    private void tryCheckpoint(BinlogPosition position, String cmdId) {
+        int interval = DynamicApplicationConfig.getInt(META_CHECKPOINT_DDL_INTERVAL);
+        if (interval <= 0 || ++ddlCountSinceCheckpoint < interval) {
+            return;
+        }
+        ddlCountSinceCheckpoint = 0;
+        String tso = position.getRtso();
+        if (tso.compareTo(maxTsoWithInit) <= 0) {
+            return;
+        }
+
+        LogicMetaTopology topology = topologyManager.getTopology().copy();
+        long version = metaVersion.get();
+        getCheckpointExecutor().execute(() -> {
+            try {
+                saveCheckpoint(position, cmdId, topology, version);
+            } catch (Throwable t) {
+                logger.warn("create logic meta checkpoint failed with tso " + tso, t);
+            }
+        });
+    }
+
+    private synchronized ThreadPoolExecutor getCheckpointExecutor() {
+        if (checkpointExecutor == null) {
+            // 只保留最新的一个待执行任务，更早的任务对应的元数据版本已经过期
+            checkpointExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), r -> {
+                Thread t = new Thread(r, "logic-meta-checkpoint");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        }
+        return checkpointExecutor;
+    }
+
+    /**
+     * 多个DN的元数据实例会在相同的tso上尝试生成checkpoint，已经存在时直接跳过，避免重复序列化
+     */
+    private void saveCheckpoint(BinlogPosition position, String cmdId, LogicMetaTopology topology, long version) {
+        String tso = position.getRtso();
+        long count = binlogLogicMetaHistoryMapper.count(s -> s
+            .where(BinlogLogicMetaHistoryDynamicSqlSupport.tso, SqlBuilder.isEqualTo(tso))
+            .and(BinlogLogicMetaHistoryDynamicSqlSupport.type, SqlBuilder.isEqualTo(MetaType.CHECKPOINT.getValue())));
+        if (count > 0) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        if (!fillCheckpointTopology(tso, topology)) {
+            return;
+        }
+        if (metaVersion.get() != version) {
+            logger.info("skip logic meta checkpoint with tso {}, logic meta is changed during building.", tso);
+            return;
+        }
+        DDLRecord record = DDLRecord.builder().schemaName("*").ddlSql("").metaInfo(GSON.toJson(topology)).build();
+        applyToDb(position, record, MetaType.CHECKPOINT.getValue(), null, cmdId);
+        logger.info("logic meta checkpoint is created with tso {}, cost time {}(ms)", tso,
+            System.currentTimeMillis() - startTime);
+    }
+
+    public synchronized void close() {
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdownNow();
+            checkpointExecutor = null;
+        }
+    }
+
+    /**
+     * 为拓扑中的每张表填充逻辑和去重物理建表语句，每张表单独加锁，不会长时间阻塞抽取线程上的DDL应用
+     */
+    boolean fillCheckpointTopology(String tso, LogicMetaTopology topology) {
+        long tableCount = 0;
+        synchronized (this) {
+            for (Schema schema : getRepository().getSchemas()) {
+                for (String ignored : schema.showTables()) {
+                    tableCount++;
+                }
+            }
+        }
+
+        long topologyTableCount = 0;
+        for (LogicDbTopology db : topology.getLogicDbMetas()) {
+            if (db.getLogicTableMetas() == null) {
+                continue;
+            }
+            for (LogicTableMetaTopology t : db.getLogicTableMetas()) {
+                String createSql;
+                synchronized (this) {
+                    createSql = find(db.getSchema(), t.getTableName()) != null ?
+                        snapshot(db.getSchema(), t.getTableName()) : null;
+                }
+                if (createSql == null) {
+                    logger.warn("skip logic meta checkpoint with tso {}, table meta of {}.{} is not found.", tso,
+                        db.getSchema(), t.getTableName());
+                    return false;
+                }
+                t.setCreateSql(createSql);
+                synchronized (distinctPhyMeta) {
+                    t.setCreateSql4Phy(distinctPhyMeta.find(db.getSchema(), t.getTableName()) != null ?
+                        distinctPhyMeta.snapshot(db.getSchema(), t.getTableName()) : null);
+                }
+                topologyTableCount++;
+            }
+        }
+        if (tableCount != topologyTableCount) {
+            logger.warn("skip logic meta checkpoint with tso {}, table count {} is not equal to topology table count "
+                + "{}.", tso, tableCount, topologyTableCount);
+            return false;
+        }
+
+        topology.setShared(false);
+        topology.setInterned(false);
+        return true;
+    }
+
     public Map<String, String> distinctPhySnapshot() {
         Collection<Schema> schemas = distinctPhyMeta.getRepository().getSchemas();
         schemas.forEach(schema -> {
@@ -459,6 +625,31 @@ public class PolarDbXLogicTableMeta extends MemoryTableMeta implements ICdcTable
         throw new PolardbxException("can`t find snapshot for tso " + snapshotTso);
     }
 
+    private LogicMetaTopology buildCheckpointTopology(String checkpointTso) {
+        long queryStartTime = System.currentTimeMillis();
+        Optional<BinlogLogicMetaHistory> checkpoint = binlogLogicMetaHistoryMapper.selectOne(s -> s
+            .where(BinlogLogicMetaHistoryDynamicSqlSupport.tso, SqlBuilder.isEqualTo(checkpointTso))
+            .and(BinlogLogicMetaHistoryDynamicSqlSupport.type, SqlBuilder.isEqualTo(MetaType.CHECKPOINT.getValue())));
+        querySnapshotCostTime = System.currentTimeMillis() - queryStartTime;
+        if (checkpoint.isPresent()) {
+            BinlogLogicMetaHistory c = checkpoint.get();
+            logger.warn("apply logic checkpoint: [id={}, tso={}]", c.getId(), c.getTso());
+            return GSON.fromJson(c.getTopology(), LogicMetaTopology.class);
+        }
+
+        throw new PolardbxException("can`t find checkpoint for tso " + checkpointTso);
+    }
+
+    /**
+     * 从存储中获取(snapshotTso, rollbackTso]区间内最新一次checkpoint的位点
+     */
+    private String getLatestCheckpointTso(String snapshotTso, String rollbackTso) {
+        JdbcTemplate metaJdbcTemplate = SpringContextHolder.getObject("metaJdbcTemplate");
+        return metaJdbcTemplate.queryForObject(
+            "select max(tso) tso from binlog_logic_meta_history where tso > '" + snapshotTso + "' and tso <= '"
+                + rollbackTso + "' and type = " + MetaType.CHECKPOINT.getValue(), String.class);
+    }
+
     private void toLowerCaseHist(BinlogLogicMetaHistory logicMetaHistory) {
         logicMetaHistory.setDbName(StringUtils.lowerCase(logicMetaHistory.getDbName()));
         logicMetaHistory.setTableName(StringUtils.lowerCase(logicMetaHistory.getTableName()));
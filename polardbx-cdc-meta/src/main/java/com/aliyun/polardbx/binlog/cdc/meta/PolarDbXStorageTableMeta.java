@@ -156,28 +156,23 @@ public class PolarDbXStorageTableMeta extends MemoryTableMeta implements ICdcTab
     @Override
     public void applyHistory(String snapshotTso, String rollbackTso) {
         // log before apply
-        final String snapshotTsoInput = snapshotTso;
-        long applyCount = 0;
         long startTime = System.currentTimeMillis();
         JvmSnapshot jvmSnapshot = JvmUtils.buildJvmSnapshot();
         logger.info("apply phy ddl history started, current used memory -> young:{}, old:{}",
             jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
 
         // apply history
-        while (true) {
-            final String snapshotTsoCondition = snapshotTso;
-            long queryStartTime = System.currentTimeMillis();
-            List<BinlogPhyDdlHistory> ddlHistories = binlogPhyDdlHistoryMapper.select(
+        String clusterId = DynamicApplicationConfig.getString(ConfigKeys.CLUSTER_ID);
+        DdlHistoryPager<BinlogPhyDdlHistory> pager = new DdlHistoryPager<>("phy", PAGE_SIZE,
+            DynamicApplicationConfig.getBoolean(ConfigKeys.META_HISTORY_PREFETCH_ENABLE),
+            tso -> binlogPhyDdlHistoryMapper.select(
                 s -> s.where(BinlogPhyDdlHistoryDynamicSqlSupport.storageInstId, SqlBuilder.isEqualTo(storageInstId))
-                    .and(BinlogPhyDdlHistoryDynamicSqlSupport.tso, SqlBuilder.isGreaterThan(snapshotTsoCondition))
+                    .and(BinlogPhyDdlHistoryDynamicSqlSupport.tso, SqlBuilder.isGreaterThan(tso))
                     .and(BinlogPhyDdlHistoryDynamicSqlSupport.tso, SqlBuilder.isLessThanOrEqualTo(rollbackTso))
-                    .and(BinlogPhyDdlHistoryDynamicSqlSupport.clusterId,
-                        SqlBuilder.isEqualTo(DynamicApplicationConfig.getString(ConfigKeys.CLUSTER_ID)))
-                    .orderBy(BinlogPhyDdlHistoryDynamicSqlSupport.tso).limit(PAGE_SIZE)
-            );
-            queryDdlHistoryCostTime += (System.currentTimeMillis() - queryStartTime);
-            queryDdlHistoryCount += ddlHistories.size();
-
+                    .and(BinlogPhyDdlHistoryDynamicSqlSupport.clusterId, SqlBuilder.isEqualTo(clusterId))
+                    .orderBy(BinlogPhyDdlHistoryDynamicSqlSupport.tso).limit(PAGE_SIZE)),
+            BinlogPhyDdlHistory::getTso);
+        long applyCount = pager.forEachPage(snapshotTso, ddlHistories -> {
             for (BinlogPhyDdlHistory ddlHistory : ddlHistories) {
                 toLowerCase(ddlHistory);
                 BinlogPosition position = new BinlogPosition(null, ddlHistory.getTso());
@@ -192,14 +187,9 @@ public class PolarDbXStorageTableMeta extends MemoryTableMeta implements ICdcTab
                 }
                 tryPrint(position, ddlHistory.getDbName(), ddlHistory.getDdl());
             }
-
-            applyCount += ddlHistories.size();
-            if (ddlHistories.size() == PAGE_SIZE) {
-                snapshotTso = ddlHistories.get(PAGE_SIZE - 1).getTso();
-            } else {
-                break;
-            }
-        }
+        });
+        queryDdlHistoryCostTime += pager.getQueryCostTime();
+        queryDdlHistoryCount += pager.getQueryCount();
 
         //log after apply
         long costTime = System.currentTimeMillis() - startTime;
@@ -207,7 +197,7 @@ public class PolarDbXStorageTableMeta extends MemoryTableMeta implements ICdcTab
         jvmSnapshot = JvmUtils.buildJvmSnapshot();
         logger.info(
             "apply phy ddl history finished, snapshot tso {}, rollback tso {}, cost time {}(ms), applyCount {}, "
-                + "current used memory -> young:{}, old:{}", snapshotTsoInput, rollbackTso, costTime, applyCount,
+                + "current used memory -> young:{}, old:{}", snapshotTso, rollbackTso, costTime, applyCount,
             jvmSnapshot.getYoungUsed(), jvmSnapshot.getOldUsed());
     }
 
@@ -71,6 +71,7 @@ import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -103,11 +104,13 @@ import static org.mybatis.dynamic.sql.SqlBuilder.isGreaterThanOrEqualTo;
 public class PolarDbXTableMetaManager {
     private static final Gson GSON = new GsonBuilder().create();
     private static final String DN_SUPPORT_HIDDEN_PK_QUERY = "show global variables  like 'implicit_primary_key'";
+    private static final int TABLE_ID_CACHE_SIZE = 1024;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     private final String storageInstId;
     private final Map<String, Set<String>> deltaChangeMap;
     private final boolean enableCompareCache;
     private final Map<String, LogicTableMeta> compareCache;
+    private final TableIdCacheEntry[] tableIdCache;
     private final RollbackMode rollbackMode;
     private final AuthenticationInfo authenticationInfo;
     private final String RDS_HIDDEN_PK = "RDS_HIDDEN_PK";
@@ -143,6 +146,7 @@ public class PolarDbXTableMetaManager {
         this.deltaChangeMap = new HashMap<>();
         this.enableCompareCache = DynamicApplicationConfig.getBoolean(META_COMPARE_CACHE_ENABLE);
         this.compareCache = new HashMap<>();
+        this.tableIdCache = new TableIdCacheEntry[TABLE_ID_CACHE_SIZE];
         this.rollbackMode = getRollbackMode();
         this.authenticationInfo = authenticationInfo;
     }
@@ -163,6 +167,7 @@ public class PolarDbXTableMetaManager {
 
     public void destroy() {
         this.polarDbXStorageTableMeta.destory();
+        this.polarDbXLogicTableMeta.close();
         this.polarDbXLogicTableMeta.destory();
         this.unregisterToCleaner();
     }
@@ -222,6 +227,23 @@ public class PolarDbXTableMetaManager {
         return polarDbXLogicTableMeta.find(schema, table);
     }
 
+    /**
+     * 以TableMapLogEvent中的table id做直接映射的快速路径，命中时无需拼接cacheKey，table id被复用时通过库表名和列数校验
+     */
+    public LogicTableMeta compare(long tableId, String schema, String table, int columnCount) {
+        if (!enableCompareCache) {
+            return compare(schema, table, columnCount);
+        }
+        int slot = (int) (tableId & (TABLE_ID_CACHE_SIZE - 1));
+        TableIdCacheEntry entry = tableIdCache[slot];
+        if (entry != null && entry.matches(tableId, schema, table, columnCount)) {
+            return entry.meta;
+        }
+        LogicTableMeta meta = compare(schema, table, columnCount);
+        tableIdCache[slot] = new TableIdCacheEntry(tableId, schema, table, columnCount, meta);
+        return meta;
+    }
+
     public LogicTableMeta compare(String schema, String table, int columnCount) {
         String cacheKey = schema + ":" + table + ":" + columnCount;
         if (enableCompareCache) {
@@ -340,14 +362,19 @@ public class PolarDbXTableMetaManager {
         return meta;
     }
 
-    public void applyBase(BinlogPosition position, LogicMetaTopology topology, String cmdId) {
+    private void clearCompareCache() {
         this.compareCache.clear();
+        Arrays.fill(this.tableIdCache, null);
+    }
+
+    public void applyBase(BinlogPosition position, LogicMetaTopology topology, String cmdId) {
+        this.clearCompareCache();
         this.polarDbXLogicTableMeta.applyBase(position, topology, cmdId);
         this.polarDbXStorageTableMeta.applyBase(position);
     }
 
     public void applyLogic(BinlogPosition position, DDLRecord record, String extra, String cmdId) {
-        this.compareCache.clear();
+        this.clearCompareCache();
 
         if (isIgnoreApply(position, record)) {
             return;
@@ -368,13 +395,13 @@ public class PolarDbXTableMetaManager {
     }
 
     public void applyPhysical(BinlogPosition position, String schema, String ddl, String extra) {
-        this.compareCache.clear();
+        this.clearCompareCache();
         this.polarDbXStorageTableMeta.apply(position, schema, ddl, extra);
         this.updateDeltaChangeByPhysicalDdl(position.getRtso(), schema, ddl);
     }
 
     public void rollback(BinlogPosition position) {
-        this.compareCache.clear();
+        this.clearCompareCache();
         Stopwatch sw = Stopwatch.createStarted();
 
         if (rollbackMode == SNAPSHOT_EXACTLY) {
@@ -472,7 +499,7 @@ public class PolarDbXTableMetaManager {
 
         polarDbXLogicTableMeta.applySnapshot(snapshotTso);
         polarDbXStorageTableMeta.applySnapshot(snapshotTso);
-        polarDbXLogicTableMeta.applyHistory(snapshotTso, position.getRtso());
+        applyLogicHistory(snapshotTso, position.getRtso());
         polarDbXStorageTableMeta.applyHistory(snapshotTso, position.getRtso());
     }
 
@@ -509,9 +536,9 @@ public class PolarDbXTableMetaManager {
         } else {
             log.info("found semi snapshot {} between {} and {}.", semiSnapshotTso, snapshotTso, position.getRtso());
             polarDbXLogicTableMeta.applySnapshot(snapshotTso);
-            polarDbXLogicTableMeta.applyHistory(snapshotTso, semiSnapshotTso);
+            applyLogicHistory(snapshotTso, semiSnapshotTso);
             polarDbXStorageTableMeta.applySnapshot(snapshotTso);
-            polarDbXLogicTableMeta.applyHistory(semiSnapshotTso, position.getRtso());
+            applyLogicHistory(semiSnapshotTso, position.getRtso());
             polarDbXStorageTableMeta.applyHistory(semiSnapshotTso, position.getRtso());
             initDeltaChangeMap(position.getRtso());
         }
@@ -520,11 +547,20 @@ public class PolarDbXTableMetaManager {
     private void rollbackInSnapshotUnSafeMode(BinlogPosition position) {
         String snapshotTso = getLatestSnapshotTso(position.getRtso());
         polarDbXLogicTableMeta.applySnapshot(snapshotTso);
-        polarDbXLogicTableMeta.applyHistory(snapshotTso, position.getRtso());
+        applyLogicHistory(snapshotTso, position.getRtso());
         polarDbXStorageTableMeta.applySnapshot(snapshotTso);
         polarDbXStorageTableMeta.applyHistory(getLatestLogicDDLTso(position.getRtso()), position.getRtso());
     }
 
+    /**
+     * 逻辑元数据从(fromTso, toTso]区间内最近的checkpoint开始回放，没有checkpoint时从fromTso开始回放
+     * checkpoint只改变回放的起点，回放结束后逻辑元数据的状态和从fromTso开始回放一致
+     */
+    private void applyLogicHistory(String fromTso, String toTso) {
+        String startTso = polarDbXLogicTableMeta.applyCheckpoint(fromTso, toTso);
+        polarDbXLogicTableMeta.applyHistory(startTso, toTso);
+    }
+
     private void initDeltaChangeMap(String tso) {
         Stopwatch sw = Stopwatch.createStarted();
 
@@ -944,4 +980,25 @@ public class PolarDbXTableMetaManager {
     public long getRollbackCostTime() {
         return rollbackCostTime;
     }
+
+    private static class TableIdCacheEntry {
+        private final long tableId;
+        private final String schema;
+        private final String table;
+        private final int columnCount;
+        private final LogicTableMeta meta;
+
+        TableIdCacheEntry(long tableId, String schema, String table, int columnCount, LogicTableMeta meta) {
+            this.tableId = tableId;
+            this.schema = schema;
+            this.table = table;
+            this.columnCount = columnCount;
+            this.meta = meta;
+        }
+
+        boolean matches(long tableId, String schema, String table, int columnCount) {
+            return this.tableId == tableId && this.columnCount == columnCount && this.table.equals(table)
+                && this.schema.equals(schema);
+        }
+    }
 }
@@ -262,6 +262,7 @@ public class TopologyManager {
     public void setTopology(LogicMetaTopology topology) {
         this.checkTopology(topology);
         this.topology = topology;
+        this.cache.clear();
     }
 
     private void checkTopology(LogicMetaTopology topology) {
@@ -0,0 +1,12 @@
+DELIMITER $$
+DROP PROCEDURE IF EXISTS `add_idx_type_tso_4_binlog_logic_meta_history` $$
+CREATE PROCEDURE add_idx_type_tso_4_binlog_logic_meta_history()
+BEGIN
+    IF NOT EXISTS(SELECT * FROM information_schema.statistics WHERE table_schema=(select database()) AND table_name='binlog_logic_meta_history' AND INDEX_NAME='idx_type_tso')
+	THEN
+	    ALTER TABLE `binlog_logic_meta_history` ADD index `idx_type_tso`(`type`,`tso`);
+	END IF;
+END $$
+DELIMITER ;
+
+call add_idx_type_tso_4_binlog_logic_meta_history;
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.cdc.meta;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class DdlHistoryPagerTest {
+
+    @Test
+    public void testPrefetch() {
+        checkPages(true);
+    }
+
+    @Test
+    public void testWithoutPrefetch() {
+        checkPages(false);
+    }
+
+    @Test
+    public void testEmpty() {
+        DdlHistoryPager<String> pager = new DdlHistoryPager<>("test", 10, true, tso -> new ArrayList<>(),
+            Function.identity());
+        List<List<String>> pages = new ArrayList<>();
+        Assert.assertEquals(0, pager.forEachPage("", pages::add));
+        Assert.assertEquals(1, pages.size());
+        Assert.assertEquals(0, pager.getQueryCount());
+    }
+
+    private void checkPages(boolean prefetch) {
+        List<String> histories = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            histories.add(String.format("%05d", i));
+        }
+        List<String> queried = new ArrayList<>();
+        DdlHistoryPager<String> pager = new DdlHistoryPager<>("test", 10, prefetch, tso -> {
+            synchronized (queried) {
+                queried.add(tso);
+            }
+            return histories.stream().filter(h -> h.compareTo(tso) > 0).limit(10).collect(Collectors.toList());
+        }, Function.identity());
+
+        List<String> applied = new ArrayList<>();
+        long count = pager.forEachPage("00000", applied::addAll);
+        Assert.assertEquals(25, count);
+        Assert.assertEquals(histories, applied);
+        Assert.assertEquals(25, pager.getQueryCount());
+        synchronized (queried) {
+            Assert.assertEquals(3, queried.size());
+            Assert.assertEquals("00010", queried.get(1));
+            Assert.assertEquals("00020", queried.get(2));
+        }
+    }
+}
@@ -18,10 +18,12 @@ import com.aliyun.polardbx.binlog.SpringContextBootStrap;
 import com.aliyun.polardbx.binlog.canal.core.model.BinlogPosition;
 import com.aliyun.polardbx.binlog.cdc.meta.domain.DDLRecord;
 import com.aliyun.polardbx.binlog.cdc.topology.LogicMetaTopology;
+import com.aliyun.polardbx.binlog.cdc.topology.LogicMetaTopology.LogicTableMetaTopology;
 import com.aliyun.polardbx.binlog.cdc.topology.MockData;
 import com.aliyun.polardbx.binlog.cdc.topology.TopologyManager;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -67,4 +69,51 @@ public class PolarDbXLogicTableMetaTest {
         System.out.println(logicTableMeta.find("d1", "t1"));
 
     }
+
+    @Test
+    public void checkpointThenReplay() {
+        DDLRecord createD1 = DDLRecord.builder().sqlKind("CREATE_DATABASE").schemaName("d1")
+            .ddlSql("create database d1").metaInfo(MockData.CREATE_D1).build();
+        DDLRecord createT1 = DDLRecord.builder().sqlKind("CREATE_TABLE").schemaName("d1").tableName("t1").ddlSql(
+                "create PARTITION table d1.t1 (id int) dbpartition by hash(id) tbpartition by hash(id) tbpartitions 2")
+            .metaInfo(MockData.CREATE_D1_T1).build();
+
+        // 从快照开始完整回放所有DDL
+        TopologyManager fullTopologyManager = new TopologyManager();
+        PolarDbXLogicTableMeta fullMeta = new PolarDbXLogicTableMeta(fullTopologyManager);
+        fullMeta.init("Final");
+        fullMeta.applyBase(new BinlogPosition(null, "1"), gson.fromJson(MockData.BASE, LogicMetaTopology.class),
+            "000");
+        fullMeta.apply(new BinlogPosition(null, "2"), createD1, null, "000");
+        LogicMetaTopology checkpoint = fullTopologyManager.getTopology().copy();
+        Assert.assertTrue(fullMeta.fillCheckpointTopology("2", checkpoint));
+        fullMeta.apply(new BinlogPosition(null, "3"), createT1, null, "000");
+
+        // 从checkpoint开始回放剩余的DDL
+        TopologyManager checkpointTopologyManager = new TopologyManager();
+        PolarDbXLogicTableMeta checkpointMeta = new PolarDbXLogicTableMeta(checkpointTopologyManager);
+        checkpointMeta.init("Final");
+        checkpointMeta.applyCheckpointTopology(gson.fromJson(gson.toJson(checkpoint), LogicMetaTopology.class));
+        checkpointMeta.apply(new BinlogPosition(null, "3"), createT1, null, "000");
+
+        Assert.assertEquals(fullMeta.snapshot(), checkpointMeta.snapshot());
+        Assert.assertEquals(fullMeta.distinctPhySnapshot(), checkpointMeta.distinctPhySnapshot());
+        Assert.assertEquals(topologyWithoutCreateSql(fullTopologyManager.getTopology()),
+            topologyWithoutCreateSql(checkpointTopologyManager.getTopology()));
+    }
+
+    /**
+     * 拓扑中的建表语句只是checkpoint的载体，比较拓扑时忽略
+     */
+    private String topologyWithoutCreateSql(LogicMetaTopology topology) {
+        LogicMetaTopology copy = topology.copy();
+        copy.getLogicDbMetas().stream().filter(d -> d.getLogicTableMetas() != null)
+            .flatMap(d -> d.getLogicTableMetas().stream()).forEach((LogicTableMetaTopology t) -> {
+                t.setCreateSql(null);
+                t.setCreateSql4Phy(null);
+            });
+        copy.setShared(false);
+        copy.setInterned(false);
+        return gson.toJson(copy);
+    }
 }
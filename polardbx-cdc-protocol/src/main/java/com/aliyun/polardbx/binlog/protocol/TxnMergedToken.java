@@ -35,6 +35,7 @@ private static final long serialVersionUID = 0L;
     schema_ = "";
     payload_ = com.google.protobuf.ByteString.EMPTY;
     table_ = "";
+    traceStamps_ = emptyLongList();
   }
 
   @java.lang.Override
@@ -57,6 +58,7 @@ private static final long serialVersionUID = 0L;
     if (extensionRegistry == null) {
       throw new java.lang.NullPointerException();
     }
+    int mutable_bitField0_ = 0;
     com.google.protobuf.UnknownFieldSet.Builder unknownFields =
         com.google.protobuf.UnknownFieldSet.newBuilder();
     try {
@@ -109,6 +111,27 @@ private static final long serialVersionUID = 0L;
 
             break;
           }
+          case 129: {
+            if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+              traceStamps_ = newLongList();
+              mutable_bitField0_ |= 0x00000001;
+            }
+            traceStamps_.addLong(input.readFixed64());
+            break;
+          }
+          case 130: {
+            int length = input.readRawVarint32();
+            int limit = input.pushLimit(length);
+            if (!((mutable_bitField0_ & 0x00000001) != 0) && input.getBytesUntilLimit() > 0) {
+              traceStamps_ = newLongList();
+              mutable_bitField0_ |= 0x00000001;
+            }
+            while (input.getBytesUntilLimit() > 0) {
+              traceStamps_.addLong(input.readFixed64());
+            }
+            input.popLimit(limit);
+            break;
+          }
           default: {
             if (!parseUnknownField(
                 input, unknownFields, extensionRegistry, tag)) {
@@ -124,6 +147,9 @@ private static final long serialVersionUID = 0L;
       throw new com.google.protobuf.InvalidProtocolBufferException(
           e).setUnfinishedMessage(this);
     } finally {
+      if (((mutable_bitField0_ & 0x00000001) != 0)) {
+        traceStamps_.makeImmutable(); // C
+      }
       this.unknownFields = unknownFields.build();
       makeExtensionsImmutable();
     }
@@ -311,6 +337,49 @@ private static final long serialVersionUID = 0L;
     return getServerId();
   }
 
+  public static final int TRACESTAMPS_FIELD_NUMBER = 16;
+  private com.google.protobuf.Internal.LongList traceStamps_;
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return A list containing the traceStamps.
+   */
+  @java.lang.Override
+  public java.util.List<java.lang.Long>
+      getTraceStampsList() {
+    return traceStamps_;
+  }
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return The count of traceStamps.
+   */
+  public int getTraceStampsCount() {
+    return traceStamps_.size();
+  }
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @param index The index of the element to return.
+   * @return The traceStamps at the given index.
+   */
+  public long getTraceStamps(int index) {
+    return traceStamps_.getLong(index);
+  }
+  private int traceStampsMemoizedSerializedSize = -1;
+
   private byte memoizedIsInitialized = -1;
   @java.lang.Override
   public final boolean isInitialized() {
@@ -325,6 +394,7 @@ private static final long serialVersionUID = 0L;
   @java.lang.Override
   public void writeTo(com.google.protobuf.CodedOutputStream output)
                       throws java.io.IOException {
+    getSerializedSize();
     if (!getTsoBytes().isEmpty()) {
       com.google.protobuf.GeneratedMessageV3.writeString(output, 1, tso_);
     }
@@ -343,6 +413,13 @@ private static final long serialVersionUID = 0L;
     if (serverId_ != null) {
       output.writeMessage(6, getServerId());
     }
+    if (getTraceStampsList().size() > 0) {
+      output.writeUInt32NoTag(130);
+      output.writeUInt32NoTag(traceStampsMemoizedSerializedSize);
+    }
+    for (int i = 0; i < traceStamps_.size(); i++) {
+      output.writeFixed64NoTag(traceStamps_.getLong(i));
+    }
     unknownFields.writeTo(output);
   }
 
@@ -373,6 +450,17 @@ private static final long serialVersionUID = 0L;
       size += com.google.protobuf.CodedOutputStream
         .computeMessageSize(6, getServerId());
     }
+    {
+      int dataSize = 0;
+      dataSize = 8 * getTraceStampsList().size();
+      size += dataSize;
+      if (!getTraceStampsList().isEmpty()) {
+        size += 2;
+        size += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(dataSize);
+      }
+      traceStampsMemoizedSerializedSize = dataSize;
+    }
     size += unknownFields.getSerializedSize();
     memoizedSize = size;
     return size;
@@ -402,6 +490,8 @@ private static final long serialVersionUID = 0L;
       if (!getServerId()
           .equals(other.getServerId())) return false;
     }
+    if (!getTraceStampsList()
+        .equals(other.getTraceStampsList())) return false;
     if (!unknownFields.equals(other.unknownFields)) return false;
     return true;
   }
@@ -427,6 +517,10 @@ private static final long serialVersionUID = 0L;
       hash = (37 * hash) + SERVERID_FIELD_NUMBER;
       hash = (53 * hash) + getServerId().hashCode();
     }
+    if (getTraceStampsCount() > 0) {
+      hash = (37 * hash) + TRACESTAMPS_FIELD_NUMBER;
+      hash = (53 * hash) + getTraceStampsList().hashCode();
+    }
     hash = (29 * hash) + unknownFields.hashCode();
     memoizedHashCode = hash;
     return hash;
@@ -576,6 +670,8 @@ private static final long serialVersionUID = 0L;
         serverId_ = null;
         serverIdBuilder_ = null;
       }
+      traceStamps_ = emptyLongList();
+      bitField0_ = (bitField0_ & ~0x00000001);
       return this;
     }
 
@@ -602,6 +698,7 @@ private static final long serialVersionUID = 0L;
     @java.lang.Override
     public com.aliyun.polardbx.binlog.protocol.TxnMergedToken buildPartial() {
       com.aliyun.polardbx.binlog.protocol.TxnMergedToken result = new com.aliyun.polardbx.binlog.protocol.TxnMergedToken(this);
+      int from_bitField0_ = bitField0_;
       result.tso_ = tso_;
       result.type_ = type_;
       result.schema_ = schema_;
@@ -612,6 +709,11 @@ private static final long serialVersionUID = 0L;
       } else {
         result.serverId_ = serverIdBuilder_.build();
       }
+      if (((bitField0_ & 0x00000001) != 0)) {
+        traceStamps_.makeImmutable();
+        bitField0_ = (bitField0_ & ~0x00000001);
+      }
+      result.traceStamps_ = traceStamps_;
       onBuilt();
       return result;
     }
@@ -681,6 +783,16 @@ private static final long serialVersionUID = 0L;
       if (other.hasServerId()) {
         mergeServerId(other.getServerId());
       }
+      if (!other.traceStamps_.isEmpty()) {
+        if (traceStamps_.isEmpty()) {
+          traceStamps_ = other.traceStamps_;
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          ensureTraceStampsIsMutable();
+          traceStamps_.addAll(other.traceStamps_);
+        }
+        onChanged();
+      }
       this.mergeUnknownFields(other.unknownFields);
       onChanged();
       return this;
@@ -709,6 +821,7 @@ private static final long serialVersionUID = 0L;
       }
       return this;
     }
+    private int bitField0_;
 
     private java.lang.Object tso_ = "";
     /**
@@ -1144,6 +1257,120 @@ private static final long serialVersionUID = 0L;
       }
       return serverIdBuilder_;
     }
+
+    private com.google.protobuf.Internal.LongList traceStamps_ = emptyLongList();
+    private void ensureTraceStampsIsMutable() {
+      if (!((bitField0_ & 0x00000001) != 0)) {
+        traceStamps_ = mutableCopy(traceStamps_);
+        bitField0_ |= 0x00000001;
+       }
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return A list containing the traceStamps.
+     */
+    public java.util.List<java.lang.Long>
+        getTraceStampsList() {
+      return ((bitField0_ & 0x00000001) != 0) ?
+               java.util.Collections.unmodifiableList(traceStamps_) : traceStamps_;
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return The count of traceStamps.
+     */
+    public int getTraceStampsCount() {
+      return traceStamps_.size();
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param index The index of the element to return.
+     * @return The traceStamps at the given index.
+     */
+    public long getTraceStamps(int index) {
+      return traceStamps_.getLong(index);
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param index The index to set the value at.
+     * @param value The traceStamps to set.
+     * @return This builder for chaining.
+     */
+    public Builder setTraceStamps(
+        int index, long value) {
+      ensureTraceStampsIsMutable();
+      traceStamps_.setLong(index, value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param value The traceStamps to add.
+     * @return This builder for chaining.
+     */
+    public Builder addTraceStamps(long value) {
+      ensureTraceStampsIsMutable();
+      traceStamps_.addLong(value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param values The traceStamps to add.
+     * @return This builder for chaining.
+     */
+    public Builder addAllTraceStamps(
+        java.lang.Iterable<? extends java.lang.Long> values) {
+      ensureTraceStampsIsMutable();
+      com.google.protobuf.AbstractMessageLite.Builder.addAll(
+          values, traceStamps_);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *含义同TxnToken.traceStamps，由TxnToken透传而来
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearTraceStamps() {
+      traceStamps_ = emptyLongList();
+      bitField0_ = (bitField0_ & ~0x00000001);
+      onChanged();
+      return this;
+    }
     @java.lang.Override
     public final Builder setUnknownFields(
         final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -88,4 +88,36 @@ public interface TxnMergedTokenOrBuilder extends
    * <code>.google.protobuf.Int64Value serverId = 6;</code>
    */
   com.google.protobuf.Int64ValueOrBuilder getServerIdOrBuilder();
+
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return A list containing the traceStamps.
+   */
+  java.util.List<java.lang.Long> getTraceStampsList();
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return The count of traceStamps.
+   */
+  int getTraceStampsCount();
+  /**
+   * <pre>
+   **
+   *含义同TxnToken.traceStamps，由TxnToken透传而来
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @param index The index of the element to return.
+   * @return The traceStamps at the given index.
+   */
+  long getTraceStamps(int index);
 }
@@ -40,6 +40,7 @@ private static final long serialVersionUID = 0L;
     payload_ = com.google.protobuf.ByteString.EMPTY;
     table_ = "";
     ddl_ = "";
+    traceStamps_ = emptyLongList();
   }
 
   @java.lang.Override
@@ -168,6 +169,27 @@ private static final long serialVersionUID = 0L;
             ddl_ = s;
             break;
           }
+          case 129: {
+            if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+              traceStamps_ = newLongList();
+              mutable_bitField0_ |= 0x00000002;
+            }
+            traceStamps_.addLong(input.readFixed64());
+            break;
+          }
+          case 130: {
+            int length = input.readRawVarint32();
+            int limit = input.pushLimit(length);
+            if (!((mutable_bitField0_ & 0x00000002) != 0) && input.getBytesUntilLimit() > 0) {
+              traceStamps_ = newLongList();
+              mutable_bitField0_ |= 0x00000002;
+            }
+            while (input.getBytesUntilLimit() > 0) {
+              traceStamps_.addLong(input.readFixed64());
+            }
+            input.popLimit(limit);
+            break;
+          }
           default: {
             if (!parseUnknownField(
                 input, unknownFields, extensionRegistry, tag)) {
@@ -186,6 +208,9 @@ private static final long serialVersionUID = 0L;
       if (((mutable_bitField0_ & 0x00000001) != 0)) {
         allParties_ = allParties_.getUnmodifiableView();
       }
+      if (((mutable_bitField0_ & 0x00000002) != 0)) {
+        traceStamps_.makeImmutable(); // C
+      }
       this.unknownFields = unknownFields.build();
       makeExtensionsImmutable();
     }
@@ -682,6 +707,49 @@ private static final long serialVersionUID = 0L;
     }
   }
 
+  public static final int TRACESTAMPS_FIELD_NUMBER = 16;
+  private com.google.protobuf.Internal.LongList traceStamps_;
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return A list containing the traceStamps.
+   */
+  @java.lang.Override
+  public java.util.List<java.lang.Long>
+      getTraceStampsList() {
+    return traceStamps_;
+  }
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return The count of traceStamps.
+   */
+  public int getTraceStampsCount() {
+    return traceStamps_.size();
+  }
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @param index The index of the element to return.
+   * @return The traceStamps at the given index.
+   */
+  public long getTraceStamps(int index) {
+    return traceStamps_.getLong(index);
+  }
+  private int traceStampsMemoizedSerializedSize = -1;
+
   private byte memoizedIsInitialized = -1;
   @java.lang.Override
   public final boolean isInitialized() {
@@ -696,6 +764,7 @@ private static final long serialVersionUID = 0L;
   @java.lang.Override
   public void writeTo(com.google.protobuf.CodedOutputStream output)
                       throws java.io.IOException {
+    getSerializedSize();
     if (!getTsoBytes().isEmpty()) {
       com.google.protobuf.GeneratedMessageV3.writeString(output, 1, tso_);
     }
@@ -741,6 +810,13 @@ private static final long serialVersionUID = 0L;
     if (!getDdlBytes().isEmpty()) {
       com.google.protobuf.GeneratedMessageV3.writeString(output, 15, ddl_);
     }
+    if (getTraceStampsList().size() > 0) {
+      output.writeUInt32NoTag(130);
+      output.writeUInt32NoTag(traceStampsMemoizedSerializedSize);
+    }
+    for (int i = 0; i < traceStamps_.size(); i++) {
+      output.writeFixed64NoTag(traceStamps_.getLong(i));
+    }
     unknownFields.writeTo(output);
   }
 
@@ -807,6 +883,17 @@ private static final long serialVersionUID = 0L;
     if (!getDdlBytes().isEmpty()) {
       size += com.google.protobuf.GeneratedMessageV3.computeStringSize(15, ddl_);
     }
+    {
+      int dataSize = 0;
+      dataSize = 8 * getTraceStampsList().size();
+      size += dataSize;
+      if (!getTraceStampsList().isEmpty()) {
+        size += 2;
+        size += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(dataSize);
+      }
+      traceStampsMemoizedSerializedSize = dataSize;
+    }
     size += unknownFields.getSerializedSize();
     memoizedSize = size;
     return size;
@@ -854,6 +941,8 @@ private static final long serialVersionUID = 0L;
     }
     if (!getDdl()
         .equals(other.getDdl())) return false;
+    if (!getTraceStampsList()
+        .equals(other.getTraceStampsList())) return false;
     if (!unknownFields.equals(other.unknownFields)) return false;
     return true;
   }
@@ -902,6 +991,10 @@ private static final long serialVersionUID = 0L;
     }
     hash = (37 * hash) + DDL_FIELD_NUMBER;
     hash = (53 * hash) + getDdl().hashCode();
+    if (getTraceStampsCount() > 0) {
+      hash = (37 * hash) + TRACESTAMPS_FIELD_NUMBER;
+      hash = (53 * hash) + getTraceStampsList().hashCode();
+    }
     hash = (29 * hash) + unknownFields.hashCode();
     memoizedHashCode = hash;
     return hash;
@@ -1069,6 +1162,8 @@ private static final long serialVersionUID = 0L;
       }
       ddl_ = "";
 
+      traceStamps_ = emptyLongList();
+      bitField0_ = (bitField0_ & ~0x00000002);
       return this;
     }
 
@@ -1119,6 +1214,11 @@ private static final long serialVersionUID = 0L;
         result.serverId_ = serverIdBuilder_.build();
       }
       result.ddl_ = ddl_;
+      if (((bitField0_ & 0x00000002) != 0)) {
+        traceStamps_.makeImmutable();
+        bitField0_ = (bitField0_ & ~0x00000002);
+      }
+      result.traceStamps_ = traceStamps_;
       onBuilt();
       return result;
     }
@@ -1226,6 +1326,16 @@ private static final long serialVersionUID = 0L;
         ddl_ = other.ddl_;
         onChanged();
       }
+      if (!other.traceStamps_.isEmpty()) {
+        if (traceStamps_.isEmpty()) {
+          traceStamps_ = other.traceStamps_;
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          ensureTraceStampsIsMutable();
+          traceStamps_.addAll(other.traceStamps_);
+        }
+        onChanged();
+      }
       this.mergeUnknownFields(other.unknownFields);
       onChanged();
       return this;
@@ -2436,6 +2546,120 @@ private static final long serialVersionUID = 0L;
       onChanged();
       return this;
     }
+
+    private com.google.protobuf.Internal.LongList traceStamps_ = emptyLongList();
+    private void ensureTraceStampsIsMutable() {
+      if (!((bitField0_ & 0x00000002) != 0)) {
+        traceStamps_ = mutableCopy(traceStamps_);
+        bitField0_ |= 0x00000002;
+       }
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return A list containing the traceStamps.
+     */
+    public java.util.List<java.lang.Long>
+        getTraceStampsList() {
+      return ((bitField0_ & 0x00000002) != 0) ?
+               java.util.Collections.unmodifiableList(traceStamps_) : traceStamps_;
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return The count of traceStamps.
+     */
+    public int getTraceStampsCount() {
+      return traceStamps_.size();
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param index The index of the element to return.
+     * @return The traceStamps at the given index.
+     */
+    public long getTraceStamps(int index) {
+      return traceStamps_.getLong(index);
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param index The index to set the value at.
+     * @param value The traceStamps to set.
+     * @return This builder for chaining.
+     */
+    public Builder setTraceStamps(
+        int index, long value) {
+      ensureTraceStampsIsMutable();
+      traceStamps_.setLong(index, value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param value The traceStamps to add.
+     * @return This builder for chaining.
+     */
+    public Builder addTraceStamps(long value) {
+      ensureTraceStampsIsMutable();
+      traceStamps_.addLong(value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @param values The traceStamps to add.
+     * @return This builder for chaining.
+     */
+    public Builder addAllTraceStamps(
+        java.lang.Iterable<? extends java.lang.Long> values) {
+      ensureTraceStampsIsMutable();
+      com.google.protobuf.AbstractMessageLite.Builder.addAll(
+          values, traceStamps_);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     **
+     *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+     * </pre>
+     *
+     * <code>repeated fixed64 traceStamps = 16;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearTraceStamps() {
+      traceStamps_ = emptyLongList();
+      bitField0_ = (bitField0_ & ~0x00000002);
+      onChanged();
+      return this;
+    }
     @java.lang.Override
     public final Builder setUnknownFields(
         final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -263,4 +263,36 @@ public interface TxnTokenOrBuilder extends
    */
   com.google.protobuf.ByteString
       getDdlBytes();
+
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return A list containing the traceStamps.
+   */
+  java.util.List<java.lang.Long> getTraceStampsList();
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @return The count of traceStamps.
+   */
+  int getTraceStampsCount();
+  /**
+   * <pre>
+   **
+   *全链路分阶段延迟追踪的打点，高8位为阶段，低56位为微秒时间戳，未采样的事务不携带该字段
+   * </pre>
+   *
+   * <code>repeated fixed64 traceStamps = 16;</code>
+   * @param index The index of the element to return.
+   * @return The traceStamps at the given index.
+   */
+  long getTraceStamps(int index);
 }
@@ -196,6 +196,37 @@ public final class CdcServiceGrpc {
     return getSyncMethod;
   }
 
+  private static volatile io.grpc.MethodDescriptor<com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest,
+      com.aliyun.polardbx.rpc.cdc.BinlogEvent> getSearchBinlogEventsMethod;
+
+  @io.grpc.stub.annotations.RpcMethod(
+      fullMethodName = SERVICE_NAME + '/' + "SearchBinlogEvents",
+      requestType = com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest.class,
+      responseType = com.aliyun.polardbx.rpc.cdc.BinlogEvent.class,
+      methodType = io.grpc.MethodDescriptor.MethodType.SERVER_STREAMING)
+  public static io.grpc.MethodDescriptor<com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest,
+      com.aliyun.polardbx.rpc.cdc.BinlogEvent> getSearchBinlogEventsMethod() {
+    io.grpc.MethodDescriptor<com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest, com.aliyun.polardbx.rpc.cdc.BinlogEvent> getSearchBinlogEventsMethod;
+    if ((getSearchBinlogEventsMethod = CdcServiceGrpc.getSearchBinlogEventsMethod) == null) {
+      synchronized (CdcServiceGrpc.class) {
+        if ((getSearchBinlogEventsMethod = CdcServiceGrpc.getSearchBinlogEventsMethod) == null) {
+          CdcServiceGrpc.getSearchBinlogEventsMethod = getSearchBinlogEventsMethod =
+              io.grpc.MethodDescriptor.<com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest, com.aliyun.polardbx.rpc.cdc.BinlogEvent>newBuilder()
+              .setType(io.grpc.MethodDescriptor.MethodType.SERVER_STREAMING)
+              .setFullMethodName(generateFullMethodName(SERVICE_NAME, "SearchBinlogEvents"))
+              .setSampledToLocalTracing(true)
+              .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest.getDefaultInstance()))
+              .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.aliyun.polardbx.rpc.cdc.BinlogEvent.getDefaultInstance()))
+              .setSchemaDescriptor(new CdcServiceMethodDescriptorSupplier("SearchBinlogEvents"))
+              .build();
+        }
+      }
+    }
+    return getSearchBinlogEventsMethod;
+  }
+
   private static volatile io.grpc.MethodDescriptor<com.aliyun.polardbx.rpc.cdc.ChangeMasterRequest,
       com.aliyun.polardbx.rpc.cdc.RplCommandResponse> getChangeMasterMethod;
 
@@ -468,6 +499,13 @@ public final class CdcServiceGrpc {
       asyncUnimplementedUnaryCall(getSyncMethod(), responseObserver);
     }
 
+    /**
+     */
+    public void searchBinlogEvents(com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest request,
+        io.grpc.stub.StreamObserver<com.aliyun.polardbx.rpc.cdc.BinlogEvent> responseObserver) {
+      asyncUnimplementedUnaryCall(getSearchBinlogEventsMethod(), responseObserver);
+    }
+
     /**
      * <pre>
      *&#47;/////////////////////////// replicate   ///////////////////////////
@@ -550,6 +588,13 @@ public final class CdcServiceGrpc {
                 com.aliyun.polardbx.rpc.cdc.DumpRequest,
                 com.aliyun.polardbx.rpc.cdc.DumpStream>(
                   this, METHODID_SYNC)))
+          .addMethod(
+            getSearchBinlogEventsMethod(),
+            asyncServerStreamingCall(
+              new MethodHandlers<
+                com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest,
+                com.aliyun.polardbx.rpc.cdc.BinlogEvent>(
+                  this, METHODID_SEARCH_BINLOG_EVENTS)))
           .addMethod(
             getChangeMasterMethod(),
             asyncUnaryCall(
@@ -653,6 +698,14 @@ public final class CdcServiceGrpc {
           getChannel().newCall(getSyncMethod(), getCallOptions()), request, responseObserver);
     }
 
+    /**
+     */
+    public void searchBinlogEvents(com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest request,
+        io.grpc.stub.StreamObserver<com.aliyun.polardbx.rpc.cdc.BinlogEvent> responseObserver) {
+      asyncServerStreamingCall(
+          getChannel().newCall(getSearchBinlogEventsMethod(), getCallOptions()), request, responseObserver);
+    }
+
     /**
      * <pre>
      *&#47;/////////////////////////// replicate   ///////////////////////////
@@ -761,6 +814,14 @@ public final class CdcServiceGrpc {
           getChannel(), getSyncMethod(), getCallOptions(), request);
     }
 
+    /**
+     */
+    public java.util.Iterator<com.aliyun.polardbx.rpc.cdc.BinlogEvent> searchBinlogEvents(
+        com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest request) {
+      return blockingServerStreamingCall(
+          getChannel(), getSearchBinlogEventsMethod(), getCallOptions(), request);
+    }
+
     /**
      * <pre>
      *&#47;/////////////////////////// replicate   ///////////////////////////
@@ -879,12 +940,13 @@ public final class CdcServiceGrpc {
   private static final int METHODID_SHOW_BINLOG_EVENTS = 2;
   private static final int METHODID_DUMP = 3;
   private static final int METHODID_SYNC = 4;
-  private static final int METHODID_CHANGE_MASTER = 5;
-  private static final int METHODID_CHANGE_REPLICATION_FILTER = 6;
-  private static final int METHODID_START_SLAVE = 7;
-  private static final int METHODID_STOP_SLAVE = 8;
-  private static final int METHODID_RESET_SLAVE = 9;
-  private static final int METHODID_SHOW_SLAVE_STATUS = 10;
+  private static final int METHODID_SEARCH_BINLOG_EVENTS = 5;
+  private static final int METHODID_CHANGE_MASTER = 6;
+  private static final int METHODID_CHANGE_REPLICATION_FILTER = 7;
+  private static final int METHODID_START_SLAVE = 8;
+  private static final int METHODID_STOP_SLAVE = 9;
+  private static final int METHODID_RESET_SLAVE = 10;
+  private static final int METHODID_SHOW_SLAVE_STATUS = 11;
 
   private static final class MethodHandlers<Req, Resp> implements
       io.grpc.stub.ServerCalls.UnaryMethod<Req, Resp>,
@@ -923,6 +985,10 @@ public final class CdcServiceGrpc {
           serviceImpl.sync((com.aliyun.polardbx.rpc.cdc.DumpRequest) request,
               (io.grpc.stub.StreamObserver<com.aliyun.polardbx.rpc.cdc.DumpStream>) responseObserver);
           break;
+        case METHODID_SEARCH_BINLOG_EVENTS:
+          serviceImpl.searchBinlogEvents((com.aliyun.polardbx.rpc.cdc.SearchBinlogEventsRequest) request,
+              (io.grpc.stub.StreamObserver<com.aliyun.polardbx.rpc.cdc.BinlogEvent>) responseObserver);
+          break;
         case METHODID_CHANGE_MASTER:
           serviceImpl.changeMaster((com.aliyun.polardbx.rpc.cdc.ChangeMasterRequest) request,
               (io.grpc.stub.StreamObserver<com.aliyun.polardbx.rpc.cdc.RplCommandResponse>) responseObserver);
@@ -1013,6 +1079,7 @@ public final class CdcServiceGrpc {
               .addMethod(getShowBinlogEventsMethod())
               .addMethod(getDumpMethod())
               .addMethod(getSyncMethod())
+              .addMethod(getSearchBinlogEventsMethod())
               .addMethod(getChangeMasterMethod())
               .addMethod(getChangeReplicationFilterMethod())
               .addMethod(getStartSlaveMethod())
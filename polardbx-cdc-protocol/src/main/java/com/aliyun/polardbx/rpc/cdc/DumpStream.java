@@ -31,6 +31,7 @@ private static final long serialVersionUID = 0L;
   }
   private DumpStream() {
     payload_ = com.google.protobuf.ByteString.EMPTY;
+    eventEnds_ = emptyIntList();
   }
 
   @java.lang.Override
@@ -53,6 +54,7 @@ private static final long serialVersionUID = 0L;
     if (extensionRegistry == null) {
       throw new java.lang.NullPointerException();
     }
+    int mutable_bitField0_ = 0;
     com.google.protobuf.UnknownFieldSet.Builder unknownFields =
         com.google.protobuf.UnknownFieldSet.newBuilder();
     try {
@@ -73,6 +75,37 @@ private static final long serialVersionUID = 0L;
             isHeartBeat_ = input.readBool();
             break;
           }
+          case 24: {
+            if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+              eventEnds_ = newIntList();
+              mutable_bitField0_ |= 0x00000001;
+            }
+            eventEnds_.addInt(input.readInt32());
+            break;
+          }
+          case 26: {
+            int length = input.readRawVarint32();
+            int limit = input.pushLimit(length);
+            if (!((mutable_bitField0_ & 0x00000001) != 0) && input.getBytesUntilLimit() > 0) {
+              eventEnds_ = newIntList();
+              mutable_bitField0_ |= 0x00000001;
+            }
+            while (input.getBytesUntilLimit() > 0) {
+              eventEnds_.addInt(input.readInt32());
+            }
+            input.popLimit(limit);
+            break;
+          }
+          case 32: {
+
+            checksum_ = input.readInt64();
+            break;
+          }
+          case 40: {
+
+            rawLength_ = input.readInt32();
+            break;
+          }
           default: {
             if (!parseUnknownField(
                 input, unknownFields, extensionRegistry, tag)) {
@@ -88,6 +121,9 @@ private static final long serialVersionUID = 0L;
       throw new com.google.protobuf.InvalidProtocolBufferException(
           e).setUnfinishedMessage(this);
     } finally {
+      if (((mutable_bitField0_ & 0x00000001) != 0)) {
+        eventEnds_.makeImmutable(); // C
+      }
       this.unknownFields = unknownFields.build();
       makeExtensionsImmutable();
     }
@@ -127,6 +163,79 @@ private static final long serialVersionUID = 0L;
     return isHeartBeat_;
   }
 
+  public static final int EVENTENDS_FIELD_NUMBER = 3;
+  private com.google.protobuf.Internal.IntList eventEnds_;
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @return A list containing the eventEnds.
+   */
+  @java.lang.Override
+  public java.util.List<java.lang.Integer>
+      getEventEndsList() {
+    return eventEnds_;
+  }
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @return The count of eventEnds.
+   */
+  public int getEventEndsCount() {
+    return eventEnds_.size();
+  }
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @param index The index of the element to return.
+   * @return The eventEnds at the given index.
+   */
+  public int getEventEnds(int index) {
+    return eventEnds_.getInt(index);
+  }
+  private int eventEndsMemoizedSerializedSize = -1;
+
+  public static final int CHECKSUM_FIELD_NUMBER = 4;
+  private long checksum_;
+  /**
+   * <pre>
+   * 未压缩数据的CRC32校验值
+   * </pre>
+   *
+   * <code>int64 checksum = 4;</code>
+   * @return The checksum.
+   */
+  @java.lang.Override
+  public long getChecksum() {
+    return checksum_;
+  }
+
+  public static final int RAWLENGTH_FIELD_NUMBER = 5;
+  private int rawLength_;
+  /**
+   * <pre>
+   * 大于0表示payload经过压缩，值为压缩前的长度
+   * </pre>
+   *
+   * <code>int32 rawLength = 5;</code>
+   * @return The rawLength.
+   */
+  @java.lang.Override
+  public int getRawLength() {
+    return rawLength_;
+  }
+
   private byte memoizedIsInitialized = -1;
   @java.lang.Override
   public final boolean isInitialized() {
@@ -141,12 +250,26 @@ private static final long serialVersionUID = 0L;
   @java.lang.Override
   public void writeTo(com.google.protobuf.CodedOutputStream output)
                       throws java.io.IOException {
+    getSerializedSize();
     if (!payload_.isEmpty()) {
       output.writeBytes(1, payload_);
     }
     if (isHeartBeat_ != false) {
       output.writeBool(2, isHeartBeat_);
     }
+    if (getEventEndsList().size() > 0) {
+      output.writeUInt32NoTag(26);
+      output.writeUInt32NoTag(eventEndsMemoizedSerializedSize);
+    }
+    for (int i = 0; i < eventEnds_.size(); i++) {
+      output.writeInt32NoTag(eventEnds_.getInt(i));
+    }
+    if (checksum_ != 0L) {
+      output.writeInt64(4, checksum_);
+    }
+    if (rawLength_ != 0) {
+      output.writeInt32(5, rawLength_);
+    }
     unknownFields.writeTo(output);
   }
 
@@ -164,6 +287,28 @@ private static final long serialVersionUID = 0L;
       size += com.google.protobuf.CodedOutputStream
         .computeBoolSize(2, isHeartBeat_);
     }
+    {
+      int dataSize = 0;
+      for (int i = 0; i < eventEnds_.size(); i++) {
+        dataSize += com.google.protobuf.CodedOutputStream
+          .computeInt32SizeNoTag(eventEnds_.getInt(i));
+      }
+      size += dataSize;
+      if (!getEventEndsList().isEmpty()) {
+        size += 1;
+        size += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(dataSize);
+      }
+      eventEndsMemoizedSerializedSize = dataSize;
+    }
+    if (checksum_ != 0L) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeInt64Size(4, checksum_);
+    }
+    if (rawLength_ != 0) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeInt32Size(5, rawLength_);
+    }
     size += unknownFields.getSerializedSize();
     memoizedSize = size;
     return size;
@@ -183,6 +328,12 @@ private static final long serialVersionUID = 0L;
         .equals(other.getPayload())) return false;
     if (getIsHeartBeat()
         != other.getIsHeartBeat()) return false;
+    if (!getEventEndsList()
+        .equals(other.getEventEndsList())) return false;
+    if (getChecksum()
+        != other.getChecksum()) return false;
+    if (getRawLength()
+        != other.getRawLength()) return false;
     if (!unknownFields.equals(other.unknownFields)) return false;
     return true;
   }
@@ -199,6 +350,15 @@ private static final long serialVersionUID = 0L;
     hash = (37 * hash) + ISHEARTBEAT_FIELD_NUMBER;
     hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
         getIsHeartBeat());
+    if (getEventEndsCount() > 0) {
+      hash = (37 * hash) + EVENTENDS_FIELD_NUMBER;
+      hash = (53 * hash) + getEventEndsList().hashCode();
+    }
+    hash = (37 * hash) + CHECKSUM_FIELD_NUMBER;
+    hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+        getChecksum());
+    hash = (37 * hash) + RAWLENGTH_FIELD_NUMBER;
+    hash = (53 * hash) + getRawLength();
     hash = (29 * hash) + unknownFields.hashCode();
     memoizedHashCode = hash;
     return hash;
@@ -336,6 +496,12 @@ private static final long serialVersionUID = 0L;
 
       isHeartBeat_ = false;
 
+      eventEnds_ = emptyIntList();
+      bitField0_ = (bitField0_ & ~0x00000001);
+      checksum_ = 0L;
+
+      rawLength_ = 0;
+
       return this;
     }
 
@@ -362,8 +528,16 @@ private static final long serialVersionUID = 0L;
     @java.lang.Override
     public com.aliyun.polardbx.rpc.cdc.DumpStream buildPartial() {
       com.aliyun.polardbx.rpc.cdc.DumpStream result = new com.aliyun.polardbx.rpc.cdc.DumpStream(this);
+      int from_bitField0_ = bitField0_;
       result.payload_ = payload_;
       result.isHeartBeat_ = isHeartBeat_;
+      if (((bitField0_ & 0x00000001) != 0)) {
+        eventEnds_.makeImmutable();
+        bitField0_ = (bitField0_ & ~0x00000001);
+      }
+      result.eventEnds_ = eventEnds_;
+      result.checksum_ = checksum_;
+      result.rawLength_ = rawLength_;
       onBuilt();
       return result;
     }
@@ -418,6 +592,22 @@ private static final long serialVersionUID = 0L;
       if (other.getIsHeartBeat() != false) {
         setIsHeartBeat(other.getIsHeartBeat());
       }
+      if (!other.eventEnds_.isEmpty()) {
+        if (eventEnds_.isEmpty()) {
+          eventEnds_ = other.eventEnds_;
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          ensureEventEndsIsMutable();
+          eventEnds_.addAll(other.eventEnds_);
+        }
+        onChanged();
+      }
+      if (other.getChecksum() != 0L) {
+        setChecksum(other.getChecksum());
+      }
+      if (other.getRawLength() != 0) {
+        setRawLength(other.getRawLength());
+      }
       this.mergeUnknownFields(other.unknownFields);
       onChanged();
       return this;
@@ -446,6 +636,7 @@ private static final long serialVersionUID = 0L;
       }
       return this;
     }
+    private int bitField0_;
 
     private com.google.protobuf.ByteString payload_ = com.google.protobuf.ByteString.EMPTY;
     /**
@@ -511,6 +702,206 @@ private static final long serialVersionUID = 0L;
       onChanged();
       return this;
     }
+
+    private com.google.protobuf.Internal.IntList eventEnds_ = emptyIntList();
+    private void ensureEventEndsIsMutable() {
+      if (!((bitField0_ & 0x00000001) != 0)) {
+        eventEnds_ = mutableCopy(eventEnds_);
+        bitField0_ |= 0x00000001;
+       }
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @return A list containing the eventEnds.
+     */
+    public java.util.List<java.lang.Integer>
+        getEventEndsList() {
+      return ((bitField0_ & 0x00000001) != 0) ?
+               java.util.Collections.unmodifiableList(eventEnds_) : eventEnds_;
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @return The count of eventEnds.
+     */
+    public int getEventEndsCount() {
+      return eventEnds_.size();
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @param index The index of the element to return.
+     * @return The eventEnds at the given index.
+     */
+    public int getEventEnds(int index) {
+      return eventEnds_.getInt(index);
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @param index The index to set the value at.
+     * @param value The eventEnds to set.
+     * @return This builder for chaining.
+     */
+    public Builder setEventEnds(
+        int index, int value) {
+      ensureEventEndsIsMutable();
+      eventEnds_.setInt(index, value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @param value The eventEnds to add.
+     * @return This builder for chaining.
+     */
+    public Builder addEventEnds(int value) {
+      ensureEventEndsIsMutable();
+      eventEnds_.addInt(value);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @param values The eventEnds to add.
+     * @return This builder for chaining.
+     */
+    public Builder addAllEventEnds(
+        java.lang.Iterable<? extends java.lang.Integer> values) {
+      ensureEventEndsIsMutable();
+      com.google.protobuf.AbstractMessageLite.Builder.addAll(
+          values, eventEnds_);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * 以下字段仅在BLOCK模式下使用
+     * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+     * </pre>
+     *
+     * <code>repeated int32 eventEnds = 3;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearEventEnds() {
+      eventEnds_ = emptyIntList();
+      bitField0_ = (bitField0_ & ~0x00000001);
+      onChanged();
+      return this;
+    }
+
+    private long checksum_ ;
+    /**
+     * <pre>
+     * 未压缩数据的CRC32校验值
+     * </pre>
+     *
+     * <code>int64 checksum = 4;</code>
+     * @return The checksum.
+     */
+    @java.lang.Override
+    public long getChecksum() {
+      return checksum_;
+    }
+    /**
+     * <pre>
+     * 未压缩数据的CRC32校验值
+     * </pre>
+     *
+     * <code>int64 checksum = 4;</code>
+     * @param value The checksum to set.
+     * @return This builder for chaining.
+     */
+    public Builder setChecksum(long value) {
+      
+      checksum_ = value;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * 未压缩数据的CRC32校验值
+     * </pre>
+     *
+     * <code>int64 checksum = 4;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearChecksum() {
+      
+      checksum_ = 0L;
+      onChanged();
+      return this;
+    }
+
+    private int rawLength_ ;
+    /**
+     * <pre>
+     * 大于0表示payload经过压缩，值为压缩前的长度
+     * </pre>
+     *
+     * <code>int32 rawLength = 5;</code>
+     * @return The rawLength.
+     */
+    @java.lang.Override
+    public int getRawLength() {
+      return rawLength_;
+    }
+    /**
+     * <pre>
+     * 大于0表示payload经过压缩，值为压缩前的长度
+     * </pre>
+     *
+     * <code>int32 rawLength = 5;</code>
+     * @param value The rawLength to set.
+     * @return This builder for chaining.
+     */
+    public Builder setRawLength(int value) {
+      
+      rawLength_ = value;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * 大于0表示payload经过压缩，值为压缩前的长度
+     * </pre>
+     *
+     * <code>int32 rawLength = 5;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearRawLength() {
+      
+      rawLength_ = 0;
+      onChanged();
+      return this;
+    }
     @java.lang.Override
     public final Builder setUnknownFields(
         final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -32,4 +32,56 @@ public interface DumpStreamOrBuilder extends
    * @return The isHeartBeat.
    */
   boolean getIsHeartBeat();
+
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @return A list containing the eventEnds.
+   */
+  java.util.List<java.lang.Integer> getEventEndsList();
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @return The count of eventEnds.
+   */
+  int getEventEndsCount();
+  /**
+   * <pre>
+   * 以下字段仅在BLOCK模式下使用
+   * payload中每个event的结束偏移量(相对payload起始位置)，payload总是以完整的event结尾
+   * </pre>
+   *
+   * <code>repeated int32 eventEnds = 3;</code>
+   * @param index The index of the element to return.
+   * @return The eventEnds at the given index.
+   */
+  int getEventEnds(int index);
+
+  /**
+   * <pre>
+   * 未压缩数据的CRC32校验值
+   * </pre>
+   *
+   * <code>int64 checksum = 4;</code>
+   * @return The checksum.
+   */
+  long getChecksum();
+
+  /**
+   * <pre>
+   * 大于0表示payload经过压缩，值为压缩前的长度
+   * </pre>
+   *
+   * <code>int32 rawLength = 5;</code>
+   * @return The rawLength.
+   */
+  int getRawLength();
 }
@@ -63,6 +63,11 @@ public final class DumperServer {
   static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_dumper_DumpStream_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_dumper_SearchBinlogEventsRequest_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_dumper_SearchBinlogEventsRequest_fieldAccessorTable;
   static final com.google.protobuf.Descriptors.Descriptor
     internal_static_dumper_RplCommandResponse_descriptor;
   static final 
@@ -128,39 +133,47 @@ public final class DumperServer {
       " \001(\t\"q\n\013BinlogEvent\022\017\n\007logName\030\001 \001(\t\022\013\n\003" +
       "pos\030\002 \001(\003\022\021\n\teventType\030\003 \001(\t\022\020\n\010serverId" +
       "\030\004 \001(\003\022\021\n\tendLogPos\030\005 \001(\003\022\014\n\004info\030\006 \001(\t\"" +
-      "2\n\nDumpStream\022\017\n\007payload\030\001 \001(\014\022\023\n\013isHear" +
-      "tBeat\030\002 \001(\010\"7\n\022RplCommandResponse\022\022\n\nres" +
-      "ultCode\030\001 \001(\005\022\r\n\005error\030\002 \001(\t\"&\n\023ChangeMa" +
-      "sterRequest\022\017\n\007request\030\001 \001(\t\"$\n\021StartSla" +
-      "veRequest\022\017\n\007request\030\001 \001(\t\"#\n\020StopSlaveR" +
-      "equest\022\017\n\007request\030\001 \001(\t\"$\n\021ResetSlaveReq" +
-      "uest\022\017\n\007request\030\001 \001(\t\"1\n\036ChangeReplicati" +
-      "onFilterRequest\022\017\n\007request\030\001 \001(\t\")\n\026Show" +
-      "SlaveStatusRequest\022\017\n\007request\030\001 \001(\t\"+\n\027S" +
-      "howSlaveStatusResponse\022\020\n\010response\030\001 \001(\t" +
-      "*4\n\016EventSplitMode\022\n\n\006SERVER\020\000\022\n\n\006CLIENT" +
-      "\020\001\022\n\n\006RANDOM\020\0022\222\006\n\nCdcService\0228\n\016ShowBin" +
-      "aryLogs\022\017.dumper.Request\032\021.dumper.Binary" +
-      "Log\"\0000\001\022;\n\020ShowMasterStatus\022\017.dumper.Req" +
-      "uest\032\024.dumper.MasterStatus\"\000\022L\n\020ShowBinl" +
-      "ogEvents\022\037.dumper.ShowBinlogEventsReques" +
-      "t\032\023.dumper.BinlogEvent\"\0000\001\0223\n\004Dump\022\023.dum" +
-      "per.DumpRequest\032\022.dumper.DumpStream\"\0000\001\022" +
-      "3\n\004Sync\022\023.dumper.DumpRequest\032\022.dumper.Du" +
-      "mpStream\"\0000\001\022I\n\014ChangeMaster\022\033.dumper.Ch" +
-      "angeMasterRequest\032\032.dumper.RplCommandRes" +
-      "ponse\"\000\022_\n\027ChangeReplicationFilter\022&.dum" +
-      "per.ChangeReplicationFilterRequest\032\032.dum" +
-      "per.RplCommandResponse\"\000\022E\n\nStartSlave\022\031" +
-      ".dumper.StartSlaveRequest\032\032.dumper.RplCo" +
-      "mmandResponse\"\000\022C\n\tStopSlave\022\030.dumper.St" +
-      "opSlaveRequest\032\032.dumper.RplCommandRespon" +
-      "se\"\000\022E\n\nResetSlave\022\031.dumper.ResetSlaveRe" +
-      "quest\032\032.dumper.RplCommandResponse\"\000\022V\n\017S" +
-      "howSlaveStatus\022\036.dumper.ShowSlaveStatusR" +
-      "equest\032\037.dumper.ShowSlaveStatusResponse\"" +
-      "\0000\001B!\n\033com.aliyun.polardbx.rpc.cdcH\001P\001b\006" +
-      "proto3"
+      "j\n\nDumpStream\022\017\n\007payload\030\001 \001(\014\022\023\n\013isHear" +
+      "tBeat\030\002 \001(\010\022\021\n\teventEnds\030\003 \003(\005\022\020\n\010checks" +
+      "um\030\004 \001(\003\022\021\n\trawLength\030\005 \001(\005\"\253\001\n\031SearchBi" +
+      "nlogEventsRequest\022\022\n\nstreamName\030\001 \001(\t\022\017\n" +
+      "\007logName\030\002 \001(\t\022\020\n\010beginTso\030\003 \001(\t\022\016\n\006endT" +
+      "so\030\004 \001(\t\022\022\n\nschemaName\030\005 \001(\t\022\021\n\ttableNam" +
+      "e\030\006 \001(\t\022\021\n\teventType\030\007 \001(\t\022\r\n\005limit\030\010 \001(" +
+      "\003\"7\n\022RplCommandResponse\022\022\n\nresultCode\030\001 " +
+      "\001(\005\022\r\n\005error\030\002 \001(\t\"&\n\023ChangeMasterReques" +
+      "t\022\017\n\007request\030\001 \001(\t\"$\n\021StartSlaveRequest\022" +
+      "\017\n\007request\030\001 \001(\t\"#\n\020StopSlaveRequest\022\017\n\007" +
+      "request\030\001 \001(\t\"$\n\021ResetSlaveRequest\022\017\n\007re" +
+      "quest\030\001 \001(\t\"1\n\036ChangeReplicationFilterRe" +
+      "quest\022\017\n\007request\030\001 \001(\t\")\n\026ShowSlaveStatu" +
+      "sRequest\022\017\n\007request\030\001 \001(\t\"+\n\027ShowSlaveSt" +
+      "atusResponse\022\020\n\010response\030\001 \001(\t*?\n\016EventS" +
+      "plitMode\022\n\n\006SERVER\020\000\022\n\n\006CLIENT\020\001\022\n\n\006RAND" +
+      "OM\020\002\022\t\n\005BLOCK\020\0032\344\006\n\nCdcService\0228\n\016ShowBi" +
+      "naryLogs\022\017.dumper.Request\032\021.dumper.Binar" +
+      "yLog\"\0000\001\022;\n\020ShowMasterStatus\022\017.dumper.Re" +
+      "quest\032\024.dumper.MasterStatus\"\000\022L\n\020ShowBin" +
+      "logEvents\022\037.dumper.ShowBinlogEventsReque" +
+      "st\032\023.dumper.BinlogEvent\"\0000\001\0223\n\004Dump\022\023.du" +
+      "mper.DumpRequest\032\022.dumper.DumpStream\"\0000\001" +
+      "\0223\n\004Sync\022\023.dumper.DumpRequest\032\022.dumper.D" +
+      "umpStream\"\0000\001\022P\n\022SearchBinlogEvents\022!.du" +
+      "mper.SearchBinlogEventsRequest\032\023.dumper." +
+      "BinlogEvent\"\0000\001\022I\n\014ChangeMaster\022\033.dumper" +
+      ".ChangeMasterRequest\032\032.dumper.RplCommand" +
+      "Response\"\000\022_\n\027ChangeReplicationFilter\022&." +
+      "dumper.ChangeReplicationFilterRequest\032\032." +
+      "dumper.RplCommandResponse\"\000\022E\n\nStartSlav" +
+      "e\022\031.dumper.StartSlaveRequest\032\032.dumper.Rp" +
+      "lCommandResponse\"\000\022C\n\tStopSlave\022\030.dumper" +
+      ".StopSlaveRequest\032\032.dumper.RplCommandRes" +
+      "ponse\"\000\022E\n\nResetSlave\022\031.dumper.ResetSlav" +
+      "eRequest\032\032.dumper.RplCommandResponse\"\000\022V" +
+      "\n\017ShowSlaveStatus\022\036.dumper.ShowSlaveStat" +
+      "usRequest\032\037.dumper.ShowSlaveStatusRespon" +
+      "se\"\0000\001B!\n\033com.aliyun.polardbx.rpc.cdcH\001P" +
+      "\001b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -207,51 +220,57 @@ public final class DumperServer {
     internal_static_dumper_DumpStream_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_DumpStream_descriptor,
-        new java.lang.String[] { "Payload", "IsHeartBeat", });
-    internal_static_dumper_RplCommandResponse_descriptor =
+        new java.lang.String[] { "Payload", "IsHeartBeat", "EventEnds", "Checksum", "RawLength", });
+    internal_static_dumper_SearchBinlogEventsRequest_descriptor =
       getDescriptor().getMessageTypes().get(7);
+    internal_static_dumper_SearchBinlogEventsRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_dumper_SearchBinlogEventsRequest_descriptor,
+        new java.lang.String[] { "StreamName", "LogName", "BeginTso", "EndTso", "SchemaName", "TableName", "EventType", "Limit", });
+    internal_static_dumper_RplCommandResponse_descriptor =
+      getDescriptor().getMessageTypes().get(8);
     internal_static_dumper_RplCommandResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_RplCommandResponse_descriptor,
         new java.lang.String[] { "ResultCode", "Error", });
     internal_static_dumper_ChangeMasterRequest_descriptor =
-      getDescriptor().getMessageTypes().get(8);
+      getDescriptor().getMessageTypes().get(9);
     internal_static_dumper_ChangeMasterRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_ChangeMasterRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_StartSlaveRequest_descriptor =
-      getDescriptor().getMessageTypes().get(9);
+      getDescriptor().getMessageTypes().get(10);
     internal_static_dumper_StartSlaveRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_StartSlaveRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_StopSlaveRequest_descriptor =
-      getDescriptor().getMessageTypes().get(10);
+      getDescriptor().getMessageTypes().get(11);
     internal_static_dumper_StopSlaveRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_StopSlaveRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_ResetSlaveRequest_descriptor =
-      getDescriptor().getMessageTypes().get(11);
+      getDescriptor().getMessageTypes().get(12);
     internal_static_dumper_ResetSlaveRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_ResetSlaveRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_ChangeReplicationFilterRequest_descriptor =
-      getDescriptor().getMessageTypes().get(12);
+      getDescriptor().getMessageTypes().get(13);
     internal_static_dumper_ChangeReplicationFilterRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_ChangeReplicationFilterRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_ShowSlaveStatusRequest_descriptor =
-      getDescriptor().getMessageTypes().get(13);
+      getDescriptor().getMessageTypes().get(14);
     internal_static_dumper_ShowSlaveStatusRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_ShowSlaveStatusRequest_descriptor,
         new java.lang.String[] { "Request", });
     internal_static_dumper_ShowSlaveStatusResponse_descriptor =
-      getDescriptor().getMessageTypes().get(14);
+      getDescriptor().getMessageTypes().get(15);
     internal_static_dumper_ShowSlaveStatusResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_dumper_ShowSlaveStatusResponse_descriptor,
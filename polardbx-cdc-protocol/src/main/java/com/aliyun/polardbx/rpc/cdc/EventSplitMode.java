@@ -49,6 +49,15 @@ public enum EventSplitMode
    * <code>RANDOM = 2;</code>
    */
   RANDOM(2),
+  /**
+   * <pre>
+   **
+   * 按文件块进行传输，块内为若干完整的event，附带event边界索引和校验值，可选压缩
+   * </pre>
+   *
+   * <code>BLOCK = 3;</code>
+   */
+  BLOCK(3),
   UNRECOGNIZED(-1),
   ;
 
@@ -79,6 +88,15 @@ public enum EventSplitMode
    * <code>RANDOM = 2;</code>
    */
   public static final int RANDOM_VALUE = 2;
+  /**
+   * <pre>
+   **
+   * 按文件块进行传输，块内为若干完整的event，附带event边界索引和校验值，可选压缩
+   * </pre>
+   *
+   * <code>BLOCK = 3;</code>
+   */
+  public static final int BLOCK_VALUE = 3;
 
 
   public final int getNumber() {
@@ -108,6 +126,7 @@ public enum EventSplitMode
       case 0: return SERVER;
       case 1: return CLIENT;
       case 2: return RANDOM;
+      case 3: return BLOCK;
       default: return null;
     }
   }
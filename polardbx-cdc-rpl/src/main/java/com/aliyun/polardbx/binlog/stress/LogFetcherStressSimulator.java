@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogFetcher;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import com.aliyun.polardbx.rpl.extractor.cdc.buffer.ChunkQueueLogFetcher;
+import com.aliyun.polardbx.rpl.extractor.cdc.buffer.StreamObserverBuffer;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * rpl从dumper拉取binlog时LogFetcher的拆包压测，不依赖dumper和网络：
+ * 预先生成一批逻辑包并按dumper的发送粒度切成数据块，由生产者线程模拟gRPC回调写入，
+ * 分别用StreamObserverBuffer(管道拷贝)和ChunkQueueLogFetcher(数据块队列)读出全部包，输出吞吐对比
+ * <p>
+ * 参数：packetCount 包个数，minPacketSize/maxPacketSize 包大小范围，chunkSize 数据块大小，
+ * maxQueuedChunks ChunkQueueLogFetcher的队列长度，rounds 轮数(第一轮作为预热)
+ * </p>
+ */
+public class LogFetcherStressSimulator extends BaseStressSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(LogFetcherStressSimulator.class);
+    private static final int NET_HEADER_SIZE = 4;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !args[0].trim().isEmpty()) {
+            handleArgs(args[0]);
+        }
+        int packetCount = Integer.parseInt(getValue("packetCount", "1000000"));
+        int minPacketSize = Integer.parseInt(getValue("minPacketSize", "64"));
+        int maxPacketSize = Integer.parseInt(getValue("maxPacketSize", "2048"));
+        int chunkSize = Integer.parseInt(getValue("chunkSize", "65536"));
+        int maxQueuedChunks = Integer.parseInt(getValue("maxQueuedChunks", "64"));
+        int rounds = Integer.parseInt(getValue("rounds", "5"));
+
+        List<ByteString> chunks = buildChunks(packetCount, minPacketSize, maxPacketSize, chunkSize);
+        long totalBytes = 0;
+        for (ByteString chunk : chunks) {
+            totalBytes += chunk.size();
+        }
+        logger.info("packets {}, chunks {}, total {} MB", packetCount, chunks.size(), totalBytes >> 20);
+
+        for (int round = 1; round <= rounds; round++) {
+            long pipeNanos = consume(new StreamObserverBuffer(), chunks, packetCount);
+            long queueNanos = consume(new ChunkQueueLogFetcher(maxQueuedChunks), chunks, packetCount);
+            logger.info("round {}{}: StreamObserverBuffer {} ms, {} MB/s, {} packets/s; "
+                    + "ChunkQueueLogFetcher {} ms, {} MB/s, {} packets/s", round, round == 1 ? "(warm up)" : "",
+                pipeNanos / 1000000, mbps(totalBytes, pipeNanos), pps(packetCount, pipeNanos),
+                queueNanos / 1000000, mbps(totalBytes, queueNanos), pps(packetCount, queueNanos));
+        }
+        System.exit(0);
+    }
+
+    private static <T extends LogFetcher & StreamObserver<DumpStream>> long consume(T fetcher,
+                                                                                    List<ByteString> chunks,
+                                                                                    int packetCount)
+        throws Exception {
+        Thread producer = new Thread(() -> {
+            for (ByteString chunk : chunks) {
+                fetcher.onNext(DumpStream.newBuilder().setPayload(chunk).build());
+            }
+        }, "dump-stream-producer");
+        long begin = System.nanoTime();
+        producer.start();
+        long checksum = 0;
+        for (int i = 0; i < packetCount; i++) {
+            if (!fetcher.fetch()) {
+                throw new PolardbxException("unexpected end of stream at packet " + i);
+            }
+            // 和解码一样访问包的首尾，避免只测到指针移动
+            checksum += fetcher.getInt32(0) + fetcher.getUint8(fetcher.limit() - 1);
+            fetcher.consume(fetcher.limit());
+        }
+        long cost = System.nanoTime() - begin;
+        producer.join();
+        fetcher.close();
+        if (checksum == 0) {
+            logger.warn("empty checksum");
+        }
+        return cost;
+    }
+
+    private static List<ByteString> buildChunks(int packetCount, int minPacketSize, int maxPacketSize,
+                                                int chunkSize) {
+        Random random = new Random(17);
+        List<ByteString> chunks = new ArrayList<>();
+        byte[] chunk = new byte[chunkSize];
+        int used = 0;
+        for (int i = 0; i < packetCount; i++) {
+            int size = minPacketSize + random.nextInt(maxPacketSize - minPacketSize + 1);
+            byte[] packet = new byte[NET_HEADER_SIZE + 1 + size];
+            random.nextBytes(packet);
+            packet[0] = (byte) (size + 1);
+            packet[1] = (byte) ((size + 1) >> 8);
+            packet[2] = (byte) ((size + 1) >> 16);
+            packet[3] = 1;
+            packet[NET_HEADER_SIZE] = 0;
+            // 数据块不保证按包边界对齐，包可以跨越多个数据块
+            int offset = 0;
+            while (offset < packet.length) {
+                int n = Math.min(packet.length - offset, chunkSize - used);
+                System.arraycopy(packet, offset, chunk, used, n);
+                used += n;
+                offset += n;
+                if (used == chunkSize) {
+                    chunks.add(UnsafeByteOperations.unsafeWrap(chunk));
+                    chunk = new byte[chunkSize];
+                    used = 0;
+                }
+            }
+        }
+        if (used > 0) {
+            chunks.add(ByteString.copyFrom(chunk, 0, used));
+        }
+        return chunks;
+    }
+
+    private static long mbps(long bytes, long nanos) {
+        return bytes * 1000000000L / nanos >> 20;
+    }
+
+    private static long pps(long packets, long nanos) {
+        return packets * 1000000000L / nanos;
+    }
+}
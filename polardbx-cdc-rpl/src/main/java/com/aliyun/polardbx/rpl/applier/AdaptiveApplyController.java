@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.applier;
+
+import com.aliyun.polardbx.rpl.taskmeta.AdaptiveApplyConfig;
+import lombok.Getter;
+
+/**
+ * 根据周期内sql的rt、apply失败次数、目标端锁等待次数以及任务延迟，调整applier的并发度和每批apply的event个数
+ * 1. 出现apply失败或锁等待：并发度和批次大小减半
+ * 2. rt超过 基线rt * rtTolerance：按 基线rt * rtTolerance / rt 的比例降低并发度，最多减半
+ * 3. 延迟超过targetLagSeconds且rt正常：并发度加1，批次大小增加1/4
+ * 4. 其他情况保持不变
+ * 基线rt取观测到的最小rt，每个周期向当前rt靠拢一点，避免一直停留在过时的最小值上
+ * 初始值为上界，和不开启自适应时的行为一致
+ */
+public class AdaptiveApplyController {
+    private static final double BASELINE_DRIFT = 0.05;
+    private static final double MIN_RT_MS = 0.01;
+    private static final double MAX_DECREASE = 0.5;
+
+    public enum Decision {
+        INIT, IDLE, HOLD, INCREASE, THROTTLE, BACKOFF
+    }
+
+    private final AdaptiveApplyConfig config;
+    @Getter
+    private final int minParallelism;
+    @Getter
+    private final int maxParallelism;
+    @Getter
+    private final int minBatchSize;
+    @Getter
+    private final int maxBatchSize;
+    @Getter
+    private volatile int parallelism;
+    @Getter
+    private volatile int batchSize;
+    @Getter
+    private volatile Decision decision = Decision.INIT;
+    @Getter
+    private double baselineRt = -1;
+
+    /**
+     * @param poolSize applier线程池大小，并发度不会超过该值
+     * @param defaultMaxBatchSize 未配置maxBatchSize时使用的批次大小上界
+     */
+    public AdaptiveApplyController(AdaptiveApplyConfig config, int poolSize, int defaultMaxBatchSize) {
+        this.config = config;
+        int parallelismUpper =
+            config.getMaxParallelism() > 0 ? Math.min(config.getMaxParallelism(), poolSize) : poolSize;
+        this.maxParallelism = Math.max(1, parallelismUpper);
+        this.minParallelism = Math.max(1, Math.min(config.getMinParallelism(), this.maxParallelism));
+        int batchSizeUpper = config.getMaxBatchSize() > 0 ? config.getMaxBatchSize() : defaultMaxBatchSize;
+        this.maxBatchSize = Math.max(1, batchSizeUpper);
+        this.minBatchSize = Math.max(1, Math.min(config.getMinBatchSize(), this.maxBatchSize));
+        this.parallelism = this.maxParallelism;
+        this.batchSize = this.maxBatchSize;
+    }
+
+    /**
+     * @param applyCount 周期内执行的sql次数
+     * @param totalRtMs 周期内sql的总rt
+     * @param errorCount 周期内apply失败的次数，包括重试
+     * @param lockWaitCount 周期内目标端锁等待超时和死锁的次数
+     * @param lagSeconds 当前延迟，未知时小于0
+     */
+    public Decision update(long applyCount, long totalRtMs, long errorCount, long lockWaitCount, long lagSeconds) {
+        Decision newDecision;
+        if (errorCount > 0 || lockWaitCount > 0) {
+            parallelism = Math.max(minParallelism, parallelism / 2);
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+            newDecision = Decision.BACKOFF;
+        } else if (applyCount <= 0) {
+            newDecision = Decision.IDLE;
+        } else {
+            double rt = Math.max(MIN_RT_MS, (double) totalRtMs / applyCount);
+            if (baselineRt < 0 || rt < baselineRt) {
+                baselineRt = rt;
+            } else {
+                baselineRt += (rt - baselineRt) * BASELINE_DRIFT;
+            }
+
+            double gradient = baselineRt * config.getRtTolerance() / rt;
+            if (gradient < 1) {
+                parallelism = Math.max(minParallelism, (int) (parallelism * Math.max(MAX_DECREASE, gradient)));
+                newDecision = Decision.THROTTLE;
+            } else if (lagSeconds > config.getTargetLagSeconds()) {
+                parallelism = Math.min(maxParallelism, parallelism + 1);
+                batchSize = Math.min(maxBatchSize, batchSize + Math.max(1, batchSize / 4));
+                newDecision = Decision.INCREASE;
+            } else {
+                newDecision = Decision.HOLD;
+            }
+        }
+        decision = newDecision;
+        return newDecision;
+    }
+}
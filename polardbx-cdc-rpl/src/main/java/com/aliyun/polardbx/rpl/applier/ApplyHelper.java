@@ -37,9 +37,11 @@ import javax.sql.DataSource;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -72,6 +74,8 @@ public class ApplyHelper {
     private static final String DDL_STMT = "DDL_STMT";
     private static final String DDL_STATE = "STATE";
     private static final String DDL_STATE_PENDING = "PENDING";
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
 
     public static boolean isDdl(DBMSEvent dbmsEvent) {
         switch (dbmsEvent.getAction()) {
@@ -428,66 +432,36 @@ public class ApplyHelper {
 
     public static List<SqlContext> getInsertSqlExecContext(DBMSRowChange rowChange, TableInfo dstTbInfo,
                                                            int insertMode) {
+        // REPLACE INTO t1(column1, column2) VALUES (value1, value2)
+        // 每一行的sql完全相同，只需要构建一次
         List<? extends DBMSColumn> columns = rowChange.getColumns();
+        int[] columnIndexes = getColumnIndexes(columns, true);
+        String insertSql = String.format(getInsertSqlFormat(insertMode, null),
+            CommonUtils.escape(dstTbInfo.getSchema()),
+            CommonUtils.escape(dstTbInfo.getName()),
+            buildColumnNames(columns, columnIndexes),
+            buildValuesPlaceholder(columnIndexes.length));
 
         int rowCount = rowChange.getRowSize();
         List<SqlContext> contexts = Lists.newArrayListWithCapacity(rowCount);
         for (int i = 1; i <= rowCount; i++) {
-            // WHERE {column1} = {value1} AND {column2} = {value2}
-            // REPLACE INTO t1(column1, column2) VALUES (value1, value2)
-            StringBuilder nameSqlSb = new StringBuilder();
-            StringBuilder valueSqlSb = new StringBuilder();
-            List<Serializable> parmas = new ArrayList<>();
-
-            valueSqlSb.append("(");
-            Iterator<? extends DBMSColumn> it = columns.iterator();
-            while (it.hasNext()) {
-                DBMSColumn column = it.next();
-                if (isFiltered(column.getName())) {
-                    nameSqlSb.setLength(nameSqlSb.length() - 1);
-                    valueSqlSb.setLength(valueSqlSb.length() - 1);
-                    continue;
-                }
-                nameSqlSb.append(repairDMLName(column.getName()));
-                valueSqlSb.append("?");
-                if (it.hasNext()) {
-                    nameSqlSb.append(",");
-                    valueSqlSb.append(",");
-                }
-
-                Serializable columnValue = rowChange.getRowValue(i, column.getName());
-                parmas.add(columnValue);
-            }
-            valueSqlSb.append(")");
-            String sql = null;
-            switch (insertMode) {
-            case RplConstants.INSERT_MODE_SIMPLE_INSERT_OR_DELETE:
-                sql = BATCH_INSERT_SQL;
-                break;
-            case RplConstants.INSERT_MODE_INSERT_IGNORE:
-                sql = INSERT_IGNORE_SQL;
-                break;
-            case RplConstants.INSERT_MODE_REPLACE:
-                sql = REPLACE_SQL;
-                break;
-            default:
-                break;
-            }
-            String insertSql = String
-                .format(sql,
-                    CommonUtils.escape(dstTbInfo.getSchema()),
-                    CommonUtils.escape(dstTbInfo.getName()),
-                    nameSqlSb,
-                    valueSqlSb);
-            SqlContext context = new SqlContext(insertSql, dstTbInfo.getSchema(), dstTbInfo.getName(), parmas);
-            contexts.add(context);
+            List<Serializable> parmas = new ArrayList<>(columnIndexes.length);
+            addRowValues(rowChange, i, columnIndexes, false, parmas);
+            contexts.add(new SqlContext(insertSql, dstTbInfo.getSchema(), dstTbInfo.getName(), parmas));
         }
 
         return contexts;
     }
 
     public static List<SqlContext> getDeleteThenReplaceSqlExecContext(DBMSRowChange rowChange, TableInfo dstTbInfo) {
+        // REPLACE INTO t1(column1, column2) VALUES(value1, value2)
         List<? extends DBMSColumn> columns = rowChange.getColumns();
+        int[] columnIndexes = getColumnIndexes(columns, true);
+        String insertSql = String.format(REPLACE_SQL,
+            CommonUtils.escape(dstTbInfo.getSchema()),
+            CommonUtils.escape(dstTbInfo.getName()),
+            buildColumnNames(columns, columnIndexes),
+            buildValuesPlaceholder(columnIndexes.length));
 
         int rowCount = rowChange.getRowSize();
         List<SqlContext> contexts = Lists.newArrayListWithCapacity(rowCount * 2);
@@ -505,36 +479,8 @@ public class ApplyHelper {
                 contexts.add(context1);
             }
 
-            // REPLACE INTO t1(column1, column2) VALUES(value1, value2)
-            StringBuilder nameSqlSb = new StringBuilder();
-            StringBuilder valueSqlSb = new StringBuilder();
-            List<Serializable> parmas = new ArrayList<>();
-
-            valueSqlSb.append("(");
-            Iterator<? extends DBMSColumn> it = columns.iterator();
-            while (it.hasNext()) {
-                DBMSColumn column = it.next();
-                if (isFiltered(column.getName())) {
-                    nameSqlSb.setLength(nameSqlSb.length() - 1);
-                    valueSqlSb.setLength(valueSqlSb.length() - 1);
-                    continue;
-                }
-                nameSqlSb.append(repairDMLName(column.getName()));
-                valueSqlSb.append("?");
-                if (it.hasNext()) {
-                    nameSqlSb.append(",");
-                    valueSqlSb.append(",");
-                }
-                Serializable columnValue = rowChange.getChangeValue(i, column.getName());
-                parmas.add(columnValue);
-            }
-            valueSqlSb.append(")");
-            String insertSql = String
-                .format(REPLACE_SQL,
-                    CommonUtils.escape(dstTbInfo.getSchema()),
-                    CommonUtils.escape(dstTbInfo.getName()),
-                    nameSqlSb,
-                    valueSqlSb);
+            List<Serializable> parmas = new ArrayList<>(columnIndexes.length);
+            addRowValues(rowChange, i, columnIndexes, true, parmas);
             SqlContext context2 = new SqlContext(insertSql, dstTbInfo.getSchema(), dstTbInfo.getName(), parmas);
             contexts.add(context2);
         }
@@ -543,154 +489,131 @@ public class ApplyHelper {
     }
 
     public static MergeDmlSqlContext getMergeInsertUpdateSqlExecContext(DBMSRowChange rowChange, TableInfo dstTbInfo) {
+        // INSERT INTO t1(column1, column2) VALUES(value1, value2),(value3, value4)
         List<? extends DBMSColumn> columns = rowChange.getColumns();
-
-        StringBuilder nameSqlSb = new StringBuilder();
-        StringBuilder valueSqlSb = new StringBuilder();
-        List<Serializable> parmas = new ArrayList<>();
-
-        for (int i = 1; i <= rowChange.getRowSize(); i++) {
-            // INSERT INTO t1(column1, column2) VALUES(value1, value2),(value3, value4)
-            // ON DUPLICATE KEY UPDATE column1=VALUES(column1),columns2=VALUES(column2)
-            if (i > 1) {
-                valueSqlSb.append(",");
-            }
-            valueSqlSb.append("(");
-            Iterator<? extends DBMSColumn> it = columns.iterator();
-            while (it.hasNext()) {
-                DBMSColumn column = it.next();
-                if (isFiltered(column.getName())) {
-                    if (i == 1) {
-                        nameSqlSb.setLength(nameSqlSb.length() - 1);
-                    }
-                    valueSqlSb.setLength(valueSqlSb.length() - 1);
-                    continue;
-                }
-                if (i == 1) {
-                    nameSqlSb.append(repairDMLName(column.getName()));
-                }
-                valueSqlSb.append("?");
-
-                if (it.hasNext()) {
-                    if (i == 1) {
-                        nameSqlSb.append(",");
-                    }
-                    valueSqlSb.append(",");
-                }
-
-                Serializable columnValue = rowChange.getRowValue(i, column.getName());
-                parmas.add(columnValue);
-            }
-            valueSqlSb.append(")");
+        int[] columnIndexes = getColumnIndexes(columns, true);
+        int rowCount = rowChange.getRowSize();
+        List<Serializable> parmas = new ArrayList<>(rowCount * columnIndexes.length);
+        for (int i = 1; i <= rowCount; i++) {
+            addRowValues(rowChange, i, columnIndexes, false, parmas);
         }
 
         String insertSql = String
             .format(REPLACE_SQL, CommonUtils.escape(dstTbInfo.getSchema()),
-                CommonUtils.escape(dstTbInfo.getName()), nameSqlSb, valueSqlSb);
+                CommonUtils.escape(dstTbInfo.getName()), buildColumnNames(columns, columnIndexes),
+                buildMultiValuesPlaceholder(columnIndexes.length, rowCount));
         return new MergeDmlSqlContext(insertSql, dstTbInfo.getSchema(), dstTbInfo.getName(), parmas);
     }
 
     public static MergeDmlSqlContext getMergeInsertSqlExecContext(DBMSRowChange rowChange, TableInfo dstTbInfo,
                                                                   int insertMode) {
+        // INSERT INTO t1(column1, column2) VALUES(value1, value2),(value3, value4)
         List<? extends DBMSColumn> columns = rowChange.getColumns();
-        StringBuilder nameSqlSb = new StringBuilder();
-        StringBuilder valueSqlSb = new StringBuilder();
-        List<Serializable> parmas = new ArrayList<>();
-        for (int i = 1; i <= rowChange.getRowSize(); i++) {
-            // INSERT INTO t1(column1, column2) VALUES(value1, value2),(value3, value4)
-            // ON DUPLICATE KEY UPDATE column1=VALUES(column1),columns2=VALUES(column2)
-            if (i > 1) {
-                valueSqlSb.append(",");
-            }
-            valueSqlSb.append("(");
-            Iterator<? extends DBMSColumn> it = columns.iterator();
-            while (it.hasNext()) {
-                DBMSColumn column = it.next();
-                if (i == 1) {
-                    nameSqlSb.append(repairDMLName(column.getName()));
-                }
-                valueSqlSb.append("?");
-
-                if (it.hasNext()) {
-                    if (i == 1) {
-                        nameSqlSb.append(",");
-                    }
-                    valueSqlSb.append(",");
-                }
-
-                Serializable columnValue = rowChange.getRowValue(i, column.getName());
-                parmas.add(columnValue);
-            }
-            valueSqlSb.append(")");
-        }
-        String sql = null;
-        switch (insertMode) {
-        case RplConstants.INSERT_MODE_SIMPLE_INSERT_OR_DELETE:
-            sql = BATCH_INSERT_SQL;
-            break;
-        case RplConstants.INSERT_MODE_INSERT_IGNORE:
-            sql = INSERT_IGNORE_SQL;
-            break;
-        case RplConstants.INSERT_MODE_REPLACE:
-            sql = REPLACE_SQL;
-            break;
-        default:
-            break;
+        int[] columnIndexes = getColumnIndexes(columns, false);
+        int rowCount = rowChange.getRowSize();
+        List<Serializable> parmas = new ArrayList<>(rowCount * columnIndexes.length);
+        for (int i = 1; i <= rowCount; i++) {
+            addRowValues(rowChange, i, columnIndexes, false, parmas);
         }
+
         String insertSql = String
-            .format(sql, CommonUtils.escape(dstTbInfo.getSchema()),
-                CommonUtils.escape(dstTbInfo.getName()), nameSqlSb, valueSqlSb);
+            .format(getInsertSqlFormat(insertMode, null), CommonUtils.escape(dstTbInfo.getSchema()),
+                CommonUtils.escape(dstTbInfo.getName()), buildColumnNames(columns, columnIndexes),
+                buildMultiValuesPlaceholder(columnIndexes.length, rowCount));
         return new MergeDmlSqlContext(insertSql, dstTbInfo.getSchema(), dstTbInfo.getName(), parmas);
     }
 
     public static SqlContextV2 getMergeInsertSqlExecContextV2(DBMSRowChange rowChange, TableInfo dstTbInfo,
                                                                   int insertMode) {
         List<? extends DBMSColumn> columns = rowChange.getColumns();
-        List<List<Serializable>> paramsList = new ArrayList<>();
-        for (int i = 1; i <= rowChange.getRowSize(); i++) {
-            List<Serializable> params = new ArrayList<>();
-            for (DBMSColumn column : columns) {
-                Serializable columnValue = rowChange.getRowValue(i, column.getName());
-                params.add(columnValue);
-            }
+        int[] columnIndexes = getColumnIndexes(columns, false);
+        int rowCount = rowChange.getRowSize();
+        List<List<Serializable>> paramsList = new ArrayList<>(rowCount);
+        for (int i = 1; i <= rowCount; i++) {
+            List<Serializable> params = new ArrayList<>(columnIndexes.length);
+            addRowValues(rowChange, i, columnIndexes, false, params);
             paramsList.add(params);
         }
         if (StringUtils.isBlank(dstTbInfo.getSqlTemplate().get(insertMode))) {
-            StringBuilder nameSqlSb = new StringBuilder();
-            StringBuilder valueSqlSb = new StringBuilder();
-            valueSqlSb.append("(");
-            Iterator<? extends DBMSColumn> it = columns.iterator();
-            while (it.hasNext()) {
-                DBMSColumn column = it.next();
-                nameSqlSb.append(repairDMLName(column.getName()));
-                valueSqlSb.append("?");
-                if (it.hasNext()) {
-                    nameSqlSb.append(",");
-                    valueSqlSb.append(",");
-                }
-            }
-            valueSqlSb.append(")");
-            String sql;
-            switch (insertMode) {
-            case RplConstants.INSERT_MODE_INSERT_IGNORE:
-                sql = INSERT_IGNORE_SQL;
-                break;
-            case RplConstants.INSERT_MODE_REPLACE:
-                sql = REPLACE_SQL;
-                break;
-            default:
-                sql = BATCH_INSERT_SQL;
-                break;
-            }
             dstTbInfo.getSqlTemplate().put(insertMode,
-                String.format(sql, CommonUtils.escape(dstTbInfo.getSchema()),
-                    CommonUtils.escape(dstTbInfo.getName()), nameSqlSb, valueSqlSb));
+                String.format(getInsertSqlFormat(insertMode, BATCH_INSERT_SQL),
+                    CommonUtils.escape(dstTbInfo.getSchema()), CommonUtils.escape(dstTbInfo.getName()),
+                    buildColumnNames(columns, columnIndexes), buildValuesPlaceholder(columnIndexes.length)));
         }
         return new SqlContextV2(dstTbInfo.getSqlTemplate().get(insertMode),
             dstTbInfo.getSchema(), dstTbInfo.getName(), paramsList);
     }
 
+    /**
+     * 返回参与构建sql的列在rowChange中的下标(从1开始)，取值时直接按下标访问，避免每个单元格都按列名查找一次
+     */
+    static int[] getColumnIndexes(List<? extends DBMSColumn> columns, boolean skipFiltered) {
+        int[] indexes = new int[columns.size()];
+        int count = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (skipFiltered && isFiltered(columns.get(i).getName())) {
+                continue;
+            }
+            indexes[count++] = i + 1;
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
 
+    private static String buildColumnNames(List<? extends DBMSColumn> columns, int[] columnIndexes) {
+        StringBuilder nameSqlSb = new StringBuilder();
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (i > 0) {
+                nameSqlSb.append(",");
+            }
+            nameSqlSb.append(repairDMLName(columns.get(columnIndexes[i] - 1).getName()));
+        }
+        return nameSqlSb.toString();
+    }
+
+    static String buildValuesPlaceholder(int columnCount) {
+        StringBuilder valueSqlSb = new StringBuilder(columnCount * 2 + 1);
+        valueSqlSb.append("(");
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                valueSqlSb.append(",");
+            }
+            valueSqlSb.append("?");
+        }
+        return valueSqlSb.append(")").toString();
+    }
+
+    static String buildMultiValuesPlaceholder(int columnCount, int rowCount) {
+        String rowPlaceholder = buildValuesPlaceholder(columnCount);
+        StringBuilder valueSqlSb = new StringBuilder((rowPlaceholder.length() + 1) * rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                valueSqlSb.append(",");
+            }
+            valueSqlSb.append(rowPlaceholder);
+        }
+        return valueSqlSb.toString();
+    }
+
+    private static void addRowValues(DBMSRowChange rowChange, int rownum, int[] columnIndexes, boolean changeValue,
+                                     List<Serializable> params) {
+        for (int columnIndex : columnIndexes) {
+            params.add(changeValue ? rowChange.getChangeValue(rownum, columnIndex) :
+                rowChange.getRowValue(rownum, columnIndex));
+        }
+    }
+
+    private static String getInsertSqlFormat(int insertMode, String defaultFormat) {
+        switch (insertMode) {
+        case RplConstants.INSERT_MODE_SIMPLE_INSERT_OR_DELETE:
+            return BATCH_INSERT_SQL;
+        case RplConstants.INSERT_MODE_INSERT_IGNORE:
+            return INSERT_IGNORE_SQL;
+        case RplConstants.INSERT_MODE_REPLACE:
+            return REPLACE_SQL;
+        default:
+            return defaultFormat;
+        }
+    }
 
     public static List<SqlContext> getDeleteSqlExecContext(DBMSRowChange rowChange, TableInfo dstTbInfo) {
         // actually, only 1 row in a rowChange
@@ -733,6 +656,7 @@ public class ApplyHelper {
             StringBuilder setSqlSb = new StringBuilder();
             List<Serializable> parmas = new ArrayList<>();
 
+            int columnIndex = 1;
             Iterator<? extends DBMSColumn> it = changeColumns.iterator();
             while (it.hasNext()) {
                 DBMSColumn changeColumn = it.next();
@@ -741,7 +665,7 @@ public class ApplyHelper {
                     setSqlSb.append(",");
                 }
 
-                Serializable changeColumnValue = rowChange.getChangeValue(i, changeColumn.getName());
+                Serializable changeColumnValue = rowChange.getChangeValue(i, columnIndex++);
                 parmas.add(changeColumnValue);
             }
 
@@ -844,7 +768,20 @@ public class ApplyHelper {
         }
     }
 
+    private static void countLockWait(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                int errorCode = ((SQLException) t).getErrorCode();
+                if (errorCode == ER_LOCK_WAIT_TIMEOUT || errorCode == ER_LOCK_DEADLOCK) {
+                    StatisticalProxy.getInstance().addLockWaitCount(1);
+                    return;
+                }
+            }
+        }
+    }
+
     private static void logExecUpdateError(SqlContext sqlContext, Throwable e) {
+        countLockWait(e);
         log.error("failed in execUpdate, sql: {}, exception: {}",
             (StringUtils.isBlank(sqlContext.getSql()) || sqlContext.getSql().length() <= 200) ?
                 sqlContext.getSql() : sqlContext.getSql().substring(0, 200),
@@ -852,6 +789,7 @@ public class ApplyHelper {
     }
 
     private static void logExecUpdateError(SqlContextV2 sqlContext, Throwable e) {
+        countLockWait(e);
         log.error("failed in execUpdate, sql: {}, exception: {}",
             (StringUtils.isBlank(sqlContext.getSql()) || sqlContext.getSql().length() <= 200) ?
                 sqlContext.getSql() : sqlContext.getSql().substring(0, 200),
@@ -56,6 +56,12 @@ public class BaseApplier {
 
     public boolean applyDdlSql(String sql, String schema) throws Exception {return true; }
 
+    /**
+     * 调整并发apply的线程数，不支持并发的applier忽略
+     */
+    public void setParallelism(int parallelism) {
+    }
+
     public void logCommitInfo(List<DBMSEvent> dbmsEvents) {
         List<String> logs = new ArrayList<>();
         if (applierConfig.getLogCommitLevel() == RplConstants.LOG_ALL_COMMIT) {
@@ -23,6 +23,7 @@ import com.aliyun.polardbx.binlog.canal.core.model.AuthenticationInfo;
 import com.aliyun.polardbx.binlog.canal.exception.CanalParseException;
 import com.aliyun.polardbx.binlog.domain.po.RplDdl;
 import com.aliyun.polardbx.rpl.common.CommonUtil;
+import com.aliyun.polardbx.rpl.common.ParallelismLimitedExecutor;
 import com.aliyun.polardbx.rpl.common.RplConstants;
 import com.aliyun.polardbx.rpl.common.ThreadPoolUtil;
 import com.aliyun.polardbx.rpl.dbmeta.DbMetaCache;
@@ -77,9 +78,9 @@ public class MysqlApplier extends BaseApplier {
             }
             dbMetaCache = new DbMetaCache(hostInfo, applierConfig.getMaxPoolSize());
             defaultDataSource = dbMetaCache.getDataSource();
-            executorService =
-                ThreadPoolUtil
-                    .createExecutorWithFixedNum(applierConfig.getMaxPoolSize(), "mysqlApplier");
+            executorService = new ParallelismLimitedExecutor(
+                ThreadPoolUtil.createExecutorWithFixedNum(applierConfig.getMaxPoolSize(), "mysqlApplier"),
+                applierConfig.getMaxPoolSize());
             return true;
         } catch (Throwable e) {
             log.error("MysqlApplier init failed", e);
@@ -87,6 +88,13 @@ public class MysqlApplier extends BaseApplier {
         }
     }
 
+    @Override
+    public void setParallelism(int parallelism) {
+        if (executorService instanceof ParallelismLimitedExecutor) {
+            ((ParallelismLimitedExecutor) executorService).setParallelism(parallelism);
+        }
+    }
+
     @Override
     public boolean apply(List<DBMSEvent> dbmsEvents) {
         if (dbmsEvents == null || dbmsEvents.size() == 0) {
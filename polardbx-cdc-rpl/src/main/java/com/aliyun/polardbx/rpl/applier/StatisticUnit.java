@@ -35,4 +35,10 @@ public class StatisticUnit {
     private long skipCounter = 0;
     private long skipExceptionCounter = 0;
     private long persistentMessageCounter = 0;
+    private long applyErrorCounter = 0;
+    private long lockWaitCounter = 0;
+    // 当前生效的apply并发度和批次大小，以及自适应apply最近一次的决策
+    private int applyParallelism = 0;
+    private int applyBatchSize = 0;
+    private String adaptiveApplyDecision;
 }
@@ -27,6 +27,7 @@ import com.aliyun.polardbx.rpl.common.NamedThreadFactory;
 import com.aliyun.polardbx.rpl.common.RplConstants;
 import com.aliyun.polardbx.rpl.common.TaskContext;
 import com.aliyun.polardbx.rpl.pipeline.BasePipeline;
+import com.aliyun.polardbx.rpl.taskmeta.AdaptiveApplyConfig;
 import com.aliyun.polardbx.rpl.taskmeta.ApplierConfig;
 import com.aliyun.polardbx.rpl.taskmeta.DbTaskMetaManager;
 import com.aliyun.polardbx.rpl.taskmeta.FSMMetaManager;
@@ -38,6 +39,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -70,6 +72,14 @@ public class StatisticalProxy implements FlowLimiter {
     private AtomicLong skipCounter = new AtomicLong();
     private AtomicLong skipExceptionCounter = new AtomicLong();
     private AtomicLong persistentMessageCounter = new AtomicLong();
+    private AtomicLong applyErrorCounter = new AtomicLong();
+    private AtomicLong lockWaitCounter = new AtomicLong();
+
+    // 自适应apply的统计周期内的sql执行次数和总rt
+    private AtomicLong periodApplyCount = new AtomicLong();
+    private AtomicLong periodRt = new AtomicLong();
+    private long lastApplyErrorCount;
+    private long lastLockWaitCount;
 
     private AtomicLong totalInCache = new AtomicLong();
 
@@ -84,6 +94,9 @@ public class StatisticalProxy implements FlowLimiter {
     private int tpsLimit;
     private volatile FlowLimiter limiter;
     private Retryer<Boolean> retryer;
+    private int bufferSize;
+    private AdaptiveApplyConfig adaptiveApplyConfig;
+    private volatile AdaptiveApplyController adaptiveController;
 
 
     private static StatisticalProxy instance = new StatisticalProxy();
@@ -109,6 +122,9 @@ public class StatisticalProxy implements FlowLimiter {
             applier.setSafeMode(pipeline.getPipeLineConfig().isSafeMode());
             tpsLimit = pipeline.getPipeLineConfig().getFixedTpsLimit();
             initFlowLimiter();
+            bufferSize = pipeline.getPipeLineConfig().getBufferSize();
+            adaptiveApplyConfig = pipeline.getPipeLineConfig().getAdaptiveApplyConfig();
+            initAdaptiveController();
             retryer = RetryerBuilder.<Boolean>newBuilder()
                 .retryIfException()
                 .retryIfResult(input -> !input)
@@ -132,6 +148,9 @@ public class StatisticalProxy implements FlowLimiter {
             this::flushPosition, 0, 1, TimeUnit.SECONDS);
         executorService.scheduleAtFixedRate(
             this::checkPipelineConfig, 0, applierConfig.getStatisticIntervalSec(), TimeUnit.SECONDS);
+        executorService.scheduleAtFixedRate(
+            this::adjustApply, applierConfig.getStatisticIntervalSec(), applierConfig.getStatisticIntervalSec(),
+            TimeUnit.SECONDS);
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
                 flushPosition();
@@ -174,6 +193,69 @@ public class StatisticalProxy implements FlowLimiter {
         limiter = newLimitBucket;
     }
 
+    private void initAdaptiveController() {
+        if (adaptiveApplyConfig != null && adaptiveApplyConfig.isEnable()) {
+            adaptiveController =
+                new AdaptiveApplyController(adaptiveApplyConfig, applierConfig.getMaxPoolSize(), bufferSize);
+            log.info("adaptive apply enabled, parallelism [{}, {}], batch size [{}, {}]",
+                adaptiveController.getMinParallelism(), adaptiveController.getMaxParallelism(),
+                adaptiveController.getMinBatchSize(), adaptiveController.getMaxBatchSize());
+        } else {
+            adaptiveController = null;
+        }
+        applier.setParallelism(
+            adaptiveController == null ? applierConfig.getMaxPoolSize() : adaptiveController.getParallelism());
+    }
+
+    private void adjustApply() {
+        try {
+            long applies = periodApplyCount.getAndSet(0);
+            long totalRt = periodRt.getAndSet(0);
+            long errors = applyErrorCounter.get();
+            long lockWaits = lockWaitCounter.get();
+            long periodErrors = errors - lastApplyErrorCount;
+            long periodLockWaits = lockWaits - lastLockWaitCount;
+            lastApplyErrorCount = errors;
+            lastLockWaitCount = lockWaits;
+
+            AdaptiveApplyController controller = adaptiveController;
+            if (controller == null) {
+                return;
+            }
+            int oldParallelism = controller.getParallelism();
+            int oldBatchSize = controller.getBatchSize();
+            long lag = computeLag();
+            AdaptiveApplyController.Decision decision =
+                controller.update(applies, totalRt, periodErrors, periodLockWaits, lag);
+            if (controller.getParallelism() != oldParallelism) {
+                applier.setParallelism(controller.getParallelism());
+            }
+            if (controller.getParallelism() != oldParallelism || controller.getBatchSize() != oldBatchSize) {
+                log.info("adaptive apply {}, parallelism {} -> {}, batch size {} -> {}, apply count {}, total rt {}ms,"
+                        + " errors {}, lock waits {}, lag {}s", decision, oldParallelism, controller.getParallelism(),
+                    oldBatchSize, controller.getBatchSize(), applies, totalRt, periodErrors, periodLockWaits, lag);
+            }
+        } catch (Throwable e) {
+            log.error("adjust apply exception: ", e);
+        }
+    }
+
+    private long computeLag() {
+        BinlogPosition latestPosition = getLatestPosition();
+        if (latestPosition == null || latestPosition.getTimestamp() <= 0) {
+            return -1;
+        }
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - latestPosition.getTimestamp();
+    }
+
+    /**
+     * @return 每批apply的event个数上限，未开启自适应apply时不限制
+     */
+    public int getApplyBatchLimit() {
+        AdaptiveApplyController controller = adaptiveController;
+        return controller == null ? Integer.MAX_VALUE : controller.getBatchSize();
+    }
+
     private void checkPipelineConfig() {
         try {
             RplTaskConfig taskConfig = DbTaskMetaManager.getTaskConfig(TaskContext.getInstance().getTaskId());
@@ -185,6 +267,10 @@ public class StatisticalProxy implements FlowLimiter {
                 this.tpsLimit = config.getFixedTpsLimit();
                 initFlowLimiter();
             }
+            if (!Objects.equals(adaptiveApplyConfig, config.getAdaptiveApplyConfig())) {
+                adaptiveApplyConfig = config.getAdaptiveApplyConfig();
+                initAdaptiveController();
+            }
         } catch (Throwable e) {
             log.error("check config exception: ", e);
         }
@@ -195,10 +281,12 @@ public class StatisticalProxy implements FlowLimiter {
         if (res) {
             return true;
         } else {
+            addApplyErrorCount(1);
             log.warn("batch apply events failure");
             for (DBMSEvent event : events) {
                 boolean result = applier.apply(Collections.singletonList(event));
                 if (!result) {
+                    addApplyErrorCount(1);
                     log.error("stop because of the msg, " + event.toString());
                     return false;
                 }
@@ -212,10 +300,12 @@ public class StatisticalProxy implements FlowLimiter {
         if (res) {
             return true;
         } else {
+            addApplyErrorCount(1);
             log.warn("batch apply transactions failure");
             for (Transaction transaction : transactions) {
                 boolean result = applier.tranApply(Arrays.asList(transaction));
                 if (!result) {
+                    addApplyErrorCount(1);
                     if (skipAllException) {
                         log.warn("SKIP_ALL_EXCEPTION is true, will skip the transaction, " + transaction.toString());
                         addSkipExceptionCount(1);
@@ -259,10 +349,20 @@ public class StatisticalProxy implements FlowLimiter {
 
     public void addRt(long count) {
         rt.add(count);
+        periodRt.addAndGet(count);
     }
 
     public void addApplyCount(long count) {
         applyCount.add(count);
+        periodApplyCount.addAndGet(count);
+    }
+
+    public void addApplyErrorCount(long count) {
+        applyErrorCounter.addAndGet(count);
+    }
+
+    public void addLockWaitCount(long count) {
+        lockWaitCounter.addAndGet(count);
     }
 
     public void addSkipCount(long count) {
@@ -352,6 +452,17 @@ public class StatisticalProxy implements FlowLimiter {
         unit.setSkipCounter(skipCounter.get());
         unit.setSkipExceptionCounter(skipExceptionCounter.get());
         unit.setPersistentMessageCounter(persistentMessageCounter.get());
+        unit.setApplyErrorCounter(applyErrorCounter.get());
+        unit.setLockWaitCounter(lockWaitCounter.get());
+        AdaptiveApplyController controller = adaptiveController;
+        if (controller != null) {
+            unit.setApplyParallelism(controller.getParallelism());
+            unit.setApplyBatchSize(controller.getBatchSize());
+            unit.setAdaptiveApplyDecision(controller.getDecision().name());
+        } else {
+            unit.setApplyParallelism(applierConfig.getMaxPoolSize());
+            unit.setApplyBatchSize(bufferSize);
+        }
 
         statisticLogger.info(LogUtil.generateStatisticLog(unit, INTERVAL_1M, totalInCache.get()));
 
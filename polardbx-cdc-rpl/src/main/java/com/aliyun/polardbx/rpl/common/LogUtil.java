@@ -94,6 +94,11 @@ public class LogUtil {
             .append(" skipCount: ").append(unit.getSkipCounter())
             .append(" totalDealWithCount: ").append(unit.getPersistentMessageCounter())
             .append(" skipExceptionCount: ").append(unit.getSkipExceptionCounter())
+            .append(" applyErrorCount: ").append(unit.getApplyErrorCounter())
+            .append(" lockWaitCount: ").append(unit.getLockWaitCounter())
+            .append(" applyParallelism: ").append(unit.getApplyParallelism())
+            .append(" applyBatchSize: ").append(unit.getApplyBatchSize())
+            .append(" adaptiveApplyDecision: ").append(unit.getAdaptiveApplyDecision())
             .append(" totalInCache: ").append(totalInCache);
         return logSb.toString();
     }
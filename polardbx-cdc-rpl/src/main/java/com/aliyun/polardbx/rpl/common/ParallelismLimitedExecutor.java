@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.common;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制同时执行的任务数，底层是固定大小、队列无界的线程池，调小core size并不能降低并发，
+ * 这里用信号量控制同时执行的任务数，并发度可以在运行期调整，上限为底层线程池的线程数
+ */
+public class ParallelismLimitedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final ResizableSemaphore semaphore;
+    private final int maxParallelism;
+    private int parallelism;
+
+    public ParallelismLimitedExecutor(ExecutorService delegate, int maxParallelism) {
+        this.delegate = delegate;
+        this.maxParallelism = Math.max(1, maxParallelism);
+        this.parallelism = this.maxParallelism;
+        this.semaphore = new ResizableSemaphore(this.maxParallelism);
+    }
+
+    /**
+     * 调小并发度时不会中断正在执行的任务，正在执行的任务结束之后才会生效
+     */
+    public synchronized void setParallelism(int parallelism) {
+        int target = Math.max(1, Math.min(parallelism, maxParallelism));
+        if (target > this.parallelism) {
+            semaphore.release(target - this.parallelism);
+        } else if (target < this.parallelism) {
+            semaphore.reducePermits(this.parallelism - target);
+        }
+        this.parallelism = target;
+    }
+
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // 在工作线程中获取许可，提交线程不会被阻塞
+        delegate.execute(() -> {
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                // 线程池被shutdownNow，任务不再执行，取消对应的future避免调用方一直等待
+                Thread.currentThread().interrupt();
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                }
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                semaphore.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
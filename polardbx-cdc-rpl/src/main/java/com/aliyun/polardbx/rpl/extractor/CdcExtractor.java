@@ -16,6 +16,7 @@ package com.aliyun.polardbx.rpl.extractor;
 
 import com.alibaba.fastjson.JSON;
 import com.aliyun.polardbx.binlog.ConfigKeys;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.DynamicApplicationVersionConfig;
 import com.aliyun.polardbx.binlog.SpringContextHolder;
 import com.aliyun.polardbx.binlog.canal.MySqlInfo;
@@ -49,7 +50,7 @@ import com.aliyun.polardbx.rpc.cdc.MasterStatus;
 import com.aliyun.polardbx.rpc.cdc.Request;
 import com.aliyun.polardbx.rpl.applier.StatisticalProxy;
 import com.aliyun.polardbx.rpl.extractor.cdc.DefaultCdcExtractHandler;
-import com.aliyun.polardbx.rpl.extractor.cdc.buffer.StreamObserverBuffer;
+import com.aliyun.polardbx.rpl.extractor.cdc.buffer.ChunkQueueLogFetcher;
 import com.aliyun.polardbx.rpl.filter.BaseFilter;
 import com.aliyun.polardbx.rpl.taskmeta.ExtractorConfig;
 import com.aliyun.polardbx.rpl.taskmeta.HostInfo;
@@ -220,7 +221,8 @@ public class CdcExtractor extends BaseExtractor {
             findStartPosition(channel);
         }
 
-        StreamObserverBuffer logBuffer = new StreamObserverBuffer();
+        ChunkQueueLogFetcher logBuffer =
+            new ChunkQueueLogFetcher(DynamicApplicationConfig.getInt(ConfigKeys.RPL_CDC_DUMP_MAX_QUEUED_CHUNKS));
         CdcServiceGrpc.CdcServiceStub cdcServiceStub = CdcServiceGrpc.newStub(channel);
         cdcServiceStub.dump(DumpRequest.newBuilder()
             .setFileName(position.getFileName())
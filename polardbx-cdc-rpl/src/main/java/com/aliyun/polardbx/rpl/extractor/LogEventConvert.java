@@ -76,7 +76,9 @@ import java.sql.Types;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 基于{@linkplain LogEvent}转化为Entry对象的处理
@@ -117,6 +119,10 @@ public class LogEventConvert {
     protected FieldMeta rdsImplicitIDFieldMeta;
     protected TableMeta rdsHeartBeatTableMeta;
 
+    private static final int MAX_ROW_COLUMN_SCHEMA_CACHE_SIZE = 1024;
+    // TableMeta在DDL之后会被替换为新的对象，按对象标识缓存即可区分表结构版本
+    private final Map<TableMeta, RowColumnSchema> rowColumnSchemaCache = new IdentityHashMap<>();
+
     public LogEventConvert(HostInfo metaHostInfo, BaseFilter filter, BinlogPosition startBinlogPosition,
                            HostType srcHostType) {
         this.metaHostInfo = metaHostInfo;
@@ -533,6 +539,7 @@ public class LogEventConvert {
                                BitSet actualChangeColumns) throws UnsupportedEncodingException {
         int columnCnt = event.getTable().getColumnCnt();
         ColumnInfo[] columnInfo = event.getTable().getColumnInfo();
+        RowColumnSchema schema = getRowColumnSchema(tableMeta, columnCnt);
 
         DefaultRowData rowData = new DefaultRowData(columnCnt);
         for (int i = 0; i < columnCnt; i++) {
@@ -543,15 +550,8 @@ public class LogEventConvert {
             }
 
             FieldMeta fieldMeta = tableMeta.getFields().get(i);
-            // fixed issue
-            // https://github.com/alibaba/canal/issues/66，特殊处理binary/varbinary，不能做编码处理
-            boolean isBinary = StringUtils.containsIgnoreCase(fieldMeta.getColumnType(), "VARBINARY")
-                || StringUtils.containsIgnoreCase(fieldMeta.getColumnType(), "BINARY");
-            // 优先使用列的 charset, 如果列没有则使用表的 charset, 表一定有 charset
-            String charset = StringUtils.isNotBlank(fieldMeta.getCharset()) ? fieldMeta
-                .getCharset() : tableMeta.getCharset();
-            String javaCharset = CharsetConversion.getJavaCharset(charset);
-            buffer.nextValue(info.type, info.meta, isBinary, javaCharset);
+            String javaCharset = schema.javaCharsets[i];
+            buffer.nextValue(info.type, info.meta, schema.binaries[i], javaCharset);
 
             int javaType = buffer.getJavaType();
             Serializable dataValue = null;
@@ -630,7 +630,7 @@ public class LogEventConvert {
                     // https://github.com/AlibabaTech/canal/issues/18
                     // mysql binlog中blob/text都处理为blob类型，需要反查table
                     // meta，按编码解析text
-                    if (fieldMeta != null && isText(fieldMeta.getColumnType())) {
+                    if (fieldMeta != null && schema.texts[i]) {
                         dataValue = new String((byte[]) value, javaCharset);
                         javaType = Types.CLOB;
                     } else {
@@ -748,7 +748,55 @@ public class LogEventConvert {
         }
     }
 
-    protected boolean isText(String columnType) {
+    /**
+     * 同一个表结构版本的所有行共享列的解析信息，字段类型匹配和字符集转换只在表结构变化后计算一次
+     */
+    protected RowColumnSchema getRowColumnSchema(TableMeta tableMeta, int columnCnt) {
+        RowColumnSchema schema = rowColumnSchemaCache.get(tableMeta);
+        if (schema == null || !schema.matches(tableMeta, columnCnt)) {
+            if (rowColumnSchemaCache.size() >= MAX_ROW_COLUMN_SCHEMA_CACHE_SIZE) {
+                rowColumnSchemaCache.clear();
+            }
+            schema = new RowColumnSchema(tableMeta, columnCnt);
+            rowColumnSchemaCache.put(tableMeta, schema);
+        }
+        return schema;
+    }
+
+    protected static class RowColumnSchema {
+        private final int fieldCount;
+        private final int columnCnt;
+        private final boolean[] binaries;
+        private final boolean[] texts;
+        private final String[] javaCharsets;
+
+        RowColumnSchema(TableMeta tableMeta, int columnCnt) {
+            List<FieldMeta> fields = tableMeta.getFields();
+            this.fieldCount = fields.size();
+            this.columnCnt = columnCnt;
+            this.binaries = new boolean[columnCnt];
+            this.texts = new boolean[columnCnt];
+            this.javaCharsets = new String[columnCnt];
+            for (int i = 0; i < Math.min(columnCnt, fieldCount); i++) {
+                FieldMeta fieldMeta = fields.get(i);
+                // fixed issue
+                // https://github.com/alibaba/canal/issues/66，特殊处理binary/varbinary，不能做编码处理
+                binaries[i] = StringUtils.containsIgnoreCase(fieldMeta.getColumnType(), "VARBINARY")
+                    || StringUtils.containsIgnoreCase(fieldMeta.getColumnType(), "BINARY");
+                texts[i] = isText(fieldMeta.getColumnType());
+                // 优先使用列的 charset, 如果列没有则使用表的 charset, 表一定有 charset
+                String charset = StringUtils.isNotBlank(fieldMeta.getCharset()) ? fieldMeta
+                    .getCharset() : tableMeta.getCharset();
+                javaCharsets[i] = CharsetConversion.getJavaCharset(charset);
+            }
+        }
+
+        boolean matches(TableMeta tableMeta, int columnCnt) {
+            return this.columnCnt == columnCnt && this.fieldCount == tableMeta.getFields().size();
+        }
+    }
+
+    protected static boolean isText(String columnType) {
         return "LONGTEXT".equalsIgnoreCase(columnType) || "MEDIUMTEXT".equalsIgnoreCase(columnType)
             || "TEXT".equalsIgnoreCase(columnType) || "TINYTEXT".equalsIgnoreCase(columnType);
     }
@@ -0,0 +1,357 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.extractor.cdc.buffer;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogFetcher;
+import com.aliyun.polardbx.rpc.cdc.DumpRequest;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import com.google.protobuf.ByteOutput;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.MAX_PACKET_LENGTH;
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.NET_HEADER_SIZE;
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.SQLSTATE_LENGTH;
+
+/**
+ * 直接基于gRPC收到的DumpStream数据块(ByteString)进行拆包的LogFetcher
+ * 1. onNext只把payload放入队列，不做拷贝；gRPC关闭自动流控，每消费完一个数据块再向服务端request一个，队列长度不会超过maxQueuedChunks
+ * 2. 完整落在一个数据块内的包直接引用数据块的底层数组进行解析，跨数据块的包和超过16M的multi-packet拷贝到自有缓冲区中拼接
+ */
+public class ChunkQueueLogFetcher extends LogFetcher implements ClientResponseObserver<DumpRequest, DumpStream> {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkQueueLogFetcher.class);
+    private static final ByteString END_OF_STREAM = ByteString.copyFrom(new byte[1]);
+
+    private final int maxQueuedChunks;
+    private final LinkedBlockingQueue<ByteString> chunks = new LinkedBlockingQueue<>();
+    private final byte[] header = new byte[NET_HEADER_SIZE];
+    private final ArrayCapture arrayCapture = new ArrayCapture();
+    private volatile ClientCallStreamObserver<DumpRequest> requestStream;
+    private volatile Throwable error;
+    private volatile boolean closed;
+    private boolean initialRequested;
+    private boolean ended;
+
+    private ByteString chunk;
+    private int chunkPos;
+    private byte[] chunkArray;
+    private int chunkArrayOffset;
+    private byte[] packetBuffer;
+
+    private final AtomicLong receivedChunks = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    @Getter
+    private long zeroCopyPackets;
+    @Getter
+    private long copiedPackets;
+    private long lastLogTimestamp = System.currentTimeMillis();
+    private long lastReceivedBytes;
+
+    public ChunkQueueLogFetcher(int maxQueuedChunks) {
+        super(DEFAULT_INITIAL_CAPACITY, DEFAULT_GROWTH_FACTOR);
+        this.maxQueuedChunks = Math.max(1, maxQueuedChunks);
+        this.packetBuffer = buffer;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<DumpRequest> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.disableAutoInboundFlowControl();
+    }
+
+    @Override
+    public void onNext(DumpStream dumpStream) {
+        ByteString payload = dumpStream.getPayload();
+        if (payload.isEmpty()) {
+            // 心跳包不占用队列，直接请求下一个
+            request(1);
+            return;
+        }
+        receivedChunks.incrementAndGet();
+        receivedBytes.addAndGet(payload.size());
+        chunks.offer(payload);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        logger.error("dumper error!", t);
+        error = t;
+        chunks.offer(END_OF_STREAM);
+    }
+
+    @Override
+    public void onCompleted() {
+        logger.error("dumper completed!");
+        chunks.offer(END_OF_STREAM);
+    }
+
+    @Override
+    public boolean fetch() throws IOException {
+        try {
+            if (!readFully(header, 0, NET_HEADER_SIZE)) {
+                logger.warn("Reached end of input stream while fetching header");
+                return false;
+            }
+            int netlen = uint24(header);
+            int netnum = header[3] & 0xff;
+            if (netlen < MAX_PACKET_LENGTH && chunkArray != null && chunk.size() - chunkPos >= netlen) {
+                // 包完整的落在当前数据块中，直接引用数据块的数组
+                buffer = chunkArray;
+                origin = chunkArrayOffset + chunkPos;
+                limit = netlen;
+                chunkPos += netlen;
+                zeroCopyPackets++;
+            } else if (!copyPacket(netlen, netnum)) {
+                return false;
+            }
+
+            // Detecting error code.
+            final int mark = getUint8(0);
+            if (mark != 0) {
+                if (mark == 255) {
+                    // error from master
+                    position = origin + 1;
+                    final int errno = getInt16();
+                    String sqlstate = forward(1).getFixString(SQLSTATE_LENGTH);
+                    String errmsg = getFixString(limit - position());
+                    throw new IOException("Received error packet:" + " errno = " + errno + ", sqlstate = " + sqlstate
+                        + " errmsg = " + errmsg);
+                } else if (mark == 254) {
+                    logger.warn("Received EOF packet from server, apparent" + " master disconnected.");
+                    return false;
+                } else {
+                    throw new IOException("Unexpected response " + mark + " while fetching binlog: packet #" + netnum
+                        + ", len = " + netlen);
+                }
+            }
+
+            // Preparing buffer variables to decoding.
+            origin += 1;
+            position = origin;
+            limit -= 1;
+            tryLogReceiveSpeed();
+            return true;
+        } catch (InterruptedIOException e) {
+            close(); /* Do cleanup */
+            logger.warn("I/O interrupted while reading from dump stream", e);
+            throw e;
+        } catch (IOException e) {
+            close(); /* Do cleanup */
+            logger.error("I/O error while reading from dump stream", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (requestStream != null) {
+            requestStream.cancel("log fetcher closed", null);
+        }
+        chunks.offer(END_OF_STREAM);
+    }
+
+    private boolean copyPacket(int netlen, int netnum) throws IOException {
+        int length = 0;
+        while (true) {
+            packetBuffer = ensure(packetBuffer, length + netlen);
+            if (!readFully(packetBuffer, length, netlen)) {
+                logger.warn("Reached end of input stream: packet #" + netnum + ", len = " + netlen);
+                return false;
+            }
+            length += netlen;
+            if (netlen < MAX_PACKET_LENGTH) {
+                break;
+            }
+
+            // The first packet is a multi-packet, concatenate the packets.
+            if (!readFully(header, 0, NET_HEADER_SIZE)) {
+                logger.warn("Reached end of input stream while fetching header");
+                return false;
+            }
+            netlen = uint24(header);
+            netnum = header[3] & 0xff;
+        }
+        buffer = packetBuffer;
+        origin = 0;
+        limit = length;
+        copiedPackets++;
+        return true;
+    }
+
+    private boolean readFully(byte[] dst, int off, int len) throws IOException {
+        while (len > 0) {
+            if (!nextChunkIfNeeded()) {
+                return false;
+            }
+            int n = Math.min(len, chunk.size() - chunkPos);
+            if (chunkArray != null) {
+                System.arraycopy(chunkArray, chunkArrayOffset + chunkPos, dst, off, n);
+            } else {
+                chunk.copyTo(dst, chunkPos, off, n);
+            }
+            chunkPos += n;
+            off += n;
+            len -= n;
+        }
+        return true;
+    }
+
+    private boolean nextChunkIfNeeded() throws IOException {
+        while (chunk == null || chunkPos >= chunk.size()) {
+            if (ended) {
+                return false;
+            }
+            if (chunk != null) {
+                chunk = null;
+                chunkArray = null;
+                request(1);
+            }
+            if (!initialRequested) {
+                initialRequested = true;
+                // gRPC在开始调用时已经自动request了1个
+                request(maxQueuedChunks - 1);
+            }
+
+            ByteString next;
+            try {
+                next = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for dump stream");
+            }
+            if (next == END_OF_STREAM) {
+                ended = true;
+                if (error != null) {
+                    throw new IOException("dump stream failed", error);
+                }
+                return false;
+            }
+            chunk = next;
+            chunkPos = 0;
+            captureArray(next);
+        }
+        return true;
+    }
+
+    private void captureArray(ByteString byteString) {
+        arrayCapture.reset();
+        try {
+            UnsafeByteOperations.unsafeWriteTo(byteString, arrayCapture);
+        } catch (IOException e) {
+            arrayCapture.reset();
+        }
+        if (arrayCapture.array != null && arrayCapture.length == byteString.size()) {
+            chunkArray = arrayCapture.array;
+            chunkArrayOffset = arrayCapture.offset;
+        } else {
+            chunkArray = null;
+        }
+    }
+
+    private void request(int count) {
+        if (count > 0 && requestStream != null && !closed) {
+            requestStream.request(count);
+        }
+    }
+
+    private void tryLogReceiveSpeed() {
+        long now = System.currentTimeMillis();
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(now - lastLogTimestamp);
+        if (seconds > 15) {
+            long bytes = receivedBytes.get();
+            logger.info("receive from dumper {} KB/s, chunks {}, zero copy packets {}, copied packets {}",
+                (bytes - lastReceivedBytes) / 1024 / seconds, receivedChunks.get(), zeroCopyPackets, copiedPackets);
+            lastLogTimestamp = now;
+            lastReceivedBytes = bytes;
+        }
+    }
+
+    private static byte[] ensure(byte[] array, int capacity) {
+        if (array.length >= capacity) {
+            return array;
+        }
+        return new byte[Math.max(capacity, (int) Math.min(Integer.MAX_VALUE - 8, array.length * 2L))];
+    }
+
+    private static int uint24(byte[] buf) {
+        return (0xff & buf[0]) | ((0xff & buf[1]) << 8) | ((0xff & buf[2]) << 16);
+    }
+
+    /**
+     * 获取ByteString底层的数组，只有数据完整的存放在一个数组中时才有效
+     */
+    private static class ArrayCapture extends ByteOutput {
+        private byte[] array;
+        private int offset;
+        private int length;
+        private int writes;
+
+        void reset() {
+            array = null;
+            offset = 0;
+            length = 0;
+            writes = 0;
+        }
+
+        @Override
+        public void write(byte value) {
+            writes++;
+            array = null;
+        }
+
+        @Override
+        public void write(byte[] value, int offset, int length) {
+            writeLazy(value, offset, length);
+        }
+
+        @Override
+        public void writeLazy(byte[] value, int offset, int length) {
+            if (writes++ == 0) {
+                this.array = value;
+                this.offset = offset;
+                this.length = length;
+            } else {
+                this.array = null;
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer value) {
+            writes++;
+            array = null;
+        }
+
+        @Override
+        public void writeLazy(ByteBuffer value) {
+            write(value);
+        }
+    }
+}
@@ -27,6 +27,11 @@ import java.io.InterruptedIOException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 基于管道的LogFetcher，每个数据块都会拷贝进8K的PipedInputStream再逐包读出。
+ * CdcExtractor已改用ChunkQueueLogFetcher，此类不再用于生产链路，
+ * 只作为LogFetcherStressSimulator和ChunkQueueLogFetcherTest的对照基线保留
+ */
 public class StreamObserverBuffer extends LogFetcher implements StreamObserver<DumpStream> {
 
     /**
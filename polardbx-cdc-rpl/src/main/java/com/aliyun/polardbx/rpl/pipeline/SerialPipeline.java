@@ -275,7 +275,7 @@ public class SerialPipeline extends BasePipeline {
             }
             messageEvent.tryRelease();
 
-            if (endOfBatch) {
+            if (endOfBatch || eventBatch.size() >= StatisticalProxy.getInstance().getApplyBatchLimit()) {
                 log.info("pipeline received events, count: {}", eventBatch.size());
                 try {
                     StatisticalProxy.getInstance()
@@ -346,7 +346,7 @@ public class SerialPipeline extends BasePipeline {
             }
 
             messageEvent.tryRelease();
-            if (endOfBatch) {
+            if (endOfBatch || eventCount >= StatisticalProxy.getInstance().getApplyBatchLimit()) {
                 try {
                     // do NOT apply unfinished transaction
                     Transaction lastTransaction = null;
@@ -412,6 +412,8 @@ public class SerialPipeline extends BasePipeline {
         String lastPosition = null;
         // 本次event的结束位点
         String nowPosition = null;
+        // 上次apply之后收到的DML event个数
+        int receivedEventCount = 0;
         private List<Transaction> transactionBatch;
         private Map<String, Transaction> transactionMap;
         private LinkedHashMap<String, String> transactionPositionMap;
@@ -431,6 +433,7 @@ public class SerialPipeline extends BasePipeline {
             DBMSXATransaction xaTransaction = messageEvent.getXaTransaction();
             DBMSEvent dbmsEvent = messageEvent.getDbmsEventWithEffect();
             if (dbmsEvent instanceof DBMSRowChange) {
+                receivedEventCount++;
                 if (xaTransaction == null) {
                     Transaction transaction = getTransactionToApply();
                     transaction.appendRowChange(dbmsEvent);
@@ -506,7 +509,8 @@ public class SerialPipeline extends BasePipeline {
             }
             messageEvent.tryRelease();
 
-            if (endOfBatch) {
+            if (endOfBatch || receivedEventCount >= StatisticalProxy.getInstance().getApplyBatchLimit()) {
+                receivedEventCount = 0;
                 try {
                     // do NOT apply unfinished transaction
                     Transaction lastTransaction = null;
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.taskmeta;
+
+import lombok.Data;
+
+/**
+ * 自适应apply的上下界和目标，并发度和批次大小只会在[min, max]范围内调整
+ **/
+@Data
+public class AdaptiveApplyConfig {
+    private boolean enable = false;
+    private int minParallelism = 1;
+    // 小于等于0时取applierConfig.maxPoolSize，并且不会超过maxPoolSize
+    private int maxParallelism = -1;
+    private int minBatchSize = 64;
+    // 小于等于0时取pipelineConfig.bufferSize
+    private int maxBatchSize = -1;
+    // 延迟低于该值时不再加大并发和批次
+    private long targetLagSeconds = 10;
+    // 单条sql的rt超过基线rt的倍数后开始降低并发
+    private double rtTolerance = 2.0;
+}
@@ -31,6 +31,7 @@ public class PipelineConfig {
     private boolean skipException = false;
     private boolean safeMode = false;
     private PersistConfig persistConfig = new PersistConfig();
+    private AdaptiveApplyConfig adaptiveApplyConfig = new AdaptiveApplyConfig();
     private int applyRetryMaxTime = 5;
     private long retryIntervalMs = 1000;
 }
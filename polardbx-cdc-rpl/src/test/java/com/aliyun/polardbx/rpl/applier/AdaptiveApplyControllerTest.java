@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.applier;
+
+import com.aliyun.polardbx.rpl.taskmeta.AdaptiveApplyConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveApplyControllerTest {
+
+    @Test
+    public void testBounds() {
+        AdaptiveApplyConfig config = new AdaptiveApplyConfig();
+        config.setMaxParallelism(64);
+        config.setMinBatchSize(10000);
+        AdaptiveApplyController controller = new AdaptiveApplyController(config, 30, 2048);
+        Assert.assertEquals(30, controller.getMaxParallelism());
+        Assert.assertEquals(30, controller.getParallelism());
+        Assert.assertEquals(2048, controller.getMinBatchSize());
+        Assert.assertEquals(2048, controller.getBatchSize());
+    }
+
+    @Test
+    public void testBackoffAndRecover() {
+        AdaptiveApplyConfig config = new AdaptiveApplyConfig();
+        config.setMinParallelism(2);
+        config.setTargetLagSeconds(10);
+        AdaptiveApplyController controller = new AdaptiveApplyController(config, 16, 1024);
+
+        // 锁等待导致减半，不会低于下界
+        Assert.assertEquals(AdaptiveApplyController.Decision.BACKOFF, controller.update(100, 500, 0, 3, 100));
+        Assert.assertEquals(8, controller.getParallelism());
+        Assert.assertEquals(512, controller.getBatchSize());
+        controller.update(100, 500, 1, 0, 100);
+        controller.update(100, 500, 1, 0, 100);
+        controller.update(100, 500, 1, 0, 100);
+        Assert.assertEquals(2, controller.getParallelism());
+        Assert.assertEquals(64, controller.getBatchSize());
+
+        // rt正常且延迟超过目标，逐步加大
+        Assert.assertEquals(AdaptiveApplyController.Decision.INCREASE, controller.update(100, 500, 0, 0, 100));
+        Assert.assertEquals(3, controller.getParallelism());
+        Assert.assertEquals(80, controller.getBatchSize());
+        for (int i = 0; i < 100; i++) {
+            controller.update(100, 500, 0, 0, 100);
+        }
+        Assert.assertEquals(16, controller.getParallelism());
+        Assert.assertEquals(1024, controller.getBatchSize());
+
+        // 延迟在目标内保持不变，没有流量时也保持不变
+        Assert.assertEquals(AdaptiveApplyController.Decision.HOLD, controller.update(100, 500, 0, 0, 5));
+        Assert.assertEquals(AdaptiveApplyController.Decision.IDLE, controller.update(0, 0, 0, 0, 100));
+        Assert.assertEquals(16, controller.getParallelism());
+    }
+
+    @Test
+    public void testThrottleOnRt() {
+        AdaptiveApplyConfig config = new AdaptiveApplyConfig();
+        config.setRtTolerance(2.0);
+        AdaptiveApplyController controller = new AdaptiveApplyController(config, 20, 1024);
+
+        controller.update(1000, 1000, 0, 0, 100);
+        Assert.assertEquals(1.0, controller.getBaselineRt(), 0.0001);
+        Assert.assertEquals(20, controller.getParallelism());
+
+        // rt为基线的2.5倍，基线向rt靠拢到1.075，按1.075 * 2 / 2.5 = 0.86的比例降低
+        Assert.assertEquals(AdaptiveApplyController.Decision.THROTTLE, controller.update(1000, 2500, 0, 0, 100));
+        Assert.assertEquals(1.075, controller.getBaselineRt(), 0.0001);
+        Assert.assertEquals(17, controller.getParallelism());
+        Assert.assertEquals(1024, controller.getBatchSize());
+
+        // rt远超基线时最多减半
+        controller.update(1000, 100000, 0, 0, 100);
+        Assert.assertEquals(8, controller.getParallelism());
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.applier;
+
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DBMSAction;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DBMSColumn;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DefaultColumn;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DefaultColumnSet;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DefaultRowChange;
+import com.aliyun.polardbx.binlog.canal.binlog.dbms.DefaultRowData;
+import com.aliyun.polardbx.rpl.common.RplConstants;
+import com.aliyun.polardbx.rpl.dbmeta.TableInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ApplyHelperTest {
+
+    @Test
+    public void testMergeInsertSqlExecContext() {
+        DefaultRowChange rowChange = buildRowChange(3, "id", "name");
+        MergeDmlSqlContext context = ApplyHelper.getMergeInsertSqlExecContext(rowChange,
+            new TableInfo("d1", "t1"), RplConstants.INSERT_MODE_REPLACE);
+
+        Assert.assertEquals("REPLACE INTO `d1`.`t1`(`id`,`name`) VALUES (?,?),(?,?),(?,?)", context.getSql());
+        Assert.assertEquals(Arrays.asList("1", "name_1", "2", "name_2", "3", "name_3"), context.getParams());
+    }
+
+    @Test
+    public void testInsertSqlExecContextSkipImplicitId() {
+        DefaultRowChange rowChange = buildRowChange(2, RplConstants.RDS_IMPLICIT_ID, "id", "name");
+        List<SqlContext> contexts = ApplyHelper.getInsertSqlExecContext(rowChange, new TableInfo("d1", "t1"),
+            RplConstants.INSERT_MODE_INSERT_IGNORE);
+
+        Assert.assertEquals(2, contexts.size());
+        Assert.assertEquals("INSERT IGNORE INTO `d1`.`t1`(`id`,`name`) VALUES (?,?)", contexts.get(0).getSql());
+        Assert.assertEquals(Arrays.asList("1", "name_1"), contexts.get(0).getParams());
+        Assert.assertEquals(Arrays.asList("2", "name_2"), contexts.get(1).getParams());
+    }
+
+    private static DefaultRowChange buildRowChange(int rowCount, String... columnNames) {
+        List<DBMSColumn> columns = new ArrayList<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            columns.add(new DefaultColumn(columnNames[i], i, Types.VARCHAR, false, true, i == 0));
+        }
+        DefaultRowChange rowChange =
+            new DefaultRowChange(DBMSAction.INSERT, "d1", "t1", new DefaultColumnSet(columns));
+        for (int row = 1; row <= rowCount; row++) {
+            Serializable[] values = new Serializable[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                String name = columnNames[i];
+                values[i] = "id".equals(name) ? String.valueOf(row) : name + "_" + row;
+            }
+            rowChange.addRowData(new DefaultRowData(values));
+        }
+        return rowChange;
+    }
+}
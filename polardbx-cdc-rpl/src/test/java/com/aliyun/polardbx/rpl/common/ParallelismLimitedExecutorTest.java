@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelismLimitedExecutorTest {
+
+    @Test
+    public void testConcurrentTasksBoundedByParallelism() throws Exception {
+        ParallelismLimitedExecutor executor =
+            new ParallelismLimitedExecutor(ThreadPoolUtil.createExecutorWithFixedNum(8, "limitedTest"), 8);
+        try {
+            int maxConcurrent = runAndGetMaxConcurrent(executor);
+            Assert.assertTrue("max concurrent " + maxConcurrent, maxConcurrent > 3 && maxConcurrent <= 8);
+
+            executor.setParallelism(3);
+            Assert.assertEquals(3, executor.getParallelism());
+            maxConcurrent = runAndGetMaxConcurrent(executor);
+            Assert.assertTrue("max concurrent " + maxConcurrent, maxConcurrent <= 3);
+
+            executor.setParallelism(1);
+            Assert.assertEquals(1, runAndGetMaxConcurrent(executor));
+
+            // 超过底层线程数时按线程数截断
+            executor.setParallelism(100);
+            Assert.assertEquals(8, executor.getParallelism());
+            maxConcurrent = runAndGetMaxConcurrent(executor);
+            Assert.assertTrue("max concurrent " + maxConcurrent, maxConcurrent > 3 && maxConcurrent <= 8);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private int runAndGetMaxConcurrent(ParallelismLimitedExecutor executor) throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executor.submit(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        return maxRunning.get();
+    }
+}
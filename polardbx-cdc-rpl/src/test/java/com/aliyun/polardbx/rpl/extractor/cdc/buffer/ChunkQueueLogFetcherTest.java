@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.rpl.extractor.cdc.buffer;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogFetcher;
+import com.aliyun.polardbx.rpc.cdc.DumpStream;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.stub.StreamObserver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher.MAX_PACKET_LENGTH;
+
+public class ChunkQueueLogFetcherTest {
+
+    @Test
+    public void testFetchAcrossChunks() throws Exception {
+        Random random = new Random(7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int size = 4 + random.nextInt(3000);
+            writePacket(out, i, size);
+            sizes.add(size);
+        }
+        // 超过16M的包会被拆成multi-packet
+        writePacket(out, sizes.size(), MAX_PACKET_LENGTH + 100);
+        sizes.add(MAX_PACKET_LENGTH + 100);
+        writePacket(out, sizes.size(), 10);
+        sizes.add(10);
+
+        List<ByteString> chunks = split(out.toByteArray(), random, 1, 8192);
+        ChunkQueueLogFetcher fetcher = new ChunkQueueLogFetcher(16);
+        for (ByteString chunk : chunks) {
+            fetcher.onNext(DumpStream.newBuilder().setPayload(chunk).build());
+            fetcher.onNext(DumpStream.newBuilder().setIsHeartBeat(true).build());
+        }
+        fetcher.onCompleted();
+
+        for (int i = 0; i < sizes.size(); i++) {
+            Assert.assertTrue(fetcher.fetch());
+            verifyPacket(fetcher, i, sizes.get(i));
+        }
+        Assert.assertFalse(fetcher.fetch());
+        Assert.assertTrue(fetcher.getZeroCopyPackets() > 0);
+        Assert.assertTrue(fetcher.getCopiedPackets() > 0);
+    }
+
+    @Test
+    public void testErrorPacket() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(255);
+        body.write(1236 & 0xff);
+        body.write(1236 >> 8);
+        body.write('#');
+        body.write("HY000".getBytes(StandardCharsets.US_ASCII));
+        body.write("binlog not found".getBytes(StandardCharsets.US_ASCII));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, body.size(), 1);
+        body.writeTo(out);
+
+        ChunkQueueLogFetcher fetcher = new ChunkQueueLogFetcher(16);
+        fetcher.onNext(DumpStream.newBuilder().setPayload(ByteString.copyFrom(out.toByteArray())).build());
+        try {
+            fetcher.fetch();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("errno = 1236"));
+            Assert.assertTrue(e.getMessage().contains("errmsg = binlog not found"));
+        }
+    }
+
+    @Test
+    public void testStreamError() throws Exception {
+        ChunkQueueLogFetcher fetcher = new ChunkQueueLogFetcher(16);
+        fetcher.onError(new RuntimeException("connection reset"));
+        try {
+            fetcher.fetch();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("connection reset", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 生产者线程并发写入时，StreamObserverBuffer和ChunkQueueLogFetcher都应按序读出全部逻辑包
+     */
+    @Test
+    public void testConcurrentProducer() throws Exception {
+        Random random = new Random(11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int size = 32 + random.nextInt(1024);
+            writePacket(out, i, size);
+            sizes.add(size);
+        }
+        List<ByteString> chunks = split(out.toByteArray(), random, 1024, 8192);
+
+        consume(new StreamObserverBuffer(), chunks, sizes);
+        consume(new ChunkQueueLogFetcher(4), chunks, sizes);
+    }
+
+    private static <T extends LogFetcher & StreamObserver<DumpStream>> void consume(T fetcher,
+                                                                                    List<ByteString> chunks,
+                                                                                    List<Integer> sizes)
+        throws Exception {
+        Thread producer = new Thread(() -> {
+            for (ByteString chunk : chunks) {
+                fetcher.onNext(DumpStream.newBuilder().setPayload(chunk).build());
+            }
+        }, "dump-stream-producer");
+        producer.start();
+        for (int i = 0; i < sizes.size(); i++) {
+            Assert.assertTrue(fetcher.fetch());
+            verifyPacket(fetcher, i, sizes.get(i));
+            fetcher.consume(fetcher.limit());
+        }
+        producer.join();
+        fetcher.close();
+    }
+
+    private static void verifyPacket(LogFetcher fetcher, int index, int size) {
+        Assert.assertEquals(size, fetcher.limit());
+        Assert.assertEquals(index, fetcher.getInt32(0));
+        for (int j = 4; j < size; j += Math.max(1, size / 64)) {
+            Assert.assertEquals((index + j) & 0xff, fetcher.getUint8(j));
+        }
+        Assert.assertEquals((index + size - 1) & 0xff, fetcher.getUint8(size - 1));
+    }
+
+    /**
+     * 写入一个逻辑包，内容为mark(0) + 4字节序号 + 填充字节，超过MAX_PACKET_LENGTH时拆分为多个物理包
+     */
+    private static void writePacket(ByteArrayOutputStream out, int index, int size) {
+        byte[] payload = new byte[size + 1];
+        payload[1] = (byte) index;
+        payload[2] = (byte) (index >> 8);
+        payload[3] = (byte) (index >> 16);
+        payload[4] = (byte) (index >> 24);
+        for (int j = 4; j < size; j++) {
+            payload[j + 1] = (byte) (index + j);
+        }
+
+        int offset = 0;
+        int seq = 1;
+        while (true) {
+            int len = Math.min(MAX_PACKET_LENGTH, payload.length - offset);
+            writeHeader(out, len, seq++);
+            out.write(payload, offset, len);
+            offset += len;
+            if (len < MAX_PACKET_LENGTH) {
+                break;
+            }
+        }
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, int len, int seq) {
+        out.write(len & 0xff);
+        out.write((len >> 8) & 0xff);
+        out.write((len >> 16) & 0xff);
+        out.write(seq & 0xff);
+    }
+
+    private static List<ByteString> split(byte[] data, Random random, int minChunk, int maxChunk) {
+        List<ByteString> chunks = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            int len = Math.min(data.length - offset, minChunk + random.nextInt(maxChunk - minChunk + 1));
+            byte[] chunk = new byte[len];
+            System.arraycopy(data, offset, chunk, 0, len);
+            chunks.add(UnsafeByteOperations.unsafeWrap(chunk));
+            offset += len;
+        }
+        return chunks;
+    }
+}
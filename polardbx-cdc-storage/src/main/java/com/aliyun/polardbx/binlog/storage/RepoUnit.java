@@ -60,7 +60,7 @@ public class RepoUnit {
     }
 
     public List<byte[]> multiGet(List<byte[]> keys) throws RocksDBException {
-        return rocksDB.multiGetAsList(keys);
+        return rocksDB.multiGetAsList(readOptions, keys);
     }
 
     public byte[] get(byte[] key) throws RocksDBException {
@@ -133,6 +133,18 @@ public class RepoUnit {
         return rocksDB.newIterator(readOptions);
     }
 
+    /**
+     * 用于顺序读取一次的场景，开启迭代器预读，并且读取的数据不放入block cache
+     */
+    public RocksIterator getIterator(byte[] beginKey, byte[] endKey, long readaheadSize) {
+        ReadOptions readOptions = new ReadOptions(this.readOptions);
+        readOptions.setIterateLowerBound(new Slice(beginKey));
+        readOptions.setIterateUpperBound(new Slice(endKey));
+        readOptions.setReadaheadSize(readaheadSize);
+        readOptions.setFillCache(false);
+        return rocksDB.newIterator(readOptions);
+    }
+
     public byte[] getMaxKey() {
         try (RocksIterator iterator = rocksDB.newIterator(readOptions)) {
             iterator.seekToLast();
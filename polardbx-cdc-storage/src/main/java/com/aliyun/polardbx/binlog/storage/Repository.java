@@ -14,7 +14,7 @@
  */
 package com.aliyun.polardbx.binlog.storage;
 
-import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
+import com.aliyun.polardbx.binlog.ConfigValue;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.jvm.JvmUtils;
 import lombok.AllArgsConstructor;
@@ -38,6 +38,9 @@ import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PERSIST_CHECK_INTERV
  **/
 @Slf4j
 public class Repository {
+    private static final ConfigValue<Integer> PERSIST_CHECK_INTERVAL_MILLS =
+        ConfigValue.ofInt(STORAGE_PERSIST_CHECK_INTERVAL_MILLS);
+
     private final String basePath;
     private final PersistMode persistMode;
     private final Double persistNewThreshold;
@@ -130,7 +133,7 @@ public class Repository {
     }
 
     public boolean isReachPersistThreshold(boolean instantCheck) {
-        int checkInterval = DynamicApplicationConfig.getInt(STORAGE_PERSIST_CHECK_INTERVAL_MILLS);
+        int checkInterval = PERSIST_CHECK_INTERVAL_MILLS.get();
         if (instantCheck || System.currentTimeMillis() - persistCheckResult.checkTime >= checkInterval) {
             double totalRatio = JvmUtils.getTotalUsedRatio();
             double oldRatio = JvmUtils.getOldUsedRatio();
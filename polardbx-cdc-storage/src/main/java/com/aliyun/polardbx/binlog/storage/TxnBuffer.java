@@ -16,9 +16,13 @@ package com.aliyun.polardbx.binlog.storage;
 
 import com.alibaba.fastjson.JSONObject;
 import com.aliyun.polardbx.binlog.ClusterTypeEnum;
+import com.aliyun.polardbx.binlog.ConfigValue;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
@@ -29,11 +33,16 @@ import org.rocksdb.util.ByteUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -46,8 +55,12 @@ import java.util.stream.Collectors;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_BATCH_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_ENABLE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES;
 import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_MAX_EVENT_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_PARALLELISM;
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_READ_AHEAD_BATCHES;
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_RESTORE_READAHEAD_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_TRACEID_DISORDER_IGNORE;
 
 /**
@@ -60,6 +73,8 @@ public class TxnBuffer {
     private static final Logger logger = LoggerFactory.getLogger(TxnBuffer.class);
     private static final Logger traceIdLogger = LoggerFactory.getLogger("traceIdDisorderLogger");
     private static final String clusterType = DynamicApplicationConfig.getClusterType();
+    private static final ConfigValue<Boolean> TRACEID_DISORDER_IGNORE =
+        ConfigValue.ofBoolean(TASK_TRACEID_DISORDER_IGNORE);
     private static final AtomicLong sequenceGenerator = new AtomicLong(0L);
     private static final int beginKeySubSequence = 1;
 
@@ -188,7 +203,7 @@ public class TxnBuffer {
 
         //traceId是允许重复的，但不能回跳，所以此处只对乱序的情况进行校验
         if (StringUtils.isNotBlank(lastTraceId) && txnItem.getTraceId().compareTo(lastTraceId) < 0) {
-            boolean ignoreDisorderedTraceId = DynamicApplicationConfig.getBoolean(TASK_TRACEID_DISORDER_IGNORE);
+            boolean ignoreDisorderedTraceId = TRACEID_DISORDER_IGNORE.get();
             if (!ignoreDisorderedTraceId) {
                 throw new PolardbxException("detected disorderly traceId，current traceId is " + txnItem.getTraceId()
                     + ",last traceId is " + lastTraceId);
@@ -264,6 +279,65 @@ public class TxnBuffer {
         this.memSize += other.memSize;
     }
 
+    /**
+     * 将多个TxnBuffer的TxnItem一次性合并给当前的TxnBuffer，以TABLE_MAP_EVENT为边界进行N路堆归并，
+     * 与逐个调用merge的结果一致，但避免了参与者较多时反复两两归并带来的O(N*M)开销
+     */
+    public void mergeAll(List<TxnBuffer> others) {
+        mergeAll(others, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 参与归并的TxnBuffer个数超过stripeSize时，按stripeSize对其进行分组，各分组在executor中并行归并，
+     * 最后再对各分组的结果进行一次N路归并；分组是连续的，排序键相同时仍按参与者顺序输出，所以结果与单次归并一致
+     */
+    public void mergeAll(List<TxnBuffer> others, ExecutorService executor, int stripeSize) {
+        if (!isCompleted()) {
+            throw new PolardbxException("None completed txn buffer can't do merge.");
+        }
+
+        List<LinkedList<TxnItemRef>> lists = new ArrayList<>(others.size() + 1);
+        checkBeforeMerge(this);
+        lists.add(refList);
+        long othersMemSize = 0;
+        for (TxnBuffer other : others) {
+            checkBeforeMerge(other);
+            lists.add(other.refList);
+            othersMemSize += other.memSize;
+        }
+
+        if (executor != null && stripeSize > 1 && lists.size() > stripeSize) {
+            List<Future<LinkedList<TxnItemRef>>> futures = new ArrayList<>();
+            for (int i = 0; i < lists.size(); i += stripeSize) {
+                List<LinkedList<TxnItemRef>> stripe = lists.subList(i, Math.min(i + stripeSize, lists.size()));
+                futures.add(executor.submit(() -> mergeSortLists(stripe)));
+            }
+
+            List<LinkedList<TxnItemRef>> stripeResults = new ArrayList<>(futures.size());
+            for (Future<LinkedList<TxnItemRef>> future : futures) {
+                try {
+                    stripeResults.add(future.get());
+                } catch (Throwable t) {
+                    throw new PolardbxException("wait stripe merge error, txn key is " + txnKey, t);
+                }
+            }
+            lists = stripeResults;
+        }
+
+        this.refList = mergeSortLists(lists);
+        this.memSize += othersMemSize;
+    }
+
+    private void checkBeforeMerge(TxnBuffer buffer) {
+        if (buffer.itemSize() == 0) {
+            throw new PolardbxException("Buffer size should't be zero.");
+        }
+        if (buffer.refList.getFirst().getEventType() != LogEvent.TABLE_MAP_EVENT) {
+            throw new PolardbxException("The first event is not table_map_event, but is "
+                + buffer.refList.getFirst().getEventType() + ", and corresponding txn key is " + txnKey);
+        }
+    }
+
     public void compressDuplicateTraceId() {
         String lastTraceId = "";
         for (TxnItemRef ref : refList) {
@@ -283,52 +357,61 @@ public class TxnBuffer {
 
     public void restore() {
         if (hasPersistingData && !restored) {
+            long startMicros = StageLatencyTracer.nowMicros();
             byte[] beginKey = buildTxnItemRefKeyWithSubSequence(beginKeySubSequence);
             byte[] endKey = peekNextTxnItemRefKey().getRight();
-            List<Pair<byte[], byte[]>> repoList = getRepoUnit().getRange(beginKey, endKey, itemSizeBeforeMerge);
-            if (repoList.size() != itemSizeBeforeMerge) {
-                throw new PolardbxException(
-                    "list size from repository is not equal to sub sequence, [" + repoList.size() + ","
-                        + itemSizeBeforeMerge + "]");
-            }
+            long readaheadSize = DynamicApplicationConfig.getLong(STORAGE_RESTORE_READAHEAD_SIZE);
 
+            // 边读边restore，不需要先把整个事务的数据读到一个中间列表中
             int count = 0;
-            for (TxnItemRef txnItemRef : refList) {
-                if (txnItemRef.getTxnBuffer() == this) {
-                    try {
-                        Pair<byte[], byte[]> pair = repoList.get(count);
-                        txnItemRef.restore(pair.getKey(), pair.getValue());
-                        count++;
-                    } catch (Throwable t) {
-                        printErrorForRestore(repoList, count);
-                        throw t;
+            try (RocksIterator iterator = getRepoUnit().getIterator(beginKey, endKey, readaheadSize)) {
+                iterator.seek(beginKey);
+                for (TxnItemRef txnItemRef : refList) {
+                    if (txnItemRef.getTxnBuffer() == this) {
+                        if (!iterator.isValid()) {
+                            throw new PolardbxException(
+                                "txn item count in repository is less than which in memory, count in repository is "
+                                    + count + ", sub sequence is " + itemSizeBeforeMerge);
+                        }
+                        byte[] key = iterator.key();
+                        try {
+                            txnItemRef.restore(key, iterator.value());
+                            count++;
+                        } catch (Throwable t) {
+                            printErrorForRestore(key, count);
+                            throw t;
+                        }
+                        iterator.next();
                     }
                 }
+
+                if (iterator.isValid()) {
+                    throw new PolardbxException(
+                        "txn item count in repository is more than which in memory, count in memory is " + count);
+                }
             }
 
-            if (count != repoList.size()) {
+            if (count != itemSizeBeforeMerge) {
                 throw new PolardbxException(
-                    "txn item count in repository is not equal to which in memory, count in repository is " + repoList
-                        .size() + ", count in memory is " + count);
+                    "txn item count in repository is not equal to sub sequence, [" + count + ","
+                        + itemSizeBeforeMerge + "]");
             }
 
             restored = true;
+            StageLatencyMetrics.get().record(TraceStage.TXN_RESTORE, StageLatencyTracer.nowMicros() - startMicros);
         }
     }
 
-    private void printErrorForRestore(List<Pair<byte[], byte[]>> repoList, int count) {
+    private void printErrorForRestore(byte[] repoKey, int count) {
         List<TxnItemRef> txnItemRefs = refList.stream().filter(i -> i.getTxnBuffer() == TxnBuffer.this)
             .collect(Collectors.toList());
-        List<String> repoKeyList = repoList.stream()
-            .map(p -> new String(p.getKey())).collect(Collectors.toList());
         List<String> refKeyList = txnItemRefs.stream()
             .map(p -> new String(buildTxnItemRefKeyWithSubSequence(p.getSubKeySeq())))
             .collect(Collectors.toList());
 
-        logger.error("meet fatal error when restore txn item, repository list size is {}, "
+        logger.error("meet fatal error when restore txn item, repository key is {}, "
                 + "ref list size is {}, ref list size for this txn buffer is {}, current count is {},.",
-            repoList.size(), refList.size(), txnItemRefs.size(), count);
-        logger.error("key list for repository list is : " + JSONObject.toJSONString(repoKeyList, true));
+            new String(repoKey), refList.size(), txnItemRefs.size(), count);
         logger.error("key list for txn item ref list is :" + JSONObject.toJSONString(refKeyList, true));
     }
 
@@ -460,13 +543,57 @@ public class TxnBuffer {
         return mergeList;
     }
 
-    private void tryClearRowsQuery(TxnItemRef txnItemRef) {
+    /**
+     * mergeTwoSortList的N路版本，每个列表被视为以TABLE_MAP_EVENT开头的若干分段，
+     * 堆中按分段首个TABLE_MAP_EVENT的traceId排序(traceId相同时按列表顺序)，每次弹出一个完整分段
+     */
+    private static LinkedList<TxnItemRef> mergeSortLists(List<LinkedList<TxnItemRef>> lists) {
+        int totalSize = 0;
+        PriorityQueue<MergeCursor> heap = new PriorityQueue<>(Math.max(1, lists.size()));
+        for (int i = 0; i < lists.size(); i++) {
+            LinkedList<TxnItemRef> list = lists.get(i);
+            totalSize += list.size();
+            Iterator<TxnItemRef> it = list.iterator();
+            if (it.hasNext()) {
+                heap.add(new MergeCursor(i, it.next(), it));
+            }
+        }
+
+        String lastTraceId = "";
+        LinkedList<TxnItemRef> mergeList = new LinkedList<>();
+        while (!heap.isEmpty()) {
+            MergeCursor cursor = heap.poll();
+            lastTraceId = processRowsQuery(cursor.head, lastTraceId);
+            mergeList.add(cursor.head);
+
+            cursor.head = null;
+            while (cursor.iterator.hasNext()) {
+                TxnItemRef ref = cursor.iterator.next();
+                if (ref.getEventType() == LogEvent.TABLE_MAP_EVENT) {
+                    cursor.head = ref;
+                    break;
+                }
+                mergeList.add(ref);
+            }
+            if (cursor.head != null) {
+                heap.add(cursor);
+            }
+        }
+
+        if (mergeList.size() != totalSize) {
+            throw new PolardbxException(
+                "merge list size is incorrect : " + mergeList.size() + ", total input size is " + totalSize);
+        }
+        return mergeList;
+    }
+
+    private static void tryClearRowsQuery(TxnItemRef txnItemRef) {
         if (!ClusterTypeEnum.BINLOG_X.name().equals(clusterType)) {
             txnItemRef.clearRowsQuery();
         }
     }
 
-    private String processRowsQuery(TxnItemRef ref, String lastTraceId) {
+    private static String processRowsQuery(TxnItemRef ref, String lastTraceId) {
         if (ref.getEventType() == LogEvent.TABLE_MAP_EVENT) {
             if (ref.getTraceId().equals(lastTraceId)) {
                 tryClearRowsQuery(ref);
@@ -547,6 +674,7 @@ public class TxnBuffer {
 
     private void persistPreviousItems() {
         //将历史item也进行持久化
+        long startMicros = StageLatencyTracer.nowMicros();
         refList.forEach(r -> {
             try {
                 persistOneItem(r);
@@ -554,7 +682,7 @@ public class TxnBuffer {
                 throw new PolardbxException("txn item persist error.", e);
             }
         });
-
+        StageLatencyMetrics.get().record(TraceStage.TXN_SPILL, StageLatencyTracer.nowMicros() - startMicros);
     }
 
     private void persistOneItem(TxnItemRef ref) throws RocksDBException {
@@ -640,7 +768,12 @@ public class TxnBuffer {
         return repository.selectUnit(txnBufferId);
     }
 
-    private static class ParallelRestoreIterator implements Iterator<TxnItemRef> {
+    /**
+     * 流式restore：按批次并行从存储中恢复数据，并在消费当前批次的同时预读后续批次
+     * 预读到内存中但还未交给消费方的数据量不超过maxBufferBytes，超出部分不做restore，由消费方在getEventData时按需读取，
+     * 所以无论事务有多大，迭代器自身持有的内存都有固定上限；每个批次的条数根据已经读取到的event平均大小动态调整
+     */
+    static class ParallelRestoreIterator implements Iterator<TxnItemRef> {
         private final static ThreadPoolExecutor EXECUTORS;
 
         static {
@@ -654,17 +787,32 @@ public class TxnBuffer {
 
         private final List<TxnItemRef> txnItemRefList;
         private final Iterator<TxnItemRef> iterator;
-        private final LinkedList<TxnItemRef> batchData;
+        private final LinkedList<RestoreBatch> batches;
         private final int batchSize;
         private final int maxEventSize;
+        private final long maxBufferBytes;
+        private final int readAheadBatches;
+        private final int multiGetSize;
+        private final AtomicLong bufferedBytes;
+        private final AtomicLong peakBufferedBytes;
+        private final AtomicLong readBytes;
+        private final AtomicLong readCount;
+        private RestoreBatch current;
         private int index;
 
         ParallelRestoreIterator(List<TxnItemRef> txnItemRefList) {
             this.txnItemRefList = txnItemRefList;
             this.iterator = txnItemRefList.iterator();
-            this.batchData = new LinkedList<>();
+            this.batches = new LinkedList<>();
             this.batchSize = DynamicApplicationConfig.getInt(STORAGE_PARALLEL_RESTORE_BATCH_SIZE);
             this.maxEventSize = DynamicApplicationConfig.getInt(STORAGE_PARALLEL_RESTORE_MAX_EVENT_SIZE);
+            this.maxBufferBytes = DynamicApplicationConfig.getLong(STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES);
+            this.readAheadBatches = DynamicApplicationConfig.getInt(STORAGE_PARALLEL_RESTORE_READ_AHEAD_BATCHES);
+            this.multiGetSize = Math.max(1, DynamicApplicationConfig.getInt(STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE));
+            this.bufferedBytes = new AtomicLong(0);
+            this.peakBufferedBytes = new AtomicLong(0);
+            this.readBytes = new AtomicLong(0);
+            this.readCount = new AtomicLong(0);
             this.index = 0;
         }
 
@@ -675,31 +823,140 @@ public class TxnBuffer {
 
         @Override
         public TxnItemRef next() {
-            if (batchData.isEmpty() && iterator.hasNext()) {
-                while (iterator.hasNext()) {
-                    batchData.add(iterator.next());
-                    if (batchData.size() == batchSize) {
-                        break;
-                    }
+            // 第一次调用next时才开始restore，TxnMergeStageHandler中提前创建的迭代器不会占用内存
+            if (current == null || current.isExhausted()) {
+                if (batches.isEmpty()) {
+                    batches.add(submitBatch());
+                }
+                current = batches.removeFirst();
+                while (batches.size() < readAheadBatches && iterator.hasNext()) {
+                    batches.add(submitBatch());
+                }
+                long startMicros = StageLatencyTracer.nowMicros();
+                current.await();
+                StageLatencyMetrics.get().record(TraceStage.TXN_RESTORE, StageLatencyTracer.nowMicros() - startMicros);
+            }
+
+            index++;
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove is unsupported");
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super TxnItemRef> action) {
+            throw new UnsupportedOperationException("forEachRemaining is unsupported");
+        }
+
+        long getPeakBufferedBytes() {
+            return peakBufferedBytes.get();
+        }
+
+        private RestoreBatch submitBatch() {
+            RestoreBatch batch = new RestoreBatch(nextBatchCount());
+            while (iterator.hasNext() && batch.refs.size() < batch.sizes.length) {
+                batch.refs.add(iterator.next());
+            }
+            List<Integer> persisted = new ArrayList<>(batch.refs.size());
+            for (int i = 0; i < batch.refs.size(); i++) {
+                if (batch.refs.get(i).isPersisted()) {
+                    persisted.add(i);
+                }
+            }
+            // 每multiGetSize条数据通过一次MultiGet读取，不同的分片之间并行
+            for (int from = 0; from < persisted.size(); from += multiGetSize) {
+                List<Integer> seqs = persisted.subList(from, Math.min(persisted.size(), from + multiGetSize));
+                batch.futures.add(EXECUTORS.submit(() -> restoreSlice(batch, seqs)));
+            }
+            return batch;
+        }
+
+        private void restoreSlice(RestoreBatch batch, List<Integer> seqs) {
+            try {
+                // 归并之后的事务中的数据可能来自不同的TxnBuffer，需要按存储单元分组读取
+                Map<RepoUnit, List<Integer>> groups = new LinkedHashMap<>();
+                for (int seq : seqs) {
+                    RepoUnit repoUnit = batch.refs.get(seq).getTxnBuffer().getRepoUnit();
+                    groups.computeIfAbsent(repoUnit, k -> new ArrayList<>()).add(seq);
                 }
 
-                List<Future<?>> futures = new LinkedList<>();
-                for (TxnItemRef ref : batchData) {
-                    if (!ref.isPersisted()) {
+                for (Map.Entry<RepoUnit, List<Integer>> entry : groups.entrySet()) {
+                    // 按落盘时记录的大小预先占用额度，超大的或者额度不足的数据不读取，由消费方通过getEventData按需读取，
+                    // 避免同一条数据从RocksDB读取两次
+                    List<Integer> reserved = new ArrayList<>(entry.getValue().size());
+                    List<byte[]> keys = new ArrayList<>(entry.getValue().size());
+                    for (int seq : entry.getValue()) {
+                        TxnItemRef ref = batch.refs.get(seq);
+                        int size = ref.getPersistedSize();
+                        readBytes.addAndGet(size);
+                        readCount.incrementAndGet();
+                        if (size < maxEventSize && tryReserve(size)) {
+                            batch.sizes[seq] = size;
+                            reserved.add(seq);
+                            keys.add(ref.getTxnBuffer().buildTxnItemRefKeyWithSubSequence(ref.getSubKeySeq()));
+                        }
+                    }
+                    if (keys.isEmpty()) {
                         continue;
                     }
-                    futures.add(EXECUTORS.submit(() -> {
-                        try {
-                            byte[] key = ref.getTxnBuffer().buildTxnItemRefKeyWithSubSequence(ref.getSubKeySeq());
-                            byte[] value = ref.getTxnBuffer().getRepoUnit().get(key);
-                            if (value.length < maxEventSize) {
-                                ref.restore(key, value);
-                            }
-                        } catch (Throwable e) {
-                            throw new PolardbxException("restore error for txn item ref", e);
+
+                    List<byte[]> values = entry.getKey().multiGet(keys);
+                    for (int i = 0; i < keys.size(); i++) {
+                        byte[] value = values.get(i);
+                        if (value == null) {
+                            throw new PolardbxException(
+                                "txn item is not found in repository, " + new String(keys.get(i)));
                         }
-                    }));
+                        batch.refs.get(reserved.get(i)).restore(keys.get(i), value);
+                    }
                 }
+            } catch (Throwable e) {
+                throw new PolardbxException("restore error for txn item ref", e);
+            }
+        }
+
+        private int nextBatchCount() {
+            long count = readCount.get();
+            if (count == 0) {
+                return batchSize;
+            }
+            long batchBytes = maxBufferBytes / (readAheadBatches + 1);
+            long avgBytes = Math.max(1, readBytes.get() / count);
+            return (int) Math.max(1, Math.min(batchSize, batchBytes / avgBytes));
+        }
+
+        private boolean tryReserve(int size) {
+            while (true) {
+                long used = bufferedBytes.get();
+                long next = used + size;
+                if (next > maxBufferBytes) {
+                    return false;
+                }
+                if (bufferedBytes.compareAndSet(used, next)) {
+                    long peak;
+                    while ((peak = peakBufferedBytes.get()) < next && !peakBufferedBytes.compareAndSet(peak, next)) {
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private class RestoreBatch {
+            private final List<TxnItemRef> refs;
+            private final int[] sizes;
+            private final List<Future<?>> futures;
+            private int cursor;
+
+            RestoreBatch(int capacity) {
+                this.refs = new ArrayList<>(capacity);
+                this.sizes = new int[capacity];
+                this.futures = new ArrayList<>(capacity);
+            }
+
+            void await() {
                 futures.forEach(f -> {
                     try {
                         f.get();
@@ -709,18 +966,35 @@ public class TxnBuffer {
                 });
             }
 
-            index++;
-            return batchData.removeFirst();
+            boolean isExhausted() {
+                return cursor >= refs.size();
+            }
+
+            /**
+             * 交给消费方之后，内存的释放由消费方负责(clearEventData)，不再计入预读的数据量
+             */
+            TxnItemRef next() {
+                bufferedBytes.addAndGet(-sizes[cursor]);
+                return refs.get(cursor++);
+            }
         }
+    }
 
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException("remove is unsupported");
+    private static class MergeCursor implements Comparable<MergeCursor> {
+        private final int index;
+        private final Iterator<TxnItemRef> iterator;
+        private TxnItemRef head;
+
+        MergeCursor(int index, TxnItemRef head, Iterator<TxnItemRef> iterator) {
+            this.index = index;
+            this.head = head;
+            this.iterator = iterator;
         }
 
         @Override
-        public void forEachRemaining(Consumer<? super TxnItemRef> action) {
-            throw new UnsupportedOperationException("forEachRemaining is unsupported");
+        public int compareTo(MergeCursor o) {
+            int result = head.compareTo(o.head);
+            return result != 0 ? result : Integer.compare(index, o.index);
         }
     }
 
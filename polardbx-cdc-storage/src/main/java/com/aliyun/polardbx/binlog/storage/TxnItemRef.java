@@ -37,6 +37,10 @@ public class TxnItemRef implements Comparable<TxnItemRef> {
     private final int eventType;
     private boolean shouldClearRowsQuery;
     private int subKeySeq;
+    /**
+     * 落盘时序列化之后的字节数，restore时据此预先占用内存额度，不需要先读出数据
+     */
+    private int persistedSize;
     private boolean restored;
     private int hashKey;
     private List<byte[]> primaryKey;
@@ -65,7 +69,9 @@ public class TxnItemRef implements Comparable<TxnItemRef> {
         if (!isPersisted()) {
             Pair<Integer, byte[]> pair = txnBuffer.buildNewTxnItemRefKey();
             subKeySeq = pair.getLeft();
-            txnBuffer.getRepoUnit().put(pair.getRight(), eventData.toByteArray());
+            byte[] value = eventData.toByteArray();
+            persistedSize = value.length;
+            txnBuffer.getRepoUnit().put(pair.getRight(), value);
             clearEventData();//尽快执行垃圾回收
         } else {
             throw new PolardbxException("Invalid status :duplicate persist operation, txn item has already persisted."
@@ -133,7 +139,9 @@ public class TxnItemRef implements Comparable<TxnItemRef> {
         if (isPersisted()) {
             try {
                 byte[] key = txnBuffer.buildTxnItemRefKeyWithSubSequence(subKeySeq);
-                txnBuffer.getRepoUnit().put(key, eventData.toByteArray());
+                byte[] value = eventData.toByteArray();
+                persistedSize = value.length;
+                txnBuffer.getRepoUnit().put(key, value);
             } catch (RocksDBException e) {
                 throw new PolardbxException("set payload error", e);
             }
@@ -173,6 +181,10 @@ public class TxnItemRef implements Comparable<TxnItemRef> {
         return subKeySeq;
     }
 
+    int getPersistedSize() {
+        return persistedSize;
+    }
+
     public int getHashKey() {
         return hashKey;
     }
@@ -14,14 +14,26 @@
  */
 package com.aliyun.polardbx.binlog.storage;
 
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES;
+import static com.aliyun.polardbx.binlog.ConfigKeys.STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE;
 import static com.aliyun.polardbx.binlog.canal.binlog.LogEvent.TABLE_MAP_EVENT;
 import static com.aliyun.polardbx.binlog.canal.binlog.LogEvent.WRITE_ROWS_EVENT;
 
@@ -56,6 +68,37 @@ public class TxnBufferTest {
         });
     }
 
+    @Test
+    public void testMergeAll() {
+        int count = 40;
+        List<TxnBuffer> expectBuffers = buildSortedBufferList(count);
+        List<TxnBuffer> actualBuffers = buildSortedBufferList(count);
+
+        TxnBuffer expect = expectBuffers.get(0);
+        expectBuffers.subList(1, count).forEach(expect::merge);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TxnBuffer actual = actualBuffers.get(0);
+            actual.mergeAll(actualBuffers.subList(1, count), executor, 8);
+            Assert.assertEquals(expect.itemSize(), actual.itemSize());
+            Assert.assertEquals(expect.memSize(), actual.memSize());
+
+            // 验证与逐个两两归并的结果完全一致
+            Iterator<TxnItemRef> expectIt = expect.iterator();
+            Iterator<TxnItemRef> actualIt = actual.iterator();
+            while (expectIt.hasNext()) {
+                TxnItemRef e = expectIt.next();
+                TxnItemRef a = actualIt.next();
+                Assert.assertEquals(e.getTraceId(), a.getTraceId());
+                Assert.assertEquals(e.getEventType(), a.getEventType());
+                Assert.assertEquals(e.getEventData().getRowsQuery(), a.getEventData().getRowsQuery());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testSeek() {
         int size = 1001;
@@ -71,6 +114,131 @@ public class TxnBufferTest {
                 null, null, 0, null)));
     }
 
+    @Test
+    public void testStreamingRestoreWithBoundedMemory() throws Exception {
+        int itemCount = 2000;
+        int payloadSize = 64 * 1024;
+        long maxBufferBytes = 4 * 1024 * 1024;
+        File basePath = Files.createTempDirectory("txn_buffer_test").toFile();
+        Repository repository = new Repository(true, basePath.getAbsolutePath(), PersistMode.FORCE, 0.8,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, DeleteMode.RANGE, 1);
+        String previousMaxBufferBytes = DynamicApplicationConfig.getString(STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES);
+        DynamicApplicationConfig.setValue(STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES, String.valueOf(maxBufferBytes));
+        try {
+            repository.open();
+            TxnBuffer txnBuffer = new TxnBuffer(new TxnKey("txn", "0"), repository);
+            txnBuffer.markStart();
+            for (int i = 0; i < itemCount; i++) {
+                byte[] payload = new byte[payloadSize];
+                payload[0] = (byte) i;
+                payload[payloadSize - 1] = (byte) (i >> 8);
+                String traceId = StringUtils.leftPad(String.valueOf(i), 10, "0");
+                txnBuffer.push(TxnBufferItem.builder().traceId(traceId).eventType(WRITE_ROWS_EVENT)
+                    .payload(payload).build());
+            }
+            txnBuffer.markComplete();
+            Assert.assertTrue(txnBuffer.isPersisted());
+
+            // 事务总大小远超预读上限，逐条消费并释放，预读持有的内存不能超过上限
+            TxnBuffer.ParallelRestoreIterator iterator = new TxnBuffer.ParallelRestoreIterator(
+                Lists.newArrayList(txnBuffer.iterator()));
+            int index = 0;
+            while (iterator.hasNext()) {
+                TxnItemRef ref = iterator.next();
+                byte[] payload = ref.getEventData().getPayload().toByteArray();
+                Assert.assertEquals(StringUtils.leftPad(String.valueOf(index), 10, "0"), ref.getTraceId());
+                Assert.assertEquals((byte) index, payload[0]);
+                Assert.assertEquals((byte) (index >> 8), payload[payloadSize - 1]);
+                ref.clearEventData();
+                index++;
+            }
+            Assert.assertEquals(itemCount, index);
+            Assert.assertTrue(iterator.getPeakBufferedBytes() > 0);
+            Assert.assertTrue(iterator.getPeakBufferedBytes() <= maxBufferBytes);
+            txnBuffer.close();
+        } finally {
+            DynamicApplicationConfig.setValue(STORAGE_PARALLEL_RESTORE_MAX_BUFFER_BYTES, previousMaxBufferBytes);
+            repository.close();
+            FileUtils.deleteQuietly(basePath);
+        }
+    }
+
+    @Test
+    public void testParallelRestoreWithMultiGet() throws Exception {
+        int itemCount = 300;
+        File basePath = Files.createTempDirectory("txn_buffer_test").toFile();
+        Repository repository = new Repository(true, basePath.getAbsolutePath(), PersistMode.FORCE, 0.8,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, DeleteMode.RANGE, 1);
+        String multiGetSize = DynamicApplicationConfig.getString(STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE);
+        // 分片大小不能整除批次大小，覆盖最后一个不完整分片的场景
+        DynamicApplicationConfig.setValue(STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE, "7");
+        try {
+            repository.open();
+            TxnBuffer txnBuffer = new TxnBuffer(new TxnKey("txn", "0"), repository);
+            txnBuffer.markStart();
+            for (int i = 0; i < itemCount; i++) {
+                String traceId = StringUtils.leftPad(String.valueOf(i), 10, "0");
+                txnBuffer.push(TxnBufferItem.builder().traceId(traceId).eventType(WRITE_ROWS_EVENT)
+                    .payload(new byte[] {(byte) i, (byte) (i >> 8)}).build());
+            }
+            txnBuffer.markComplete();
+            Assert.assertTrue(txnBuffer.isPersisted());
+
+            TxnBuffer.ParallelRestoreIterator iterator = new TxnBuffer.ParallelRestoreIterator(
+                Lists.newArrayList(txnBuffer.iterator()));
+            int index = 0;
+            while (iterator.hasNext()) {
+                TxnItemRef ref = iterator.next();
+                byte[] payload = ref.getEventData().getPayload().toByteArray();
+                Assert.assertEquals(StringUtils.leftPad(String.valueOf(index), 10, "0"), ref.getTraceId());
+                Assert.assertEquals((byte) index, payload[0]);
+                Assert.assertEquals((byte) (index >> 8), payload[1]);
+                ref.clearEventData();
+                index++;
+            }
+            Assert.assertEquals(itemCount, index);
+            txnBuffer.close();
+        } finally {
+            DynamicApplicationConfig.setValue(STORAGE_PARALLEL_RESTORE_MULTI_GET_SIZE, multiGetSize);
+            repository.close();
+            FileUtils.deleteQuietly(basePath);
+        }
+    }
+
+    @Test
+    public void testRestoreWithIterator() throws Exception {
+        int itemCount = 500;
+        File basePath = Files.createTempDirectory("txn_buffer_test").toFile();
+        Repository repository = new Repository(true, basePath.getAbsolutePath(), PersistMode.FORCE, 0.8,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, DeleteMode.RANGE, 1);
+        try {
+            repository.open();
+            TxnBuffer txnBuffer = new TxnBuffer(new TxnKey("txn", "0"), repository);
+            txnBuffer.markStart();
+            for (int i = 0; i < itemCount; i++) {
+                String traceId = StringUtils.leftPad(String.valueOf(i), 10, "0");
+                txnBuffer.push(TxnBufferItem.builder().traceId(traceId).rowsQuery("q-" + traceId)
+                    .eventType(WRITE_ROWS_EVENT).payload(new byte[] {(byte) i}).build());
+            }
+            txnBuffer.markComplete();
+            Assert.assertTrue(txnBuffer.isPersisted());
+
+            txnBuffer.restore();
+            Iterator<TxnItemRef> iterator = txnBuffer.iterator();
+            for (int i = 0; i < itemCount; i++) {
+                TxnItemRef ref = iterator.next();
+                String traceId = StringUtils.leftPad(String.valueOf(i), 10, "0");
+                Assert.assertEquals("q-" + traceId, ref.getEventData().getRowsQuery());
+                Assert.assertEquals((byte) i, ref.getEventData().getPayload().byteAt(0));
+            }
+            Assert.assertFalse(iterator.hasNext());
+            txnBuffer.close();
+        } finally {
+            repository.close();
+            FileUtils.deleteQuietly(basePath);
+        }
+    }
+
     private static void testMergePerformance() {
         int size = 100;
         int count = 1024;
@@ -91,6 +259,32 @@ public class TxnBufferTest {
         return result;
     }
 
+    private static List<TxnBuffer> buildSortedBufferList(int count) {
+        Random random = new Random(count);
+        ArrayList<TxnBuffer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TxnBuffer txnBuffer =
+                new TxnBuffer(new TxnKey("txn", String.valueOf(i)), null);
+            txnBuffer.markStart();
+            int traceId = 0;
+            int segments = 1 + random.nextInt(10);
+            for (int j = 0; j < segments; j++) {
+                traceId += random.nextInt(3);
+                String traceIdStr = StringUtils.leftPad(String.valueOf(traceId), 10, "0");
+                txnBuffer.push(TxnBufferItem.builder().traceId(traceIdStr).rowsQuery("q-" + traceIdStr)
+                    .eventType(TABLE_MAP_EVENT).payload(new byte[0]).build());
+                int rows = 1 + random.nextInt(3);
+                for (int k = 0; k < rows; k++) {
+                    txnBuffer.push(TxnBufferItem.builder().traceId(traceIdStr)
+                        .eventType(WRITE_ROWS_EVENT).payload(new byte[k + 1]).build());
+                }
+            }
+            txnBuffer.markComplete();
+            result.add(txnBuffer);
+        }
+        return result;
+    }
+
     private static TxnBuffer buildOneBuffer(int size) {
         TxnBuffer txnBuffer =
             new TxnBuffer(new TxnKey(UUID.randomUUID().toString(), UUID.randomUUID().toString()), null);
@@ -14,6 +14,7 @@
  */
 package com.aliyun.polardbx.binlog;
 
+import com.aliyun.polardbx.binlog.jvm.ThreadProfiler;
 import com.aliyun.polardbx.binlog.task.TaskHeartbeat;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -65,6 +66,7 @@ public class TaskBootStrap {
             // spring context
             final SpringContextBootStrap appContextBootStrap = new SpringContextBootStrap("spring/spring.xml");
             appContextBootStrap.boot();
+            ThreadProfiler.getInstance().start(taskName);
 
             // try process compatibility
             TableCompatibilityProcessor.process();
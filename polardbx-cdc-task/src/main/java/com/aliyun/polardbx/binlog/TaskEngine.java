@@ -18,6 +18,7 @@ import com.aliyun.polardbx.binlog.canal.binlog.BinlogDownloader;
 import com.aliyun.polardbx.binlog.cdc.meta.MetaMonitor;
 import com.aliyun.polardbx.binlog.collect.Collector;
 import com.aliyun.polardbx.binlog.collect.LogEventCollector;
+import com.aliyun.polardbx.binlog.collect.WaitStrategyType;
 import com.aliyun.polardbx.binlog.domain.MergeSourceType;
 import com.aliyun.polardbx.binlog.domain.TaskRuntimeConfig;
 import com.aliyun.polardbx.binlog.domain.TaskType;
@@ -305,7 +306,8 @@ public class TaskEngine implements TxnMessageProvider {
             transmitter,
             DynamicApplicationConfig.getInt(TASK_QUEUE_COLLECTOR_SIZE),
             taskRuntimeConfig.getType(),
-            DynamicApplicationConfig.getBoolean(ConfigKeys.TASK_MERGER_MERGE_NOTSO_XA));
+            DynamicApplicationConfig.getBoolean(ConfigKeys.TASK_MERGER_MERGE_NOTSO_XA),
+            WaitStrategyType.valueOf(DynamicApplicationConfig.getString(ConfigKeys.TASK_COLLECTOR_WAIT_STRATEGY)));
     }
 
     private LogEventMerger buildMerger(String startTSO) {
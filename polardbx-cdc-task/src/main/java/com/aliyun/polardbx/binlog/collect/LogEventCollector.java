@@ -22,7 +22,6 @@ import com.aliyun.polardbx.binlog.metrics.MergeMetrics;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
 import com.aliyun.polardbx.binlog.storage.Storage;
 import com.aliyun.polardbx.binlog.transmit.Transmitter;
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
 import org.slf4j.Logger;
@@ -44,18 +43,20 @@ public class LogEventCollector implements Collector {
     private final Storage storage;
     private final Transmitter transmitter;
     private final boolean isMergeNoTsoXa;
+    private final WaitStrategyType waitStrategyType;
     private AtomicLong eventsPushBlockingTime;
     private RingBuffer<MessageEvent> disruptorMsgBuffer;
     private CollectStrategy collectStrategy;
     private volatile boolean running;
 
     public LogEventCollector(Storage storage, Transmitter transmitter, int ringBufferSize, TaskType taskType,
-                             boolean isMergeNoTsoXa) {
+                             boolean isMergeNoTsoXa, WaitStrategyType waitStrategyType) {
         this.storage = storage;
         this.transmitter = transmitter;
         this.ringBufferSize = ringBufferSize;
         this.taskType = taskType;
         this.isMergeNoTsoXa = isMergeNoTsoXa;
+        this.waitStrategyType = waitStrategyType;
     }
 
     @Override
@@ -67,13 +68,13 @@ public class LogEventCollector implements Collector {
 
         this.eventsPushBlockingTime = new AtomicLong(0L);
         this.disruptorMsgBuffer = RingBuffer
-            .createSingleProducer(new MessageEventFactory(), ringBufferSize, new BlockingWaitStrategy());
+            .createSingleProducer(new MessageEventFactory(), ringBufferSize, waitStrategyType.newWaitStrategy());
         this.collectStrategy = new MergeAndSinkStrategy(this, transmitter, isMergeNoTsoXa, taskType);
         this.collectStrategy.setRingBuffer(disruptorMsgBuffer);
         this.collectStrategy.setStorage(storage);
         this.collectStrategy.start();
 
-        logger.info("Log event collector started.");
+        logger.info("Log event collector started, with wait strategy {}.", waitStrategyType);
     }
 
     @Override
@@ -36,11 +36,15 @@ import com.lmax.disruptor.WorkerPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_COLLECTOR_MERGE_STAGE_PARALLELISM;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_COLLECTOR_MERGE_STAGE_STRIPE_PARALLELISM;
 
 /**
  * created by ziyang.lb
@@ -59,6 +63,7 @@ public class MergeAndSinkStrategy implements CollectStrategy {
     private Storage storage;
     private ExecutorService txnMergeExecutor;
     private ExecutorService txnSinkExecutor;
+    private ExecutorService stripeMergeExecutor;
     private WorkerPool<MessageEvent> txnMergeWorkerPool;
     private BatchEventProcessor<MessageEvent> txnSinkStage;
     private volatile boolean running;
@@ -86,12 +91,27 @@ public class MergeAndSinkStrategy implements CollectStrategy {
         this.txnSinkExecutor = Executors
             .newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("collector-sink-%d").build());
 
+        // 参与者很多的事务分组并行归并，队列有界，排满之后由merge线程自己执行分组归并；
+        // 线程池关闭之后直接拒绝，不能像CallerRunsPolicy那样静默丢弃，否则merge线程会一直等待分组结果
+        int stripeParallelism =
+            Math.max(1, DynamicApplicationConfig.getInt(TASK_COLLECTOR_MERGE_STAGE_STRIPE_PARALLELISM));
+        this.stripeMergeExecutor = new ThreadPoolExecutor(stripeParallelism, stripeParallelism, 0L,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(stripeParallelism * 2),
+            new ThreadFactoryBuilder().setNameFormat("collector-merge-stripe-%d").setDaemon(true).build(),
+            (r, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("stripe merge executor is shutdown.");
+                }
+                r.run();
+            });
+
         // stage 1
         ExceptionHandler<Object> exceptionHandler = new MessageEventExceptionHandler();
         SequenceBarrier txnMergeSequenceBarrier = disruptorMsgBuffer.newBarrier();
         WorkHandler<MessageEvent>[] workHandlers = new TxnMergeStageHandler[txnMergeThreadCount];
         for (int i = 0; i < txnMergeThreadCount; i++) {
-            workHandlers[i] = new TxnMergeStageHandler(handleContext, storage, isMergeNoTsoXa, taskType);
+            workHandlers[i] = new TxnMergeStageHandler(handleContext, storage, isMergeNoTsoXa, taskType,
+                stripeMergeExecutor);
         }
         txnMergeWorkerPool = new WorkerPool<>(disruptorMsgBuffer,
             txnMergeSequenceBarrier,
@@ -137,6 +157,15 @@ public class MergeAndSinkStrategy implements CollectStrategy {
             // ignore
         }
 
+        try {
+            stripeMergeExecutor.shutdownNow();
+            if (!stripeMergeExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("stripe merge executor is not terminated in time.");
+            }
+        } catch (Throwable e) {
+            // ignore
+        }
+
         try {
             txnSinkExecutor.shutdownNow();
             while (!txnSinkExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
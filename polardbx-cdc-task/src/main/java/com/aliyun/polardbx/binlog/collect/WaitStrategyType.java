@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.collect;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collector中Disruptor消费者的等待策略
+ */
+public enum WaitStrategyType {
+    /**
+     * 基于锁和条件变量，cpu占用最低，延迟最高
+     */
+    BLOCKING,
+    /**
+     * 自旋100次之后yield，延迟低，会持续占用cpu
+     */
+    YIELDING,
+    /**
+     * 自旋、yield之后park，延迟和cpu占用比较均衡
+     */
+    SLEEPING,
+    /**
+     * 先忙等1ms，再yield 1ms，之后退化为park，适合高吞吐且对延迟敏感的场景
+     */
+    BUSY_SPIN;
+
+    public WaitStrategy newWaitStrategy() {
+        switch (this) {
+        case YIELDING:
+            return new YieldingWaitStrategy();
+        case SLEEPING:
+            return new SleepingWaitStrategy();
+        case BUSY_SPIN:
+            return PhasedBackoffWaitStrategy.withSleep(1, 1, TimeUnit.MILLISECONDS);
+        default:
+            return new BlockingWaitStrategy();
+        }
+    }
+}
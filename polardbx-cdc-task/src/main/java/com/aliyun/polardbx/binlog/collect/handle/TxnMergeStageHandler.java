@@ -15,12 +15,15 @@
 package com.aliyun.polardbx.binlog.collect.handle;
 
 import com.aliyun.polardbx.binlog.CommonUtils;
+import com.aliyun.polardbx.binlog.ConfigValue;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.collect.message.MessageEvent;
 import com.aliyun.polardbx.binlog.domain.TaskType;
 import com.aliyun.polardbx.binlog.error.CollectException;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.metrics.MergeMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.protocol.PacketMode;
 import com.aliyun.polardbx.binlog.protocol.TxnMessage;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
@@ -29,7 +32,6 @@ import com.aliyun.polardbx.binlog.storage.PersistAllChecker;
 import com.aliyun.polardbx.binlog.storage.Storage;
 import com.aliyun.polardbx.binlog.storage.TxnBuffer;
 import com.aliyun.polardbx.binlog.storage.TxnKey;
-import com.google.common.collect.Lists;
 import com.google.protobuf.ByteString;
 import com.lmax.disruptor.LifecycleAware;
 import com.lmax.disruptor.WorkHandler;
@@ -40,10 +42,12 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_COLLECTOR_BUILD_PACKET_THRESHOLD;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_COLLECTOR_MERGE_STAGE_STRIPE_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_COLLECTOR_MERGE_STAGE_STRIPE_THRESHOLD;
 import static com.aliyun.polardbx.binlog.domain.TaskType.Dispatcher;
 import static com.aliyun.polardbx.binlog.transmit.MessageBuilder.buildTxnMessage;
 import static com.aliyun.polardbx.binlog.transmit.MessageBuilder.packetMode;
@@ -54,19 +58,26 @@ import static com.aliyun.polardbx.binlog.transmit.MessageBuilder.packetMode;
 public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, LifecycleAware {
 
     private static final Logger logger = LoggerFactory.getLogger(TxnMergeStageHandler.class);
+    private static final ConfigValue<Long> BUILD_PACKET_THRESHOLD =
+        ConfigValue.ofLong(TASK_COLLECTOR_BUILD_PACKET_THRESHOLD);
+    private static final ConfigValue<Integer> STRIPE_THRESHOLD =
+        ConfigValue.ofInt(TASK_COLLECTOR_MERGE_STAGE_STRIPE_THRESHOLD);
+    private static final ConfigValue<Integer> STRIPE_SIZE = ConfigValue.ofInt(TASK_COLLECTOR_MERGE_STAGE_STRIPE_SIZE);
 
     private final HandleContext handleContext;
     private final Storage storage;
     private final boolean isMergeNoTsoXa;
     private final TaskType taskType;
     private final PersistAllChecker persistAllChecker;
+    private final ExecutorService stripeMergeExecutor;
 
     public TxnMergeStageHandler(HandleContext handleContext, Storage storage, boolean isMergeNoTsoXa,
-                                TaskType taskType) {
+                                TaskType taskType, ExecutorService stripeMergeExecutor) {
         this.handleContext = handleContext;
         this.storage = storage;
         this.isMergeNoTsoXa = isMergeNoTsoXa;
         this.taskType = taskType;
+        this.stripeMergeExecutor = stripeMergeExecutor;
         this.persistAllChecker = new PersistAllChecker();
     }
 
@@ -134,12 +145,13 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
             }
         } else {
             TxnBuffer txnBuffer = fetchTxnBuffer(token, new TxnKey(token.getTxnId(), token.getPartitionId()));
-            event.setTxnBuffers(Lists.newArrayList(txnBuffer));
+            event.setTxnBuffer(txnBuffer);
             if (logger.isDebugEnabled()) {
                 logger.debug("1pc token " + token);
             }
         }
 
+        event.setToken(StageLatencyTracer.stampAndRecord(event.getToken(), TraceStage.COLLECT));
         event.setMemSize(calcMemSize(event));
         if (packetMode == PacketMode.OBJECT) {
             event.setTxnMessage(tryBuildTxnMessageObject(event));
@@ -157,7 +169,7 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
     }
 
     private TxnMessage tryBuildTxnMessageObject(MessageEvent messageEvent) {
-        long threshold = DynamicApplicationConfig.getLong(TASK_COLLECTOR_BUILD_PACKET_THRESHOLD);
+        long threshold = BUILD_PACKET_THRESHOLD.get();
         if (taskType != Dispatcher && messageEvent.getMemSize() <= threshold) {
             return buildTxnMessage(messageEvent.getToken(), taskType, messageEvent.getTxnBuffers().get(0));
         }
@@ -165,7 +177,7 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
     }
 
     private ByteString tryBuildTxnMessageBytes(MessageEvent messageEvent) {
-        long threshold = DynamicApplicationConfig.getLong(TASK_COLLECTOR_BUILD_PACKET_THRESHOLD);
+        long threshold = BUILD_PACKET_THRESHOLD.get();
         if (taskType != Dispatcher && messageEvent.getMemSize() <= threshold) {
             return buildTxnMessage(messageEvent.getToken(), taskType,
                 messageEvent.getTxnBuffers().get(0)).toByteString();
@@ -174,6 +186,7 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
     }
 
     private Pair<TxnToken, List<TxnBuffer>> txnMerge(TxnToken in) {
+        long startTime = System.nanoTime();
         TxnBuffer baseBuffer = fetchTxnBuffer(in, new TxnKey(in.getTxnId(), in.getPartitionId()));
 
         List<TxnBuffer> txnBuffers = new ArrayList<>();
@@ -184,12 +197,12 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
             // 问：什么时候采用TSO策略的事务在此处只有一个party？
             // 答：某个TSO事务有两个分片参与提交，但其中一个只有GSI的event，该分片会被extractor忽略掉，此处只能拿到一个party
             baseBuffer.compressDuplicateTraceId();
+            MergeMetrics.get().recordTxnMerge(1, System.nanoTime() - startTime);
             return Pair.of(in, txnBuffers);
         } else {
             in.getAllPartiesList()
                 .stream()
                 .filter(p -> !p.equals(in.getPartitionId()))
-                .collect(Collectors.toList())
                 .forEach(p -> {
                     TxnBuffer buffer = fetchTxnBuffer(in, new TxnKey(in.getTxnId(), p));
                     if (!buffer.isCompleted()) {
@@ -198,9 +211,20 @@ public class TxnMergeStageHandler implements WorkHandler<MessageEvent>, Lifecycl
                     }
 
                     assert Objects.requireNonNull(buffer).isCompleted();
-                    baseBuffer.merge(buffer);
                     txnBuffers.add(buffer);
                 });
+
+            // 所有参与者一次性进行N路归并，参与者较多时分组并行归并
+            List<TxnBuffer> others = txnBuffers.subList(1, txnBuffers.size());
+            int stripeThreshold = STRIPE_THRESHOLD.get();
+            if (txnBuffers.size() >= stripeThreshold) {
+                int stripeSize = STRIPE_SIZE.get();
+                baseBuffer.mergeAll(others, stripeMergeExecutor, stripeSize);
+            } else {
+                baseBuffer.mergeAll(others);
+            }
+
+            MergeMetrics.get().recordTxnMerge(txnBuffers.size(), System.nanoTime() - startTime);
             return Pair.of(in.toBuilder().setTxnSize(baseBuffer.itemSize()).build(), txnBuffers);
         }
     }
@@ -64,7 +64,8 @@ public class TxnSinkStageHandler implements EventHandler<MessageEvent>, Lifecycl
                 }
             }
 
-            transmitter.transmit(event.copy());
+            // transmitter需要保留event时自行拷贝，ring buffer中的槽位在此处直接复用
+            transmitter.transmit(event);
             lastToken = txnToken;
             event.clear();
         } catch (Throwable t) {
@@ -17,9 +17,9 @@ package com.aliyun.polardbx.binlog.collect.message;
 import com.aliyun.polardbx.binlog.protocol.TxnMessage;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
 import com.aliyun.polardbx.binlog.storage.TxnBuffer;
-import com.google.common.collect.Lists;
 import com.google.protobuf.ByteString;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -33,7 +33,8 @@ public class MessageEvent {
     private long memSize;
     private boolean merged;
     private long tsoTimestamp;
-    private List<TxnBuffer> txnBuffers;
+    // 复用同一个list，避免每个事务都创建新的对象
+    private final List<TxnBuffer> txnBuffers = new ArrayList<>(1);
 
     public MessageEvent() {
     }
@@ -99,7 +100,13 @@ public class MessageEvent {
     }
 
     public void setTxnBuffers(List<TxnBuffer> txnBuffers) {
-        this.txnBuffers = txnBuffers;
+        this.txnBuffers.clear();
+        this.txnBuffers.addAll(txnBuffers);
+    }
+
+    public void setTxnBuffer(TxnBuffer txnBuffer) {
+        this.txnBuffers.clear();
+        this.txnBuffers.add(txnBuffer);
     }
 
     public void clear() {
@@ -109,18 +116,17 @@ public class MessageEvent {
         this.txnMessage = null;
         this.txnMessageBytes = null;
         this.tsoTimestamp = 0;
-        this.txnBuffers = null;
-    }
-
-    public MessageEvent copy() {
-        MessageEvent messageEvent = new MessageEvent();
-        messageEvent.merged = merged;
-        messageEvent.memSize = memSize;
-        messageEvent.token = token;
-        messageEvent.txnMessage = txnMessage;
-        messageEvent.txnMessageBytes = txnMessageBytes;
-        messageEvent.tsoTimestamp = tsoTimestamp;
-        messageEvent.txnBuffers = txnBuffers == null ? null : Lists.newArrayList(txnBuffers);
-        return messageEvent;
+        this.txnBuffers.clear();
+    }
+
+    public void copyFrom(MessageEvent other) {
+        this.merged = other.merged;
+        this.memSize = other.memSize;
+        this.token = other.token;
+        this.txnMessage = other.txnMessage;
+        this.txnMessageBytes = other.txnMessageBytes;
+        this.tsoTimestamp = other.tsoTimestamp;
+        this.txnBuffers.clear();
+        this.txnBuffers.addAll(other.txnBuffers);
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.collect.message;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MessageEvent对象池，用于Collector和Transmitter之间的交接，避免每个事务都创建新的MessageEvent
+ * <p>
+ * 只支持单线程acquire、单线程release(单生产单消费)，基于槽位是否为null判断可用性，不需要共享的读写指针；
+ * 池子空了直接new，池子满了直接丢弃，交给gc回收
+ * </p>
+ */
+public class MessageEventPool {
+
+    private final AtomicReferenceArray<MessageEvent> slots;
+    private final int mask;
+    private long acquireIndex;
+    private long releaseIndex;
+
+    public MessageEventPool(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots.lazySet(i, new MessageEvent());
+        }
+        this.releaseIndex = size;
+    }
+
+    public MessageEvent acquire() {
+        int index = (int) (acquireIndex & mask);
+        MessageEvent event = slots.get(index);
+        if (event == null) {
+            return new MessageEvent();
+        }
+        slots.lazySet(index, null);
+        acquireIndex++;
+        return event;
+    }
+
+    public void release(MessageEvent event) {
+        event.clear();
+        int index = (int) (releaseIndex & mask);
+        if (slots.get(index) != null) {
+            return;
+        }
+        slots.lazySet(index, event);
+        releaseIndex++;
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.aliyun.polardbx.binlog.extractor;
 
+import com.aliyun.polardbx.binlog.CommonUtils;
 import com.aliyun.polardbx.binlog.ConfigKeys;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.canal.HandlerContext;
@@ -25,6 +26,9 @@ import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.error.TimeoutException;
 import com.aliyun.polardbx.binlog.extractor.log.Transaction;
 import com.aliyun.polardbx.binlog.merge.MergeSource;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
 import com.aliyun.polardbx.binlog.protocol.TxnType;
 import com.aliyun.polardbx.binlog.storage.Storage;
@@ -37,6 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_MERGER_DRYRUN;
 import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_MERGER_DRYRUN_MODE;
@@ -163,6 +168,7 @@ public class DefaultOutputMergeSourceHandler implements LogEventHandler<Transact
         }
 
         transaction.markBufferComplete();
+        traceIfSampled(transaction, txnTokenBuilder);
 
         do {
             try {
@@ -191,6 +197,22 @@ public class DefaultOutputMergeSourceHandler implements LogEventHandler<Transact
         }
     }
 
+    private void traceIfSampled(Transaction transaction, TxnToken.Builder txnTokenBuilder) {
+        long commitDecoded = transaction.getCommitDecodedMicros();
+        if (txnTokenBuilder.getType() != TxnType.DML || commitDecoded < 0 || !StageLatencyTracer.shouldSample()) {
+            return;
+        }
+        StageLatencyMetrics metrics = StageLatencyMetrics.get();
+        if (transaction.isTsoTransaction() && transaction.getRealTSO() > 0) {
+            long commitMicros = CommonUtils.tso2physicalTime(transaction.getRealTSO(), TimeUnit.MILLISECONDS) * 1000;
+            metrics.record(TraceStage.EXTRACT, commitDecoded - commitMicros);
+        }
+        long now = StageLatencyTracer.nowMicros();
+        metrics.record(TraceStage.SORT, now - commitDecoded);
+        StageLatencyTracer.stamp(txnTokenBuilder, TraceStage.EXTRACT, commitDecoded);
+        StageLatencyTracer.stamp(txnTokenBuilder, TraceStage.SORT, now);
+    }
+
     @Override
     public void onStart(HandlerContext context) {
         logger.info("start output handler !");
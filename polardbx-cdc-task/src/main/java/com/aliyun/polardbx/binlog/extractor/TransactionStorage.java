@@ -117,6 +117,13 @@ public class TransactionStorage implements TransactionCommitListener {
         }
     }
 
+    /**
+     * 返回排序器中最早的一个未完成项，为null说明排序器中已没有未完成的事务
+     */
+    public SortItem peekFirstSortItem() {
+        return sorter.peekFirstSortItem();
+    }
+
     public Transaction getByXid(String xid) {
         return sorter.getTransByXid(xid);
     }
@@ -20,6 +20,7 @@ import com.aliyun.polardbx.binlog.canal.HandlerContext;
 import com.aliyun.polardbx.binlog.canal.LogEventFilter;
 import com.aliyun.polardbx.binlog.canal.LogEventUtil;
 import com.aliyun.polardbx.binlog.canal.RuntimeContext;
+import com.aliyun.polardbx.binlog.canal.TsoCheckpointIndex;
 import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
 import com.aliyun.polardbx.binlog.canal.binlog.event.FormatDescriptionLogEvent;
 import com.aliyun.polardbx.binlog.canal.binlog.event.GcnLogEvent;
@@ -33,14 +34,18 @@ import com.aliyun.polardbx.binlog.extractor.log.Transaction;
 import com.aliyun.polardbx.binlog.extractor.log.TransactionGroup;
 import com.aliyun.polardbx.binlog.extractor.log.processor.EventFilter;
 import com.aliyun.polardbx.binlog.extractor.log.processor.FilterBlacklistTableFilter;
+import com.aliyun.polardbx.binlog.extractor.sort.SortItem;
+import com.aliyun.polardbx.binlog.extractor.sort.SortItemType;
 import com.aliyun.polardbx.binlog.format.utils.BinlogGenerateUtil;
 import com.aliyun.polardbx.binlog.storage.Storage;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author chengjin.lyf on 2020/7/15 7:24 下午
@@ -63,8 +68,16 @@ public class TransactionBufferEventFilter implements LogEventFilter<LogEvent> {
 
     private List<EventFilter> eventFilterList = new ArrayList<>();
 
+    private final long checkpointIntervalMillis;
+    private TsoCheckpointIndex tsoCheckpointIndex;
+    private long lastCheckpointTime;
+    private long lastEmittedTso = -1L;
+    private String lastEmittedVirtualTso;
+
     public TransactionBufferEventFilter(Storage storage) {
         this.storage = storage;
+        this.checkpointIntervalMillis = TimeUnit.SECONDS.toMillis(
+            DynamicApplicationConfig.getInt(ConfigKeys.TASK_TSO_CHECKPOINT_INTERVAL_SECOND));
         String blacklist = DynamicApplicationConfig.getString(ConfigKeys.TASK_META_REBUILD_BLACKLIST);
         if (StringUtils.isNotBlank(blacklist)) {
             eventFilterList.add(new FilterBlacklistTableFilter(blacklist));
@@ -110,6 +123,7 @@ public class TransactionBufferEventFilter implements LogEventFilter<LogEvent> {
     @Override
     public void onStart(HandlerContext context) {
         transactionStorage = new TransactionStorage(context.getRuntimeContext().getThreadRecorder());
+        tsoCheckpointIndex = context.getRuntimeContext().getTsoCheckpointIndex();
     }
 
     @Override
@@ -233,8 +247,58 @@ public class TransactionBufferEventFilter implements LogEventFilter<LogEvent> {
         transactionStorage.purge();
         TransactionGroup group;
         while ((group = transactionStorage.fetchNext()) != null) {
+            trackEmittedTso(group);
             context.doNext(group);
         }
+        tryCheckpoint(context);
+    }
+
+    private void trackEmittedTso(TransactionGroup group) {
+        if (tsoCheckpointIndex == null) {
+            return;
+        }
+        for (Transaction transaction : group.getTransactionList()) {
+            if (transaction.isTsoTransaction()) {
+                lastEmittedTso = transaction.getVirtualTSOModel().tso;
+                lastEmittedVirtualTso = transaction.getVirtualTSO();
+            }
+        }
+    }
+
+    /**
+     * 记录TSO位点索引，位点取排序器中最早未完成事务的begin位点，排序器为空时取当前event的结束位点，
+     * 保证从该位点开始消费不会遗漏tso大于lastEmittedTso的事务
+     */
+    private void tryCheckpoint(HandlerContext context) {
+        if (tsoCheckpointIndex == null || lastEmittedVirtualTso == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastCheckpointTime < checkpointIntervalMillis) {
+            return;
+        }
+
+        String fileName;
+        long position;
+        SortItem firstItem = transactionStorage.peekFirstSortItem();
+        if (firstItem == null) {
+            fileName = context.getRuntimeContext().getBinlogFile();
+            position = context.getRuntimeContext().getLogPos();
+        } else if (firstItem.getType() == SortItemType.PreWrite) {
+            fileName = firstItem.getTransaction().getBinlogFileName();
+            position = firstItem.getTransaction().getBeginLogPos();
+        } else {
+            return;
+        }
+
+        lastCheckpointTime = now;
+        try {
+            tsoCheckpointIndex.record(lastEmittedTso, lastEmittedVirtualTso, fileName, position,
+                RuntimeContext.getInstructionId());
+        } catch (IOException e) {
+            logger.warn("record tso checkpoint failed, tso : " + lastEmittedVirtualTso + ", position : " + fileName
+                + ":" + position, e);
+        }
     }
 
     private void writeFormatDescriptionEvent(FormatDescriptionLogEvent fde, HandlerContext context) throws Exception {
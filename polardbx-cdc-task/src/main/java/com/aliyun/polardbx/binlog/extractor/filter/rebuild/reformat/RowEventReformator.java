@@ -35,6 +35,7 @@ import com.aliyun.polardbx.binlog.format.field.SimpleField;
 import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
 import com.aliyun.polardbx.binlog.format.utils.BitMap;
 import com.aliyun.polardbx.binlog.format.utils.ByteArray;
+import com.aliyun.polardbx.binlog.metrics.HeatmapMetrics;
 import com.aliyun.polardbx.binlog.protocol.EventData;
 import com.aliyun.polardbx.binlog.storage.IteratorBuffer;
 import com.aliyun.polardbx.binlog.storage.TxnBufferItem;
@@ -53,6 +54,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.aliyun.polardbx.binlog.extractor.filter.rebuild.ReformatContext.toByte;
 
@@ -60,9 +62,12 @@ import static com.aliyun.polardbx.binlog.extractor.filter.rebuild.ReformatContex
 public class RowEventReformator implements EventReformater<RowsLogEvent> {
 
     private static final ThreadLocal<AutoExpandBuffer> localBuffer = new ThreadLocal<>();
+    private static final int HEATMAP_KEY_CACHE_SIZE = 4096;
     private final boolean binlogx;
     private final String defaultCharset;
     private final PolarDbXTableMetaManager tableMetaManager;
+    // LogicTableMeta由tableMetaManager缓存，按对象缓存热力图的key，避免每个rows event都创建新的key
+    private final Map<LogicTableMeta, HeatmapMetrics.TableKey> heatmapKeys = new ConcurrentHashMap<>();
 
     public RowEventReformator(boolean binlogx, String defaultCharset,
                               PolarDbXTableMetaManager tableMetaManager) {
@@ -157,12 +162,15 @@ public class RowEventReformator implements EventReformater<RowsLogEvent> {
     @Override
     public boolean reformat(RowsLogEvent rle, TxnItemRef txnItemRef, ReformatContext context, EventData eventData) {
         LogicTableMeta tableMeta =
-            tableMetaManager.compare(rle.getTable().getDbName(), rle.getTable().getTableName(), rle.getColumnLen());
+            tableMetaManager.compare(rle.getTable().getTableId(), rle.getTable().getDbName(),
+                rle.getTable().getTableName(), rle.getColumnLen());
         // 整形只考虑 insert,其他可以不考虑,如果 是全镜像导致下游报错，则全部都需要处理
         if (log.isDebugEnabled()) {
             log.debug("detected compatible " + tableMeta.isCompatible() + " table meta for event, "
                 + "will reformat event " + tableMeta.getPhySchema() + tableMeta.getPhyTable());
         }
+        HeatmapMetrics.get().recordTableEvent(heatmapKey(context.getStorageInstanceId(), tableMeta),
+            eventData.getPayload().size(), context.getVirtualTSO(), rle.getWhen() * 1000);
         try {
 
             if (needReformat(tableMeta)) {
@@ -191,6 +199,21 @@ public class RowEventReformator implements EventReformater<RowsLogEvent> {
         return true;
     }
 
+    /**
+     * 元数据变更之后旧的LogicTableMeta不会再命中，缓存超过上限时整体清空
+     */
+    private HeatmapMetrics.TableKey heatmapKey(String storageInstId, LogicTableMeta tableMeta) {
+        HeatmapMetrics.TableKey key = heatmapKeys.get(tableMeta);
+        if (key == null || !StringUtils.equals(key.getStorageInstId(), storageInstId)) {
+            if (heatmapKeys.size() >= HEATMAP_KEY_CACHE_SIZE) {
+                heatmapKeys.clear();
+            }
+            key = new HeatmapMetrics.TableKey(storageInstId, tableMeta.getLogicSchema(), tableMeta.getLogicTable());
+            heatmapKeys.put(tableMeta, key);
+        }
+        return key;
+    }
+
     private TxnBufferItem convert(TxnItemRef txnItemRef, RowEventBuilder reb, EventData eventData)
         throws Exception {
         return TxnBufferItem.builder()
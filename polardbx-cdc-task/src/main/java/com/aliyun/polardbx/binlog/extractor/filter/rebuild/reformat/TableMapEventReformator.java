@@ -74,7 +74,8 @@ public class TableMapEventReformator implements EventReformater<TableMapLogEvent
         throws Exception {
 
         final long serviceId = context.getServerId();
-        LogicTableMeta tableMeta = tableMetaManager.compare(tle.getDbName(), tle.getTableName(), tle.getColumnCnt());
+        LogicTableMeta tableMeta =
+            tableMetaManager.compare(tle.getTableId(), tle.getDbName(), tle.getTableName(), tle.getColumnCnt());
         if (log.isDebugEnabled()) {
             log.debug("detected un compatible table meta for table map event, will reformat event "
                 + tableMeta.getPhySchema() + tableMeta.getPhyTable());
@@ -41,6 +41,7 @@ import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.extractor.TransactionMemoryLeakDectorManager;
 import com.aliyun.polardbx.binlog.format.FormatDescriptionEvent;
 import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
 import com.aliyun.polardbx.binlog.storage.AlreadyExistException;
 import com.aliyun.polardbx.binlog.storage.IteratorBuffer;
 import com.aliyun.polardbx.binlog.storage.Storage;
@@ -81,6 +82,7 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
     private final RuntimeContext runtimeContext;
     private final String binlogFileName;
     private final long startLogPos;
+    private final long beginLogPos;
     //basic component reference
     private TransactionCommitListener listener;
     private Storage storage;
@@ -126,6 +128,9 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
     private String instructionContent = null;
     private String instructionId = null;
 
+    //stage trace
+    private long commitDecodedMicros = -1;
+
     public Transaction(FormatDescriptionLogEvent fdle, FormatDescriptionEvent fde, RuntimeContext rc) {
         this.fde = fde;
         this.fdle = fdle;
@@ -135,6 +140,7 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
         this.xid = transactionId + rc.getStorageInstId() + "00000-FDE";
         this.binlogFileName = rc.getBinlogFile();
         this.startLogPos = 0;
+        this.beginLogPos = 0;
         TransactionMemoryLeakDectorManager.getInstance().watch(this);
     }
 
@@ -144,6 +150,7 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
         this.generateKey(qwe, rc);
         this.binlogFileName = rc.getBinlogFile();
         this.startLogPos = qwe.getLogPos();
+        this.beginLogPos = qwe.getLogPos() - qwe.getEventLen();
         buildBuffer();
         qwe.setTrace(generateFakeTraceId());
         addTxnBuffer(qwe);
@@ -177,6 +184,7 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
             generateKey(logEvent, rc);
         }
         this.startLogPos = logEvent.getLogPos();
+        this.beginLogPos = logEvent.getLogPos() - logEvent.getEventLen();
         this.binlogFileName = rc.getBinlogFile();
         if (!isCdcSingle()) {
             buildBuffer();
@@ -588,6 +596,7 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
             throw new PolardbxException("duplicate commit event!");
         }
         this.state = TRANSACTION_STATE.STATE_COMMIT;
+        this.commitDecodedMicros = StageLatencyTracer.nowMicros();
 
         afterCommit(rc);
         if (listener != null) {
@@ -615,6 +624,14 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
         this.realTSO = realTSO;
     }
 
+    public long getRealTSO() {
+        return realTSO;
+    }
+
+    public long getCommitDecodedMicros() {
+        return commitDecodedMicros;
+    }
+
     public boolean hasTso() {
         return StringUtils.isNotBlank(virtualTSO);
     }
@@ -758,6 +775,13 @@ public class Transaction implements HandlerEvent, IXaTransaction<Transaction> {
         return startLogPos;
     }
 
+    /**
+     * 事务首个event的起始位点，startLogPos为首个event的结束位点
+     */
+    public long getBeginLogPos() {
+        return beginLogPos;
+    }
+
     public TRANSACTION_STATE getState() {
         return state;
     }
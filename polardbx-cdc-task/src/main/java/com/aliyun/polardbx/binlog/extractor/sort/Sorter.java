@@ -16,6 +16,7 @@ package com.aliyun.polardbx.binlog.extractor.sort;
 
 import com.aliyun.polardbx.binlog.CommonUtils;
 import com.aliyun.polardbx.binlog.ConfigKeys;
+import com.aliyun.polardbx.binlog.ConfigValue;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.extractor.log.Transaction;
@@ -42,6 +43,8 @@ import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_TRANSACTION_SKIP_WHITEL
 @Slf4j
 public class Sorter {
     private static final Logger skipTranslogger = LoggerFactory.getLogger("SKIP_TRANS_LOG");
+    private static final ConfigValue<Integer> TRANSACTION_SKIP_THRESHOLD =
+        ConfigValue.ofInt(ConfigKeys.TASK_TRANSACTION_SKIP_THRESHOLD);
     private final Set<String> waitTrans;
     private final List<SortItem> items;
     private final Map<String, Transaction> transMap;
@@ -101,7 +104,7 @@ public class Sorter {
             return result;
         }
 
-        int skipThreshold = DynamicApplicationConfig.getInt(ConfigKeys.TASK_TRANSACTION_SKIP_THRESHOLD);
+        int skipThreshold = TRANSACTION_SKIP_THRESHOLD.get();
         if (items.size() > skipThreshold) {
             // 加一个优化， items 比较大的情况，可能有丢失commit或者rollback现象
             // 只清理头部即可
@@ -15,11 +15,14 @@
 package com.aliyun.polardbx.binlog.merge;
 
 import com.aliyun.polardbx.binlog.CommonUtils;
+import com.aliyun.polardbx.binlog.ConfigValue;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.collect.Collector;
 import com.aliyun.polardbx.binlog.domain.TaskType;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.metrics.MergeMetrics;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.monitor.MonitorManager;
 import com.aliyun.polardbx.binlog.monitor.MonitorValue;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
@@ -54,6 +57,8 @@ import static com.aliyun.polardbx.binlog.util.TxnTokenUtil.cleanTxnBuffer4Token;
 public class LogEventMerger implements Merger {
 
     private static final Logger logger = LoggerFactory.getLogger(LogEventMerger.class);
+    private static final ConfigValue<Long> HB_WINDOW_FORCE_COMPLETE_THRESHOLD =
+        ConfigValue.ofLong(TASK_HB_WINDOW_FORCE_COMPLETE_THRESHOLD);
 
     private final TaskType taskType;
     private final Collector collector;
@@ -252,7 +257,7 @@ public class LogEventMerger implements Merger {
                 // 新策略：最优的方案是Server内核在打标的时候，确认持有老拓扑的心跳事务都已经排空，然后再执行打标操作，但分布式场景下不太好做，另外
                 // 有很多老版本的Server，需要考略兼容性。考虑到心跳事务和打标事务之间的并发度很低，正常来说打标事务之后只会出现一次基于老拓扑的心跳事务，
                 // 除非Daemon发生脑裂，所以暂时采取一种宽松的策略，如果foreComplete的次数没有超过阈值，则也直接进行force
-                long forceCompleteThreshold = DynamicApplicationConfig.getLong(TASK_HB_WINDOW_FORCE_COMPLETE_THRESHOLD);
+                long forceCompleteThreshold = HB_WINDOW_FORCE_COMPLETE_THRESHOLD.get();
                 long interval = getTsoPhysicalTime(latestToken.getTso(), TimeUnit.SECONDS) - getTsoPhysicalTime(
                     lastScaleTso, TimeUnit.SECONDS);
 
@@ -300,6 +305,7 @@ public class LogEventMerger implements Merger {
                 }
             }
         } else {
+            txnToken = StageLatencyTracer.stampAndRecord(txnToken, TraceStage.MERGE);
             if (dryRun) {
                 if (dryRunMode == 2) {
                     mergeBarrier.addTxnToken(txnToken);
@@ -14,8 +14,10 @@
  */
 package com.aliyun.polardbx.binlog.merge;
 
+import com.aliyun.polardbx.binlog.CommonUtils;
 import com.aliyun.polardbx.binlog.error.TimeoutException;
 import com.aliyun.polardbx.binlog.extractor.Extractor;
+import com.aliyun.polardbx.binlog.metrics.HeatmapMetrics;
 import com.aliyun.polardbx.binlog.protocol.TxnToken;
 import com.aliyun.polardbx.binlog.storage.Storage;
 import com.aliyun.polardbx.binlog.storage.TxnBuffer;
@@ -106,6 +108,10 @@ public class MergeSource {
                 throw new TimeoutException("waiting up to the space failed");
             }
         }
+
+        long tsoTimestamp = StringUtils.isNotBlank(txnToken.getTso()) ?
+            CommonUtils.getTsoPhysicalTime(txnToken.getTso(), TimeUnit.MILLISECONDS) : 0;
+        HeatmapMetrics.get().recordMergeSourceTxn(sourceId, txnToken.getTxnSize(), txnToken.getTxnId(), tsoTimestamp);
     }
 
     public MergeItem poll() throws InterruptedException {
@@ -14,6 +14,7 @@
  */
 package com.aliyun.polardbx.binlog.metrics;
 
+import com.aliyun.polardbx.binlog.canal.binlog.DirectLogFetcher;
 import com.aliyun.polardbx.binlog.canal.core.ddl.ThreadRecorder;
 import com.aliyun.polardbx.binlog.extractor.log.Transaction;
 
@@ -34,6 +35,8 @@ public class ExtractorMetrics {
     private final AtomicLong netIn = new AtomicLong(0);
     private final AtomicLong maxDelay = new AtomicLong(0);
     private final AtomicLong maxSorterQueuedSize = new AtomicLong(0);
+    private final AtomicLong fetchStallNanos = new AtomicLong(0);
+    private final AtomicLong decodeStallNanos = new AtomicLong(0);
 
     private ExtractorMetrics() {
     }
@@ -49,6 +52,8 @@ public class ExtractorMetrics {
         snapshot.totalTranCount.set(this.totalTranCount.get());
         snapshot.heartbeatCount.set(this.heartbeatCount.get());
         snapshot.eventTotalCount.set(this.eventTotalCount.get());
+        snapshot.fetchStallNanos.set(DirectLogFetcher.getTotalFetchStallNanos());
+        snapshot.decodeStallNanos.set(DirectLogFetcher.getTotalDecodeStallNanos());
 
         long maxSorterQueuedSize = 0;
         long minWhen = System.currentTimeMillis();
@@ -107,4 +112,12 @@ public class ExtractorMetrics {
     public long getMaxSorterQueuedSize() {
         return maxSorterQueuedSize.get();
     }
+
+    public long getFetchStallNanos() {
+        return fetchStallNanos.get();
+    }
+
+    public long getDecodeStallNanos() {
+        return decodeStallNanos.get();
+    }
 }
@@ -14,10 +14,16 @@
  */
 package com.aliyun.polardbx.binlog.metrics;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  * Created by ziyang.lb
  **/
 public class MergeMetrics {
+    /**
+     * TxnBuffer合并耗时的分桶上界(参与分片数，包含)
+     */
+    public static final int[] TXN_MERGE_PARTIES_BUCKETS = {1, 4, 16, 64, Integer.MAX_VALUE};
 
     /**
      * 从Task启动开始计算，通过LogEventMerger的TxnToken总量
@@ -51,6 +57,18 @@ public class MergeMetrics {
      * Collect阶段，RingBuffer队列中正在排队的TxnToken数量
      */
     private long collectQueuedSize;
+    /**
+     * Collect阶段，按参与分片数分桶的TxnBuffer合并次数
+     */
+    private final AtomicLongArray txnMergeCount = new AtomicLongArray(TXN_MERGE_PARTIES_BUCKETS.length);
+    /**
+     * Collect阶段，按参与分片数分桶的TxnBuffer合并总耗时(纳秒)
+     */
+    private final AtomicLongArray txnMergeCostTime = new AtomicLongArray(TXN_MERGE_PARTIES_BUCKETS.length);
+    /**
+     * Collect阶段，按参与分片数分桶的TxnBuffer合并最大耗时(纳秒)
+     */
+    private final AtomicLongArray txnMergeMaxCostTime = new AtomicLongArray(TXN_MERGE_PARTIES_BUCKETS.length);
 
     public MergeMetrics snapshot() {
         MergeMetrics snapshot = new MergeMetrics();
@@ -61,6 +79,11 @@ public class MergeMetrics {
         snapshot.delayTimeOnMerge = this.delayTimeOnMerge;
         snapshot.delayTimeOnCollect = this.delayTimeOnCollect;
         snapshot.collectQueuedSize = this.collectQueuedSize;
+        for (int i = 0; i < TXN_MERGE_PARTIES_BUCKETS.length; i++) {
+            snapshot.txnMergeCount.set(i, this.txnMergeCount.get(i));
+            snapshot.txnMergeCostTime.set(i, this.txnMergeCostTime.get(i));
+            snapshot.txnMergeMaxCostTime.set(i, this.txnMergeMaxCostTime.get(i));
+        }
         return snapshot;
     }
 
@@ -78,6 +101,28 @@ public class MergeMetrics {
         totalMergePollEmptyCount++;
     }
 
+    /**
+     * 记录一次TxnBuffer合并的耗时，merge stage是多线程并发执行的，所以此处使用原子操作
+     */
+    public void recordTxnMerge(int partiesCount, long costNanos) {
+        int bucket = getTxnMergeBucket(partiesCount);
+        txnMergeCount.incrementAndGet(bucket);
+        txnMergeCostTime.addAndGet(bucket, costNanos);
+        long max;
+        do {
+            max = txnMergeMaxCostTime.get(bucket);
+        } while (costNanos > max && !txnMergeMaxCostTime.compareAndSet(bucket, max, costNanos));
+    }
+
+    private static int getTxnMergeBucket(int partiesCount) {
+        for (int i = 0; i < TXN_MERGE_PARTIES_BUCKETS.length; i++) {
+            if (partiesCount <= TXN_MERGE_PARTIES_BUCKETS[i]) {
+                return i;
+            }
+        }
+        return TXN_MERGE_PARTIES_BUCKETS.length - 1;
+    }
+
     // ---------------------------------单 例----------------------------------
     private static final MergeMetrics MERGE_METRICS;
 
@@ -141,4 +186,25 @@ public class MergeMetrics {
     public long getTotalMergePass2PCCount() {
         return totalMergePass2PCCount;
     }
+
+    public static String getTxnMergeBucketLabel(int bucket) {
+        int upper = TXN_MERGE_PARTIES_BUCKETS[bucket];
+        int lower = bucket == 0 ? 1 : TXN_MERGE_PARTIES_BUCKETS[bucket - 1] + 1;
+        if (upper == Integer.MAX_VALUE) {
+            return lower + "+";
+        }
+        return lower == upper ? String.valueOf(upper) : lower + "-" + upper;
+    }
+
+    public long getTxnMergeCount(int bucket) {
+        return txnMergeCount.get(bucket);
+    }
+
+    public long getTxnMergeCostTime(int bucket) {
+        return txnMergeCostTime.get(bucket);
+    }
+
+    public long getTxnMergeMaxCostTime(int bucket) {
+        return txnMergeMaxCostTime.get(bucket);
+    }
 }
@@ -41,11 +41,14 @@ import java.lang.reflect.Field;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.METRICS_HEATMAP_TOP_N;
 import static com.aliyun.polardbx.binlog.ConfigKeys.PRINT_METRICS;
+import static com.aliyun.polardbx.binlog.ConfigKeys.TASK_NAME;
 import static com.aliyun.polardbx.binlog.canal.LogEventUtil.getGroupFromXid;
 import static com.aliyun.polardbx.binlog.canal.LogEventUtil.getHexTranIdFromXid;
 
@@ -114,6 +117,8 @@ public class MetricsManager {
         contactMergerMetrics(snapshot, stringBuilder);
         contactTransmitMetrics(snapshot, stringBuilder);
         contactStorageMetrics(snapshot, stringBuilder);
+        CommonMetricsHelper.contactStageLatencyMetrics(snapshot.stageLatency, stringBuilder);
+        contactHeatmapMetrics(snapshot, stringBuilder);
         contactJvmMetrics(snapshot, stringBuilder);
         contactRelayWriterMetrics(snapshot, stringBuilder);
         contactRelayStreamMetrics(snapshot, stringBuilder);
@@ -144,6 +149,9 @@ public class MetricsManager {
             }
         }
 
+        CommonMetricsHelper.addStageLatencyMetrics(commonMetrics, snapshot.stageLatency,
+            CommonMetricsHelper.getTask());
+
         JvmSnapshot jvmSnapshot = snapshot.jvmSnapshot;
         if (jvmSnapshot != null) {
             String prefix = "polardbx_cdc_task_";
@@ -152,6 +160,7 @@ public class MetricsManager {
         if (!CollectionUtils.isEmpty(commonMetrics)) {
             MetricsReporter.report(commonMetrics);
         }
+        MetricsReporter.heatmapReport(snapshot.heatmap);
     }
 
     private void contactExtractorMetrics(MetricsSnapshot snapshot, StringBuilder stringBuilder) {
@@ -171,6 +180,8 @@ public class MetricsManager {
             "inTps",
             "inEps",
             "maxDelay(ms)",
+            "fetchStall(ms)",
+            "decodeStall(ms)",
             "isAllReady");
         tableFormat.addRow(
             tsoC + noTsoC + hc,
@@ -181,6 +192,8 @@ public class MetricsManager {
             snapshot.aggregateCoreMetrics.inTps,
             snapshot.aggregateCoreMetrics.inEps,
             snapshot.aggregateCoreMetrics.inDelay,
+            snapshot.aggregateCoreMetrics.fetchStallMs,
+            snapshot.aggregateCoreMetrics.decodeStallMs,
             MultiStreamStartTsoWindow.getInstance().isAllReady());
         stringBuilder.append(tableFormat);
 
@@ -257,6 +270,22 @@ public class MetricsManager {
             mergeMetrics.getDelayTimeOnMerge(),
             mergeMetrics.getDelayTimeOnCollect());
         sb.append(threadInfoFormat1);
+
+        TableFormat txnMergeFormat = new TableFormat("Txn Merge Cost Metrics");
+        txnMergeFormat.addColumn(
+            "parties",
+            "mergeCount",
+            "avgCost(us)",
+            "maxCost(us)");
+        for (int i = 0; i < MergeMetrics.TXN_MERGE_PARTIES_BUCKETS.length; i++) {
+            long count = mergeMetrics.getTxnMergeCount(i);
+            txnMergeFormat.addRow(
+                MergeMetrics.getTxnMergeBucketLabel(i),
+                count,
+                count == 0 ? 0 : mergeMetrics.getTxnMergeCostTime(i) / count / 1000,
+                mergeMetrics.getTxnMergeMaxCostTime(i) / 1000);
+        }
+        sb.append(txnMergeFormat);
     }
 
     private void contactTransmitMetrics(MetricsSnapshot snapshot, StringBuilder sb) {
@@ -280,6 +309,57 @@ public class MetricsManager {
         sb.append(threadInfoFormat2);
     }
 
+    private void contactHeatmapMetrics(MetricsSnapshot snapshot, StringBuilder sb) {
+        HeatmapSnapshot heatmap = snapshot.heatmap;
+        double seconds = heatmap.getPeriod() / 1000d;
+        if (!heatmap.getTables().isEmpty()) {
+            TableFormat tableFormat = new TableFormat("Table Heatmap Metrics");
+            tableFormat.addColumn(
+                "storage",
+                "schema",
+                "table",
+                "eps",
+                "bps",
+                "tps",
+                "events",
+                "error",
+                "delay(ms)");
+            for (HeatmapSnapshot.Item item : heatmap.getTables()) {
+                tableFormat.addRow(
+                    item.getDn(),
+                    item.getSchema(),
+                    item.getTable(),
+                    (long) (item.getEvents() / seconds),
+                    (long) (item.getBytes() / seconds),
+                    (long) (item.getTxns() / seconds),
+                    item.getEvents(),
+                    item.getError(),
+                    item.getDelay());
+            }
+            sb.append(tableFormat);
+        }
+        if (!heatmap.getMergeSources().isEmpty()) {
+            TableFormat sourceFormat = new TableFormat("Merge Source Heatmap Metrics");
+            sourceFormat.addColumn(
+                "source",
+                "eps",
+                "tps",
+                "events",
+                "error",
+                "delay(ms)");
+            for (HeatmapSnapshot.Item item : heatmap.getMergeSources()) {
+                sourceFormat.addRow(
+                    item.getSource(),
+                    (long) (item.getEvents() / seconds),
+                    (long) (item.getTxns() / seconds),
+                    item.getEvents(),
+                    item.getError(),
+                    item.getDelay());
+            }
+            sb.append(sourceFormat);
+        }
+    }
+
     private void contactJvmMetrics(MetricsSnapshot snapshot, StringBuilder sb) {
         TableFormat jvmFormatInfo = new TableFormat("Jvm Metrics");
         jvmFormatInfo.addColumn(
@@ -368,7 +448,9 @@ public class MetricsManager {
             "readDelay(ms)",
             "minRelayDataTime",
             "maxRelayDataTime",
-            "fileCount");
+            "fileCount",
+            "diskUsable(MB)",
+            "diskFree(%)");
         for (RelayStreamMetrics metrics : RelayStreamMetrics.getMetricsMap().values()) {
             relayStreamFormatInfo.addRow(
                 metrics.getStreamSeq(),
@@ -384,7 +466,9 @@ public class MetricsManager {
                 metrics.getReadDelay().get(),
                 sdf.format(new Date(metrics.getMinRelayTimestamp().get())),
                 sdf.format(new Date(metrics.getMaxRelayTimestamp().get())),
-                metrics.getFileCount().get()
+                metrics.getFileCount().get(),
+                metrics.getDiskUsableBytes().get() / 1024 / 1024,
+                metrics.getDiskFreePercent().get()
             );
         }
 
@@ -496,6 +580,9 @@ public class MetricsManager {
         snapshot.transmitMetrics = TransmitMetrics.get().snapshot();
         snapshot.jvmSnapshot = JvmUtils.buildJvmSnapshot();
         snapshot.metaMetrics = MetaMetrics.get().snapshot();
+        snapshot.stageLatency = StageLatencyMetrics.get().snapshot();
+        snapshot.heatmap = HeatmapMetrics.get().snapshot(DynamicApplicationConfig.getInt(METRICS_HEATMAP_TOP_N));
+        snapshot.heatmap.setTaskName(DynamicApplicationConfig.getString(TASK_NAME));
         snapshot.aggregateCoreMetrics = buildCoreMetrics(snapshot);
 
         return snapshot;
@@ -516,6 +603,11 @@ public class MetricsManager {
                 lastSnapshot.extractorMetrics.getNetIn();
             aggregateCoreMetrics.netInBps = Double.valueOf(((double) d3) / Math.max(snapshot.period, 1)).longValue();
 
+            aggregateCoreMetrics.fetchStallMs = TimeUnit.NANOSECONDS.toMillis(
+                snapshot.extractorMetrics.getFetchStallNanos() - lastSnapshot.extractorMetrics.getFetchStallNanos());
+            aggregateCoreMetrics.decodeStallMs = TimeUnit.NANOSECONDS.toMillis(
+                snapshot.extractorMetrics.getDecodeStallNanos() - lastSnapshot.extractorMetrics.getDecodeStallNanos());
+
             long d4 = snapshot.mergeMetrics.getTotalMergePassCount()
                 - lastSnapshot.mergeMetrics.getTotalMergePassCount();
             aggregateCoreMetrics.mergeTps = Double.valueOf(((double) d4) / Math.max(snapshot.period, 1)).longValue();
@@ -562,6 +654,8 @@ public class MetricsManager {
         TransmitMetrics transmitMetrics;
         JvmSnapshot jvmSnapshot;
         MetaMetrics metaMetrics;
+        Map<TraceStage, LatencyHistogram.Snapshot> stageLatency;
+        HeatmapSnapshot heatmap;
         AggregateCoreMetrics aggregateCoreMetrics;
     }
 
@@ -571,6 +665,9 @@ public class MetricsManager {
         private long netInBps;
         private long inDelay;
         private long maxSorterQueuedSize;
+        // 统计周期内binlog dump预读的等待时间
+        private long fetchStallMs;
+        private long decodeStallMs;
 
         private long mergeTxnTotal;
         private long merge1PcTxnTotal;
@@ -53,4 +53,6 @@ public class RelayStreamMetrics {
     private AtomicLong writeEps = new AtomicLong(0);
     private AtomicLong readEps = new AtomicLong(0);
     private AtomicLong fileCount = new AtomicLong(0);
+    private AtomicLong diskUsableBytes = new AtomicLong(0);
+    private AtomicLong diskFreePercent = new AtomicLong(100);
 }
@@ -0,0 +1,500 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress;
+
+import com.aliyun.polardbx.binlog.collect.WaitStrategyType;
+import com.aliyun.polardbx.binlog.collect.message.MessageEvent;
+import com.aliyun.polardbx.binlog.collect.message.MessageEventFactory;
+import com.aliyun.polardbx.binlog.collect.message.MessageEventPool;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.protocol.DumpReply;
+import com.aliyun.polardbx.binlog.protocol.MessageType;
+import com.aliyun.polardbx.binlog.protocol.PacketMode;
+import com.aliyun.polardbx.binlog.protocol.TxnBegin;
+import com.aliyun.polardbx.binlog.protocol.TxnData;
+import com.aliyun.polardbx.binlog.protocol.TxnEnd;
+import com.aliyun.polardbx.binlog.protocol.TxnItem;
+import com.aliyun.polardbx.binlog.protocol.TxnMergedToken;
+import com.aliyun.polardbx.binlog.protocol.TxnMessage;
+import com.aliyun.polardbx.binlog.protocol.TxnToken;
+import com.aliyun.polardbx.binlog.protocol.TxnType;
+import com.aliyun.polardbx.binlog.transmit.ChunkMode;
+import com.aliyun.polardbx.binlog.transmit.MessageChunk;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.IgnoreExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.WorkerPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collector到Transmitter这一段的压测，不依赖Storage和网络，用于评估小事务高TPS下每个事务的内存分配和cpu开销：
+ * 生产线程按固定TPS向Disruptor发布TxnToken，merge阶段(WorkerPool)按BYTES模式把每个事务构建为WHOLE类型的TxnMessage，
+ * sink阶段把事件交给transmit队列，packet builder线程按MEMSIZE模式组装chunk，dump线程把DumpReply序列化到复用的缓冲区中
+ * (模拟gRPC的onNext)。事件、队列和chunk的处理方式与LogEventCollector、LogEventTransmitter保持一致
+ * <p>
+ * 1. COPY：sink阶段为每个事务new一个MessageEvent，每个chunk新建DumpReply.Builder(对象池化之前的实现) </br>
+ * 2. POOL：事件从MessageEventPool中获取，chunk持有事件直到发送，发送之后归还 </br>
+ * 3. POOL_APPEND：事件加入chunk时直接追加到复用的DumpReply.Builder中并归还(当前的实现) </br>
+ * 4. POOL_DIRECT：在POOL_APPEND的基础上，TxnMessage序列化到预分配的堆外槽位中，dump线程序列化之后归还槽位，
+ * 槽位不足时退化为堆内的ByteString，用于评估堆外payload能够减少的分配量
+ * </p>
+ * 输出实际TPS、发布到dump完成的延迟(p50、p99、最大值)、各阶段每个事务分配的字节数和cpu时间、gc次数和耗时
+ * <p>
+ * 参数：tps 每秒事务数，seconds 每轮时长，payloadSize 每个事务的rows event大小，mergeThreads merge阶段并行度，
+ * ringBufferSize、transmitQueueSize、dumpingQueueSize 各队列长度，chunkItemSize chunk大小(KB)，
+ * waitStrategy Disruptor等待策略，directSlotSize/directSlots 堆外槽位大小和个数，modes 压测的模式(逗号分隔)，
+ * rounds 轮数(第一轮作为预热)
+ * </p>
+ */
+public class CollectTransmitStressSimulator extends BaseStressSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(CollectTransmitStressSimulator.class);
+    private static final int CHUNK_MEM_UNIT = 1024;
+    private static final int FLUSH_TIME_THRESHOLD = 500;
+    private static final int TRACK_SIZE = 1 << 22;
+    private static final String[] GROUPS = {"producer", "merge", "sink", "builder", "dump"};
+
+    //sh stress.sh CollectTransmitSimulator "tps=200000 seconds=20 modes=COPY,POOL_APPEND"
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !args[0].trim().isEmpty()) {
+            handleArgs(args[0]);
+        }
+        Config config = new Config();
+        config.tps = Integer.parseInt(getValue("tps", "200000"));
+        config.seconds = Integer.parseInt(getValue("seconds", "20"));
+        config.payloadSize = Integer.parseInt(getValue("payloadSize", "100"));
+        config.mergeThreads = Integer.parseInt(getValue("mergeThreads", "4"));
+        config.ringBufferSize = Integer.parseInt(getValue("ringBufferSize", "8192"));
+        config.transmitQueueSize = Integer.parseInt(getValue("transmitQueueSize", "1024"));
+        config.dumpingQueueSize = Integer.parseInt(getValue("dumpingQueueSize", "64"));
+        config.chunkItemSize = Integer.parseInt(getValue("chunkItemSize", "10240"));
+        config.waitStrategy = WaitStrategyType.valueOf(getValue("waitStrategy", "BLOCKING"));
+        config.directSlotSize = Integer.parseInt(getValue("directSlotSize", "512"));
+        config.directSlots = Integer.parseInt(getValue("directSlots", "262144"));
+        String[] modes = getValue("modes", "COPY,POOL,POOL_APPEND,POOL_DIRECT").split(",");
+        int rounds = Integer.parseInt(getValue("rounds", "3"));
+
+        for (int round = 1; round <= rounds; round++) {
+            for (String mode : modes) {
+                Result result = new Simulation(Mode.valueOf(mode.trim()), config).run();
+                logger.info("round {}{} {}: {}", round, round == 1 ? "(warm up)" : "", mode.trim(), result);
+            }
+        }
+        System.exit(0);
+    }
+
+    private enum Mode {
+        COPY, POOL, POOL_APPEND, POOL_DIRECT
+    }
+
+    private static class Config {
+        int tps;
+        int seconds;
+        int payloadSize;
+        int mergeThreads;
+        int ringBufferSize;
+        int transmitQueueSize;
+        int dumpingQueueSize;
+        int chunkItemSize;
+        WaitStrategyType waitStrategy;
+        int directSlotSize;
+        int directSlots;
+    }
+
+    private static class Simulation {
+        private final Mode mode;
+        private final Config config;
+        private final long total;
+        private final ByteString payload;
+        private final RingBuffer<MessageEvent> ringBuffer;
+        private final ArrayBlockingQueue<MessageEvent> transmitQueue;
+        private final ArrayBlockingQueue<DumpReply> dumpingQueue;
+        private final MessageEventPool messageEventPool;
+        private final ArrayBlockingQueue<ByteBuffer> directSlots;
+        private final ByteBuffer[] usedSlots;
+        private final long[] publishNanos = new long[TRACK_SIZE];
+        private final long[] latencies;
+        private final AtomicLong dumpedTxns = new AtomicLong();
+        private final AtomicLong directFallbacks = new AtomicLong();
+        private final List<Thread> threads = new ArrayList<>();
+        private final List<String> threadGroups = new ArrayList<>();
+        private volatile boolean running = true;
+
+        Simulation(Mode mode, Config config) {
+            this.mode = mode;
+            this.config = config;
+            this.total = (long) config.tps * config.seconds;
+            this.latencies = new long[(int) total];
+            byte[] data = new byte[config.payloadSize];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) i;
+            }
+            this.payload = ByteString.copyFrom(data);
+            this.ringBuffer = RingBuffer.createSingleProducer(new MessageEventFactory(), config.ringBufferSize,
+                config.waitStrategy.newWaitStrategy());
+            this.transmitQueue = new ArrayBlockingQueue<>(config.transmitQueueSize);
+            this.dumpingQueue = new ArrayBlockingQueue<>(config.dumpingQueueSize);
+            this.messageEventPool = new MessageEventPool(config.transmitQueueSize * 2);
+            if (mode == Mode.POOL_DIRECT) {
+                this.directSlots = new ArrayBlockingQueue<>(config.directSlots);
+                ByteBuffer arena = ByteBuffer.allocateDirect(config.directSlotSize * config.directSlots);
+                for (int i = 0; i < config.directSlots; i++) {
+                    arena.limit((i + 1) * config.directSlotSize).position(i * config.directSlotSize);
+                    directSlots.add(arena.slice());
+                }
+                this.usedSlots = new ByteBuffer[TRACK_SIZE];
+            } else {
+                this.directSlots = null;
+                this.usedSlots = null;
+            }
+        }
+
+        Result run() throws InterruptedException {
+            ExecutorService mergeExecutor = Executors.newFixedThreadPool(config.mergeThreads,
+                r -> newThread(r, "merge"));
+            ExecutorService sinkExecutor = Executors.newSingleThreadExecutor(r -> newThread(r, "sink"));
+            @SuppressWarnings("unchecked")
+            WorkHandler<MessageEvent>[] handlers = new WorkHandler[config.mergeThreads];
+            for (int i = 0; i < handlers.length; i++) {
+                handlers[i] = new MergeHandler();
+            }
+            WorkerPool<MessageEvent> mergePool = new WorkerPool<>(ringBuffer, ringBuffer.newBarrier(),
+                new IgnoreExceptionHandler(), handlers);
+            Sequence[] mergeSequences = mergePool.getWorkerSequences();
+            ringBuffer.addGatingSequences(mergeSequences);
+            BatchEventProcessor<MessageEvent> sinkStage = new BatchEventProcessor<>(ringBuffer,
+                ringBuffer.newBarrier(mergeSequences), new SinkHandler());
+            ringBuffer.addGatingSequences(sinkStage.getSequence());
+            sinkExecutor.submit(sinkStage);
+            mergePool.start(mergeExecutor);
+            newThread(this::buildPacket, "builder").start();
+            newThread(this::dump, "dump").start();
+            threads.add(Thread.currentThread());
+            threadGroups.add("producer");
+            // 等待线程启动，保证统计开始时所有线程都已经存在
+            Thread.sleep(200);
+
+            long[][] before = snapshot();
+            long gcCountBefore = gcCount();
+            long gcTimeBefore = gcTime();
+            long start = System.nanoTime();
+            produce(start);
+            long produced = System.nanoTime() - start;
+            while (dumpedTxns.get() < total) {
+                if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(config.seconds * 10L)) {
+                    throw new PolardbxException("simulation is stuck, dumped txns " + dumpedTxns.get());
+                }
+                Thread.sleep(1);
+            }
+            long[][] after = snapshot();
+
+            // 最后一个chunk需要等待flush时间才会发出，吞吐只按发布阶段计算，反压会使发布速率低于tps
+            Result result = new Result();
+            result.tps = total * 1000_000_000L / produced;
+            Arrays.sort(latencies);
+            result.p50 = latencies[(int) (total / 2)];
+            result.p99 = latencies[(int) (total * 99 / 100)];
+            result.max = latencies[(int) total - 1];
+            result.allocPerTxn = new long[GROUPS.length];
+            result.cpuPerTxn = new long[GROUPS.length];
+            for (int i = 0; i < threads.size(); i++) {
+                int group = Arrays.asList(GROUPS).indexOf(threadGroups.get(i));
+                result.cpuPerTxn[group] += (after[0][i] - before[0][i]);
+                result.allocPerTxn[group] += (after[1][i] - before[1][i]);
+            }
+            for (int i = 0; i < GROUPS.length; i++) {
+                result.cpuPerTxn[i] /= total;
+                result.allocPerTxn[i] /= total;
+            }
+            result.gcCount = gcCount() - gcCountBefore;
+            result.gcTime = gcTime() - gcTimeBefore;
+            result.directFallbacks = directFallbacks.get();
+
+            running = false;
+            mergePool.halt();
+            sinkStage.halt();
+            mergeExecutor.shutdownNow();
+            sinkExecutor.shutdownNow();
+            return result;
+        }
+
+        /**
+         * 按固定速率发布，模拟merger每个事务输出一个新的TxnToken；tsoTimestamp在模拟器中借用为事务序号
+         */
+        private void produce(long start) {
+            long interval = 1000_000_000L / config.tps;
+            long next = start;
+            long index = 0;
+            while (index < total) {
+                long now = System.nanoTime();
+                if (next > now) {
+                    LockSupport.parkNanos(Math.min(next - now, 50_000));
+                    continue;
+                }
+                while (next <= now && index < total) {
+                    TxnToken token = TxnToken.newBuilder()
+                        .setSchema("stress_db")
+                        .setTso("069831255618478489617230198239629107200000000000" + index)
+                        .setType(TxnType.DML)
+                        .setTxnId(String.valueOf(index))
+                        .setPartitionId("111111111111111")
+                        .setXaTxn(true)
+                        .setTsoTransaction(true)
+                        .setTxnSize(1)
+                        .build();
+                    long sequence = ringBuffer.next();
+                    MessageEvent event = ringBuffer.get(sequence);
+                    event.setToken(token);
+                    event.setTsoTimestamp(index);
+                    publishNanos[(int) (index & (TRACK_SIZE - 1))] = System.nanoTime();
+                    ringBuffer.publish(sequence);
+                    index++;
+                    next += interval;
+                }
+            }
+        }
+
+        private class MergeHandler implements WorkHandler<MessageEvent> {
+            @Override
+            public void onEvent(MessageEvent event) {
+                TxnToken token = event.getToken();
+                TxnItem item = TxnItem.newBuilder()
+                    .setTraceId(token.getTso())
+                    .setRowsQuery("")
+                    .setEventType(30)
+                    .setPayload(payload)
+                    .setSchema(token.getSchema())
+                    .setTable("stress_table")
+                    .build();
+                TxnMergedToken mergedToken = TxnMergedToken.newBuilder()
+                    .setType(token.getType())
+                    .setSchema(token.getSchema())
+                    .setTso(token.getTso())
+                    .setPayload(token.getPayload())
+                    .setTable(token.getTable())
+                    .build();
+                TxnMessage message = TxnMessage.newBuilder()
+                    .setType(MessageType.WHOLE)
+                    .setTxnBegin(TxnBegin.newBuilder().setTxnMergedToken(mergedToken).build())
+                    .setTxnData(TxnData.newBuilder().addTxnItems(item).build())
+                    .setTxnEnd(TxnEnd.newBuilder().build())
+                    .build();
+                event.setMerged(true);
+                event.setMemSize(payload.size());
+                event.setTxnMessageBytes(mode == Mode.POOL_DIRECT ? toDirect(message, event.getTsoTimestamp())
+                    : message.toByteString());
+            }
+
+            private ByteString toDirect(TxnMessage message, long index) {
+                int size = message.getSerializedSize();
+                ByteBuffer slot = size <= config.directSlotSize ? directSlots.poll() : null;
+                if (slot == null) {
+                    directFallbacks.incrementAndGet();
+                    return message.toByteString();
+                }
+                try {
+                    slot.clear();
+                    CodedOutputStream output = CodedOutputStream.newInstance(slot);
+                    message.writeTo(output);
+                    output.flush();
+                } catch (IOException e) {
+                    throw new PolardbxException("serialize txn message failed", e);
+                }
+                slot.flip();
+                usedSlots[(int) (index & (TRACK_SIZE - 1))] = slot;
+                return UnsafeByteOperations.unsafeWrap(slot);
+            }
+        }
+
+        private class SinkHandler implements EventHandler<MessageEvent> {
+            @Override
+            public void onEvent(MessageEvent event, long sequence, boolean endOfBatch) throws Exception {
+                MessageEvent copy = mode == Mode.COPY ? new MessageEvent() : messageEventPool.acquire();
+                copy.copyFrom(event);
+                transmitQueue.put(copy);
+                event.clear();
+            }
+        }
+
+        private void buildPacket() {
+            MessageChunk chunk = new MessageChunk(ChunkMode.MEMSIZE);
+            List<MessageEvent> heldEvents = new ArrayList<>();
+            DumpReply.Builder chunkReplyBuilder = DumpReply.newBuilder();
+            try {
+                while (running) {
+                    MessageEvent event = transmitQueue.poll(500, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        if (mode == Mode.COPY || mode == Mode.POOL) {
+                            heldEvents.add(event);
+                        } else {
+                            chunkReplyBuilder.addTxnMessageBytes(event.getTxnMessageBytes());
+                            messageEventPool.release(event);
+                        }
+                        chunk.addItem();
+                        chunk.addMemSize(event.getMemSize());
+                    }
+                    if (chunk.getItemCount() == 0) {
+                        continue;
+                    }
+                    if (chunk.getTotalMemSize() >= (long) config.chunkItemSize * CHUNK_MEM_UNIT
+                        || System.currentTimeMillis() - chunk.getStartTimeMills() >= FLUSH_TIME_THRESHOLD) {
+                        DumpReply.Builder builder =
+                            mode == Mode.COPY ? DumpReply.newBuilder() : chunkReplyBuilder;
+                        for (MessageEvent messageEvent : heldEvents) {
+                            builder.addTxnMessageBytes(messageEvent.getTxnMessageBytes());
+                            if (mode == Mode.POOL) {
+                                messageEventPool.release(messageEvent);
+                            }
+                        }
+                        heldEvents.clear();
+                        dumpingQueue.put(builder.setPacketMode(PacketMode.BYTES).build());
+                        builder.clear();
+                        chunk.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // exit
+            }
+        }
+
+        /**
+         * 模拟gRPC的onNext，把DumpReply序列化到复用的缓冲区中，序列化完成之后堆外槽位才可以归还
+         */
+        private void dump() {
+            byte[] buffer = new byte[1024 * 1024];
+            long index = 0;
+            try {
+                while (running) {
+                    DumpReply reply = dumpingQueue.poll(500, TimeUnit.MILLISECONDS);
+                    if (reply == null) {
+                        continue;
+                    }
+                    int size = reply.getSerializedSize();
+                    if (size > buffer.length) {
+                        buffer = new byte[Math.max(size, buffer.length * 2)];
+                    }
+                    reply.writeTo(CodedOutputStream.newInstance(buffer, 0, size));
+                    long now = System.nanoTime();
+                    int count = reply.getTxnMessageBytesCount();
+                    for (int i = 0; i < count; i++, index++) {
+                        int slot = (int) (index & (TRACK_SIZE - 1));
+                        latencies[(int) index] = now - publishNanos[slot];
+                        if (usedSlots != null && usedSlots[slot] != null) {
+                            directSlots.add(usedSlots[slot]);
+                            usedSlots[slot] = null;
+                        }
+                    }
+                    dumpedTxns.set(index);
+                }
+            } catch (InterruptedException | IOException e) {
+                // exit
+            }
+        }
+
+        private Thread newThread(Runnable runnable, String group) {
+            Thread thread = new Thread(runnable, "stress-" + group + "-" + threads.size());
+            thread.setDaemon(true);
+            threads.add(thread);
+            threadGroups.add(group);
+            return thread;
+        }
+
+        private long[][] snapshot() {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            long[][] counters = new long[2][threads.size()];
+            for (int i = 0; i < threads.size(); i++) {
+                long threadId = threads.get(i).getId();
+                counters[0][i] = threadMXBean.getThreadCpuTime(threadId);
+                if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                    counters[1][i] =
+                        ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId);
+                }
+            }
+            return counters;
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += bean.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += bean.getCollectionTime();
+        }
+        return time;
+    }
+
+    private static class Result {
+        long tps;
+        long p50;
+        long p99;
+        long max;
+        long[] allocPerTxn;
+        long[] cpuPerTxn;
+        long gcCount;
+        long gcTime;
+        long directFallbacks;
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d txn/s, latency p50 %.1fms p99 %.1fms max %.1fms, gc %d times %dms",
+                tps, p50 / 1e6, p99 / 1e6, max / 1e6, gcCount, gcTime));
+            long totalAlloc = 0;
+            long totalCpu = 0;
+            for (int i = 0; i < GROUPS.length; i++) {
+                totalAlloc += allocPerTxn[i];
+                totalCpu += cpuPerTxn[i];
+            }
+            sb.append(String.format(", alloc %dB/txn, cpu %dns/txn [", totalAlloc, totalCpu));
+            for (int i = 0; i < GROUPS.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(GROUPS[i]).append(' ').append(allocPerTxn[i]).append("B/")
+                    .append(cpuPerTxn[i]).append("ns");
+            }
+            sb.append(']');
+            if (directFallbacks > 0) {
+                sb.append(", direct slot fallbacks ").append(directFallbacks);
+            }
+            return sb.toString();
+        }
+    }
+}
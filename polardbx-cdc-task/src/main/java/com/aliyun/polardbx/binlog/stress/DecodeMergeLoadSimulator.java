@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress;
+
+import com.aliyun.polardbx.binlog.canal.LogEventUtil;
+import com.aliyun.polardbx.binlog.canal.binlog.LogContext;
+import com.aliyun.polardbx.binlog.canal.binlog.LogDecoder;
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.LogFetcher;
+import com.aliyun.polardbx.binlog.canal.binlog.LogPosition;
+import com.aliyun.polardbx.binlog.canal.binlog.event.FormatDescriptionLogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.event.QueryLogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.event.SequenceLogEvent;
+import com.aliyun.polardbx.binlog.canal.core.model.ServerCharactorSet;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.stress.load.GlobalTxnPlan;
+import com.aliyun.polardbx.binlog.stress.load.LoadScenario;
+import com.aliyun.polardbx.binlog.stress.load.LoadStats;
+import com.aliyun.polardbx.binlog.stress.load.SyntheticBinlogSource;
+import com.aliyun.polardbx.binlog.stress.load.SyntheticLogFetcher;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 解析和归并环节的可复现离线压测：按场景文件为每个DN生成合成的binlog流，经过LogFetcher -> LogDecoder完成真实的解析，
+ * 再按XA事务分支组装、按TSO做多路归并，输出吞吐量、各阶段延迟和GC情况，不依赖metaDB和真实DN
+ * <p>
+ * 这不是端到端的链路压测框架，组装和归并是本类内的简化实现，不经过BinlogExtractor、Merger、Collector、Transmitter
+ * 和dumper，结果只反映解析和归并的能力；各组件的专项压测仍使用FromMergerStressSimulator等已有的模拟器
+ * </p>
+ * <p>
+ * sh stress.sh DecodeMergeSimulator "load.scenario=/home/admin/large_txn.properties load.partitions=8"
+ * </p>
+ */
+public class DecodeMergeLoadSimulator extends BaseStressSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(DecodeMergeLoadSimulator.class);
+    private static final String STAGE_GENERATE = "generate";
+    private static final String STAGE_DECODE = "decode";
+    private static final String STAGE_MERGE_WAIT = "merge_wait";
+    private static final String STAGE_COMMIT_TO_MERGE = "commit_to_merge";
+    private static final Branch END = new Branch(-1, Long.MAX_VALUE, 0);
+
+    private final LoadScenario scenario;
+    private final GlobalTxnPlan.TableSampler sampler;
+    private final LoadStats stats =
+        new LoadStats(STAGE_GENERATE, STAGE_DECODE, STAGE_MERGE_WAIT, STAGE_COMMIT_TO_MERGE);
+    private final List<BlockingQueue<Branch>> queues = new ArrayList<>();
+    private final AtomicLongArray progress;
+    private final AtomicLong endSeq;
+    private final AtomicLong truncated = new AtomicLong();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    public DecodeMergeLoadSimulator(LoadScenario scenario) {
+        this.scenario = scenario;
+        this.sampler = new GlobalTxnPlan.TableSampler(scenario.getTableCount(), scenario.getTableSkew());
+        this.progress = new AtomicLongArray(scenario.getPartitions());
+        this.endSeq =
+            new AtomicLong(scenario.getMaxTransactions() > 0 ? scenario.getMaxTransactions() : Long.MAX_VALUE);
+        for (int i = 0; i < scenario.getPartitions(); i++) {
+            queues.add(new ArrayBlockingQueue<>(scenario.getQueueSize()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && StringUtils.isNotBlank(args[0])) {
+            handleArgs(args[0]);
+        }
+        LoadScenario scenario = LoadScenario.load(getValue("load.scenario", null));
+        logger.info("start load simulator with scenario " + scenario);
+        new DecodeMergeLoadSimulator(scenario).run();
+        System.exit(0);
+    }
+
+    public LoadStats run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < scenario.getPartitions(); i++) {
+            final int partition = i;
+            threads.add(new Thread(() -> runPartition(partition), "load-partition-" + i));
+        }
+        threads.add(new Thread(this::runMerger, "load-merger"));
+        threads.forEach(Thread::start);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(scenario.getDurationSeconds());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> {
+            logger.info("load simulator [" + scenario.getName() + "] " + stats.report());
+            if (scenario.getDurationSeconds() > 0 && System.currentTimeMillis() >= deadline) {
+                stop();
+            }
+        }, scenario.getReportIntervalSeconds(), scenario.getReportIntervalSeconds(), TimeUnit.SECONDS);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        reporter.shutdownNow();
+        if (error.get() != null) {
+            throw new PolardbxException("load simulator failed", error.get());
+        }
+        logger.info("load simulator [" + scenario.getName() + "] finished, truncated txn " + truncated.get() + ", "
+            + stats.report());
+        return stats;
+    }
+
+    /**
+     * 所有DN都会把序号小于endSeq的全局事务生成完毕，序号不小于endSeq的事务可能只有部分分支，归并时丢弃
+     */
+    private void stop() {
+        long max = 0;
+        for (int i = 0; i < progress.length(); i++) {
+            max = Math.max(max, progress.get(i));
+        }
+        final long stopAt = max;
+        endSeq.getAndUpdate(v -> Math.min(v, stopAt));
+    }
+
+    private void runPartition(int partition) {
+        BlockingQueue<Branch> queue = queues.get(partition);
+        SyntheticBinlogSource source = new SyntheticBinlogSource(scenario, sampler, partition);
+        SyntheticLogFetcher fetcher = new SyntheticLogFetcher(source, scenario.getFetchSize(), endSeq::get);
+        LogDecoder decoder = new LogDecoder(LogEvent.UNKNOWN_EVENT, LogEvent.ENUM_END_EVENT);
+        LogContext context = new LogContext(FormatDescriptionLogEvent.FORMAT_DESCRIPTION_EVENT_4_0_x);
+        context.setLogPosition(new LogPosition("load-bin.000001", LogFetcher.BIN_LOG_HEADER_SIZE));
+        ServerCharactorSet charset = new ServerCharactorSet();
+        charset.setCharacterSetServer("utf8");
+        charset.setCharacterSetClient("utf8");
+        charset.setCharacterSetConnection("utf8");
+        charset.setCharacterSetDatabase("utf8");
+        context.setServerCharactorSet(charset);
+
+        try {
+            long branchSeq = -1;
+            long commitTso = -1;
+            while (error.get() == null && fetcher.fetch()) {
+                stats.stage(STAGE_GENERATE).record(fetcher.getLastGenerateNanos());
+                long begin = System.nanoTime();
+                LogEvent event;
+                while ((event = decoder.decode(fetcher, context)) != null) {
+                    stats.getEvents().incrementAndGet();
+                    stats.getBytes().addAndGet(event.getEventLen());
+                    if (event instanceof SequenceLogEvent && ((SequenceLogEvent) event).isCommitSequence()) {
+                        commitTso = ((SequenceLogEvent) event).getSequenceNum();
+                    } else if (event instanceof QueryLogEvent) {
+                        String query = ((QueryLogEvent) event).getQuery();
+                        if (query.startsWith(LogEventUtil.XA_START)) {
+                            branchSeq = LogEventUtil.getTranIdFromXid(LogEventUtil.getXid(event), "UTF-8") - 1;
+                        } else if (query.startsWith(LogEventUtil.XA_COMMIT)) {
+                            stats.getBranches().incrementAndGet();
+                            if (!put(queue, new Branch(branchSeq, commitTso, System.nanoTime()))) {
+                                return;
+                            }
+                        } else if (!query.startsWith(LogEventUtil.XA_END)) {
+                            stats.getDdls().incrementAndGet();
+                        }
+                    }
+                }
+                stats.stage(STAGE_DECODE).record(System.nanoTime() - begin);
+                progress.set(partition, source.getNextSeq());
+            }
+            put(queue, END);
+        } catch (Throwable t) {
+            logger.error("load partition " + partition + " failed", t);
+            error.compareAndSet(null, t);
+            queue.clear();
+            queue.offer(END);
+        }
+    }
+
+    private void runMerger() {
+        int partitions = queues.size();
+        Branch[] heads = new Branch[partitions];
+        boolean[] finished = new boolean[partitions];
+        Branch groupFirst = null;
+        int groupSize = 0;
+        long firstArrival = 0;
+        long lastArrival = 0;
+        try {
+            while (true) {
+                int min = -1;
+                for (int i = 0; i < partitions; i++) {
+                    if (!finished[i] && heads[i] == null) {
+                        heads[i] = queues.get(i).take();
+                        finished[i] = heads[i] == END;
+                    }
+                    if (!finished[i] && (min < 0 || heads[i].tso < heads[min].tso)) {
+                        min = i;
+                    }
+                }
+                if (min < 0) {
+                    break;
+                }
+
+                Branch branch = heads[min];
+                heads[min] = null;
+                if (groupFirst != null && groupFirst.tso != branch.tso) {
+                    closeGroup(groupFirst, groupSize, firstArrival, lastArrival);
+                    groupFirst = null;
+                }
+                if (groupFirst == null) {
+                    groupFirst = branch;
+                    groupSize = 0;
+                    firstArrival = branch.commitNanos;
+                    lastArrival = branch.commitNanos;
+                }
+                groupSize++;
+                firstArrival = Math.min(firstArrival, branch.commitNanos);
+                lastArrival = Math.max(lastArrival, branch.commitNanos);
+            }
+            if (groupFirst != null && error.get() == null) {
+                closeGroup(groupFirst, groupSize, firstArrival, lastArrival);
+            }
+        } catch (Throwable t) {
+            logger.error("load merger failed", t);
+            error.compareAndSet(null, t);
+            queues.forEach(BlockingQueue::clear);
+        }
+    }
+
+    /**
+     * 同一个全局事务的所有分支tso相同，归并后连续出现，分支数和执行计划一致时才算完整
+     */
+    private void closeGroup(Branch first, int size, long firstArrival, long lastArrival) {
+        GlobalTxnPlan plan = GlobalTxnPlan.plan(scenario, sampler, first.seq);
+        if (plan.getTso() != first.tso) {
+            throw new PolardbxException("tso mismatch for global txn " + first.seq + ", expect " + plan.getTso()
+                + ", actual " + first.tso);
+        }
+        if (size != plan.getBranchCount()) {
+            if (first.seq >= endSeq.get()) {
+                truncated.incrementAndGet();
+                return;
+            }
+            throw new PolardbxException("incomplete global txn " + first.seq + ", expect branches "
+                + plan.getBranchCount() + ", actual " + size);
+        }
+        stats.getGlobalTxns().incrementAndGet();
+        if (plan.getKind() == GlobalTxnPlan.Kind.HEARTBEAT) {
+            stats.getHeartbeats().incrementAndGet();
+        }
+        stats.stage(STAGE_MERGE_WAIT).record(lastArrival - firstArrival);
+        stats.stage(STAGE_COMMIT_TO_MERGE).record(System.nanoTime() - firstArrival);
+    }
+
+    private boolean put(BlockingQueue<Branch> queue, Branch branch) throws InterruptedException {
+        while (!queue.offer(branch, 100, TimeUnit.MILLISECONDS)) {
+            if (error.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @AllArgsConstructor
+    private static class Branch {
+        private final long seq;
+        private final long tso;
+        private final long commitNanos;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress.load;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 第seq个全局事务的执行计划，只由场景和seq决定，各个DN独立计算出的结果完全一致，因此不需要跨线程协调
+ */
+@Getter
+public class GlobalTxnPlan {
+    private static final long TSO_BASE = 7000000000000000000L;
+
+    public enum Kind {
+        DML, LARGE_DML, DDL, HEARTBEAT
+    }
+
+    private final long seq;
+    private final long tso;
+    private final Kind kind;
+    private final int firstPartition;
+    private final int branchCount;
+    private final int tableIndex;
+    private final int rowsPerBranch;
+
+    private GlobalTxnPlan(long seq, Kind kind, int firstPartition, int branchCount, int tableIndex,
+                          int rowsPerBranch) {
+        this.seq = seq;
+        this.tso = TSO_BASE + seq;
+        this.kind = kind;
+        this.firstPartition = firstPartition;
+        this.branchCount = branchCount;
+        this.tableIndex = tableIndex;
+        this.rowsPerBranch = rowsPerBranch;
+    }
+
+    public static GlobalTxnPlan plan(LoadScenario scenario, TableSampler sampler, long seq) {
+        int partitions = scenario.getPartitions();
+        if (scenario.getHeartbeatInterval() > 0 && seq % scenario.getHeartbeatInterval() == 0) {
+            return new GlobalTxnPlan(seq, Kind.HEARTBEAT, 0, partitions, 0, 1);
+        }
+
+        Random random = new Random(scenario.getSeed() ^ (seq * 0x9E3779B97F4A7C15L));
+        int tableIndex = sampler.sample(random);
+        if (random.nextDouble() < scenario.getDdlRatio()) {
+            return new GlobalTxnPlan(seq, Kind.DDL, 0, partitions, tableIndex, 0);
+        }
+
+        int branchCount = 1 + random.nextInt(Math.min(scenario.getMaxBranches(), partitions));
+        int firstPartition = random.nextInt(partitions);
+        boolean large = random.nextDouble() < scenario.getLargeTxnRatio();
+        int rows = large ? scenario.getLargeTxnRows() : scenario.getRowsPerTxn();
+        return new GlobalTxnPlan(seq, large ? Kind.LARGE_DML : Kind.DML, firstPartition, branchCount, tableIndex,
+            Math.max(1, rows / branchCount));
+    }
+
+    public boolean involves(int partition, int partitions) {
+        int offset = partition - firstPartition;
+        if (offset < 0) {
+            offset += partitions;
+        }
+        return offset < branchCount;
+    }
+
+    public boolean isXa() {
+        return kind != Kind.DDL;
+    }
+
+    /**
+     * 按Zipf分布选择表，skew为0时退化为均匀分布
+     */
+    public static class TableSampler {
+        private final double[] cdf;
+
+        public TableSampler(int tableCount, double skew) {
+            cdf = new double[tableCount];
+            double sum = 0;
+            for (int i = 0; i < tableCount; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < tableCount; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        public int sample(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            index = index >= 0 ? index : -index - 1;
+            return Math.min(index, cdf.length - 1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress.load;
+
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * 压测场景定义，场景文件为properties格式，所有配置项都可以通过同名的System Property覆盖
+ * 同一个场景文件 + 同一个seed，生成的binlog流完全一致，便于不同版本之间做对比
+ */
+@Getter
+@ToString
+public class LoadScenario {
+    public static final String DEFAULT_SCENARIO_FILE = "load_scenario.properties";
+
+    private final String name;
+    /**
+     * 模拟的DN个数
+     */
+    private final int partitions;
+    /**
+     * 压测时长，到期后所有DN在同一个全局事务处停止
+     */
+    private final int durationSeconds;
+    /**
+     * 全局事务个数上限，<=0表示不限制
+     */
+    private final long maxTransactions;
+    private final long seed;
+    private final int tableCount;
+    /**
+     * 表访问的Zipf倾斜系数，0表示均匀访问
+     */
+    private final double tableSkew;
+    private final int rowsPerTxn;
+    private final int rowPayloadSize;
+    /**
+     * 单个分布式事务最多涉及的DN个数
+     */
+    private final int maxBranches;
+    private final double largeTxnRatio;
+    private final int largeTxnRows;
+    private final int rowsPerEvent;
+    private final double ddlRatio;
+    /**
+     * 每隔多少个全局事务插入一次心跳事务，<=0表示不插入心跳
+     */
+    private final int heartbeatInterval;
+    private final int fetchSize;
+    private final int queueSize;
+    private final int reportIntervalSeconds;
+
+    private LoadScenario(Properties props) {
+        this.name = get(props, "name", "default");
+        this.partitions = Integer.parseInt(get(props, "partitions", "4"));
+        this.durationSeconds = Integer.parseInt(get(props, "durationSeconds", "60"));
+        this.maxTransactions = Long.parseLong(get(props, "maxTransactions", "0"));
+        this.seed = Long.parseLong(get(props, "seed", "1"));
+        this.tableCount = Integer.parseInt(get(props, "tableCount", "16"));
+        this.tableSkew = Double.parseDouble(get(props, "tableSkew", "0"));
+        this.rowsPerTxn = Integer.parseInt(get(props, "rowsPerTxn", "4"));
+        this.rowPayloadSize = Integer.parseInt(get(props, "rowPayloadSize", "128"));
+        this.maxBranches = Integer.parseInt(get(props, "maxBranches", "2"));
+        this.largeTxnRatio = Double.parseDouble(get(props, "largeTxnRatio", "0"));
+        this.largeTxnRows = Integer.parseInt(get(props, "largeTxnRows", "10000"));
+        this.rowsPerEvent = Integer.parseInt(get(props, "rowsPerEvent", "100"));
+        this.ddlRatio = Double.parseDouble(get(props, "ddlRatio", "0"));
+        this.heartbeatInterval = Integer.parseInt(get(props, "heartbeatInterval", "1000"));
+        this.fetchSize = Integer.parseInt(get(props, "fetchSize", "1048576"));
+        this.queueSize = Integer.parseInt(get(props, "queueSize", "4096"));
+        this.reportIntervalSeconds = Integer.parseInt(get(props, "reportIntervalSeconds", "5"));
+
+        if (partitions <= 0 || tableCount <= 0 || rowsPerTxn <= 0 || maxBranches <= 0 || rowsPerEvent <= 0) {
+            throw new PolardbxException("invalid load scenario " + this);
+        }
+    }
+
+    /**
+     * @param scenarioFile 场景文件路径，为空时从classpath加载默认场景
+     */
+    public static LoadScenario load(String scenarioFile) {
+        Properties props = new Properties();
+        try (InputStream in = StringUtils.isBlank(scenarioFile) ?
+            LoadScenario.class.getClassLoader().getResourceAsStream(DEFAULT_SCENARIO_FILE) :
+            new FileInputStream(new File(scenarioFile))) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            throw new PolardbxException("load scenario file failed, " + scenarioFile, e);
+        }
+        return new LoadScenario(props);
+    }
+
+    public static LoadScenario of(Properties props) {
+        return new LoadScenario(props);
+    }
+
+    private static String get(Properties props, String key, String defaultValue) {
+        String fullKey = "load." + key;
+        String value = System.getProperty(fullKey);
+        if (StringUtils.isBlank(value)) {
+            value = props.getProperty(fullKey);
+        }
+        return StringUtils.isBlank(value) ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress.load;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 压测统计：吞吐量计数、各阶段延迟分布(按2的幂分桶，单位微秒)以及压测期间的GC次数和耗时
+ */
+@Getter
+public class LoadStats {
+    private final AtomicLong globalTxns = new AtomicLong();
+    private final AtomicLong branches = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong ddls = new AtomicLong();
+    private final AtomicLong heartbeats = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, long[]> gcBaseline = new LinkedHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+
+    public LoadStats(String... stageNames) {
+        for (String name : stageNames) {
+            stages.put(name, new Stage());
+        }
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcBaseline.put(gc.getName(), new long[] {gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+    }
+
+    public Stage stage(String name) {
+        return stages.get(name);
+    }
+
+    public String report() {
+        double seconds = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)) / 1000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("elapsed %.1fs, txn %d (%.0f/s), branch %d, event %d (%.0f/s), %.2f MB/s, ddl %d, "
+                + "heartbeat %d", seconds, globalTxns.get(), globalTxns.get() / seconds, branches.get(), events.get(),
+            events.get() / seconds, bytes.get() / seconds / 1024 / 1024, ddls.get(), heartbeats.get()));
+        for (Map.Entry<String, Stage> entry : stages.entrySet()) {
+            sb.append("\n  stage ").append(entry.getKey()).append(" : ").append(entry.getValue());
+        }
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long[] base = gcBaseline.getOrDefault(gc.getName(), new long[2]);
+            sb.append("\n  gc ").append(gc.getName()).append(" : count ")
+                .append(gc.getCollectionCount() - base[0]).append(", time ")
+                .append(gc.getCollectionTime() - base[1]).append("ms");
+        }
+        return sb.toString();
+    }
+
+    public static class Stage {
+        private static final int BUCKETS = 40;
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            long micros = Math.max(1, nanos / 1000);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max;
+            while ((max = maxNanos.get()) < nanos && !maxNanos.compareAndSet(max, nanos)) {
+            }
+        }
+
+        /**
+         * @return 分位点所在桶的上界，单位微秒
+         */
+        public long percentileMicros(double percentile) {
+            long total = count.get();
+            long threshold = (long) Math.ceil(total * percentile);
+            long accumulated = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                accumulated += histogram.get(i);
+                if (accumulated >= threshold && accumulated > 0) {
+                    return 1L << (i + 1);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            long n = count.get();
+            return String.format("count %d, avg %dus, p50 <%dus, p99 <%dus, max %dus", n,
+                n == 0 ? 0 : totalNanos.get() / n / 1000, percentileMicros(0.5), percentileMicros(0.99),
+                maxNanos.get() / 1000);
+        }
+    }
+}
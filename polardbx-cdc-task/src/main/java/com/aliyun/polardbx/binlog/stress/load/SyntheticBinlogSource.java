@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress.load;
+
+import com.aliyun.polardbx.binlog.canal.LogEventUtil;
+import com.aliyun.polardbx.binlog.canal.binlog.event.SequenceLogEvent;
+import com.aliyun.polardbx.binlog.format.FormatDescriptionEvent;
+import com.aliyun.polardbx.binlog.format.QueryEventBuilder;
+import com.aliyun.polardbx.binlog.format.RowData;
+import com.aliyun.polardbx.binlog.format.RowEventBuilder;
+import com.aliyun.polardbx.binlog.format.SequenceEventBuilder;
+import com.aliyun.polardbx.binlog.format.TableMapEventBuilder;
+import com.aliyun.polardbx.binlog.format.XAPrepareEventBuilder;
+import com.aliyun.polardbx.binlog.format.field.Field;
+import com.aliyun.polardbx.binlog.format.field.MakeFieldFactory;
+import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
+import com.aliyun.polardbx.binlog.format.utils.BinlogEventType;
+import com.aliyun.polardbx.binlog.format.utils.BitMap;
+import com.aliyun.polardbx.binlog.format.utils.CollationCharset;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * 单个DN的合成binlog流，按全局事务序号依次生成当前DN参与的事务分支：
+ * XA START -> snapshot sequence -> (table_map, write_rows)* -> XA END -> XA PREPARE -> commit sequence -> XA COMMIT
+ * DDL在每个DN上生成一个物理DDL的query event，心跳是所有DN都参与的XA事务
+ */
+public class SyntheticBinlogSource {
+    public static final String HEARTBEAT_TABLE = "__cdc_heartbeat___89vr";
+    private static final int SERVER_ID = 1;
+    private static final int TIMESTAMP_BASE = 1669707543;
+    private static final int CHARSET = CollationCharset.utf8mb4Charset.getId();
+    private static final List<String> COLUMN_TYPES = Arrays.asList("bigint(20)", "varchar(%d)", "int(11)");
+
+    private final LoadScenario scenario;
+    private final GlobalTxnPlan.TableSampler sampler;
+    private final int partition;
+    @Getter
+    private final String schema;
+    private final String group;
+    private final String payloadBase;
+    private final List<String> columnTypes = new ArrayList<>();
+    @Getter
+    private long nextSeq;
+    @Getter
+    private long branchCount;
+    @Getter
+    private long rowCount;
+    private boolean started;
+
+    public SyntheticBinlogSource(LoadScenario scenario, GlobalTxnPlan.TableSampler sampler, int partition) {
+        this.scenario = scenario;
+        this.sampler = sampler;
+        this.partition = partition;
+        this.schema = String.format("load_db_p%05d", partition);
+        this.group = String.format("LOAD_DB_P%05d_GROUP", partition);
+
+        char[] chars = new char[scenario.getRowPayloadSize() * 2];
+        Random random = new Random(scenario.getSeed() + partition);
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        this.payloadBase = new String(chars);
+        for (String type : COLUMN_TYPES) {
+            columnTypes.add(String.format(type, scenario.getRowPayloadSize()));
+        }
+    }
+
+    /**
+     * 生成完整的事务，直到输出超过maxBytes或者序号到达endSeq
+     *
+     * @return 到达endSeq并且没有任何输出时返回false
+     */
+    public boolean generate(AutoExpandBuffer out, int maxBytes, LongSupplier endSeq) throws Exception {
+        int begin = out.position();
+        if (!started) {
+            new FormatDescriptionEvent((short) 4, "5.7.14-AliSQL-X-Cluster-1.6.1.2", SERVER_ID).write(out);
+            started = true;
+        }
+        while (out.position() - begin < maxBytes && nextSeq < endSeq.getAsLong()) {
+            GlobalTxnPlan plan = GlobalTxnPlan.plan(scenario, sampler, nextSeq++);
+            if (plan.involves(partition, scenario.getPartitions())) {
+                writeTxn(out, plan);
+            }
+        }
+        return out.position() > begin;
+    }
+
+    private void writeTxn(AutoExpandBuffer out, GlobalTxnPlan plan) throws Exception {
+        int timestamp = TIMESTAMP_BASE + (int) (plan.getSeq() / 1000);
+        if (plan.getKind() == GlobalTxnPlan.Kind.DDL) {
+            String ddl = String.format("ALTER TABLE `%s` COMMENT = 'load_%d'", tableName(plan.getTableIndex()),
+                plan.getSeq());
+            query(out, ddl, true, timestamp);
+            return;
+        }
+
+        boolean heartbeat = plan.getKind() == GlobalTxnPlan.Kind.HEARTBEAT;
+        String xid = LogEventUtil.makeXid(plan.getSeq() + 1, group);
+        query(out, LogEventUtil.XA_START + " " + xid, false, timestamp);
+        sequence(out, SequenceLogEvent.ENUM_SEQUENCE_TYPE.SNAPSHOT_SEQUENCE, plan.getTso() - 1, timestamp);
+
+        Random random = new Random(plan.getSeq() * 31 + partition);
+        String table = heartbeat ? HEARTBEAT_TABLE : tableName(plan.getTableIndex());
+        long tableId = heartbeat ? scenario.getTableCount() + 1 : plan.getTableIndex() + 1;
+        int rows = plan.getRowsPerBranch();
+        for (int written = 0; written < rows; written += scenario.getRowsPerEvent()) {
+            int batch = Math.min(scenario.getRowsPerEvent(), rows - written);
+            writeRows(out, table, tableId, plan.getSeq(), written, batch, random, timestamp);
+        }
+
+        query(out, LogEventUtil.XA_END + " " + xid, false, timestamp);
+        byte[] xidBytes = xid.getBytes(StandardCharsets.UTF_8);
+        new XAPrepareEventBuilder(timestamp, SERVER_ID, false, 1, 0, xidBytes.length, xidBytes).write(out);
+        sequence(out, SequenceLogEvent.ENUM_SEQUENCE_TYPE.COMMIT_SEQUENCE, plan.getTso(), timestamp);
+        query(out, LogEventUtil.XA_COMMIT + " " + xid, false, timestamp);
+        branchCount++;
+    }
+
+    private void writeRows(AutoExpandBuffer out, String table, long tableId, long seq, int offset, int batch,
+                           Random random, int timestamp) throws Exception {
+        List<List<Field>> rows = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            int payloadOffset = random.nextInt(scenario.getRowPayloadSize());
+            List<Field> fields = new ArrayList<>(columnTypes.size());
+            fields.add(MakeFieldFactory.makeField(columnTypes.get(0), String.valueOf(seq * 1000000 + offset + i),
+                "utf8", true, false));
+            fields.add(MakeFieldFactory.makeField(columnTypes.get(1),
+                payloadBase.substring(payloadOffset, payloadOffset + scenario.getRowPayloadSize()), "utf8", true,
+                false));
+            fields.add(MakeFieldFactory.makeField(columnTypes.get(2), String.valueOf(random.nextInt(10000)),
+                "utf8", true, false));
+            rows.add(fields);
+        }
+
+        TableMapEventBuilder tableMap = new TableMapEventBuilder(timestamp, SERVER_ID, tableId, schema, table, "utf8");
+        tableMap.setFieldList(rows.get(0));
+        tableMap.write(out);
+
+        int columnCount = columnTypes.size();
+        RowEventBuilder rowEvent =
+            new RowEventBuilder(tableId, columnCount, BinlogEventType.WRITE_ROWS_EVENT, timestamp, SERVER_ID);
+        rowEvent.setColumnsBitMap(new BitMap(columnCount, true));
+        for (List<Field> fields : rows) {
+            RowData rowData = new RowData();
+            rowData.setBiFieldList(fields);
+            rowData.setBiNullBitMap(new BitMap(columnCount));
+            rowEvent.addRowData(rowData);
+        }
+        rowEvent.write(out);
+        rowCount += batch;
+    }
+
+    private void query(AutoExpandBuffer out, String sql, boolean ddl, int timestamp) throws Exception {
+        new QueryEventBuilder(schema, sql, CHARSET, CHARSET, CHARSET, ddl, timestamp, SERVER_ID).write(out);
+    }
+
+    private void sequence(AutoExpandBuffer out, SequenceLogEvent.ENUM_SEQUENCE_TYPE type, long tso, int timestamp)
+        throws Exception {
+        new SequenceEventBuilder(timestamp, type.ordinal(), SERVER_ID, tso).write(out);
+    }
+
+    private static String tableName(int tableIndex) {
+        return String.format("t_load_%04d", tableIndex);
+    }
+}
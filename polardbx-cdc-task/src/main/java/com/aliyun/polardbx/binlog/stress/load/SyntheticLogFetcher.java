@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress.load;
+
+import com.aliyun.polardbx.binlog.canal.binlog.LogEvent;
+import com.aliyun.polardbx.binlog.canal.binlog.LogFetcher;
+import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.format.utils.AutoExpandBuffer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于内存的LogFetcher，每次fetch生成一批完整的event，替代真实DN的binlog文件或dump连接
+ * event header中的log_pos按连续的文件偏移量回填，下游看到的位点和读取一个真实的binlog文件一致
+ */
+public class SyntheticLogFetcher extends LogFetcher {
+    private final SyntheticBinlogSource source;
+    private final LongSupplier endSeq;
+    private final int fetchSize;
+    private final AutoExpandBuffer output;
+    @Getter
+    private long filePosition = BIN_LOG_HEADER_SIZE;
+    @Getter
+    private long lastGenerateNanos;
+
+    public SyntheticLogFetcher(SyntheticBinlogSource source, int fetchSize, LongSupplier endSeq) {
+        this.source = source;
+        this.endSeq = endSeq;
+        this.fetchSize = fetchSize;
+        this.output = new AutoExpandBuffer(fetchSize, fetchSize);
+    }
+
+    @Override
+    public boolean fetch() throws IOException {
+        if (limit != 0) {
+            throw new PolardbxException("synthetic binlog chunk is not fully consumed, remaining " + limit);
+        }
+
+        long begin = System.nanoTime();
+        output.reset();
+        try {
+            if (!source.generate(output, fetchSize, endSeq)) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PolardbxException("generate synthetic binlog failed", e);
+        }
+        fillLogPosition();
+        lastGenerateNanos = System.nanoTime() - begin;
+
+        buffer = output.toBytes();
+        origin = 0;
+        position = 0;
+        limit = output.size();
+        filePosition += limit;
+        return true;
+    }
+
+    private void fillLogPosition() {
+        byte[] data = output.toBytes();
+        int offset = 0;
+        while (offset < output.size()) {
+            int eventLen = (data[offset + LogEvent.EVENT_LEN_OFFSET] & 0xff)
+                | (data[offset + LogEvent.EVENT_LEN_OFFSET + 1] & 0xff) << 8
+                | (data[offset + LogEvent.EVENT_LEN_OFFSET + 2] & 0xff) << 16
+                | (data[offset + LogEvent.EVENT_LEN_OFFSET + 3] & 0xff) << 24;
+            output.putInt((int) (filePosition + offset + eventLen), offset + LogEvent.LOG_POS_OFFSET);
+            offset += eventLen;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
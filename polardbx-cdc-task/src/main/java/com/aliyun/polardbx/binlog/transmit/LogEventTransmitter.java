@@ -17,8 +17,11 @@ package com.aliyun.polardbx.binlog.transmit;
 import com.aliyun.polardbx.binlog.CommonUtils;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.collect.message.MessageEvent;
+import com.aliyun.polardbx.binlog.collect.message.MessageEventPool;
 import com.aliyun.polardbx.binlog.domain.TaskType;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
+import com.aliyun.polardbx.binlog.metrics.TraceStage;
 import com.aliyun.polardbx.binlog.metrics.TransmitMetrics;
 import com.aliyun.polardbx.binlog.protocol.DumpReply;
 import com.aliyun.polardbx.binlog.protocol.EventData;
@@ -86,6 +89,10 @@ public class LogEventTransmitter implements Transmitter {
     private final String startTso;
     private final AtomicReference<TxnToken> firstToken;
     private final ExecutorService executor;
+    private final MessageEventPool messageEventPool;
+    // 以下对象只在packet builder线程中使用，跨事务复用
+    private final DumpReply.Builder chunkReplyBuilder = DumpReply.newBuilder();
+    private final List<TxnItem> dataItems = new ArrayList<>();
     private MessageChunk messageChunk;
     private volatile TxnToken latestFormatDescToken;
     private volatile boolean running;
@@ -106,6 +113,7 @@ public class LogEventTransmitter implements Transmitter {
         this.startTso = startTso;
         this.firstToken = new AtomicReference<>(null);
         this.executor = Executors.newFixedThreadPool(1, getThreadFactory("txn-packet-builder" + "-%d", false));
+        this.messageEventPool = new MessageEventPool(transmitBufferSize * 2);
     }
 
     @Override
@@ -210,7 +218,10 @@ public class LogEventTransmitter implements Transmitter {
             }
 
             firstToken.compareAndSet(null, txnToken);
-            addToTransmitQueue(messageEvent);
+            // 调用方会复用messageEvent，此处拷贝到池化的对象中再入队
+            MessageEvent pooledEvent = messageEventPool.acquire();
+            pooledEvent.copyFrom(messageEvent);
+            addToTransmitQueue(pooledEvent);
         } catch (InterruptedException e) {
             // do nothing
         }
@@ -245,6 +256,7 @@ public class LogEventTransmitter implements Transmitter {
             }
 
             if (txnToken.getType() == TxnType.DML) {
+                StageLatencyTracer.record(txnToken, TraceStage.TRANSMIT);
                 if (messageEvent.isAlreadyBuild()) {
                     checkIfFlushChunk(messageEvent, false);
                 } else {
@@ -284,6 +296,7 @@ public class LogEventTransmitter implements Transmitter {
                 // 先把前序缓冲token进行flush，保证顺序
                 checkIfFlushChunk(null, true);
                 sendTag(txnToken, null);
+                messageEventPool.release(messageEvent);
             }
         }
     }
@@ -291,7 +304,7 @@ public class LogEventTransmitter implements Transmitter {
     private void checkIfFlushChunk(MessageEvent messageEvent, boolean forceSend)
         throws InterruptedException {
         if (messageChunk == null) {
-            messageChunk = new MessageChunk(chunkMode, chunkItemSize);
+            messageChunk = new MessageChunk(chunkMode);
         }
 
         if (forceSend) {
@@ -309,15 +322,14 @@ public class LogEventTransmitter implements Transmitter {
                 sendChunk();
             }
 
-            messageChunk.addMessageEvent(messageEvent);
-            messageChunk.addMemSize(messageEvent.getMemSize());
+            addToChunk(messageEvent);
         }
 
-        if ((chunkMode == ChunkMode.ITEMSIZE && messageChunk.getMessageEvents().size() == chunkItemSize) ||
+        if ((chunkMode == ChunkMode.ITEMSIZE && messageChunk.getItemCount() == chunkItemSize) ||
             (chunkMode == ChunkMode.MEMSIZE && messageChunk.getTotalMemSize() >= chunkItemSize * CHUNK_MEM_UNIT)) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Flush message chunk caused by item size threshold, chunk item size [{}], "
-                    + "chunk mem size [{}].", messageChunk.getMessageEvents().size(), messageChunk.getTotalMemSize());
+                    + "chunk mem size [{}].", messageChunk.getItemCount(), messageChunk.getTotalMemSize());
             }
             sendChunk();
             return;
@@ -333,30 +345,36 @@ public class LogEventTransmitter implements Transmitter {
         }
     }
 
+    /**
+     * 事务加入chunk时直接追加到复用的DumpReply.Builder中，并立即归还MessageEvent。
+     * MEMSIZE模式下一个chunk可以攒下数十万个小事务，如果chunk持有event直到发送，MessageEventPool会一直是空的
+     */
+    private void addToChunk(MessageEvent messageEvent) {
+        if (messageEvent.isAlreadyBuild()) {
+            addTxnMessage(chunkReplyBuilder, messageEvent);
+        } else {
+            TxnMessage message = MessageBuilder.buildTxnMessage(messageEvent.getToken(), taskType,
+                messageEvent.getTxnBuffers().get(0));
+            if (packetMode == PacketMode.OBJECT) {
+                chunkReplyBuilder.addTxnMessage(message);
+            } else {
+                chunkReplyBuilder.addTxnMessageBytes(message.toByteString());
+            }
+        }
+        messageChunk.addItem();
+        messageChunk.addMemSize(messageEvent.getMemSize());
+        clearCache(messageEvent);
+    }
+
     private void sendChunk() throws InterruptedException {
         if (isMessageChunkEmpty()) {
             return;
         }
 
-        DumpReply.Builder builder = DumpReply.newBuilder();
-        for (MessageEvent messageEvent : messageChunk.getMessageEvents()) {
-            if (messageEvent.isAlreadyBuild()) {
-                addTxnMessage(builder, messageEvent);
-            } else {
-                TxnMessage message = MessageBuilder.buildTxnMessage(messageEvent.getToken(), taskType,
-                    messageEvent.getTxnBuffers().get(0));
-                if (packetMode == PacketMode.OBJECT) {
-                    builder.addTxnMessage(message);
-                } else {
-                    builder.addTxnMessageBytes(message.toByteString());
-                }
-            }
-            clearCache(messageEvent);
-        }
-
-        DumpReply dumpReply = builder.setPacketMode(packetMode).build();
+        DumpReply dumpReply = chunkReplyBuilder.setPacketMode(packetMode).build();
+        chunkReplyBuilder.clear();
         addToDumpingQueue(dumpReply);
-        TransmitMetrics.get().addChunkTransmitCount(messageChunk.getMessageEvents().size());
+        TransmitMetrics.get().addChunkTransmitCount(messageChunk.getItemCount());
         messageChunk.clear();
     }
 
@@ -378,7 +396,8 @@ public class LogEventTransmitter implements Transmitter {
 
     private void sendData(TxnBuffer buffer) throws InterruptedException {
         int memSize = 0;
-        List<TxnItem> items = new ArrayList<>();
+        List<TxnItem> items = dataItems;
+        items.clear();
 
         Iterator<TxnItemRef> iterator = buffer.parallelRestoreIterator();
         while (iterator.hasNext()) {
@@ -409,6 +428,7 @@ public class LogEventTransmitter implements Transmitter {
 
         if (!items.isEmpty()) {
             sendData(items);
+            items.clear();
         }
     }
 
@@ -469,9 +489,10 @@ public class LogEventTransmitter implements Transmitter {
 
     private void clearCache(MessageEvent messageEvent) {
         cleanTxnBuffer4Token(messageEvent.getToken(), storage);
+        messageEventPool.release(messageEvent);
     }
 
     private boolean isMessageChunkEmpty() {
-        return messageChunk == null || messageChunk.getMessageEvents().isEmpty();
+        return messageChunk == null || messageChunk.getItemCount() == 0;
     }
 }
@@ -17,6 +17,7 @@ package com.aliyun.polardbx.binlog.transmit;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.domain.TaskType;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
+import com.aliyun.polardbx.binlog.metrics.StageLatencyTracer;
 import com.aliyun.polardbx.binlog.protocol.DumpReply;
 import com.aliyun.polardbx.binlog.protocol.EventData;
 import com.aliyun.polardbx.binlog.protocol.MessageType;
@@ -111,17 +112,17 @@ public class MessageBuilder {
     }
 
     public static TxnMergedToken buildTxnMergedToken(TxnToken token) {
-        TxnMergedToken mergedToken = TxnMergedToken.newBuilder()
+        TxnMergedToken.Builder builder = TxnMergedToken.newBuilder()
             .setType(token.getType())
             .setSchema(token.getSchema())
             .setTso(token.getTso())
             .setPayload(token.getPayload())
-            .setTable(token.getTable())
-            .build();
+            .setTable(token.getTable());
         if (token.hasServerId()) {
-            mergedToken = mergedToken.toBuilder().setServerId(token.getServerId()).build();
+            builder.setServerId(token.getServerId());
         }
-        return mergedToken;
+        StageLatencyTracer.copyStamps(token, builder);
+        return builder.build();
     }
 
     public static void tryRestore(TxnToken token, Storage storage) {
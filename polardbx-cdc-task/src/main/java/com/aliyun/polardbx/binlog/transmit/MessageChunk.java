@@ -14,12 +14,8 @@
  */
 package com.aliyun.polardbx.binlog.transmit;
 
-import com.aliyun.polardbx.binlog.collect.message.MessageEvent;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Created by ziyang.lb
  **/
@@ -30,17 +26,16 @@ public class MessageChunk {
     private long totalMemSize;
     private long timeSum;
     private long countSum;
-    private final List<MessageEvent> messageEvents;
+    private int itemCount;
     private final ChunkMode chunkMode;
 
-    public MessageChunk(ChunkMode chunkMode, int itemSize) {
+    public MessageChunk(ChunkMode chunkMode) {
         this.chunkMode = chunkMode;
-        this.messageEvents = new ArrayList<>(itemSize);
     }
 
-    public void addMessageEvent(MessageEvent event) {
-        messageEvents.add(event);
-        if (messageEvents.size() == 1) {
+    public void addItem() {
+        itemCount++;
+        if (itemCount == 1) {
             startTimeMills = System.currentTimeMillis();
             startTimeNanos = System.nanoTime();
         }
@@ -50,8 +45,8 @@ public class MessageChunk {
         totalMemSize += memSize;
     }
 
-    public List<MessageEvent> getMessageEvents() {
-        return messageEvents;
+    public int getItemCount() {
+        return itemCount;
     }
 
     public long getTotalMemSize() {
@@ -77,6 +72,6 @@ public class MessageChunk {
         startTimeMills = 0;
         startTimeNanos = 0;
         totalMemSize = 0;
-        messageEvents.clear();
+        itemCount = 0;
     }
 }
@@ -14,15 +14,13 @@
  */
 package com.aliyun.polardbx.binlog.transmit.relay;
 
-import org.apache.commons.lang3.tuple.Pair;
-
 import java.util.List;
 
 /**
  * created by ziyang.lb
  */
 public interface RelayDataReader {
-    List<Pair<byte[], byte[]>> getData(int maxItemSize, long maxByteSize);
+    List<RelayRecord> getData(int maxItemSize, long maxByteSize);
 
     void close();
 }
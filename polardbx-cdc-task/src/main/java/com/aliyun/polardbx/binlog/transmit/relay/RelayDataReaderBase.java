@@ -17,7 +17,6 @@ package com.aliyun.polardbx.binlog.transmit.relay;
 import com.aliyun.polardbx.binlog.CommonUtils;
 import com.aliyun.polardbx.binlog.metrics.RelayStreamMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -44,14 +43,14 @@ public abstract class RelayDataReaderBase implements RelayDataReader {
     }
 
     @Override
-    public List<Pair<byte[], byte[]>> getData(int maxItemSize, long maxByteSize) {
-        LinkedList<Pair<byte[], byte[]>> list = getDataInternal(maxItemSize, maxByteSize);
+    public List<RelayRecord> getData(int maxItemSize, long maxByteSize) {
+        LinkedList<RelayRecord> list = getDataInternal(maxItemSize, maxByteSize);
         if (!list.isEmpty()) {
-            storeEngine.setMaxReadKey(list.getLast().getKey());
+            storeEngine.ackReadKey(this, list.getLast().getKey());
 
             metrics.getReadEventCount().getAndAdd(list.size());
             metrics.getReadDelay().set(calcDelayTime(list.getLast().getKey()));
-            list.forEach(p -> metrics.getReadByteSize().getAndAdd(p.getValue().length));
+            list.forEach(p -> metrics.getReadByteSize().getAndAdd(p.getValue().size()));
 
             long currentTimestamp = System.currentTimeMillis();
             long interval = currentTimestamp - lastCalcTimeStamp;
@@ -70,7 +69,12 @@ public abstract class RelayDataReaderBase implements RelayDataReader {
         return list;
     }
 
-    protected abstract LinkedList<Pair<byte[], byte[]>> getDataInternal(int maxItemSize, long maxByteSize);
+    protected abstract LinkedList<RelayRecord> getDataInternal(int maxItemSize, long maxByteSize);
+
+    @Override
+    public void close() {
+        storeEngine.removeReader(this);
+    }
 
     private void checkValid() {
         try {
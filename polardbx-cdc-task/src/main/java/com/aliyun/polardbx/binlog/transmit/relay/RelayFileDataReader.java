@@ -17,166 +17,237 @@ package com.aliyun.polardbx.binlog.transmit.relay;
 import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.metrics.RelayStreamMetrics;
-import com.aliyun.polardbx.binlog.util.DirectByteOutput;
+import com.aliyun.polardbx.binlog.protocol.PacketMode;
+import com.aliyun.polardbx.binlog.transmit.MessageBuilder;
 import com.aliyun.polardbx.relay.Message;
 import com.aliyun.polardbx.relay.MetaInfo;
-import com.google.common.collect.Lists;
-import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.CodedInputStream;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_READ_FILE_BUFFER_SIZE;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_READ_PREFETCH_BLOCKS;
 import static com.aliyun.polardbx.binlog.transmit.relay.RelayFile.HEADER_SIZE;
 
 /**
  * created by ziyang.lb
+ * <p>
+ * 由单独的预读线程按块读取relay文件，每个块只包含完整的数据(跨块的数据会被搬到下一个块的开头)，
+ * 然后提交到所属RelayFileStoreEngine的解码线程池中并行解码，解码结果按提交顺序放入有界队列，dump线程只需要按顺序取出即可。
+ * 解码出来的value直接引用块中的数据，发送时不需要再拷贝
  **/
 @Slf4j
 public class RelayFileDataReader extends RelayDataReaderBase {
     private final static int READ_BUFFER_SIZE =
         DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_READ_FILE_BUFFER_SIZE);
+    private final static int PREFETCH_BLOCKS =
+        DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_READ_PREFETCH_BLOCKS);
 
     private final RelayFileStoreEngine fileStoreEngine;
+    private final BlockingQueue<Future<List<RelayRecord>>> decodedBlocks;
+    private final LinkedList<RelayRecord> pendingRecords;
+    private final boolean decodeMessage;
+    private volatile boolean running;
+    private volatile Throwable prefetchError;
     private MetaInfo metaInfo;
-    private FileReader fileReader;
+    private Thread prefetchThread;
 
     RelayFileDataReader(RelayFileStoreEngine fileStoreEngine, RelayStreamMetrics metrics, byte[] searchFromKey) {
         super(fileStoreEngine, metrics, searchFromKey);
         this.fileStoreEngine = fileStoreEngine;
+        this.decodedBlocks = new ArrayBlockingQueue<>(PREFETCH_BLOCKS);
+        this.pendingRecords = new LinkedList<>();
+        // OBJECT模式下发送的是TxnMessage对象，顺便在解码线程中完成TxnMessage的反序列化
+        this.decodeMessage = MessageBuilder.packetMode == PacketMode.OBJECT;
+        this.running = true;
     }
 
     @Override
-    public LinkedList<Pair<byte[], byte[]>> getDataInternal(int maxItemSize, long maxByteSize) {
+    public LinkedList<RelayRecord> getDataInternal(int maxItemSize, long maxByteSize) {
         if (metaInfo == null) {
             String tso = RelayKeyUtil.extractTsoFromKey(searchFromKey);
             metaInfo = fileStoreEngine.searchCheckpointTso(tso);
             if (metaInfo != null) {
                 log.info("successfully find check point for request tso {}, meta info is {}.", tso, metaInfo);
-                fileReader = createFileReader(metaInfo.getFileName(), metaInfo.getFilePos());
+                startPrefetch(createFileReader(metaInfo.getFileName(), metaInfo.getFilePos()));
             }
         }
-        if (fileReader == null) {
-            return Lists.newLinkedList();
-        } else {
-            long byteSize = 0;
-            LinkedList<Pair<byte[], byte[]>> list = new LinkedList<>();
-            for (int i = 0; i < maxItemSize; i++) {
-                tryRotate();
-                try {
-                    Pair<byte[], byte[]> pair = fileReader.nextMessage();
-                    if (pair != null) {
-                        list.add(pair);
-                        byteSize += pair.getValue().length;
-                        if (byteSize >= maxByteSize) {
-                            break;
-                        }
-                    } else {
-                        break;
-                    }
-                } catch (IOException e) {
-                    throw new PolardbxException("file read error! " + fileReader.file.getName(), e);
-                }
-            }
+
+        LinkedList<RelayRecord> list = new LinkedList<>();
+        if (prefetchThread == null) {
             return list;
         }
+        long byteSize = 0;
+        while (list.size() < maxItemSize && byteSize < maxByteSize) {
+            if (pendingRecords.isEmpty() && !pollDecodedBlock()) {
+                break;
+            }
+            RelayRecord record = pendingRecords.poll();
+            list.add(record);
+            byteSize += record.getValue().size();
+        }
+        return list;
     }
 
     @Override
     public void close() {
-        if (fileReader != null) {
-            fileReader.close();
+        super.close();
+        running = false;
+        if (prefetchThread != null) {
+            prefetchThread.interrupt();
         }
+        decodedBlocks.clear();
+        pendingRecords.clear();
     }
 
-    private void tryRotate() {
-        String currentWritingFile = fileStoreEngine.getCurrentWritingFile();
-        if (fileReader.file.getName().compareTo(currentWritingFile) < 0 && fileReader.isReadEnd()) {
-            String nextFileName = fileStoreEngine.getRelayFileManager().nextFileName(fileReader.file.getName());
+    private boolean pollDecodedBlock() {
+        Future<List<RelayRecord>> future = decodedBlocks.poll();
+        if (future == null) {
+            if (prefetchError != null) {
+                throw new PolardbxException("prefetch relay file failed!", prefetchError);
+            }
+            return false;
+        }
+        try {
+            pendingRecords.addAll(future.get());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PolardbxException("interrupted when waiting for relay data decoding!", e);
+        } catch (ExecutionException e) {
+            throw new PolardbxException("decode relay data failed!", e.getCause());
+        }
+    }
+
+    private void startPrefetch(FileReader fileReader) {
+        prefetchThread = new Thread(() -> prefetch(fileReader), "relay-file-prefetcher-" + fileStoreEngine.streamSeq);
+        prefetchThread.setDaemon(true);
+        prefetchThread.start();
+    }
+
+    private void prefetch(FileReader initReader) {
+        FileReader fileReader = initReader;
+        try {
+            while (running) {
+                Block block = fileReader.readBlock();
+                if (block == null) {
+                    FileReader nextReader = fileReader.rotate(fileStoreEngine.getRelayFileManager(),
+                        fileStoreEngine.getCurrentWritingFile());
+                    if (nextReader == null) {
+                        Thread.sleep(10);
+                    } else {
+                        fileReader = nextReader;
+                    }
+                    continue;
+                }
+
+                Future<List<RelayRecord>> future =
+                    fileStoreEngine.getDecodeExecutor().submit(() -> block.decode(decodeMessage));
+                while (running && !decodedBlocks.offer(future, 100, TimeUnit.MILLISECONDS)) {
+                }
+            }
+        } catch (Throwable t) {
+            if (running) {
+                log.error("prefetch relay file failed, {}", fileReader.file.getName(), t);
+                prefetchError = t;
+            }
+        } finally {
             fileReader.close();
-            fileReader = createFileReader(nextFileName, 0);
         }
     }
 
     private FileReader createFileReader(String fileName, long filePos) {
-        return new FileReader(fileStoreEngine.getRelayFileManager().getFile(fileName), filePos);
+        return new FileReader(fileStoreEngine.getRelayFileManager().getFile(fileName), filePos, READ_BUFFER_SIZE);
     }
 
-    private static class FileReader {
-        File file;
+    static class FileReader {
+        final File file;
+        final int blockSize;
         FileChannel fileChannel;
-        ByteBuffer buffer;
+        byte[] tail = new byte[0];
 
-        FileReader(File file, long pos) {
+        FileReader(File file, long pos, int blockSize) {
+            this.file = file;
+            this.blockSize = blockSize;
             try {
-                this.file = file;
                 this.fileChannel = new FileInputStream(file).getChannel();
-                this.buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
-                this.init(pos);
+                this.fileChannel.position(pos);
             } catch (Exception e) {
                 throw new PolardbxException(String.format("create FileReader failed, %s:%s!", file.getName(), pos));
             }
         }
 
-        Pair<byte[], byte[]> nextMessage() throws IOException {
-            if (buffer.remaining() <= HEADER_SIZE) {
-                if (fileChannel.size() - fileChannel.position() + buffer.remaining() < HEADER_SIZE) {
-                    return null;
-                }
-                buffer.compact();
-                while (true) {
-                    if (fileChannel.read(buffer) > 0) {
-                        buffer.flip();
-                        break;
-                    } else {
-                        sleep();
-                    }
-                }
+        /**
+         * 读取一个数据块，上一次读取剩余的不完整数据会被拷贝到块的开头
+         *
+         * @return 文件中没有新的完整数据时返回null
+         */
+        Block readBlock() throws IOException {
+            long available = fileChannel.size() - fileChannel.position();
+            int required = tail.length >= HEADER_SIZE ? HEADER_SIZE + readBodySize(tail, 0) : HEADER_SIZE;
+            if (available <= 0 || tail.length + available < required) {
+                return null;
             }
 
-            int bodySize = readBodySizeFromHeader();
-            byte[] bytes;
-            if (buffer.remaining() >= bodySize) {
-                bytes = new byte[bodySize];
-                buffer.get(bytes, 0, bytes.length);
-            } else {
-                if (fileChannel.size() - fileChannel.position() + buffer.remaining() < bodySize) {
-                    buffer.position(buffer.position() - HEADER_SIZE);//回跳，下次重新获取size
-                    return null;
-                }
-                bytes = new byte[bodySize];
-                int length = buffer.remaining();
-                buffer.get(bytes, 0, length);
-                buffer.clear();
-                while (length < bodySize) {
-                    if (fileChannel.read(buffer) <= 0) {
-                        sleep();
-                        continue;
-                    }
-                    buffer.flip();
-                    int need = bodySize - length;
-                    int read = Math.min(need, buffer.remaining());
-                    buffer.get(bytes, length, read);
-                    length += read;
-                    buffer.compact();
+            int capacity = (int) Math.min(Math.max(blockSize, required), tail.length + available);
+            byte[] data = new byte[capacity];
+            System.arraycopy(tail, 0, data, 0, tail.length);
+            ByteBuffer buffer = ByteBuffer.wrap(data, tail.length, capacity - tail.length);
+            while (buffer.hasRemaining() && fileChannel.read(buffer) > 0) {
+            }
+
+            int limit = buffer.position();
+            int pos = 0;
+            Block block = new Block(data);
+            while (limit - pos >= HEADER_SIZE) {
+                int bodySize = readBodySize(data, pos);
+                if (limit - pos - HEADER_SIZE < bodySize) {
+                    break;
                 }
-                buffer.flip();
+                block.add(pos + HEADER_SIZE, bodySize);
+                pos += HEADER_SIZE + bodySize;
             }
-            return buildPair(bytes);
+            tail = Arrays.copyOfRange(data, pos, limit);
+            return block.size() == 0 ? null : block;
         }
 
-        boolean isReadEnd() {
-            try {
-                return !buffer.hasRemaining() && fileChannel.position() == fileChannel.size();
-            } catch (IOException e) {
-                throw new PolardbxException("IO error!", e);
+        /**
+         * 当前文件已经读完并且已经不是正在写入的文件时，切换到下一个relay文件
+         *
+         * @return 不需要切换时返回null
+         */
+        FileReader rotate(RelayFileManager relayFileManager, String currentWritingFile) throws IOException {
+            if (file.getName().compareTo(currentWritingFile) < 0 && isReadEnd()) {
+                String nextFileName = relayFileManager.nextFileName(file.getName());
+                close();
+                return new FileReader(relayFileManager.getFile(nextFileName), 0, blockSize);
+            }
+            return null;
+        }
+
+        boolean isReadEnd() throws IOException {
+            if (fileChannel.position() < fileChannel.size()) {
+                return false;
+            }
+            if (tail.length > 0) {
+                throw new PolardbxException(
+                    String.format("relay file is incomplete, %s, remaining bytes %s!", file.getName(), tail.length));
             }
+            return true;
         }
 
         void close() {
@@ -186,41 +257,45 @@ public class RelayFileDataReader extends RelayDataReaderBase {
             }
         }
 
-        private Pair<byte[], byte[]> buildPair(byte[] bytes) throws InvalidProtocolBufferException {
-            Message message = Message.parseFrom(bytes);
-            return Pair.of(DirectByteOutput.unsafeFetch(message.getKey()),
-                DirectByteOutput.unsafeFetch(message.getValue()));
+        private int readBodySize(byte[] data, int offset) {
+            int result = 0;
+            for (int i = 0; i < 4; ++i) {
+                result |= (data[offset + i] & 0xff) << (i << 3);
+            }
+            return result;
         }
+    }
 
-        private void init(long pos) throws IOException {
-            fileChannel.position(pos);
-            fileChannel.read(buffer);
-            buffer.flip();
-        }
+    static class Block {
+        private final byte[] data;
+        private final List<int[]> frames = new ArrayList<>();
 
-        private int readBodySizeFromHeader() {
-            int size = readInt(buffer);
-            buffer.get();
-            return size;
+        Block(byte[] data) {
+            this.data = data;
         }
 
-        private int readInt(ByteBuffer byteBuffer) {
-            int result = 0;
-            for (int i = 0; i < 4; ++i) {
-                result |= (read(byteBuffer) << (i << 3));
-            }
-            return result;
+        void add(int offset, int length) {
+            frames.add(new int[] {offset, length});
         }
 
-        private int read(ByteBuffer byteBuffer) {
-            return byteBuffer.get() & 0xff;
+        int size() {
+            return frames.size();
         }
 
-        private void sleep() {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
+        List<RelayRecord> decode(boolean decodeMessage) throws IOException {
+            List<RelayRecord> records = new ArrayList<>(frames.size());
+            for (int[] frame : frames) {
+                CodedInputStream input = CodedInputStream.newInstance(data, frame[0], frame[1]);
+                // 开启aliasing之后bytes类型的字段直接引用data，不会发生拷贝
+                input.enableAliasing(true);
+                Message message = Message.parseFrom(input);
+                RelayRecord record = new RelayRecord(message.getKey().toByteArray(), message.getValue());
+                if (decodeMessage) {
+                    record.getMessage();
+                }
+                records.add(record);
             }
+            return records;
         }
     }
 }
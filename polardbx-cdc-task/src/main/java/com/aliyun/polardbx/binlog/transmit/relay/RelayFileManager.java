@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_FILE_BUFFER_DIRECT;
@@ -117,13 +118,18 @@ public class RelayFileManager {
         });
     }
 
-    public void cleanRelayFilesBefore(String fileName) {
-        List<File> allRelayFiles = listRelayFiles();
-        allRelayFiles.forEach(f -> {
+    /**
+     * 文件名小于fileName的所有relay文件，按文件名升序排列
+     */
+    public List<File> listRelayFilesBefore(String fileName) {
+        List<File> result = new ArrayList<>();
+        for (File f : listRelayFiles()) {
             if (f.getName().compareTo(fileName) < 0) {
-                deleteFile(f);
+                result.add(f);
             }
-        });
+        }
+        result.sort(Comparator.comparing(File::getName));
+        return result;
     }
 
     public List<File> listRelayFiles() {
@@ -143,7 +149,7 @@ public class RelayFileManager {
         return RELAY_FILE_PREFIX + MAX_SUFFIX_NUM;
     }
 
-    private void deleteFile(File file) {
+    public void deleteFile(File file) {
         if (!file.delete()) {
             throw new PolardbxException("delete relay file error , " + file.getName());
         }
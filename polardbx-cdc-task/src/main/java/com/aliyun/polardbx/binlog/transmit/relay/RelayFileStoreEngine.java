@@ -30,14 +30,21 @@ import org.rocksdb.RocksDBException;
 import org.rocksdb.util.ByteUtil;
 
 import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_READ_DECODE_PARALLELISM;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_CLEAN_RELAY_DATA_DELETE_FILES_PER_SECOND;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_RELAY_FILE_MAX_SIZE;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_FILE_FLUSH_INTERVAL;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_DISK_FREE_RATIO;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_SPEED;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_THRESHOLD;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_STOP_DISK_FREE_RATIO;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_TRANSMIT_WRITE_STOP_THRESHOLD;
 import static com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig.MAX_TSO;
 import static com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig.ORIGIN_TSO;
+import static io.grpc.internal.GrpcUtil.getThreadFactory;
 
 /**
  * created by ziyang.lb
@@ -49,20 +56,38 @@ public class RelayFileStoreEngine extends StoreEngineBase implements StoreEngine
     private final static long RELAY_FILE_FLUSH_INTERVAL =
         DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_FILE_FLUSH_INTERVAL);
     private final static RelayFileCounter RELAY_FILE_COUNTER = new RelayFileCounter();
+    private final static long DISK_CHECK_INTERVAL_MS = 1000;
+    /**
+     * 限速时的最低速度为slowdown speed的1/10，防止写入被完全饿死
+     */
+    private final static double MIN_SLOWDOWN_FACTOR = 0.1;
 
     private final RelayFileManager relayFileManager;
     private final Pair<byte[], byte[]> boundPair;
     private final RateLimiter rateLimiter;
+    private final RateLimiter deleteRateLimiter;
+    /**
+     * 本stream的所有RelayFileDataReader共享的解码线程池，随engine一起关闭
+     */
+    private final ExecutorService decodeExecutor;
     private RelayFile currentRelayFile;
     private WriteItem lastWriteItem;
     private boolean writeSlowDown;
+    private volatile double diskFreeRatio = 1;
+    private long lastDiskCheckTime;
+    private String lastCleanedFileName = "";
+    private volatile String cleanBeforeFileName;
 
     public RelayFileStoreEngine(RepoUnit metaRepoUnit, String persistPath, int streamSeq) {
         super(metaRepoUnit, streamSeq, persistPath);
         this.relayFileManager = new RelayFileManager(persistPath);
         this.boundPair = Pair.of(getMinMetaKeyBytes(), getMaxMetaKeyBytes());
         this.rateLimiter = RateLimiter.create(Integer.MAX_VALUE);
+        this.deleteRateLimiter = RateLimiter.create(1);
         this.writeSlowDown = false;
+        this.decodeExecutor = Executors.newFixedThreadPool(
+            DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_READ_DECODE_PARALLELISM),
+            getThreadFactory("relay-file-decoder-" + streamSeq + "-%d", true));
     }
 
     @Override
@@ -90,27 +115,59 @@ public class RelayFileStoreEngine extends StoreEngineBase implements StoreEngine
 
     @Override
     public void close() {
+        stopCleaner();
+        decodeExecutor.shutdownNow();
         if (currentRelayFile != null) {
             currentRelayFile.close();
         }
     }
 
     @Override
-    public void cleanInternal(String tso) {
+    public boolean cleanInternal(String tso) {
         byte[] beginKey = getMetaKeyBytes(ORIGIN_TSO);
         byte[] endKey = getMetaKeyBytes(tso);
         Pair<byte[], byte[]> pair = metaRepoUnit.seekPre(endKey, boundPair);
-        if (pair != null) {
-            try {
-                metaRepoUnit.put(ByteUtil.bytes(metaStreamMaxCleanTsoKey), ByteUtil.bytes(tso));
-                MetaInfo metaInfo = MetaInfo.parseFrom(pair.getValue());
-                relayFileManager.cleanRelayFilesBefore(metaInfo.getFileName());
-                metaRepoUnit.deleteRange(beginKey, pair.getKey());
-                RELAY_FILE_COUNTER.setCount(streamSeq, relayFileManager.listRelayFiles().size());
-            } catch (InvalidProtocolBufferException | RocksDBException e) {
-                throw new PolardbxException("relay data clean error for tso " + tso, e);
+        if (pair == null) {
+            return false;
+        }
+        try {
+            MetaInfo metaInfo = MetaInfo.parseFrom(pair.getValue());
+            // 按整个relay文件进行回收，位点没有跨过文件边界时没有可以释放的空间，跳过本次清理
+            if (StringUtils.equals(metaInfo.getFileName(), lastCleanedFileName)) {
+                return false;
+            }
+            metaRepoUnit.put(ByteUtil.bytes(metaStreamMaxCleanTsoKey), ByteUtil.bytes(tso));
+            metaRepoUnit.deleteRange(beginKey, pair.getKey());
+            lastCleanedFileName = metaInfo.getFileName();
+            cleanBeforeFileName = metaInfo.getFileName();
+            return true;
+        } catch (InvalidProtocolBufferException | RocksDBException e) {
+            throw new PolardbxException("relay data clean error for tso " + tso, e);
+        }
+    }
+
+    /**
+     * max clean tso已经推进，后续的reader不会再访问这些文件，文件删除放在清理锁之外按速率逐个执行
+     */
+    @Override
+    protected void afterClean() {
+        String fileName = cleanBeforeFileName;
+        if (fileName == null) {
+            return;
+        }
+        cleanBeforeFileName = null;
+        deleteRateLimiter.setRate(Math.max(1, DynamicApplicationConfig.getInt(
+            BINLOG_X_CLEAN_RELAY_DATA_DELETE_FILES_PER_SECOND)));
+        for (File file : relayFileManager.listRelayFilesBefore(fileName)) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
             }
+            deleteRateLimiter.acquire();
+            relayFileManager.deleteFile(file);
+            RELAY_FILE_COUNTER.setCount(streamSeq, relayFileManager.listRelayFiles().size());
+            metrics.getFileCount().set(RELAY_FILE_COUNTER.getCountByStream(streamSeq));
         }
+        refreshDiskHeadroom(true);
     }
 
     @Override
@@ -154,6 +211,10 @@ public class RelayFileStoreEngine extends StoreEngineBase implements StoreEngine
         return relayFileManager;
     }
 
+    ExecutorService getDecodeExecutor() {
+        return decodeExecutor;
+    }
+
     String getCurrentWritingFile() {
         return currentRelayFile == null ? "" : currentRelayFile.getFileName();
     }
@@ -168,19 +229,26 @@ public class RelayFileStoreEngine extends StoreEngineBase implements StoreEngine
     }
 
     private void checkWriteSlowdown(int size) {
-        int writeSlowDownThreshold = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_THRESHOLD);
-        if (RELAY_FILE_COUNTER.getTotalRelayFileCount() >= writeSlowDownThreshold) {
+        refreshDiskHeadroom(false);
+        double pressure = writePressure();
+        if (pressure >= 0) {
+            // 文件个数或磁盘剩余空间越接近停写阈值，写入速度越低，避免在阈值附近出现吞吐的剧烈抖动
+            int speed = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_SPEED);
+            double rate = speed * Math.max(MIN_SLOWDOWN_FACTOR, 1 - pressure);
+            if (!writeSlowDown || Math.abs(rateLimiter.getRate() - rate) >= speed * MIN_SLOWDOWN_FACTOR) {
+                rateLimiter.setRate(rate);
+            }
             if (!writeSlowDown) {
-                int speed = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_SPEED);
-                rateLimiter.setRate(speed);
                 writeSlowDown = true;
-                log.warn("trigger write slowdown with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount());
+                log.warn("trigger write slowdown with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount()
+                    + ", disk free ratio " + diskFreeRatio + ", rate " + rate);
             }
         } else {
             if (writeSlowDown) {
                 rateLimiter.setRate(Integer.MAX_VALUE);
                 writeSlowDown = false;
-                log.warn("cancel write slowdown with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount());
+                log.warn("cancel write slowdown with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount()
+                    + ", disk free ratio " + diskFreeRatio);
             }
         }
         rateLimiter.acquire(size);
@@ -190,15 +258,54 @@ public class RelayFileStoreEngine extends StoreEngineBase implements StoreEngine
     private void checkWriteStop() {
         while (true) {
             int writeStopThreshold = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_STOP_THRESHOLD);
-            if (RELAY_FILE_COUNTER.getTotalRelayFileCount() >= writeStopThreshold) {
-                log.warn("trigger write stop with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount());
+            double stopDiskFreeRatio = DynamicApplicationConfig.getDouble(BINLOG_X_TRANSMIT_WRITE_STOP_DISK_FREE_RATIO);
+            if (RELAY_FILE_COUNTER.getTotalRelayFileCount() >= writeStopThreshold
+                || diskFreeRatio <= stopDiskFreeRatio) {
+                log.warn("trigger write stop with file count " + RELAY_FILE_COUNTER.getTotalRelayFileCount()
+                    + ", disk free ratio " + diskFreeRatio);
                 Thread.sleep(1000);
+                refreshDiskHeadroom(true);
             } else {
                 break;
             }
         }
     }
 
+    /**
+     * @return 写入压力，小于0表示不需要限速，[0, 1]之间表示从开始限速到停写的进度
+     */
+    private double writePressure() {
+        int slowdownThreshold = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_THRESHOLD);
+        int stopThreshold = DynamicApplicationConfig.getInt(BINLOG_X_TRANSMIT_WRITE_STOP_THRESHOLD);
+        double slowdownRatio = DynamicApplicationConfig.getDouble(BINLOG_X_TRANSMIT_WRITE_SLOWDOWN_DISK_FREE_RATIO);
+        double stopRatio = DynamicApplicationConfig.getDouble(BINLOG_X_TRANSMIT_WRITE_STOP_DISK_FREE_RATIO);
+        double filePressure = pressure(RELAY_FILE_COUNTER.getTotalRelayFileCount() - slowdownThreshold,
+            stopThreshold - slowdownThreshold);
+        double diskPressure = pressure(slowdownRatio - diskFreeRatio, slowdownRatio - stopRatio);
+        return Math.max(filePressure, diskPressure);
+    }
+
+    private static double pressure(double exceeded, double range) {
+        if (exceeded < 0) {
+            return -1;
+        }
+        return range <= 0 ? 1 : Math.min(1, exceeded / range);
+    }
+
+    private void refreshDiskHeadroom(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastDiskCheckTime < DISK_CHECK_INTERVAL_MS) {
+            return;
+        }
+        lastDiskCheckTime = now;
+        File dir = new File(persistPath);
+        long total = dir.getTotalSpace();
+        long usable = dir.getUsableSpace();
+        diskFreeRatio = total <= 0 ? 1 : (double) usable / total;
+        metrics.getDiskUsableBytes().set(usable);
+        metrics.getDiskFreePercent().set((long) (diskFreeRatio * 100));
+    }
+
     private void updateMetaInfo(String tso) {
         try {
             MetaInfo metaInfo = MetaInfo.newBuilder().setFileName(currentRelayFile.getFileName())
@@ -28,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -35,7 +36,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_CLEAN_RELAY_DATA_ENABLE;
-import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_CLEAN_RELAY_DATA_INTERVAL;
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_CLEAN_RELAY_DATA_CHECK_INTERVAL;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_STREAM_COUNT;
 import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_STREAM_GROUP_NAME;
 import static io.grpc.internal.GrpcUtil.getThreadFactory;
@@ -56,6 +57,7 @@ public class RelayLogEventCleaner {
     private Map<Integer, StoreEngine> storeEngines;
     private ScheduledExecutorService executor;
     private AtomicBoolean running = new AtomicBoolean(false);
+    private Map<Integer, String> publishedTsoMap = new ConcurrentHashMap<>();
 
     public RelayLogEventCleaner(RelayLogEventTransmitter logEventTransmitter) {
         this.logEventTransmitter = logEventTransmitter;
@@ -68,7 +70,7 @@ public class RelayLogEventCleaner {
             return;
         }
 
-        int interval = DynamicApplicationConfig.getInt(BINLOG_X_CLEAN_RELAY_DATA_INTERVAL);
+        int interval = DynamicApplicationConfig.getInt(BINLOG_X_CLEAN_RELAY_DATA_CHECK_INTERVAL);
         if (running.compareAndSet(false, true)) {
             this.executor = Executors.newSingleThreadScheduledExecutor(
                 getThreadFactory("hash-log-event-cleaner" + "-%d", false));
@@ -78,7 +80,7 @@ public class RelayLogEventCleaner {
                 } catch (Throwable t) {
                     log.error("clean hash log event error!!", t);
                 }
-            }, 1, interval, TimeUnit.MINUTES);
+            }, interval, interval, TimeUnit.SECONDS);
         }
     }
 
@@ -117,8 +119,11 @@ public class RelayLogEventCleaner {
             if (record != null) {
                 String lastTso = record.getLastTso();
                 StoreEngine storeEngine = storeEngines.get(streamSeq);
-                storeEngine.clean(lastTso);
-                log.info("stream : " + streamName + ", relay log event is cleaned which tso is less than " + lastTso);
+                // 检查间隔很短，只在checkpoint推进时投递清理请求，实际的清理由StoreEngine异步合并执行
+                if (!StringUtils.equals(lastTso, publishedTsoMap.put(streamSeq, lastTso))) {
+                    storeEngine.clean(lastTso);
+                    log.info("stream : " + streamName + ", publish relay data clean checkpoint with tso " + lastTso);
+                }
             }
         }
     }
@@ -31,6 +31,7 @@ import com.aliyun.polardbx.binlog.metrics.TransmitMetrics;
 import com.aliyun.polardbx.binlog.protocol.DumpReply;
 import com.aliyun.polardbx.binlog.protocol.EventData;
 import com.aliyun.polardbx.binlog.protocol.MessageType;
+import com.aliyun.polardbx.binlog.protocol.PacketMode;
 import com.aliyun.polardbx.binlog.protocol.TxnItem;
 import com.aliyun.polardbx.binlog.protocol.TxnMessage;
 import com.aliyun.polardbx.binlog.protocol.TxnTag;
@@ -52,7 +53,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.rocksdb.RocksDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,6 +95,7 @@ import static com.aliyun.polardbx.binlog.Constants.VERSION_PATH_PREFIX;
 import static com.aliyun.polardbx.binlog.canal.binlog.LogEvent.TABLE_MAP_EVENT;
 import static com.aliyun.polardbx.binlog.format.utils.BinlogGenerateUtil.getTableIdLength;
 import static com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig.ORIGIN_TSO;
+import static com.aliyun.polardbx.binlog.transmit.MessageBuilder.packetMode;
 import static com.aliyun.polardbx.binlog.transmit.relay.Constants.MDC_STREAM_SEQ;
 import static com.aliyun.polardbx.binlog.transmit.relay.Constants.RELAY_DATA_FORCE_CLEAN_FLAG;
 import static com.aliyun.polardbx.binlog.transmit.relay.RelayKeyUtil.buildMinRelayKeyStr;
@@ -341,7 +342,7 @@ public class RelayLogEventTransmitter implements Transmitter {
                     continue;
                 }
 
-                List<Pair<byte[], byte[]>> dataList = new ArrayList<>();
+                List<RelayRecord> dataList = new ArrayList<>();
                 if (latestFormatDescToken == null) {
                     log.warn("Latest format_desc token is not ready, will try later.");
                     CommonUtils.sleep(1000);
@@ -362,22 +363,28 @@ public class RelayLogEventTransmitter implements Transmitter {
                     continue;
                 }
 
-                for (Pair<byte[], byte[]> pair : dataList) {
+                // 2. 一次读取的数据组装成一个DumpReply发送，BYTES模式下直接引用读取到的数据，不需要再反序列化
+                DumpReply.Builder builder = DumpReply.newBuilder().setPacketMode(packetMode);
+                for (RelayRecord record : dataList) {
                     try {
-                        String tso = new String(pair.getKey());
+                        String tso = new String(record.getKey());
                         if (parsePureTso(tso).compareTo(startTSO) <= 0) {
                             continue;
                         }
 
-                        if (outputStream.tryWait()) {
-                            TxnMessage message = TxnMessage.parseFrom(pair.getValue());
-                            outputStream.onNext(DumpReply.newBuilder().addTxnMessage(message).build());
-                            logReadDetail(streamSeq, tso, message);
+                        if (packetMode == PacketMode.OBJECT) {
+                            builder.addTxnMessage(record.getMessage());
+                        } else {
+                            builder.addTxnMessageBytes(record.getValue());
                         }
+                        logReadDetail(streamSeq, tso, record);
                     } catch (InvalidProtocolBufferException e) {
                         throw new PolardbxException("send data failed", e);
                     }
                 }
+                if (builder.getTxnMessageCount() + builder.getTxnMessageBytesCount() > 0 && outputStream.tryWait()) {
+                    outputStream.onNext(builder.build());
+                }
 
             }
         } finally {
@@ -469,9 +476,11 @@ public class RelayLogEventTransmitter implements Transmitter {
         return null;
     }
 
-    private void logReadDetail(int streamSeq, String keyStr, TxnMessage txnMessage) {
+    private void logReadDetail(int streamSeq, String keyStr, RelayRecord record)
+        throws InvalidProtocolBufferException {
         boolean logDetailEnable = DynamicApplicationConfig.getBoolean(BINLOG_X_TRANSMIT_READ_LOG_DETAIL_ENABLE);
         if (logDetailEnable) {
+            TxnMessage txnMessage = record.getMessage();
             if (txnMessage.getType() == MessageType.WHOLE) {
                 List<TxnItem> txnItems = txnMessage.getTxnData().getTxnItemsList();
                 txnItems.forEach(t -> {
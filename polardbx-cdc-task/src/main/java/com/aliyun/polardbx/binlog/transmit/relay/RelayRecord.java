@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.transmit.relay;
+
+import com.aliyun.polardbx.binlog.protocol.TxnMessage;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.Getter;
+
+/**
+ * relay存储中的一条数据，value为序列化之后的TxnMessage，可能直接引用读缓冲区中的数据，不能修改
+ */
+public class RelayRecord {
+    @Getter
+    private final byte[] key;
+    @Getter
+    private final ByteString value;
+    private TxnMessage message;
+
+    public RelayRecord(byte[] key, ByteString value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * 解码value，解码结果会被缓存，可以提前在解码线程中调用
+     */
+    public TxnMessage getMessage() throws InvalidProtocolBufferException {
+        if (message == null) {
+            message = TxnMessage.parseFrom(value);
+        }
+        return message;
+    }
+}
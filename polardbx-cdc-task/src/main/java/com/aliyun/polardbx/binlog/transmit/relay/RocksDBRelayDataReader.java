@@ -16,6 +16,7 @@ package com.aliyun.polardbx.binlog.transmit.relay;
 
 import com.aliyun.polardbx.binlog.metrics.RelayStreamMetrics;
 import com.aliyun.polardbx.binlog.storage.RepoUnit;
+import com.google.protobuf.UnsafeByteOperations;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.util.Assert;
 
@@ -38,8 +39,9 @@ public class RocksDBRelayDataReader extends RelayDataReaderBase {
     }
 
     @Override
-    public LinkedList<Pair<byte[], byte[]>> getDataInternal(int maxItemSize, long maxByteSize) {
+    public LinkedList<RelayRecord> getDataInternal(int maxItemSize, long maxByteSize) {
         LinkedList<Pair<byte[], byte[]>> dataList = this.repoUnit.getRange(searchFromKey, maxItemSize, maxByteSize);
+        LinkedList<RelayRecord> result = new LinkedList<>();
         if (!dataList.isEmpty()) {
             if (!firstFlag.compareAndSet(true, false)) {
                 Pair<byte[], byte[]> pair = dataList.remove(0);
@@ -49,12 +51,10 @@ public class RocksDBRelayDataReader extends RelayDataReaderBase {
             if (!dataList.isEmpty()) {
                 searchFromKey = dataList.getLast().getKey();
             }
+            for (Pair<byte[], byte[]> pair : dataList) {
+                result.add(new RelayRecord(pair.getKey(), UnsafeByteOperations.unsafeWrap(pair.getValue())));
+            }
         }
-        return dataList;
-    }
-
-    @Override
-    public void close() {
-
+        return result;
     }
 }
@@ -27,7 +27,9 @@ import static com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig.ORIGIN_
  * created by ziyang.lb
  **/
 public class RocksDBStoreEngine extends StoreEngineBase {
+    private static final long MIN_CLEAN_INTERVAL_MS = 60 * 1000;
     private final RepoUnit repoUnit;
+    private long lastCleanTime;
 
     public RocksDBStoreEngine(RepoUnit metaRepoUnit, String persistPath, int streamSeq) {
         super(metaRepoUnit, streamSeq, persistPath);
@@ -54,6 +56,7 @@ public class RocksDBStoreEngine extends StoreEngineBase {
 
     @Override
     public void close() {
+        stopCleaner();
         try {
             this.repoUnit.close();
         } catch (Throwable e) {
@@ -63,11 +66,18 @@ public class RocksDBStoreEngine extends StoreEngineBase {
 
     @SneakyThrows
     @Override
-    protected void cleanInternal(String tso) {
+    protected boolean cleanInternal(String tso) {
+        // 可清理位点推进得很频繁，过于密集的deleteRange会产生大量range tombstone，影响读性能
+        long now = System.currentTimeMillis();
+        if (now - lastCleanTime < MIN_CLEAN_INTERVAL_MS) {
+            return false;
+        }
         metaRepoUnit.put(ByteUtil.bytes(metaStreamMaxCleanTsoKey), ByteUtil.bytes(tso));
         byte[] beginKey = RelayKeyUtil.buildMinRelayKey(ORIGIN_TSO);
         byte[] endKey = RelayKeyUtil.buildMinRelayKey(tso);
         deleteRange(beginKey, endKey);
+        lastCleanTime = now;
+        return true;
     }
 
     @SneakyThrows
@@ -26,13 +26,21 @@ public interface StoreEngine {
 
     String seekMaxTso();
 
+    /**
+     * 发布可清理位点，清理在后台异步执行，多次发布会被合并为一次清理
+     */
     void clean(String tso);
 
     void setOriginStartTso(String tso);
 
     String getOriginStartTso();
 
-    void setMaxReadKey(byte[] key);
+    /**
+     * 读取方(每个连接上来的dumper对应一个reader)每读取一批数据后上报自己的读取位点
+     */
+    void ackReadKey(RelayDataReader reader, byte[] key);
+
+    void removeReader(RelayDataReader reader);
 
     String getMaxCleanTso();
 
@@ -15,6 +15,7 @@
 package com.aliyun.polardbx.binlog.transmit.relay;
 
 import com.aliyun.polardbx.binlog.CommonUtils;
+import com.aliyun.polardbx.binlog.DynamicApplicationConfig;
 import com.aliyun.polardbx.binlog.error.PolardbxException;
 import com.aliyun.polardbx.binlog.metrics.RelayStreamMetrics;
 import com.aliyun.polardbx.binlog.storage.RepoUnit;
@@ -23,9 +24,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.rocksdb.util.ByteUtil;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.aliyun.polardbx.binlog.ConfigKeys.BINLOG_X_CLEAN_RELAY_DATA_CHECK_INTERVAL;
 import static com.aliyun.polardbx.binlog.scheduler.model.ExecutionConfig.ORIGIN_TSO;
+import static io.grpc.internal.GrpcUtil.getThreadFactory;
 
 /**
  * create by ziyang.lb
@@ -43,7 +53,10 @@ public abstract class StoreEngineBase implements StoreEngine {
     protected final String metaStreamMaxCleanTsoKey;
     protected final LockingCleaner lockingCleaner;
     protected final RelayStreamMetrics metrics;
-    protected byte[] maxReadKey;
+    private final Map<RelayDataReader, String> readerTsoMap = new ConcurrentHashMap<>();
+    private final AtomicReference<String> pendingCleanTso = new AtomicReference<>();
+    private final ScheduledExecutorService cleanExecutor;
+    private volatile String lastReadTso = "";
 
     private long lastWriteEvents;
     private long lastWriteBytes;
@@ -57,6 +70,8 @@ public abstract class StoreEngineBase implements StoreEngine {
         this.metaStreamMaxCleanTsoKey = META_KEY_STREAM_MAX_CLEAN_TSO_PREFIX + streamSeq + "_";
         this.lockingCleaner = new LockingCleaner();
         this.metrics = new RelayStreamMetrics(streamSeq);
+        this.cleanExecutor = Executors.newSingleThreadScheduledExecutor(
+            getThreadFactory("relay-data-cleaner-" + streamSeq + "-%d", true));
         RelayStreamMetrics.register(streamSeq, metrics);
     }
 
@@ -89,16 +104,86 @@ public abstract class StoreEngineBase implements StoreEngine {
 
     @Override
     public void clean(String tso) {
-        LockingCleaner.CleanParameter parameter = new LockingCleaner.CleanParameter(tso, getMaxReadTso());
-        lockingCleaner.cleanWithCallback(parameter, () -> {
-            cleanInternal(tso);
-            log.info("relay data is cleaned with checkpoint tso " + tso + ", stream seq " + streamSeq);
-            return null;
-        });
-        metrics.getMinRelayTimestamp().set(CommonUtils.getTsoPhysicalTime(tso, TimeUnit.MILLISECONDS));
+        while (true) {
+            String pending = pendingCleanTso.get();
+            String next = pending == null || tso.compareTo(pending) > 0 ? tso : pending;
+            if (pendingCleanTso.compareAndSet(pending, next)) {
+                // 已经有排队中(或等待重试)的清理任务时只推进位点，不重复提交
+                if (pending == null) {
+                    submitClean(0);
+                }
+                return;
+            }
+        }
     }
 
-    protected abstract void cleanInternal(String tso);
+    private void submitClean(long delaySeconds) {
+        try {
+            cleanExecutor.schedule(this::doClean, delaySeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("relay data cleaner is stopped, stream seq " + streamSeq);
+        }
+    }
+
+    /**
+     * 清理被跳过(reader尚未消费到清理位点、未跨过文件边界或者deleteRange限频)或者失败时，保留待清理位点，
+     * 在下一个检查周期重试；只有清理成功之后才推进minRelayTimestamp
+     */
+    private void doClean() {
+        String tso = pendingCleanTso.get();
+        if (StringUtils.isBlank(tso)) {
+            return;
+        }
+        boolean cleaned = false;
+        try {
+            AtomicBoolean result = new AtomicBoolean(false);
+            LockingCleaner.CleanParameter parameter = new LockingCleaner.CleanParameter(tso, getConsumedTso());
+            lockingCleaner.cleanWithCallback(parameter, () -> {
+                result.set(cleanInternal(tso));
+                return null;
+            });
+            cleaned = result.get();
+            if (cleaned) {
+                log.info("relay data is cleaned with checkpoint tso " + tso + ", stream seq " + streamSeq);
+                metrics.getMinRelayTimestamp().set(CommonUtils.getTsoPhysicalTime(tso, TimeUnit.MILLISECONDS));
+                afterClean();
+            }
+        } catch (Throwable t) {
+            log.error("clean relay data error for stream seq " + streamSeq + ", checkpoint tso " + tso, t);
+        }
+
+        if (!cleaned) {
+            submitClean(Math.max(1, DynamicApplicationConfig.getInt(BINLOG_X_CLEAN_RELAY_DATA_CHECK_INTERVAL)));
+        } else if (!pendingCleanTso.compareAndSet(tso, null)) {
+            // 清理期间有更新的位点到达，已经合并到pendingCleanTso中，需要再提交一次
+            submitClean(0);
+        }
+    }
+
+    /**
+     * 关闭底层存储之前调用，等待正在执行的清理任务结束
+     */
+    protected void stopCleaner() {
+        cleanExecutor.shutdownNow();
+        try {
+            if (!cleanExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("relay data cleaner is not terminated in time, stream seq " + streamSeq);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return 没有可以释放的数据而跳过清理时返回false
+     */
+    protected abstract boolean cleanInternal(String tso);
+
+    /**
+     * 在清理锁之外执行的耗时清理动作，比如删除数据文件
+     */
+    protected void afterClean() {
+    }
 
     @SneakyThrows
     @Override
@@ -121,8 +206,15 @@ public abstract class StoreEngineBase implements StoreEngine {
     }
 
     @Override
-    public void setMaxReadKey(byte[] key) {
-        this.maxReadKey = key;
+    public void ackReadKey(RelayDataReader reader, byte[] key) {
+        String tso = RelayKeyUtil.extractTsoFromKey(key);
+        readerTsoMap.put(reader, tso);
+        lastReadTso = tso;
+    }
+
+    @Override
+    public void removeReader(RelayDataReader reader) {
+        readerTsoMap.remove(reader);
     }
 
     @SneakyThrows
@@ -140,7 +232,16 @@ public abstract class StoreEngineBase implements StoreEngine {
         return lockingCleaner;
     }
 
-    protected String getMaxReadTso() {
-        return (maxReadKey == null || maxReadKey.length == 0) ? "" : RelayKeyUtil.extractTsoFromKey(maxReadKey);
+    /**
+     * 所有在线reader中最小的读取位点，没有在线reader时返回最后一次读取的位点
+     */
+    protected String getConsumedTso() {
+        String result = null;
+        for (String tso : readerTsoMap.values()) {
+            if (result == null || tso.compareTo(result) < 0) {
+                result = tso;
+            }
+        }
+        return result == null ? lastReadTso : result;
     }
 }
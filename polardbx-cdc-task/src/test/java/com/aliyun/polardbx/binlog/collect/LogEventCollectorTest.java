@@ -44,7 +44,8 @@ public class LogEventCollectorTest {
         LogEventStorage storage = new LogEventStorage(null);
         List<TxnToken> tokens = generateTokens(txnCount, partitionCount, storage);
 
-        LogEventCollector collector = new LogEventCollector(storage, null, 65536, taskType, false);
+        LogEventCollector collector = new LogEventCollector(storage, null, 65536, taskType, false,
+            WaitStrategyType.BLOCKING);
         collector.start();
         tokens.forEach(t -> collector.push(t));
         while (true) {
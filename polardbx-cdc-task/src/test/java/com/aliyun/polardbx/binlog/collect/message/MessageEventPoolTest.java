@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.collect.message;
+
+import com.aliyun.polardbx.binlog.protocol.TxnToken;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class MessageEventPoolTest {
+
+    @Test
+    public void testReuse() {
+        MessageEventPool pool = new MessageEventPool(4);
+        MessageEvent first = pool.acquire();
+        first.setToken(TxnToken.newBuilder().setTso("1").build());
+        first.setMemSize(100);
+        pool.release(first);
+
+        // 池中还有3个对象，第4次acquire拿到的是刚刚归还的对象，并且已被清理
+        pool.acquire();
+        pool.acquire();
+        pool.acquire();
+        MessageEvent reused = pool.acquire();
+        Assert.assertSame(first, reused);
+        Assert.assertNull(reused.getToken());
+        Assert.assertEquals(0, reused.getMemSize());
+        Assert.assertTrue(reused.getTxnBuffers().isEmpty());
+
+        // 池子空了之后直接创建新对象
+        Assert.assertNotNull(pool.acquire());
+    }
+
+    @Test
+    public void testCrossThread() throws Exception {
+        MessageEventPool pool = new MessageEventPool(64);
+        BlockingQueue<MessageEvent> queue = new ArrayBlockingQueue<>(16);
+        int count = 100000;
+
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    MessageEvent event = queue.poll(10, TimeUnit.SECONDS);
+                    Assert.assertEquals(String.valueOf(i), event.getToken().getTso());
+                    pool.release(event);
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < count; i++) {
+            MessageEvent event = pool.acquire();
+            Assert.assertNull(event.getToken());
+            event.setToken(TxnToken.newBuilder().setTso(String.valueOf(i)).build());
+            queue.put(event);
+        }
+        consumer.join();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.stress;
+
+import com.aliyun.polardbx.binlog.stress.load.LoadScenario;
+import com.aliyun.polardbx.binlog.stress.load.LoadStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class DecodeMergeLoadSimulatorTest {
+
+    @Test
+    public void testReproducibleRun() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("load.partitions", "3");
+        props.setProperty("load.maxTransactions", "3000");
+        props.setProperty("load.durationSeconds", "0");
+        props.setProperty("load.maxBranches", "3");
+        props.setProperty("load.tableSkew", "1.2");
+        props.setProperty("load.largeTxnRatio", "0.001");
+        props.setProperty("load.largeTxnRows", "500");
+        props.setProperty("load.ddlRatio", "0.01");
+        props.setProperty("load.heartbeatInterval", "100");
+        props.setProperty("load.fetchSize", "65536");
+
+        LoadStats first = new DecodeMergeLoadSimulator(LoadScenario.of(props)).run();
+        LoadStats second = new DecodeMergeLoadSimulator(LoadScenario.of(props)).run();
+
+        // 除了DDL之外的全局事务都应该在归并后完整输出
+        Assert.assertEquals(3000, first.getGlobalTxns().get() + first.getDdls().get() / 3);
+        Assert.assertEquals(30, first.getHeartbeats().get());
+        Assert.assertEquals(first.getEvents().get(), second.getEvents().get());
+        Assert.assertEquals(first.getBytes().get(), second.getBytes().get());
+        Assert.assertEquals(first.getBranches().get(), second.getBranches().get());
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2013-2022, Alibaba Group Holding Limited;
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * </p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aliyun.polardbx.binlog.transmit.relay;
+
+import com.aliyun.polardbx.relay.Message;
+import com.google.protobuf.ByteString;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RelayFileDataReaderTest {
+    private File baseDir;
+    private RelayFileManager relayFileManager;
+    private final Random random = new Random(17);
+
+    @Before
+    public void before() throws IOException {
+        baseDir = Files.createTempDirectory("relay-reader-test").toFile();
+        relayFileManager = new RelayFileManager(baseDir.getAbsolutePath());
+        relayFileManager.init();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    @Test
+    public void testRecordSplitAcrossBlocks() throws IOException {
+        File file = relayFileManager.createFirstRelayFile();
+        List<Message> messages = write(file, 100, 100, 100, 100, 100);
+        int recordSize = RelayFile.HEADER_SIZE + messages.get(0).getSerializedSize();
+
+        // 每个块只能放下两条完整的数据，第三条数据被拆开，剩余部分需要搬到下一个块的开头
+        RelayFileDataReader.FileReader reader = new RelayFileDataReader.FileReader(file, 0, recordSize * 2 + 10);
+        List<Integer> blockSizes = new ArrayList<>();
+        List<RelayRecord> records = readAll(reader, blockSizes);
+        reader.close();
+
+        Assert.assertEquals(Arrays.asList(2, 2, 1), blockSizes);
+        assertRecords(messages, records);
+    }
+
+    @Test
+    public void testRecordLargerThanBlock() throws IOException {
+        File file = relayFileManager.createFirstRelayFile();
+        List<Message> messages = write(file, 50, 4000, 50);
+
+        RelayFileDataReader.FileReader reader = new RelayFileDataReader.FileReader(file, 0, 256);
+        List<Integer> blockSizes = new ArrayList<>();
+        List<RelayRecord> records = readAll(reader, blockSizes);
+        reader.close();
+
+        Assert.assertEquals(Arrays.asList(1, 1, 1), blockSizes);
+        assertRecords(messages, records);
+    }
+
+    @Test
+    public void testRotateToNextFile() throws IOException {
+        File first = relayFileManager.createFirstRelayFile();
+        List<Message> messages = write(first, 100, 200);
+        File second = relayFileManager.getFile(relayFileManager.nextFileName(first.getName()));
+        messages.addAll(write(second, 300));
+
+        RelayFileDataReader.FileReader reader = new RelayFileDataReader.FileReader(first, 0, 1024);
+        List<RelayRecord> records = readAll(reader, new ArrayList<>());
+        // 当前文件仍然在写入时不能切换
+        Assert.assertNull(reader.rotate(relayFileManager, first.getName()));
+
+        RelayFileDataReader.FileReader nextReader = reader.rotate(relayFileManager, second.getName());
+        Assert.assertNotNull(nextReader);
+        Assert.assertEquals(second.getName(), nextReader.file.getName());
+        records.addAll(readAll(nextReader, new ArrayList<>()));
+        Assert.assertNull(nextReader.rotate(relayFileManager, second.getName()));
+        nextReader.close();
+
+        assertRecords(messages, records);
+    }
+
+    private List<Message> write(File file, int... valueSizes) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        RelayFile relayFile = new RelayFile(file, 64, false);
+        relayFile.seekTo(file.length());
+        for (int valueSize : valueSizes) {
+            byte[] value = new byte[valueSize];
+            random.nextBytes(value);
+            Message message = Message.newBuilder()
+                .setKey(ByteString.copyFrom("key-" + messages.size(), StandardCharsets.UTF_8))
+                .setValue(ByteString.copyFrom(value)).build();
+            relayFile.writeData(message.toByteArray());
+            messages.add(message);
+        }
+        relayFile.close();
+        return messages;
+    }
+
+    private List<RelayRecord> readAll(RelayFileDataReader.FileReader reader, List<Integer> blockSizes)
+        throws IOException {
+        List<RelayRecord> records = new ArrayList<>();
+        RelayFileDataReader.Block block;
+        while ((block = reader.readBlock()) != null) {
+            blockSizes.add(block.size());
+            records.addAll(block.decode(false));
+        }
+        Assert.assertTrue(reader.isReadEnd());
+        return records;
+    }
+
+    private void assertRecords(List<Message> expected, List<RelayRecord> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i).getKey().toByteArray(), actual.get(i).getKey());
+            Assert.assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+        }
+    }
+}